@@ -23,5 +23,37 @@ public interface IModel {
 	 * @param argListener
 	 */
 	public abstract void removePropertyChangeListener(PropertyChangeListener argListener);
+	
+	/**
+	 * Adds a property change listener that only gets the events of one property.
+	 * This is faster than filtering on {@link java.beans.PropertyChangeEvent#getPropertyName()},
+	 * as the model only gives each event to the listeners of that property.
+	 * @param argPropertyName
+	 * @param argListener
+	 */
+	public abstract void addPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener);
+	
+	/**
+	 * Removes a property change listener added for one property.
+	 * @param argPropertyName
+	 * @param argListener
+	 */
+	public abstract void removePropertyChangeListener(String argPropertyName, PropertyChangeListener argListener);
+	
+	/**
+	 * Adds a property change listener that's only weakly referenced, so the model doesn't keep
+	 * it (or the view that owns it) from being garbage collected.  It's removed automatically once
+	 * it's collected, or can be removed early with {@link #removePropertyChangeListener(PropertyChangeListener)}.
+	 * @param argListener
+	 */
+	public abstract void addWeakPropertyChangeListener(PropertyChangeListener argListener);
+	
+	/**
+	 * Adds a weakly referenced property change listener that only gets the events of one property.
+	 * @param argPropertyName
+	 * @param argListener
+	 * @see #addWeakPropertyChangeListener(PropertyChangeListener)
+	 */
+	public abstract void addWeakPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener);
 
 }
\ No newline at end of file
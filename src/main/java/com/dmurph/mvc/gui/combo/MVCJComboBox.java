@@ -36,6 +36,7 @@ import java.util.LinkedList;
 import javax.swing.JComboBox;
 
 import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.support.MVCIndexedPropertiesChangedEvent;
 
 /**
  * This class is for having a combo box that will always reflect the data of
@@ -54,30 +55,78 @@ public class MVCJComboBox<E> extends JComboBox {
 	private MVCJComboBoxStyle style;
 	private Comparator<E> comparator = null;
 	
-	private final PropertyChangeListener plistener = new PropertyChangeListener() {
+	// one listener per list event, so the list only sends us the events we handle
+	private final PropertyChangeListener addedListener = new PropertyChangeListener() {
 		@SuppressWarnings("unchecked")
 		public void propertyChange(PropertyChangeEvent argEvt) {
-			String prop = argEvt.getPropertyName();
-			if (prop.equals(MVCArrayList.ADDED)) {
-				add((E)argEvt.getNewValue());
-			}
-			else if(prop.equals(MVCArrayList.ADDED_ALL)){
-				addAll((Collection<E>) argEvt.getNewValue());
-			}
-			else if (prop.equals(MVCArrayList.CHANGED)) {
-				change((E)argEvt.getOldValue(),(E) argEvt.getNewValue());
-			}
-			else if (prop.equals(MVCArrayList.REMOVED)) {
-				remove((E)argEvt.getOldValue());
+			add((E) argEvt.getNewValue());
+		}
+	};
+	
+	private final PropertyChangeListener addedAllListener = new PropertyChangeListener() {
+		@SuppressWarnings("unchecked")
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			addAll((Collection<E>) argEvt.getNewValue());
+		}
+	};
+	
+	private final PropertyChangeListener changedListener = new PropertyChangeListener() {
+		@SuppressWarnings("unchecked")
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			change((E) argEvt.getOldValue(), (E) argEvt.getNewValue());
+		}
+	};
+	
+	private final PropertyChangeListener changedAllListener = new PropertyChangeListener() {
+		@SuppressWarnings("unchecked")
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			MVCIndexedPropertiesChangedEvent evt = (MVCIndexedPropertiesChangedEvent) argEvt;
+			for(int i=0; i<evt.getCount(); i++){
+				change((E) evt.getOldValue(i), (E) evt.getNewValue(i));
 			}
-			else if(prop.equals(MVCArrayList.REMOVED_ALL)){
+		}
+	};
+	
+	private final PropertyChangeListener removedListener = new PropertyChangeListener() {
+		@SuppressWarnings("unchecked")
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			remove((E) argEvt.getOldValue());
+		}
+	};
+	
+	private final PropertyChangeListener removedAllListener = new PropertyChangeListener() {
+		@SuppressWarnings("unchecked")
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			if(((Collection<?>) argEvt.getSource()).isEmpty()){
 				synchronized(lock){
 					model.removeAllElements();
 				}
+			}else{
+				for(E e : (Collection<E>) argEvt.getOldValue()){
+					remove(e);
+				}
 			}
 		}
 	};
 	
+	private void listen(MVCArrayList<E> argData){
+		argData.addPropertyChangeListener(MVCArrayList.ADDED, addedListener);
+		argData.addPropertyChangeListener(MVCArrayList.ADDED_ALL, addedAllListener);
+		argData.addPropertyChangeListener(MVCArrayList.CHANGED, changedListener);
+		argData.addPropertyChangeListener(MVCArrayList.CHANGED_ALL, changedAllListener);
+		argData.addPropertyChangeListener(MVCArrayList.REMOVED, removedListener);
+		argData.addPropertyChangeListener(MVCArrayList.REMOVED_ALL, removedAllListener);
+	}
+	
+	private void stopListening(MVCArrayList<E> argData){
+		argData.removePropertyChangeListener(MVCArrayList.ADDED, addedListener);
+		argData.removePropertyChangeListener(MVCArrayList.ADDED_ALL, addedAllListener);
+		argData.removePropertyChangeListener(MVCArrayList.CHANGED, changedListener);
+		argData.removePropertyChangeListener(MVCArrayList.CHANGED_ALL, changedAllListener);
+		argData.removePropertyChangeListener(MVCArrayList.REMOVED, removedListener);
+		argData.removePropertyChangeListener(MVCArrayList.REMOVED_ALL, removedAllListener);
+	}
+	
 	/**
 	 * Constructs with no data, no filter, no 
 	 * {@link Comparator}, and style set to
@@ -161,7 +210,7 @@ public class MVCJComboBox<E> extends JComboBox {
 		super.setModel(model);
 		
 		if(data != null){
-			argData.addPropertyChangeListener(plistener);
+			listen(argData);
 			// add the data
 			for (E o : data) {
 				if(filter.showItem(o)){
@@ -204,11 +253,11 @@ public class MVCJComboBox<E> extends JComboBox {
 	public void setData(MVCArrayList<E> argData){
 		synchronized (lock) {
 			if(data != null){
-				data.removePropertyChangeListener(plistener);
+				stopListening(data);
 			}
 			data = argData;
 			if(data != null){
-				data.addPropertyChangeListener(plistener);
+				listen(data);
 			}
 		}
 		refreshData();
@@ -303,18 +352,18 @@ public class MVCJComboBox<E> extends JComboBox {
 					if(comparator == null){
 						throw new NullPointerException("DynamicJComboBox style is set to Alpha Sort, but the comparator is null.");
 					}
-					boolean inserted = false;
-					for(int i=0; i<model.getSize(); i++){
-						E e = model.getElementAt(i);
-						if(comparator.compare(e, argNewObj) > 0){
-							model.insertElementAt(argNewObj, i);
-							inserted = true;
-							break;
+					// binary search for the first element greater than the new one
+					int low = 0;
+					int high = model.getSize();
+					while(low < high){
+						int mid = (low + high) >>> 1;
+						if(comparator.compare(model.getElementAt(mid), argNewObj) > 0){
+							high = mid;
+						}else{
+							low = mid + 1;
 						}
 					}
-					if(!inserted){
-						model.addElement(argNewObj);
-					}
+					model.insertElementAt(argNewObj, low);
 					break;
 				}
 				case ADD_NEW_TO_BEGINNING:{
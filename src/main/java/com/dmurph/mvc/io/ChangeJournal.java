@@ -0,0 +1,643 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 8:02:15 AM
+ */
+package com.dmurph.mvc.io;
+
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dmurph.mvc.I18n;
+import com.dmurph.mvc.IFilter;
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.HashModel.PropertyType;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCHashMap;
+import com.dmurph.mvc.model.MVCHashSet;
+import com.dmurph.mvc.support.MVCIndexedPropertiesChangedEvent;
+import com.dmurph.mvc.support.MVCMapChangedEvent;
+import com.dmurph.mvc.support.MVCPropertiesAddedEvent;
+import com.dmurph.mvc.support.MVCPropertiesChangedEvent;
+import com.dmurph.mvc.support.MVCPropertiesRemovedEvent;
+import com.dmurph.mvc.support.MVCPropertyAddedEvent;
+import com.dmurph.mvc.support.MVCPropertyRemovedEvent;
+
+/**
+ * Records the changes to a model in an in-memory, append only journal, so they can be replayed
+ * on another model (like a replica in another process, or the model when the application starts again).
+ * The journal starts with a snapshot of the model, and then the journal listens to the property change
+ * events of the model and appends each change as an entry, written with the {@link ModelOutputStream}
+ * format.  Each entry has its own string and reference tables, so the journal can be read from the
+ * start of any entry.<br/>
+ * <br/>
+ * Positions in the journal are offsets, which only grow.  {@link #getEndOffset()} is the offset of the
+ * next entry, so a reader can remember it and later call {@link #replay(IModel, long)},
+ * {@link #writeTo(OutputStream, long)} or {@link #subscribe(IJournalListener, long)} to get the changes
+ * since then.  {@link #compact()} replaces the entries with a new snapshot of the model.  Reading from an
+ * offset before the snapshot reads the whole snapshot, which replaces the reader's state.<br/>
+ * <br/>
+ * Changes to a {@link HashModel}, {@link MVCArrayList}, {@link MVCHashSet} or {@link MVCHashMap} are
+ * journaled, and the model the changes are replayed on has to be the same kind of model.  Only the
+ * journaled model's own changes are recorded, values in it are written as they are when they're added,
+ * so give each model in a graph its own journal to journal the changes inside the values.
+ * The journal is synchronized.
+ * @author Daniel Murphy
+ * @see MappedModelStore
+ */
+public class ChangeJournal implements Closeable {
+	private static final Logger log = LoggerFactory.getLogger(ChangeJournal.class);
+	
+	private static final int MIN_CAPACITY = 1024;
+	
+	private static final int OP_SET_PROPERTY = 1;
+	private static final int OP_LIST_ADD = 2;
+	private static final int OP_LIST_REMOVE = 3;
+	private static final int OP_LIST_SET = 4;
+	private static final int OP_LIST_REPLACE = 5;
+	private static final int OP_SET_ADD = 6;
+	private static final int OP_SET_REMOVE = 7;
+	private static final int OP_SET_REPLACE = 8;
+	private static final int OP_LIST_REMOVE_ALL = 9;
+	private static final int OP_LIST_SET_ALL = 10;
+	private static final int OP_MAP_PUT = 11;
+	private static final int OP_MAP_REMOVE = 12;
+	private static final int OP_MAP_REPLACE = 13;
+	
+	private final IModel model;
+	private byte[] journal = new byte[MIN_CAPACITY];
+	private int size = 0;
+	private long startOffset = 0;
+	private final ModelOutputStream out;
+	
+	private final ArrayList<IJournalListener> listeners = new ArrayList<IJournalListener>();
+	private IOException failure = null;
+	private boolean closed = false;
+	
+	private final PropertyChangeListener listener = new PropertyChangeListener() {
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			record(argEvt);
+		}
+	};
+	
+	/**
+	 * Starts a journal of the changes to the model, starting with a snapshot of the model.
+	 * @param argModel a {@link HashModel}, {@link MVCArrayList}, {@link MVCHashSet} or {@link MVCHashMap}
+	 * @throws IOException if the snapshot couldn't be written
+	 * @throws IllegalArgumentException if changes to the model can't be journaled
+	 */
+	public ChangeJournal(IModel argModel) throws IOException{
+		if(!(argModel instanceof HashModel || argModel instanceof MVCArrayList<?>
+				|| argModel instanceof MVCHashSet<?> || argModel instanceof MVCHashMap<?, ?>)){
+			throw new IllegalArgumentException(I18n.getText("io.notJournaled", argModel.getClass().getName()));
+		}
+		model = argModel;
+		out = new ModelOutputStream(new JournalOutputStream(), false);
+		synchronized (model) {
+			writeSnapshot();
+			model.addPropertyChangeListener(listener);
+		}
+	}
+	
+	/**
+	 * @return the model being journaled
+	 */
+	public IModel getModel(){
+		return model;
+	}
+	
+	/**
+	 * @return the offset of the first entry in the journal, which is the
+	 * 		   start of the snapshot
+	 */
+	public synchronized long getStartOffset(){
+		return startOffset;
+	}
+	
+	/**
+	 * @return the offset of the end of the journal, where the next entry will
+	 * 		   be appended
+	 */
+	public synchronized long getEndOffset(){
+		return startOffset + size;
+	}
+	
+	/**
+	 * Replaces the entries in the journal with a new snapshot of the model, which
+	 * starts at the current end offset.  If writing an entry failed, this starts
+	 * journaling again.
+	 * @throws IOException if the snapshot couldn't be written
+	 */
+	public void compact() throws IOException{
+		// the model is locked first, as it is when it fires a change
+		synchronized (model) {
+			synchronized (this) {
+				byte[] oldJournal = journal;
+				int oldSize = size;
+				journal = new byte[MIN_CAPACITY];
+				size = 0;
+				try{
+					writeSnapshot();
+				}catch(IOException e){
+					journal = oldJournal;
+					size = oldSize;
+					out.discardBuffer();
+					throw e;
+				}
+				startOffset += oldSize;
+				failure = null;
+			}
+		}
+	}
+	
+	/**
+	 * Replays the entries from the offset on the target.
+	 * @param argTarget the same kind of model as the journaled model
+	 * @param argOffset an offset from this journal, or {@link #getStartOffset()} to replay the whole journal
+	 * @return the end offset, to replay from next time
+	 * @throws IOException if writing an entry failed
+	 * @throws ClassNotFoundException if the class of a value can't be found
+	 * @throws IllegalArgumentException if the offset is past the end of the journal
+	 */
+	public long replay(IModel argTarget, long argOffset) throws IOException, ClassNotFoundException{
+		byte[] entries;
+		long end;
+		synchronized (this) {
+			checkFailure();
+			int position = position(argOffset);
+			entries = copyEntries(position);
+			end = startOffset + size;
+		}
+		replay(new ByteArrayInputStream(entries), argTarget);
+		return end;
+	}
+	
+	/**
+	 * Writes the entries from the offset, so they can be replayed with {@link #replay(InputStream, IModel)}.
+	 * @param argOut
+	 * @param argOffset an offset from this journal, or {@link #getStartOffset()} to write the whole journal
+	 * @return the end offset, to write from next time
+	 * @throws IOException
+	 * @throws IllegalArgumentException if the offset is past the end of the journal
+	 */
+	public synchronized long writeTo(OutputStream argOut, long argOffset) throws IOException{
+		checkFailure();
+		int position = position(argOffset);
+		argOut.write(journal, position, size - position);
+		return startOffset + size;
+	}
+	
+	/**
+	 * Subscribes to the entries appended to the journal.  The listener is called with the
+	 * entries from the offset right away, if there are any.
+	 * @param argListener
+	 * @param argOffset an offset from this journal, or {@link #getStartOffset()} to get the whole journal
+	 * @throws IOException if writing an entry failed
+	 * @throws IllegalArgumentException if the offset is past the end of the journal
+	 */
+	public synchronized void subscribe(IJournalListener argListener, long argOffset) throws IOException{
+		checkFailure();
+		int position = position(argOffset);
+		if(position < size){
+			argListener.entriesAppended(this, copyEntries(position), startOffset + size);
+		}
+		listeners.add(argListener);
+	}
+	
+	/**
+	 * @param argListener
+	 */
+	public synchronized void unsubscribe(IJournalListener argListener){
+		listeners.remove(argListener);
+	}
+	
+	/**
+	 * Stops listening to the model.  The journal can still be read.
+	 * @see java.io.Closeable#close()
+	 */
+	public synchronized void close(){
+		if(closed){
+			return;
+		}
+		closed = true;
+		model.removePropertyChangeListener(listener);
+		listeners.clear();
+	}
+	
+	/**
+	 * Replays entries written by {@link #writeTo(OutputStream, long)} or given to an {@link IJournalListener}
+	 * on the target, until the end of the stream.  Changes to a {@link HashModel} are replayed in an update
+	 * (see {@link HashModel#beginUpdate()}).
+	 * @param argIn
+	 * @param argTarget the same kind of model as the journaled model
+	 * @throws IOException
+	 * @throws ClassNotFoundException if the class of a value can't be found
+	 */
+	public static void replay(InputStream argIn, IModel argTarget) throws IOException, ClassNotFoundException{
+		ModelInputStream in = new ModelInputStream(argIn, false);
+		HashModel hm = argTarget instanceof HashModel ? (HashModel) argTarget : null;
+		if(hm != null){
+			hm.beginUpdate();
+		}
+		try{
+			int op;
+			while((op = in.read()) != -1){
+				in.clearTables();
+				replay(op, in, argTarget);
+			}
+		}finally{
+			if(hm != null){
+				hm.commitUpdate();
+			}
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static void replay(int argOp, ModelInputStream argIn, IModel argTarget) throws IOException, ClassNotFoundException{
+		switch(argOp){
+			case OP_SET_PROPERTY:{
+				String name = argIn.readString();
+				((HashModel) argTarget).setProperty(name, argIn.readObject());
+				break;
+			}
+			case OP_LIST_ADD:{
+				int index = argIn.readVarInt();
+				List<Object> values = readCollection(argIn);
+				if(values.size() == 1){
+					((MVCArrayList<Object>) argTarget).add(index, values.get(0));
+				}else{
+					((MVCArrayList<Object>) argTarget).addAll(index, values);
+				}
+				break;
+			}
+			case OP_LIST_REMOVE:{
+				int index = argIn.readVarInt();
+				int count = argIn.readLength();
+				if(count == 1){
+					((MVCArrayList<Object>) argTarget).remove(index);
+				}else{
+					((MVCArrayList<Object>) argTarget).removeRange(index, index + count);
+				}
+				break;
+			}
+			case OP_LIST_SET:{
+				int index = argIn.readVarInt();
+				((MVCArrayList<Object>) argTarget).set(index, argIn.readObject());
+				break;
+			}
+			case OP_LIST_REMOVE_ALL:{
+				final int[] indexes = argIn.readVarInts(argIn.readLength());
+				((MVCArrayList<Object>) argTarget).removeAllMatching(new IFilter<Object>() {
+					int index = 0;
+					int next = 0;
+					
+					public boolean accept(Object argObject) {
+						boolean remove = next < indexes.length && indexes[next] == index;
+						index++;
+						if(remove){
+							next++;
+						}
+						return remove;
+					}
+				});
+				break;
+			}
+			case OP_LIST_SET_ALL:{
+				MVCArrayList<Object> list = (MVCArrayList<Object>) argTarget;
+				int count = argIn.readLength();
+				for(int i=0; i<count; i++){
+					int index = argIn.readVarInt();
+					list.set(index, argIn.readObject());
+				}
+				break;
+			}
+			case OP_LIST_REPLACE:{
+				MVCArrayList<Object> list = (MVCArrayList<Object>) argTarget;
+				list.clear();
+				list.addAll(readCollection(argIn));
+				break;
+			}
+			case OP_SET_ADD:
+				((MVCHashSet<Object>) argTarget).addAll(readCollection(argIn));
+				break;
+			case OP_SET_REMOVE:
+				((MVCHashSet<Object>) argTarget).removeAll(readCollection(argIn));
+				break;
+			case OP_SET_REPLACE:{
+				MVCHashSet<Object> set = (MVCHashSet<Object>) argTarget;
+				set.clear();
+				set.addAll(readCollection(argIn));
+				break;
+			}
+			case OP_MAP_PUT:
+				((MVCHashMap<Object, Object>) argTarget).putAll(readMap(argIn));
+				break;
+			case OP_MAP_REMOVE:
+				((MVCHashMap<Object, Object>) argTarget).keySet().removeAll(readCollection(argIn));
+				break;
+			case OP_MAP_REPLACE:{
+				MVCHashMap<Object, Object> map = (MVCHashMap<Object, Object>) argTarget;
+				map.clear();
+				map.putAll(readMap(argIn));
+				break;
+			}
+			default:
+				throw new StreamCorruptedException(I18n.getText("io.badTag", argOp+""));
+		}
+	}
+	
+	private static List<Object> readCollection(ModelInputStream argIn) throws IOException, ClassNotFoundException{
+		int size = argIn.readLength();
+		ArrayList<Object> values = new ArrayList<Object>(argIn.getInitialCapacity(size));
+		for(int i=0; i<size; i++){
+			values.add(argIn.readObject());
+		}
+		return values;
+	}
+	
+	private static Map<Object, Object> readMap(ModelInputStream argIn) throws IOException, ClassNotFoundException{
+		int size = argIn.readLength();
+		LinkedHashMap<Object, Object> values = new LinkedHashMap<Object, Object>();
+		for(int i=0; i<size; i++){
+			Object key = argIn.readObject();
+			values.put(key, argIn.readObject());
+		}
+		return values;
+	}
+	
+	private void checkFailure() throws IOException{
+		if(failure != null){
+			throw failure;
+		}
+	}
+	
+	// the position in the journal of the offset
+	private int position(long argOffset){
+		if(argOffset < 0 || argOffset > startOffset + size){
+			throw new IllegalArgumentException(I18n.getText("io.badOffset", argOffset+"", (startOffset + size)+""));
+		}
+		if(argOffset < startOffset){
+			return 0;
+		}
+		return (int) (argOffset - startOffset);
+	}
+	
+	// writes entries that replace the state of a model with the state of the journaled model
+	private void writeSnapshot() throws IOException{
+		if(model instanceof HashModel){
+			HashModel hm = (HashModel) model;
+			for(String name : hm.getPropertyNames()){
+				if(!IModel.DIRTY.equals(name) && hm.getPropertyType(name) == PropertyType.READ_WRITE){
+					writeProperty(name, hm.getProperty(name));
+				}
+			}
+		}else if(model instanceof MVCHashMap<?, ?>){
+			writeOp(OP_MAP_REPLACE);
+			writeMap((Map<?, ?>) model);
+		}else{
+			writeOp(model instanceof MVCArrayList<?> ? OP_LIST_REPLACE : OP_SET_REPLACE);
+			writeCollection((Collection<?>) model);
+		}
+		out.flush();
+	}
+	
+	private synchronized void record(PropertyChangeEvent argEvt){
+		String name = argEvt.getPropertyName();
+		if(closed || failure != null || IModel.DIRTY.equals(name) || MVCArrayList.SIZE.equals(name)
+				|| MVCHashSet.SIZE.equals(name) || MVCHashMap.SIZE.equals(name)){
+			return;
+		}
+		int start = size;
+		try{
+			if(model instanceof HashModel){
+				if(argEvt instanceof MVCPropertiesChangedEvent){
+					MVCPropertiesChangedEvent evt = (MVCPropertiesChangedEvent) argEvt;
+					for(String prop : evt.getPropertyNames()){
+						writeProperty(prop, evt.getNewValue(prop));
+					}
+				}else{
+					writeProperty(name, argEvt.getNewValue());
+				}
+			}else if(model instanceof MVCArrayList<?>){
+				recordList(argEvt);
+			}else if(model instanceof MVCHashSet<?>){
+				recordSet(argEvt);
+			}else{
+				recordMap(argEvt);
+			}
+			out.flush();
+		}catch(IOException e){
+			// drop the partly written entry, and stop until the journal is compacted
+			size = start;
+			out.discardBuffer();
+			failure = e;
+			log.error("Error writing a change to the change journal", e);
+			return;
+		}
+		if(size > start && !listeners.isEmpty()){
+			byte[] entries = copyEntries(start);
+			for(IJournalListener l : listeners.toArray(new IJournalListener[listeners.size()])){
+				l.entriesAppended(this, entries, startOffset + size);
+			}
+		}
+	}
+	
+	// the entries from the position to the end
+	private byte[] copyEntries(int argPosition){
+		byte[] entries = new byte[size - argPosition];
+		System.arraycopy(journal, argPosition, entries, 0, entries.length);
+		return entries;
+	}
+	
+	private void writeProperty(String argName, Object argValue) throws IOException{
+		writeOp(OP_SET_PROPERTY);
+		out.writeString(argName);
+		out.writeObject(argValue);
+	}
+	
+	private void recordList(PropertyChangeEvent argEvt) throws IOException{
+		if(argEvt instanceof MVCPropertyAddedEvent && ((MVCPropertyAddedEvent) argEvt).isIndexed()){
+			writeOp(OP_LIST_ADD);
+			out.writeVarInt(((MVCPropertyAddedEvent) argEvt).getIndex());
+			writeCollection(Collections.singletonList(argEvt.getNewValue()));
+		}else if(argEvt instanceof MVCPropertiesAddedEvent && ((MVCPropertiesAddedEvent) argEvt).isIndexed()){
+			writeOp(OP_LIST_ADD);
+			out.writeVarInt(((MVCPropertiesAddedEvent) argEvt).getStartIndex());
+			writeCollection((Collection<?>) argEvt.getNewValue());
+		}else if(argEvt instanceof MVCPropertyRemovedEvent && ((MVCPropertyRemovedEvent) argEvt).isIndexed()){
+			writeOp(OP_LIST_REMOVE);
+			out.writeVarInt(((MVCPropertyRemovedEvent) argEvt).getIndex());
+			out.writeVarInt(1);
+		}else if(argEvt instanceof MVCPropertiesRemovedEvent && ((MVCPropertiesRemovedEvent) argEvt).isIndexed()){
+			MVCPropertiesRemovedEvent evt = (MVCPropertiesRemovedEvent) argEvt;
+			if(evt.isContiguous()){
+				writeOp(OP_LIST_REMOVE);
+				out.writeVarInt(evt.getStartIndex());
+				out.writeVarInt(((Collection<?>) evt.getOldValue()).size());
+			}else{
+				int[] indexes = evt.getIndexes();
+				writeOp(OP_LIST_REMOVE_ALL);
+				out.writeVarInt(indexes.length);
+				for(int index : indexes){
+					out.writeVarInt(index);
+				}
+			}
+		}else if(argEvt instanceof MVCIndexedPropertiesChangedEvent){
+			MVCIndexedPropertiesChangedEvent evt = (MVCIndexedPropertiesChangedEvent) argEvt;
+			writeOp(OP_LIST_SET_ALL);
+			out.writeVarInt(evt.getCount());
+			for(int i=0; i<evt.getCount(); i++){
+				out.writeVarInt(evt.getIndex(i));
+				out.writeObject(evt.getNewValue(i));
+			}
+		}else if(MVCArrayList.CHANGED.equals(argEvt.getPropertyName()) && argEvt instanceof IndexedPropertyChangeEvent){
+			writeOp(OP_LIST_SET);
+			out.writeVarInt(((IndexedPropertyChangeEvent) argEvt).getIndex());
+			out.writeObject(argEvt.getNewValue());
+		}else{
+			// don't know what changed, write the whole list
+			writeOp(OP_LIST_REPLACE);
+			writeCollection((Collection<?>) model);
+		}
+	}
+	
+	private void recordSet(PropertyChangeEvent argEvt) throws IOException{
+		if(argEvt instanceof MVCPropertyAddedEvent){
+			writeOp(OP_SET_ADD);
+			writeCollection(Collections.singletonList(argEvt.getNewValue()));
+		}else if(argEvt instanceof MVCPropertiesAddedEvent){
+			writeOp(OP_SET_ADD);
+			writeCollection((Collection<?>) argEvt.getNewValue());
+		}else if(argEvt instanceof MVCPropertyRemovedEvent){
+			writeOp(OP_SET_REMOVE);
+			writeCollection(Collections.singletonList(argEvt.getOldValue()));
+		}else if(argEvt instanceof MVCPropertiesRemovedEvent){
+			writeOp(OP_SET_REMOVE);
+			writeCollection((Collection<?>) argEvt.getOldValue());
+		}else{
+			writeOp(OP_SET_REPLACE);
+			writeCollection((Collection<?>) model);
+		}
+	}
+	
+	private void recordMap(PropertyChangeEvent argEvt) throws IOException{
+		if(!(argEvt instanceof MVCMapChangedEvent)){
+			writeOp(OP_MAP_REPLACE);
+			writeMap((Map<?, ?>) model);
+			return;
+		}
+		MVCMapChangedEvent evt = (MVCMapChangedEvent) argEvt;
+		LinkedHashMap<Object, Object> put = new LinkedHashMap<Object, Object>();
+		ArrayList<Object> removed = new ArrayList<Object>();
+		for(Object key : evt.getKeys()){
+			if(evt.isPresent(key)){
+				put.put(key, evt.getNewValue(key));
+			}else{
+				removed.add(key);
+			}
+		}
+		if(!put.isEmpty()){
+			writeOp(OP_MAP_PUT);
+			writeMap(put);
+		}
+		if(!removed.isEmpty()){
+			writeOp(OP_MAP_REMOVE);
+			writeCollection(removed);
+		}
+	}
+	
+	// starts an entry, which has its own string and reference tables
+	private void writeOp(int argOp) throws IOException{
+		out.clearTables();
+		out.write(argOp);
+	}
+	
+	private void writeCollection(Collection<?> argValues) throws IOException{
+		Object[] values = argValues.toArray();
+		out.writeVarInt(values.length);
+		for(Object o : values){
+			out.writeObject(o);
+		}
+	}
+	
+	private void writeMap(Map<?, ?> argValues) throws IOException{
+		Object[] entries = argValues.entrySet().toArray();
+		out.writeVarInt(entries.length);
+		for(Object o : entries){
+			Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+			out.writeObject(entry.getKey());
+			out.writeObject(entry.getValue());
+		}
+	}
+	
+	/**
+	 * Appends to the journal, growing it when it's full.
+	 */
+	private class JournalOutputStream extends OutputStream {
+		
+		private void ensureCapacity(int argLength) throws IOException{
+			if(journal.length - size >= argLength){
+				return;
+			}
+			long capacity = journal.length;
+			while(capacity < (long) size + argLength){
+				capacity *= 2;
+			}
+			if(capacity > Integer.MAX_VALUE){
+				throw new IOException(I18n.getText("io.journalFull"));
+			}
+			byte[] grown = new byte[(int) capacity];
+			System.arraycopy(journal, 0, grown, 0, size);
+			journal = grown;
+		}
+		
+		@Override
+		public void write(int argByte) throws IOException {
+			ensureCapacity(1);
+			journal[size++] = (byte) argByte;
+		}
+		
+		@Override
+		public void write(byte[] argBytes, int argOffset, int argLength) throws IOException {
+			ensureCapacity(argLength);
+			System.arraycopy(argBytes, argOffset, journal, size, argLength);
+			size += argLength;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 6:02:37 PM
+ */
+package com.dmurph.mvc.io;
+
+import java.io.IOException;
+
+/**
+ * Lets an object write itself to a {@link ModelOutputStream} and read itself back
+ * from a {@link ModelInputStream}.  Objects are constructed with their no-argument
+ * constructor (which can be private) before {@link #readBinary(ModelInputStream)}
+ * is called, and the class name is written to the stream, so classes should
+ * not be renamed if they have been written.
+ * @author Daniel Murphy
+ */
+public interface IBinaryStreamable {
+	
+	/**
+	 * Writes this object to the stream.
+	 * @param argOut
+	 * @throws IOException
+	 */
+	public void writeBinary(ModelOutputStream argOut) throws IOException;
+	
+	/**
+	 * Reads this object from the stream, in the same order it was written in
+	 * {@link #writeBinary(ModelOutputStream)}.  This object is already registered with the
+	 * stream, so objects read here that reference this object get this object.
+	 * @param argIn
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	public void readBinary(ModelInputStream argIn) throws IOException, ClassNotFoundException;
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 8:14:37 AM
+ */
+package com.dmurph.mvc.io;
+
+/**
+ * Listens to the entries appended to a {@link ChangeJournal}, like to send them to a replica
+ * of the model in another process.
+ * @author Daniel Murphy
+ * @see ChangeJournal#subscribe(IJournalListener, long)
+ */
+public interface IJournalListener {
+	
+	/**
+	 * Called with the entries appended to the journal, on the thread that changed the model
+	 * and while the journal is locked, so this shouldn't block.
+	 * @param argJournal
+	 * @param argEntries the entries, which can be replayed with {@link ChangeJournal#replay(java.io.InputStream, com.dmurph.mvc.IModel)}
+	 * @param argEndOffset the offset of the end of the entries, to subscribe from later
+	 */
+	public void entriesAppended(ChangeJournal argJournal, byte[] argEntries, long argEndOffset);
+}
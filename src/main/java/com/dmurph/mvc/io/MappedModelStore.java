@@ -0,0 +1,625 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 8:04:51 PM
+ */
+package com.dmurph.mvc.io;
+
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dmurph.mvc.I18n;
+import com.dmurph.mvc.IFilter;
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.IRevertible;
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCHashSet;
+import com.dmurph.mvc.support.MVCIndexedPropertiesChangedEvent;
+import com.dmurph.mvc.support.MVCPropertiesAddedEvent;
+import com.dmurph.mvc.support.MVCPropertiesChangedEvent;
+import com.dmurph.mvc.support.MVCPropertiesRemovedEvent;
+import com.dmurph.mvc.support.MVCPropertyAddedEvent;
+import com.dmurph.mvc.support.MVCPropertyRemovedEvent;
+
+/**
+ * Persists a graph of models to a memory mapped, append only log file.  The log starts with a
+ * snapshot of the whole graph (see {@link ModelOutputStream}), and after that the store listens to
+ * the property change events of the models in the graph and appends each change to the log, so
+ * saving a change only writes the change instead of the whole graph.  When the store is opened
+ * again, the snapshot is read and the changes are replayed on it to get the graph back.<br/>
+ * <br/>
+ * Each change is committed by updating the end of the log in the file header after it's written,
+ * so if the process dies while writing a change, only that change is lost.  Changes are written to
+ * the mapped file, so they survive the process dying, but call {@link #sync()} to make sure they're
+ * on disk.  When the changes get bigger than the snapshot times the compaction threshold (see
+ * {@link #setCompactionThreshold(double)}), the graph is written to a new log which replaces the old one.<br/>
+ * <br/>
+ * The log refers back to the models it has written, so they're remembered until the log is compacted, and
+ * models removed from the graph are listened to until then as well.  So that removed models aren't kept
+ * forever, the log is also compacted when the number of objects and strings it remembers has doubled since
+ * the snapshot.<br/>
+ * <br/>
+ * Changes to {@link HashModel}, {@link MVCArrayList} and {@link MVCHashSet} are recorded.  Other
+ * objects in the graph are written as they are when they're added, and again when the log is compacted.
+ * When a model stops being dirty, because its changes were saved or reverted, the log records that
+ * it was saved, so the recovered model isn't dirty and reverts to the same values.
+ * The store is synchronized, but the models should be changed from one thread (like the MVC thread),
+ * as the store locks the models to write them while it's locked itself.
+ * @author Daniel Murphy
+ */
+public class MappedModelStore implements Closeable {
+	private static final Logger log = LoggerFactory.getLogger(MappedModelStore.class);
+	
+	private static final int MAGIC = 0x4A534D53; // "JSMS"
+	private static final int VERSION = 1;
+	private static final int END_OFFSET = 8;
+	private static final int HEADER_SIZE = 16;
+	private static final int MIN_CAPACITY = 64 * 1024;
+	private static final int MIN_COMPACT_SIZE = 64 * 1024;
+	private static final int MIN_COMPACT_TABLE_SIZE = 1024;
+	
+	private static final int OP_SET_PROPERTY = 1;
+	private static final int OP_LIST_ADD = 2;
+	private static final int OP_LIST_REMOVE = 3;
+	private static final int OP_LIST_SET = 4;
+	private static final int OP_LIST_REPLACE = 5;
+	private static final int OP_SET_ADD = 6;
+	private static final int OP_SET_REMOVE = 7;
+	private static final int OP_SET_REPLACE = 8;
+	private static final int OP_LIST_REMOVE_ALL = 9;
+	private static final int OP_LIST_SET_ALL = 10;
+	private static final int OP_SAVE = 11;
+	
+	private final File file;
+	private RandomAccessFile raf = null;
+	private MappedByteBuffer buffer = null;
+	private ModelOutputStream out = null;
+	private int snapshotEnd = HEADER_SIZE;
+	private int snapshotTableSize = 0;
+	
+	private IModel root = null;
+	private final IdentityHashMap<IModel, Boolean> models = new IdentityHashMap<IModel, Boolean>();
+	private double compactionThreshold = 2;
+	private IOException failure = null;
+	private boolean closed = false;
+	
+	private final PropertyChangeListener listener = new PropertyChangeListener() {
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			record(argEvt);
+		}
+	};
+	
+	/**
+	 * Opens a store.  If the file exists, the graph is read from it (see {@link #getRoot()}),
+	 * and the log is compacted.
+	 * @param argFile
+	 * @throws IOException
+	 * @throws ClassNotFoundException if the class of an object in the log can't be found
+	 */
+	public MappedModelStore(File argFile) throws IOException, ClassNotFoundException{
+		file = argFile;
+		if(file.exists() && file.length() > 0){
+			root = recover();
+			if(root != null){
+				compact();
+			}
+		}
+	}
+	
+	/**
+	 * @return the root of the graph, or null if it hasn't been set
+	 */
+	public synchronized IModel getRoot(){
+		return root;
+	}
+	
+	/**
+	 * Sets the root of the graph, and writes a snapshot of it.
+	 * @param argRoot
+	 * @throws IOException
+	 */
+	public synchronized void setRoot(IModel argRoot) throws IOException{
+		checkOpen();
+		root = argRoot;
+		compact();
+	}
+	
+	/**
+	 * The log is compacted when the changes written since the snapshot get bigger than the snapshot
+	 * times this threshold.  Defaults to 2.
+	 * @param argThreshold
+	 */
+	public synchronized void setCompactionThreshold(double argThreshold){
+		compactionThreshold = argThreshold;
+	}
+	
+	/**
+	 * @return
+	 * @see #setCompactionThreshold(double)
+	 */
+	public synchronized double getCompactionThreshold(){
+		return compactionThreshold;
+	}
+	
+	/**
+	 * @return the size of the log, in bytes
+	 */
+	public synchronized int getLogSize(){
+		return buffer == null ? 0 : (int) buffer.getLong(END_OFFSET);
+	}
+	
+	/**
+	 * Writes the whole graph to a new log, which replaces the current one.
+	 * @throws IOException
+	 */
+	public synchronized void compact() throws IOException{
+		checkOpen();
+		for(IModel model : models.keySet()){
+			model.removePropertyChangeListener(listener);
+		}
+		models.clear();
+		if(root == null){
+			return;
+		}
+		
+		RandomAccessFile oldRaf = raf;
+		File temp = new File(file.getPath() + ".tmp");
+		temp.delete();
+		raf = new RandomAccessFile(temp, "rw");
+		buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, MIN_CAPACITY);
+		buffer.putInt(0, MAGIC);
+		buffer.putInt(4, VERSION);
+		buffer.position(HEADER_SIZE);
+		out = new ModelOutputStream(new MappedOutputStream());
+		out.writeObject(root);
+		out.flush();
+		commit();
+		buffer.force();
+		snapshotEnd = buffer.position();
+		snapshotTableSize = out.getTableSize();
+		
+		if(oldRaf != null){
+			oldRaf.close();
+		}
+		if(!temp.renameTo(file)){
+			file.delete();
+			if(!temp.renameTo(file)){
+				throw new IOException(I18n.getText("io.renaming", temp.getPath(), file.getPath()));
+			}
+		}
+		listen(root);
+	}
+	
+	/**
+	 * Forces the changes to be written to disk.
+	 * @throws IOException if writing a change failed
+	 */
+	public synchronized void sync() throws IOException{
+		if(failure != null){
+			throw failure;
+		}
+		if(buffer != null){
+			buffer.force();
+		}
+	}
+	
+	/**
+	 * Stops listening to the models, and closes the file.
+	 * @see java.io.Closeable#close()
+	 */
+	public synchronized void close() throws IOException{
+		if(closed){
+			return;
+		}
+		for(IModel model : models.keySet()){
+			model.removePropertyChangeListener(listener);
+		}
+		models.clear();
+		closed = true;
+		try{
+			sync();
+		}finally{
+			buffer = null;
+			out = null;
+			if(raf != null){
+				raf.close();
+			}
+		}
+	}
+	
+	private void checkOpen() throws IOException{
+		if(closed){
+			throw new IOException(I18n.getText("io.closed"));
+		}
+	}
+	
+	// writes the end of the log to the header
+	private void commit(){
+		buffer.putLong(END_OFFSET, buffer.position());
+	}
+	
+	private IModel recover() throws IOException, ClassNotFoundException{
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try{
+			ByteBuffer bytes = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+			if(bytes.limit() < HEADER_SIZE || bytes.getInt(0) != MAGIC){
+				throw new StreamCorruptedException(I18n.getText("io.badHeader"));
+			}
+			if(bytes.getInt(4) > VERSION){
+				throw new StreamCorruptedException(I18n.getText("io.badVersion", bytes.getInt(4)+""));
+			}
+			long end = bytes.getLong(END_OFFSET);
+			if(end <= HEADER_SIZE){
+				return null;
+			}
+			if(end > bytes.limit()){
+				throw new StreamCorruptedException(I18n.getText("io.badHeader"));
+			}
+			bytes.position(HEADER_SIZE);
+			bytes.limit((int) end);
+			ModelInputStream mis = new ModelInputStream(new ByteBufferInputStream(bytes));
+			IModel model = (IModel) mis.readObject();
+			while(mis.available() > 0){
+				replay(mis);
+			}
+			return model;
+		}finally{
+			in.close();
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void replay(ModelInputStream argIn) throws IOException, ClassNotFoundException{
+		int op = argIn.readVarInt();
+		Object node = argIn.readObject();
+		switch(op){
+			case OP_SET_PROPERTY:{
+				String name = argIn.readString();
+				((HashModel) node).setProperty(name, argIn.readObject());
+				break;
+			}
+			case OP_LIST_ADD:{
+				int index = argIn.readVarInt();
+				((MVCArrayList<Object>) node).addAll(index, readCollection(argIn));
+				break;
+			}
+			case OP_LIST_REMOVE:{
+				MVCArrayList<Object> list = (MVCArrayList<Object>) node;
+				int index = argIn.readVarInt();
+				int count = argIn.readLength();
+				list.removeRange(index, index + count);
+				break;
+			}
+			case OP_LIST_SET:{
+				int index = argIn.readVarInt();
+				((MVCArrayList<Object>) node).set(index, argIn.readObject());
+				break;
+			}
+			case OP_LIST_REMOVE_ALL:{
+				final int[] indexes = argIn.readVarInts(argIn.readLength());
+				((MVCArrayList<Object>) node).removeAllMatching(new IFilter<Object>() {
+					int index = 0;
+					int next = 0;
+					
+					public boolean accept(Object argObject) {
+						boolean remove = next < indexes.length && indexes[next] == index;
+						index++;
+						if(remove){
+							next++;
+						}
+						return remove;
+					}
+				});
+				break;
+			}
+			case OP_LIST_SET_ALL:{
+				MVCArrayList<Object> list = (MVCArrayList<Object>) node;
+				int count = argIn.readLength();
+				for(int i=0; i<count; i++){
+					int index = argIn.readVarInt();
+					list.set(index, argIn.readObject());
+				}
+				break;
+			}
+			case OP_LIST_REPLACE:{
+				MVCArrayList<Object> list = (MVCArrayList<Object>) node;
+				list.clear();
+				list.addAll(readCollection(argIn));
+				break;
+			}
+			case OP_SAVE:
+				((IRevertible) node).saveChanges();
+				break;
+			case OP_SET_ADD:
+				((MVCHashSet<Object>) node).addAll(readCollection(argIn));
+				break;
+			case OP_SET_REMOVE:
+				for(Object o : readCollection(argIn)){
+					((MVCHashSet<Object>) node).remove(o);
+				}
+				break;
+			case OP_SET_REPLACE:{
+				MVCHashSet<Object> set = (MVCHashSet<Object>) node;
+				set.clear();
+				set.addAll(readCollection(argIn));
+				break;
+			}
+			default:
+				throw new StreamCorruptedException(I18n.getText("io.badTag", op+""));
+		}
+	}
+	
+	private static List<Object> readCollection(ModelInputStream argIn) throws IOException, ClassNotFoundException{
+		int size = argIn.readLength();
+		ArrayList<Object> values = new ArrayList<Object>(argIn.getInitialCapacity(size));
+		for(int i=0; i<size; i++){
+			values.add(argIn.readObject());
+		}
+		return values;
+	}
+	
+	// listens to the model and everything in it
+	private void listen(Object argObject){
+		if(!(argObject instanceof HashModel || argObject instanceof MVCArrayList<?> || argObject instanceof MVCHashSet<?>)){
+			return;
+		}
+		IModel model = (IModel) argObject;
+		if(models.containsKey(model)){
+			return;
+		}
+		models.put(model, Boolean.TRUE);
+		model.addPropertyChangeListener(listener);
+		if(model instanceof HashModel){
+			HashModel hm = (HashModel) model;
+			for(String name : hm.getPropertyNames()){
+				listen(hm.getProperty(name));
+			}
+		}else{
+			for(Object o : ((Collection<?>) model).toArray()){
+				listen(o);
+			}
+		}
+	}
+	
+	private synchronized void record(PropertyChangeEvent argEvt){
+		String name = argEvt.getPropertyName();
+		if(closed || failure != null || MVCArrayList.SIZE.equals(name)){
+			return;
+		}
+		if(IModel.DIRTY.equals(name) && !Boolean.FALSE.equals(argEvt.getNewValue())){
+			return;
+		}
+		Object source = argEvt.getSource();
+		try{
+			if(IModel.DIRTY.equals(name)){
+				writeOp(OP_SAVE, source);
+			}else if(source instanceof HashModel){
+				if(argEvt instanceof MVCPropertiesChangedEvent){
+					MVCPropertiesChangedEvent evt = (MVCPropertiesChangedEvent) argEvt;
+					for(String prop : evt.getPropertyNames()){
+						writeProperty(source, prop, evt.getNewValue(prop));
+					}
+				}else{
+					writeProperty(source, name, argEvt.getNewValue());
+				}
+			}else if(source instanceof MVCArrayList<?>){
+				recordList((MVCArrayList<?>) source, argEvt);
+			}else if(source instanceof MVCHashSet<?>){
+				recordSet((MVCHashSet<?>) source, argEvt);
+			}else{
+				return;
+			}
+			out.flush();
+			commit();
+			int changes = buffer.position() - snapshotEnd;
+			if(changes > MIN_COMPACT_SIZE && changes > (snapshotEnd - HEADER_SIZE) * compactionThreshold){
+				compact();
+			}else if(out.getTableSize() > Math.max(MIN_COMPACT_TABLE_SIZE, snapshotTableSize * 2)){
+				// forget the models that aren't in the graph anymore
+				compact();
+			}
+		}catch(IOException e){
+			failure = e;
+			log.error("Error writing a change to the model store '"+file+"'", e);
+		}
+	}
+	
+	private void writeProperty(Object argModel, String argName, Object argValue) throws IOException{
+		out.writeVarInt(OP_SET_PROPERTY);
+		out.writeObject(argModel);
+		out.writeString(argName);
+		out.writeObject(argValue);
+		listen(argValue);
+	}
+	
+	private void recordList(MVCArrayList<?> argList, PropertyChangeEvent argEvt) throws IOException{
+		if(argEvt instanceof MVCPropertyAddedEvent && ((MVCPropertyAddedEvent) argEvt).isIndexed()){
+			writeOp(OP_LIST_ADD, argList);
+			out.writeVarInt(((MVCPropertyAddedEvent) argEvt).getIndex());
+			writeCollection(Collections.singletonList(argEvt.getNewValue()));
+		}else if(argEvt instanceof MVCPropertiesAddedEvent && ((MVCPropertiesAddedEvent) argEvt).isIndexed()){
+			writeOp(OP_LIST_ADD, argList);
+			out.writeVarInt(((MVCPropertiesAddedEvent) argEvt).getStartIndex());
+			writeCollection((Collection<?>) argEvt.getNewValue());
+		}else if(argEvt instanceof MVCPropertyRemovedEvent && ((MVCPropertyRemovedEvent) argEvt).isIndexed()){
+			writeOp(OP_LIST_REMOVE, argList);
+			out.writeVarInt(((MVCPropertyRemovedEvent) argEvt).getIndex());
+			out.writeVarInt(1);
+		}else if(argEvt instanceof MVCPropertiesRemovedEvent && ((MVCPropertiesRemovedEvent) argEvt).isIndexed()){
+			MVCPropertiesRemovedEvent evt = (MVCPropertiesRemovedEvent) argEvt;
+			if(evt.isContiguous()){
+				writeOp(OP_LIST_REMOVE, argList);
+				out.writeVarInt(evt.getStartIndex());
+				out.writeVarInt(((Collection<?>) evt.getOldValue()).size());
+			}else{
+				int[] indexes = evt.getIndexes();
+				writeOp(OP_LIST_REMOVE_ALL, argList);
+				out.writeVarInt(indexes.length);
+				for(int index : indexes){
+					out.writeVarInt(index);
+				}
+			}
+		}else if(argEvt instanceof MVCIndexedPropertiesChangedEvent){
+			MVCIndexedPropertiesChangedEvent evt = (MVCIndexedPropertiesChangedEvent) argEvt;
+			writeOp(OP_LIST_SET_ALL, argList);
+			out.writeVarInt(evt.getCount());
+			for(int i=0; i<evt.getCount(); i++){
+				out.writeVarInt(evt.getIndex(i));
+				out.writeObject(evt.getNewValue(i));
+			}
+			for(int i=0; i<evt.getCount(); i++){
+				listen(evt.getNewValue(i));
+			}
+		}else if(MVCArrayList.CHANGED.equals(argEvt.getPropertyName()) && argEvt instanceof IndexedPropertyChangeEvent){
+			writeOp(OP_LIST_SET, argList);
+			out.writeVarInt(((IndexedPropertyChangeEvent) argEvt).getIndex());
+			out.writeObject(argEvt.getNewValue());
+			listen(argEvt.getNewValue());
+		}else{
+			// don't know what changed, write the whole list
+			writeOp(OP_LIST_REPLACE, argList);
+			writeCollection(argList);
+		}
+	}
+	
+	private void recordSet(MVCHashSet<?> argSet, PropertyChangeEvent argEvt) throws IOException{
+		String name = argEvt.getPropertyName();
+		if(MVCHashSet.ADDED.equals(name)){
+			writeOp(OP_SET_ADD, argSet);
+			writeCollection(Collections.singletonList(argEvt.getNewValue()));
+		}else if(MVCHashSet.ADDED_ALL.equals(name)){
+			writeOp(OP_SET_ADD, argSet);
+			writeCollection((Collection<?>) argEvt.getNewValue());
+		}else if(MVCHashSet.REMOVED.equals(name)){
+			writeOp(OP_SET_REMOVE, argSet);
+			writeCollection(Collections.singletonList(argEvt.getOldValue()));
+		}else if(MVCHashSet.REMOVED_ALL.equals(name)){
+			writeOp(OP_SET_REMOVE, argSet);
+			writeCollection((Collection<?>) argEvt.getOldValue());
+		}else{
+			writeOp(OP_SET_REPLACE, argSet);
+			writeCollection(argSet);
+		}
+	}
+	
+	private void writeOp(int argOp, Object argNode) throws IOException{
+		out.writeVarInt(argOp);
+		out.writeObject(argNode);
+	}
+	
+	private void writeCollection(Collection<?> argValues) throws IOException{
+		Object[] values = argValues.toArray();
+		out.writeVarInt(values.length);
+		for(Object o : values){
+			out.writeObject(o);
+		}
+		for(Object o : values){
+			listen(o);
+		}
+	}
+	
+	/**
+	 * Writes to the mapped file, mapping more of the file when it's full.
+	 */
+	private class MappedOutputStream extends OutputStream {
+		
+		private void ensureCapacity(int argLength) throws IOException{
+			if(buffer.remaining() >= argLength){
+				return;
+			}
+			long needed = (long) buffer.position() + argLength;
+			long capacity = buffer.capacity();
+			while(capacity < needed){
+				capacity *= 2;
+			}
+			if(capacity > Integer.MAX_VALUE){
+				throw new IOException(I18n.getText("io.storeFull"));
+			}
+			int position = buffer.position();
+			buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+			buffer.position(position);
+		}
+		
+		@Override
+		public void write(int argByte) throws IOException {
+			ensureCapacity(1);
+			buffer.put((byte) argByte);
+		}
+		
+		@Override
+		public void write(byte[] argBytes, int argOffset, int argLength) throws IOException {
+			ensureCapacity(argLength);
+			buffer.put(argBytes, argOffset, argLength);
+		}
+	}
+	
+	private static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer bytes;
+		
+		public ByteBufferInputStream(ByteBuffer argBytes){
+			bytes = argBytes;
+		}
+		
+		@Override
+		public int read() throws IOException {
+			if(!bytes.hasRemaining()){
+				return -1;
+			}
+			return bytes.get() & 0xFF;
+		}
+		
+		@Override
+		public int read(byte[] argBytes, int argOffset, int argLength) throws IOException {
+			if(!bytes.hasRemaining()){
+				return -1;
+			}
+			int read = Math.min(argLength, bytes.remaining());
+			bytes.get(argBytes, argOffset, read);
+			return read;
+		}
+		
+		@Override
+		public int available() throws IOException {
+			return bytes.remaining();
+		}
+	}
+}
@@ -0,0 +1,492 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 6:34:20 PM
+ */
+package com.dmurph.mvc.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+
+import com.dmurph.mvc.I18n;
+import com.dmurph.mvc.MVCEvent;
+import com.dmurph.mvc.ObjectEvent;
+import com.dmurph.mvc.StringEvent;
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCHashSet;
+
+/**
+ * Reads graphs of models written by a {@link ModelOutputStream}.  Models are read without
+ * firing any property change events, and objects that were shared in the written graph
+ * are shared in the read graph.  The ids of events aren't written, so events
+ * read from the stream have new ids.<br/>
+ * <br/>
+ * Every read has to match the write, so if {@link ModelOutputStream#writeString(String)} was
+ * called, {@link #readString()} has to be called at the same point in the stream.<br/>
+ * <br/>
+ * Lengths read from a corrupt stream can be anything, so arrays and collections aren't allocated
+ * with the length read.  They start no bigger than the bytes that can be read without blocking
+ * (see {@link #getInitialCapacity(int)}), and grow as the elements are read, so corrupt input
+ * ends with an {@link EOFException} instead of a huge allocation.
+ * This class is not thread safe.
+ * @author Daniel Murphy
+ */
+public class ModelInputStream extends InputStream implements ModelStreamConstants {
+	
+	private final InputStream in;
+	private final byte[] buffer = new byte[8192];
+	private int position = 0;
+	private int limit = 0;
+	
+	private final ArrayList<String> strings = new ArrayList<String>();
+	private final ArrayList<Object> references = new ArrayList<Object>();
+	
+	// biggest array allocated ahead of the bytes being available
+	private static final int MAX_CHUNK = 64 * 1024;
+	
+	/**
+	 * Constructs a model input stream, and reads the stream header.
+	 * @param argIn
+	 * @throws IOException
+	 * @throws StreamCorruptedException if the stream wasn't written by a {@link ModelOutputStream},
+	 * 			or was written by a newer version.
+	 */
+	public ModelInputStream(InputStream argIn) throws IOException{
+		this(argIn, true);
+	}
+	
+	/**
+	 * Constructs a model input stream, for a stream that may have been written without
+	 * the header.
+	 * @param argIn
+	 * @param argHeader if the stream header should be read
+	 * @throws IOException
+	 * @throws StreamCorruptedException if the header is wrong
+	 * @see ModelOutputStream#ModelOutputStream(java.io.OutputStream, boolean)
+	 */
+	ModelInputStream(InputStream argIn, boolean argHeader) throws IOException{
+		in = argIn;
+		if(!argHeader){
+			return;
+		}
+		int magic = (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+		if(magic != MAGIC){
+			throw new StreamCorruptedException(I18n.getText("io.badHeader"));
+		}
+		int version = readByte();
+		if(version > VERSION){
+			throw new StreamCorruptedException(I18n.getText("io.badVersion", version+""));
+		}
+	}
+	
+	/**
+	 * Reads an object written with {@link ModelOutputStream#writeObject(Object)}.
+	 * @return
+	 * @throws IOException
+	 * @throws ClassNotFoundException if the class of an object can't be found
+	 */
+	public Object readObject() throws IOException, ClassNotFoundException{
+		int tag = readByte();
+		while(tag == TAG_RESET){
+			clearTables();
+			tag = readByte();
+		}
+		switch(tag){
+			case TAG_NULL:
+				return null;
+			case TAG_TRUE:
+				return Boolean.TRUE;
+			case TAG_FALSE:
+				return Boolean.FALSE;
+			case TAG_INT:
+				return unZigZag(readVarInt());
+			case TAG_LONG:
+				return unZigZag(readVarLong());
+			case TAG_DOUBLE:
+				return readDouble();
+			case TAG_FLOAT:
+				return Float.intBitsToFloat(readFixedInt());
+			case TAG_SHORT:
+				return (short) unZigZag(readVarInt());
+			case TAG_BYTE:
+				return (byte) readByte();
+			case TAG_CHAR:
+				return (char) readVarInt();
+			case TAG_STRING:
+				return readString();
+			case TAG_ENUM:{
+				Class<?> c = loadClass(readString());
+				String name = readString();
+				if(!c.isEnum()){
+					throw new InvalidClassException(c.getName(), I18n.getText("io.notEnum"));
+				}
+				return enumValue(c, name);
+			}
+			case TAG_REFERENCE:{
+				int ref = readVarInt();
+				if(ref < 0 || ref >= references.size()){
+					throw new StreamCorruptedException(I18n.getText("io.badReference", ref+""));
+				}
+				return references.get(ref);
+			}
+			case TAG_BYTES:{
+				byte[] bytes = readBytes(readLength());
+				references.add(bytes);
+				return bytes;
+			}
+			case TAG_HASH_MODEL:
+				return readStreamable(new HashModel());
+			case TAG_ARRAY_LIST:
+				return readStreamable(new MVCArrayList<Object>());
+			case TAG_HASH_SET:
+				return readStreamable(new MVCHashSet<Object>());
+			case TAG_STREAMABLE:
+				return readStreamable(newInstance(loadClass(readString())));
+			case TAG_EVENT:{
+				int ref = reserveReference();
+				MVCEvent event = new MVCEvent(readString());
+				references.set(ref, event);
+				return event;
+			}
+			case TAG_STRING_EVENT:{
+				int ref = reserveReference();
+				StringEvent event = new StringEvent(readString(), readString());
+				references.set(ref, event);
+				return event;
+			}
+			case TAG_OBJECT_EVENT:{
+				int ref = reserveReference();
+				String key = readString();
+				ObjectEvent<Object> event = new ObjectEvent<Object>(key, readObject());
+				references.set(ref, event);
+				return event;
+			}
+			case TAG_SERIALIZED:{
+				int ref = reserveReference();
+				byte[] bytes = readBytes(readLength());
+				ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+				Object object = ois.readObject();
+				ois.close();
+				references.set(ref, object);
+				return object;
+			}
+			default:
+				throw new StreamCorruptedException(I18n.getText("io.badTag", tag+""));
+		}
+	}
+	
+	/**
+	 * Forgets every string and object read, at the point where
+	 * {@link ModelOutputStream#clearTables()} was called.
+	 */
+	void clearTables(){
+		strings.clear();
+		references.clear();
+	}
+	
+	/**
+	 * Reads a string written with {@link ModelOutputStream#writeString(String)}.
+	 * @return the string, which can be null
+	 * @throws IOException
+	 */
+	public String readString() throws IOException{
+		int value = readVarInt();
+		if(value == 0){
+			return null;
+		}
+		if((value & 1) == 1){
+			int index = value >>> 1;
+			if(index >= strings.size()){
+				throw new StreamCorruptedException(I18n.getText("io.badReference", index+""));
+			}
+			return strings.get(index);
+		}
+		if(value < 0){
+			throw new StreamCorruptedException(I18n.getText("io.badLength", value+""));
+		}
+		byte[] bytes = readBytes((value >>> 1) - 1);
+		String string = new String(bytes, ModelOutputStream.UTF8);
+		strings.add(string);
+		return string;
+	}
+	
+	/**
+	 * Reads an int written with {@link ModelOutputStream#writeVarInt(int)}.
+	 * @return
+	 * @throws IOException
+	 */
+	public int readVarInt() throws IOException{
+		int value = 0;
+		for(int shift = 0; shift < 35; shift += 7){
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0){
+				return value;
+			}
+		}
+		throw new StreamCorruptedException(I18n.getText("io.badVarInt"));
+	}
+	
+	/**
+	 * Reads the length of an array or collection, written with {@link ModelOutputStream#writeVarInt(int)}.
+	 * Don't allocate anything with the length, as it could be anything if the stream is corrupt,
+	 * see {@link #getInitialCapacity(int)}.
+	 * @return
+	 * @throws IOException
+	 * @throws StreamCorruptedException if the length is negative
+	 */
+	public int readLength() throws IOException{
+		int length = readVarInt();
+		if(length < 0){
+			throw new StreamCorruptedException(I18n.getText("io.badLength", length+""));
+		}
+		return length;
+	}
+	
+	/**
+	 * Gets the capacity to start a collection with, for a length read with {@link #readLength()}.  Every element
+	 * takes at least a byte, so this is no bigger than the number of bytes that can be read without
+	 * blocking, and the collection grows as the elements are read.
+	 * @param argLength
+	 * @return
+	 * @throws IOException
+	 */
+	public int getInitialCapacity(int argLength) throws IOException{
+		return Math.min(argLength, Math.max(available(), 16));
+	}
+	
+	/**
+	 * Reads the given number of ints written with {@link ModelOutputStream#writeVarInt(int)}.
+	 * @param argLength
+	 * @return
+	 * @throws IOException
+	 */
+	int[] readVarInts(int argLength) throws IOException{
+		int[] values = new int[getInitialCapacity(argLength)];
+		for(int i=0; i<argLength; i++){
+			if(i == values.length){
+				int[] grown = new int[(int) Math.min(argLength, values.length * 2L)];
+				System.arraycopy(values, 0, grown, 0, i);
+				values = grown;
+			}
+			values[i] = readVarInt();
+		}
+		return values;
+	}
+	
+	/**
+	 * Reads a long written with {@link ModelOutputStream#writeVarLong(long)}.
+	 * @return
+	 * @throws IOException
+	 */
+	public long readVarLong() throws IOException{
+		long value = 0;
+		for(int shift = 0; shift < 70; shift += 7){
+			int b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if((b & 0x80) == 0){
+				return value;
+			}
+		}
+		throw new StreamCorruptedException(I18n.getText("io.badVarInt"));
+	}
+	
+	/**
+	 * @return
+	 * @throws IOException
+	 */
+	public boolean readBoolean() throws IOException{
+		return readByte() != 0;
+	}
+	
+	/**
+	 * @return
+	 * @throws IOException
+	 */
+	public double readDouble() throws IOException{
+		long high = readFixedInt();
+		long low = readFixedInt() & 0xFFFFFFFFL;
+		return Double.longBitsToDouble((high << 32) | low);
+	}
+	
+	private int readFixedInt() throws IOException{
+		return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+	}
+	
+	// reads a byte, throwing an EOFException at the end of the stream
+	private int readByte() throws IOException{
+		if(position == limit && !fill()){
+			throw new EOFException();
+		}
+		return buffer[position++] & 0xFF;
+	}
+	
+	/**
+	 * Reads exactly the given number of bytes.
+	 * @param argBytes
+	 * @param argOffset
+	 * @param argLength
+	 * @throws IOException
+	 * @throws EOFException if the end of the stream is reached first
+	 */
+	public void readFully(byte[] argBytes, int argOffset, int argLength) throws IOException{
+		while(argLength > 0){
+			int read = read(argBytes, argOffset, argLength);
+			if(read < 0){
+				throw new EOFException();
+			}
+			argOffset += read;
+			argLength -= read;
+		}
+	}
+	
+	// reads the bytes, only allocating them as they're read if there aren't that many available
+	private byte[] readBytes(int argLength) throws IOException{
+		byte[] bytes = new byte[Math.min(argLength, Math.max(available(), MAX_CHUNK))];
+		int read = 0;
+		while(read < argLength){
+			if(read == bytes.length){
+				byte[] grown = new byte[(int) Math.min(argLength, bytes.length * 2L)];
+				System.arraycopy(bytes, 0, grown, 0, read);
+				bytes = grown;
+			}
+			readFully(bytes, read, bytes.length - read);
+			read = bytes.length;
+		}
+		return bytes;
+	}
+	
+	private boolean fill() throws IOException{
+		int read = in.read(buffer, 0, buffer.length);
+		if(read <= 0){
+			return false;
+		}
+		position = 0;
+		limit = read;
+		return true;
+	}
+	
+	/**
+	 * @see java.io.InputStream#read()
+	 */
+	@Override
+	public int read() throws IOException {
+		if(position == limit && !fill()){
+			return -1;
+		}
+		return buffer[position++] & 0xFF;
+	}
+	
+	/**
+	 * @see java.io.InputStream#read(byte[], int, int)
+	 */
+	@Override
+	public int read(byte[] argBytes, int argOffset, int argLength) throws IOException {
+		if(argLength == 0){
+			return 0;
+		}
+		if(position == limit){
+			if(argLength >= buffer.length){
+				return in.read(argBytes, argOffset, argLength);
+			}
+			if(!fill()){
+				return -1;
+			}
+		}
+		int read = Math.min(argLength, limit - position);
+		System.arraycopy(buffer, position, argBytes, argOffset, read);
+		position += read;
+		return read;
+	}
+	
+	/**
+	 * @see java.io.InputStream#available()
+	 */
+	@Override
+	public int available() throws IOException {
+		return (limit - position) + in.available();
+	}
+	
+	/**
+	 * @see java.io.InputStream#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+	
+	private Object readStreamable(IBinaryStreamable argObject) throws IOException, ClassNotFoundException{
+		references.add(argObject);
+		argObject.readBinary(this);
+		return argObject;
+	}
+	
+	private int reserveReference(){
+		references.add(null);
+		return references.size() - 1;
+	}
+	
+	private Class<?> loadClass(String argName) throws ClassNotFoundException{
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		if(loader == null){
+			loader = ModelInputStream.class.getClassLoader();
+		}
+		return Class.forName(argName, false, loader);
+	}
+	
+	private IBinaryStreamable newInstance(Class<?> argClass) throws IOException{
+		if(!IBinaryStreamable.class.isAssignableFrom(argClass)){
+			throw new InvalidClassException(argClass.getName(), I18n.getText("io.notStreamable", argClass.getName()));
+		}
+		try{
+			Constructor<?> constructor = argClass.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			return (IBinaryStreamable) constructor.newInstance();
+		}catch(Exception e){
+			InvalidClassException ex = new InvalidClassException(argClass.getName(),
+					I18n.getText("io.constructing", argClass.getName()));
+			ex.initCause(e);
+			throw ex;
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object enumValue(Class<?> argClass, String argName){
+		return Enum.valueOf((Class) argClass, argName);
+	}
+	
+	private static int unZigZag(int argValue){
+		return (argValue >>> 1) ^ -(argValue & 1);
+	}
+	
+	private static long unZigZag(long argValue){
+		return (argValue >>> 1) ^ -(argValue & 1);
+	}
+}
@@ -0,0 +1,383 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 6:11:48 PM
+ */
+package com.dmurph.mvc.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+import com.dmurph.mvc.I18n;
+import com.dmurph.mvc.MVCEvent;
+import com.dmurph.mvc.ObjectEvent;
+import com.dmurph.mvc.StringEvent;
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCHashSet;
+import com.dmurph.mvc.model.MVCIndexedArrayList;
+import com.dmurph.mvc.model.MVCSortedArrayList;
+
+/**
+ * Writes graphs of models in a compact binary format, to be read by a {@link ModelInputStream}.
+ * Compared to java serialization, only the state of the models is written (no listeners or
+ * property change support), numbers and lengths are written as variable length integers, and
+ * every string is only written once.  Every object (other than strings, enums and primitive
+ * wrappers) is only written once as well, after which it's written as a reference to the first
+ * time it was written, so shared objects and loops in the graph are read back the same way.<br/>
+ * <br/>
+ * {@link HashModel}, {@link MVCArrayList}, {@link MVCHashSet}, {@link MVCEvent}, {@link StringEvent}
+ * and {@link ObjectEvent} are written without their class names.  Other objects have to be
+ * {@link IBinaryStreamable}, or they are written with java serialization if they are {@link Serializable}.
+ * Subclasses of the models are written with their class name, and are read back by constructing them with
+ * their no-argument constructor and calling {@link IBinaryStreamable#readBinary(ModelInputStream)}, so
+ * anything they're configured with has to be written by their {@link IBinaryStreamable#writeBinary(ModelOutputStream)}
+ * (like the comparator of a {@link MVCSortedArrayList} or the indexes of a {@link MVCIndexedArrayList}).<br/>
+ * <br/>
+ * The string and reference tables are kept for the life of the stream, so many objects can be
+ * written to the same stream cheaply.  Call {@link #reset()} to forget them.
+ * This class is not thread safe.
+ * @author Daniel Murphy
+ */
+public class ModelOutputStream extends OutputStream implements ModelStreamConstants {
+	
+	static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private final OutputStream out;
+	private final byte[] buffer = new byte[8192];
+	private int count = 0;
+	
+	private final HashMap<String, Integer> strings = new HashMap<String, Integer>();
+	private final IdentityHashMap<Object, Integer> references = new IdentityHashMap<Object, Integer>();
+	
+	/**
+	 * Constructs a model output stream, and writes the stream header.
+	 * @param argOut
+	 * @throws IOException
+	 */
+	public ModelOutputStream(OutputStream argOut) throws IOException{
+		this(argOut, true);
+	}
+	
+	/**
+	 * Constructs a model output stream, without the header if the stream is
+	 * framed by something else (like the {@link ChangeJournal}).
+	 * @param argOut
+	 * @param argHeader if the stream header should be written
+	 * @throws IOException
+	 */
+	ModelOutputStream(OutputStream argOut, boolean argHeader) throws IOException{
+		out = argOut;
+		if(argHeader){
+			write(MAGIC >>> 24);
+			write(MAGIC >>> 16);
+			write(MAGIC >>> 8);
+			write(MAGIC);
+			write(VERSION);
+		}
+	}
+	
+	/**
+	 * Writes an object, and everything it references.
+	 * @param argObject
+	 * @throws IOException
+	 * @throws NotSerializableException if the object (or anything it references) can't be written
+	 */
+	public void writeObject(Object argObject) throws IOException{
+		if(argObject == null){
+			write(TAG_NULL);
+			return;
+		}
+		if(argObject instanceof String){
+			write(TAG_STRING);
+			writeString((String) argObject);
+			return;
+		}
+		Class<?> c = argObject.getClass();
+		if(c == Boolean.class){
+			write(((Boolean) argObject) ? TAG_TRUE : TAG_FALSE);
+			return;
+		}else if(c == Integer.class){
+			write(TAG_INT);
+			writeVarInt(zigZag((Integer) argObject));
+			return;
+		}else if(c == Long.class){
+			write(TAG_LONG);
+			writeVarLong(zigZag((Long) argObject));
+			return;
+		}else if(c == Double.class){
+			write(TAG_DOUBLE);
+			writeDouble((Double) argObject);
+			return;
+		}else if(c == Float.class){
+			write(TAG_FLOAT);
+			writeFixedInt(Float.floatToIntBits((Float) argObject));
+			return;
+		}else if(c == Short.class){
+			write(TAG_SHORT);
+			writeVarInt(zigZag((Short) argObject));
+			return;
+		}else if(c == Byte.class){
+			write(TAG_BYTE);
+			write((Byte) argObject);
+			return;
+		}else if(c == Character.class){
+			write(TAG_CHAR);
+			writeVarInt((Character) argObject);
+			return;
+		}else if(argObject instanceof Enum<?>){
+			write(TAG_ENUM);
+			writeString(((Enum<?>) argObject).getDeclaringClass().getName());
+			writeString(((Enum<?>) argObject).name());
+			return;
+		}
+		
+		Integer ref = references.get(argObject);
+		if(ref != null){
+			write(TAG_REFERENCE);
+			writeVarInt(ref);
+			return;
+		}
+		references.put(argObject, references.size());
+		
+		if(c == byte[].class){
+			byte[] bytes = (byte[]) argObject;
+			write(TAG_BYTES);
+			writeVarInt(bytes.length);
+			write(bytes);
+		}else if(c == HashModel.class){
+			write(TAG_HASH_MODEL);
+			((HashModel) argObject).writeBinary(this);
+		}else if(c == MVCArrayList.class){
+			write(TAG_ARRAY_LIST);
+			((MVCArrayList<?>) argObject).writeBinary(this);
+		}else if(c == MVCHashSet.class){
+			write(TAG_HASH_SET);
+			((MVCHashSet<?>) argObject).writeBinary(this);
+		}else if(c == MVCEvent.class){
+			write(TAG_EVENT);
+			writeString(((MVCEvent) argObject).key);
+		}else if(c == StringEvent.class){
+			write(TAG_STRING_EVENT);
+			writeString(((StringEvent) argObject).key);
+			writeString(((StringEvent) argObject).getValue());
+		}else if(c == ObjectEvent.class){
+			write(TAG_OBJECT_EVENT);
+			writeString(((ObjectEvent<?>) argObject).key);
+			writeObject(((ObjectEvent<?>) argObject).getValue());
+		}else if(argObject instanceof IBinaryStreamable){
+			write(TAG_STREAMABLE);
+			writeString(c.getName());
+			((IBinaryStreamable) argObject).writeBinary(this);
+		}else if(argObject instanceof Serializable){
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ObjectOutputStream oos = new ObjectOutputStream(bytes);
+			oos.writeObject(argObject);
+			oos.close();
+			write(TAG_SERIALIZED);
+			writeVarInt(bytes.size());
+			bytes.writeTo(this);
+		}else{
+			throw new NotSerializableException(I18n.getText("io.notStreamable", c.getName()));
+		}
+	}
+	
+	/**
+	 * Writes a string, or a reference to the string if it was already written.
+	 * The string can be null.
+	 * @param argString
+	 * @throws IOException
+	 */
+	public void writeString(String argString) throws IOException{
+		if(argString == null){
+			writeVarInt(0);
+			return;
+		}
+		Integer index = strings.get(argString);
+		if(index != null){
+			writeVarInt((index << 1) | 1);
+			return;
+		}
+		strings.put(argString, strings.size());
+		byte[] bytes = argString.getBytes(UTF8);
+		writeVarInt((bytes.length + 1) << 1);
+		write(bytes);
+	}
+	
+	/**
+	 * Writes an int in 1 to 5 bytes, smaller numbers taking fewer bytes.  Negative
+	 * numbers always take 5 bytes.
+	 * @param argValue
+	 * @throws IOException
+	 */
+	public void writeVarInt(int argValue) throws IOException{
+		while((argValue & ~0x7F) != 0){
+			write((argValue & 0x7F) | 0x80);
+			argValue >>>= 7;
+		}
+		write(argValue);
+	}
+	
+	/**
+	 * Writes a long in 1 to 10 bytes, smaller numbers taking fewer bytes.  Negative
+	 * numbers always take 10 bytes.
+	 * @param argValue
+	 * @throws IOException
+	 */
+	public void writeVarLong(long argValue) throws IOException{
+		while((argValue & ~0x7FL) != 0){
+			write((int) ((argValue & 0x7F) | 0x80));
+			argValue >>>= 7;
+		}
+		write((int) argValue);
+	}
+	
+	/**
+	 * @param argValue
+	 * @throws IOException
+	 */
+	public void writeBoolean(boolean argValue) throws IOException{
+		write(argValue ? 1 : 0);
+	}
+	
+	/**
+	 * @param argValue
+	 * @throws IOException
+	 */
+	public void writeDouble(double argValue) throws IOException{
+		long bits = Double.doubleToLongBits(argValue);
+		writeFixedInt((int) (bits >>> 32));
+		writeFixedInt((int) bits);
+	}
+	
+	private void writeFixedInt(int argValue) throws IOException{
+		write(argValue >>> 24);
+		write(argValue >>> 16);
+		write(argValue >>> 8);
+		write(argValue);
+	}
+	
+	/**
+	 * Forgets every string and object written, so they're written again
+	 * in full the next time.  The {@link ModelInputStream} forgets them
+	 * at the same point in the stream.
+	 * @throws IOException
+	 */
+	public void reset() throws IOException{
+		clearTables();
+		write(TAG_RESET);
+	}
+	
+	/**
+	 * Forgets every string and object written, without writing anything, so the
+	 * reader has to call {@link ModelInputStream#clearTables()} at the same point.
+	 */
+	void clearTables(){
+		strings.clear();
+		references.clear();
+	}
+	
+	/**
+	 * @return the number of strings and objects remembered since the tables were last cleared
+	 */
+	int getTableSize(){
+		return strings.size() + references.size();
+	}
+	
+	/**
+	 * @see java.io.OutputStream#write(int)
+	 */
+	@Override
+	public void write(int argByte) throws IOException {
+		if(count == buffer.length){
+			flushBuffer();
+		}
+		buffer[count++] = (byte) argByte;
+	}
+	
+	/**
+	 * @see java.io.OutputStream#write(byte[], int, int)
+	 */
+	@Override
+	public void write(byte[] argBytes, int argOffset, int argLength) throws IOException {
+		if(argLength > buffer.length - count){
+			flushBuffer();
+			if(argLength > buffer.length){
+				out.write(argBytes, argOffset, argLength);
+				return;
+			}
+		}
+		System.arraycopy(argBytes, argOffset, buffer, count, argLength);
+		count += argLength;
+	}
+	
+	/**
+	 * Drops the bytes that haven't been written to the underlying stream yet,
+	 * like when a write failed part way through.
+	 */
+	void discardBuffer(){
+		count = 0;
+	}
+	
+	private void flushBuffer() throws IOException{
+		if(count > 0){
+			out.write(buffer, 0, count);
+			count = 0;
+		}
+	}
+	
+	/**
+	 * @see java.io.OutputStream#flush()
+	 */
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+	
+	/**
+	 * @see java.io.OutputStream#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		try{
+			flushBuffer();
+		}finally{
+			out.close();
+		}
+	}
+	
+	private static int zigZag(int argValue){
+		return (argValue << 1) ^ (argValue >> 31);
+	}
+	
+	private static long zigZag(long argValue){
+		return (argValue << 1) ^ (argValue >> 63);
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 6:05:12 PM
+ */
+package com.dmurph.mvc.io;
+
+/**
+ * Constants written to model streams.
+ * @author Daniel Murphy
+ */
+interface ModelStreamConstants {
+	
+	/**
+	 * Magic number at the start of every stream, "JSMV"
+	 */
+	static final int MAGIC = 0x4A534D56;
+	
+	/**
+	 * Current version of the stream format
+	 */
+	static final byte VERSION = 1;
+	
+	static final byte TAG_NULL = 0;
+	static final byte TAG_TRUE = 1;
+	static final byte TAG_FALSE = 2;
+	static final byte TAG_INT = 3;
+	static final byte TAG_LONG = 4;
+	static final byte TAG_DOUBLE = 5;
+	static final byte TAG_FLOAT = 6;
+	static final byte TAG_SHORT = 7;
+	static final byte TAG_BYTE = 8;
+	static final byte TAG_CHAR = 9;
+	static final byte TAG_STRING = 10;
+	static final byte TAG_ENUM = 11;
+	
+	// everything after here gets a reference id
+	static final byte TAG_REFERENCE = 12;
+	static final byte TAG_BYTES = 13;
+	static final byte TAG_HASH_MODEL = 14;
+	static final byte TAG_ARRAY_LIST = 15;
+	static final byte TAG_HASH_SET = 16;
+	static final byte TAG_STREAMABLE = 17;
+	static final byte TAG_EVENT = 18;
+	static final byte TAG_STRING_EVENT = 19;
+	static final byte TAG_OBJECT_EVENT = 20;
+	static final byte TAG_SERIALIZED = 21;
+	
+	/**
+	 * Clears the reference and string tables
+	 */
+	static final byte TAG_RESET = 22;
+}
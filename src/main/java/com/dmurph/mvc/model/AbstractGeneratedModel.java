@@ -0,0 +1,499 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 9:12:50 AM
+ */
+package com.dmurph.mvc.model;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+import com.dmurph.mvc.I18n;
+import com.dmurph.mvc.ICloneable;
+import com.dmurph.mvc.IDirtyable;
+import com.dmurph.mvc.IRevertible;
+import com.dmurph.mvc.io.IBinaryStreamable;
+import com.dmurph.mvc.io.ModelInputStream;
+import com.dmurph.mvc.io.ModelOutputStream;
+import com.dmurph.mvc.support.DirtySupport;
+import com.dmurph.mvc.support.IDirtySupportable;
+
+/**
+ * Base class of the models generated from interfaces annotated with {@link GenerateModel}.  The
+ * generated class keeps each property in a field and gives each property an id, its index in the
+ * property names given to the constructor, so this class keeps track of the saved values by id
+ * instead of by name.  Only the saved values of the changed properties are kept, and they aren't
+ * allocated until a property is changed, so a clean model is just its fields.<br/>
+ * <br/>
+ * Like {@link AbstractRevertibleModel}, a property that's changed back to its saved value isn't
+ * dirty anymore, and {@link #revertChanges()} only sets the dirty properties.  A property change
+ * event is fired with the property name when a property changes, and {@link #DIRTY} is fired
+ * when the model becomes dirty or clean.  Like other {@link AbstractModel}s, this isn't
+ * synchronized, so change the model from one thread.<br/>
+ * <br/>
+ * Like {@link HashModel}, properties that are {@link IDirtyable} make this model dirty while they're
+ * dirty (kept track of with a {@link DirtySupport} as they change), and {@link #saveChanges()} and
+ * {@link #revertChanges()} are called on properties that are {@link IRevertible} after saving or
+ * reverting this model, so don't let the properties go in a loop.
+ * @author Daniel Murphy
+ * @see GenerateModel
+ */
+public abstract class AbstractGeneratedModel extends AbstractModel implements IDirtyable, IRevertible,
+		ICloneable, IBinaryStreamable {
+	private static final long serialVersionUID = 1L;
+	
+	private final String[] propertyNames;
+	private Object[] savedValues = null;
+	private BitSet dirtyProperties = null;
+	private int dirtyCount = 0;
+	private boolean overridingDirty = false;
+	private boolean firedDirty = false;
+	private volatile boolean recording = true;
+	// not created until a property is set to an IDirtyable
+	private transient DirtySupport dirtySupport = null;
+	
+	/**
+	 * @param argPropertyNames the property names, in order of their ids.  This
+	 * 		  isn't copied, so the generated class shares one array.
+	 */
+	protected AbstractGeneratedModel(String[] argPropertyNames){
+		propertyNames = argPropertyNames;
+	}
+	
+	/**
+	 * Gets the value of the field of a property, for the generated class to implement.
+	 * @param argId
+	 * @return the value, boxed if it's primitive
+	 */
+	protected abstract Object getField(int argId);
+	
+	/**
+	 * Sets the field of a property without firing anything, for the generated class to implement.
+	 * @param argId
+	 * @param argValue the value, boxed if it's primitive
+	 */
+	protected abstract void setField(int argId, Object argValue);
+	
+	/**
+	 * Called by the generated {@link #setField(int, Object)} before setting a primitive field,
+	 * as a primitive can't be null.
+	 * @param argId
+	 * @param argValue
+	 * @throws IllegalArgumentException if the value is null
+	 */
+	protected final void checkNotNull(int argId, Object argValue){
+		if(argValue == null){
+			throw new IllegalArgumentException(I18n.getText("model.nullPrimitive", propertyNames[argId]));
+		}
+	}
+	
+	/**
+	 * Constructs an empty model of the generated class, for cloning.
+	 * @return
+	 */
+	protected abstract AbstractGeneratedModel newInstance();
+	
+	/**
+	 * Copies the fields from another model of the generated class, cloning
+	 * the values that aren't primitives, strings or enums with the context.
+	 * @param argOther
+	 * @param argContext
+	 */
+	protected abstract void cloneFields(AbstractGeneratedModel argOther, CloneContext argContext);
+	
+	/**
+	 * Called by the generated setters after the field is changed.  Records the saved
+	 * value, and fires the property change.
+	 * @param argId
+	 * @param argOldValue
+	 * @param argNewValue
+	 */
+	protected final void propertyChanged(int argId, Object argOldValue, Object argNewValue){
+		if(recording){
+			if(savedValues == null){
+				savedValues = new Object[propertyNames.length];
+				dirtyProperties = new BitSet(propertyNames.length);
+			}
+			if(!dirtyProperties.get(argId)){
+				savedValues[argId] = argOldValue;
+				dirtyProperties.set(argId);
+				dirtyCount++;
+			}else if(equal(savedValues[argId], argNewValue)){
+				savedValues[argId] = null;
+				dirtyProperties.clear(argId);
+				dirtyCount--;
+			}
+		}
+		removeChild(argOldValue);
+		addChild(argNewValue);
+		propertyChangeSupport.firePropertyChange(propertyNames[argId], argOldValue, argNewValue);
+		fireDirtyChanged();
+	}
+	
+	private void addChild(Object argValue){
+		if(argValue instanceof IDirtyable){
+			if(dirtySupport == null){
+				dirtySupport = new DirtySupport(this, new IDirtySupportable() {
+					public boolean isChildDirty(Object argChild) {
+						return ((IDirtyable) argChild).isDirty();
+					}
+					
+					public void dirtyChildrenChanged(boolean argHasDirtyChildren) {
+						fireDirtyChanged();
+					}
+				});
+			}
+			dirtySupport.addChild(argValue);
+		}
+	}
+	
+	private void removeChild(Object argValue){
+		if(argValue instanceof IDirtyable && dirtySupport != null){
+			dirtySupport.removeChild(argValue);
+		}
+	}
+	
+	// tracks the fields again after they were set without propertyChanged
+	private void addChildren(){
+		if(dirtySupport != null){
+			dirtySupport.clear();
+		}
+		for(int i=0; i<propertyNames.length; i++){
+			addChild(getField(i));
+		}
+	}
+	
+	private void fireDirtyChanged(){
+		boolean dirtyNow = isDirty();
+		if(dirtyNow != firedDirty){
+			firedDirty = dirtyNow;
+			propertyChangeSupport.firePropertyChange(DIRTY, !dirtyNow, dirtyNow);
+		}
+	}
+	
+	/**
+	 * @return the property names, in order of their ids
+	 */
+	public String[] getPropertyNames(){
+		return propertyNames.clone();
+	}
+	
+	/**
+	 * @param argPropertyName
+	 * @return the id of the property, or -1 if there's no property with the name
+	 */
+	public int getPropertyId(String argPropertyName){
+		for(int i=0; i<propertyNames.length; i++){
+			if(propertyNames[i].equals(argPropertyName)){
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Gets a property by name.  The generated getters are faster.
+	 * @param argPropertyName
+	 * @return the value, boxed if it's primitive
+	 * @throws IllegalArgumentException if there's no property with the name
+	 */
+	public Object getProperty(String argPropertyName){
+		return getField(checkedId(argPropertyName));
+	}
+	
+	/**
+	 * Sets a property by name, firing a property change if it changed.
+	 * The generated setters are faster.
+	 * @param argPropertyName
+	 * @param argValue the value, boxed if it's primitive
+	 * @return the old value
+	 * @throws IllegalArgumentException if there's no property with the name
+	 */
+	public Object setProperty(String argPropertyName, Object argValue){
+		int id = checkedId(argPropertyName);
+		Object old = getField(id);
+		setProperty(id, argValue);
+		return old;
+	}
+	
+	/**
+	 * Sets a property by id, firing a property change if it changed.
+	 * @param argId
+	 * @param argValue the value, boxed if it's primitive
+	 */
+	protected void setProperty(int argId, Object argValue){
+		Object old = getField(argId);
+		if(equal(old, argValue)){
+			return;
+		}
+		setField(argId, argValue);
+		propertyChanged(argId, old, argValue);
+	}
+	
+	private int checkedId(String argPropertyName){
+		int id = getPropertyId(argPropertyName);
+		if(id == -1){
+			throw new IllegalArgumentException(I18n.getText("model.noProperty", argPropertyName));
+		}
+		return id;
+	}
+	
+	/**
+	 * @param argPropertyName
+	 * @return if the property was changed since the last save, or
+	 * 		   its value is {@link IDirtyable} and dirty
+	 */
+	public boolean isDirty(String argPropertyName){
+		int id = checkedId(argPropertyName);
+		if(dirtyProperties != null && dirtyProperties.get(id)){
+			return true;
+		}
+		Object value = getField(id);
+		return value instanceof IDirtyable && value != this && ((IDirtyable) value).isDirty();
+	}
+	
+	/**
+	 * Constant time, as only the dirty properties and the dirty
+	 * state of properties that are {@link IDirtyable} are kept track of.
+	 * @see com.dmurph.mvc.IDirtyable#isDirty()
+	 */
+	public boolean isDirty(){
+		return overridingDirty || dirtyCount > 0 || (dirtySupport != null && dirtySupport.hasDirtyChildren());
+	}
+	
+	/**
+	 * If called with false, this is the equivalent of {@link #saveChanges()}.
+	 * If called with true, the model is dirty until the changes are saved or reverted.
+	 * @see com.dmurph.mvc.IDirtyable#setDirty(boolean)
+	 */
+	public void setDirty(boolean argDirty){
+		if(argDirty){
+			overridingDirty = true;
+			fireDirtyChanged();
+		}else{
+			saveChanges();
+		}
+	}
+	
+	/**
+	 * Turns recording changes on or off, so properties set while loading the
+	 * model aren't reverted and don't make the model dirty.
+	 * @param argRecording
+	 */
+	public void setRecording(boolean argRecording){
+		recording = argRecording;
+	}
+	
+	/**
+	 * @return if changes are being recorded
+	 * @see #setRecording(boolean)
+	 */
+	public boolean isRecording(){
+		return recording;
+	}
+	
+	/**
+	 * Saves the changes, then saves the properties that are {@link IRevertible}.
+	 * @see com.dmurph.mvc.IRevertible#saveChanges()
+	 */
+	public void saveChanges(){
+		clearSaved();
+		for(int i=0; i<propertyNames.length; i++){
+			Object value = getField(i);
+			if(value instanceof IRevertible && value != this){
+				((IRevertible) value).saveChanges();
+			}
+		}
+		refreshChildren();
+	}
+	
+	/**
+	 * Sets the dirty properties back to their saved values, then reverts
+	 * the properties that are {@link IRevertible}.
+	 * @see com.dmurph.mvc.IRevertible#revertChanges()
+	 */
+	public void revertChanges(){
+		if(savedValues != null){
+			Object[] saved = savedValues;
+			BitSet dirty = dirtyProperties;
+			clearSaved();
+			for(int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)){
+				Object old = getField(i);
+				setField(i, saved[i]);
+				removeChild(old);
+				addChild(saved[i]);
+				propertyChangeSupport.firePropertyChange(propertyNames[i], old, saved[i]);
+			}
+		}
+		overridingDirty = false;
+		for(int i=0; i<propertyNames.length; i++){
+			Object value = getField(i);
+			if(value instanceof IRevertible && value != this){
+				((IRevertible) value).revertChanges();
+			}
+		}
+		refreshChildren();
+	}
+	
+	// not every property tells us when it's saved or reverted
+	private void refreshChildren(){
+		if(dirtySupport != null){
+			dirtySupport.refresh();
+		}
+		fireDirtyChanged();
+	}
+	
+	private void clearSaved(){
+		savedValues = null;
+		dirtyProperties = null;
+		dirtyCount = 0;
+		overridingDirty = false;
+	}
+	
+	/**
+	 * Deep clones this model with a {@link CloneContext}.  No events are fired while cloning.
+	 * @see ICloneable#clone()
+	 */
+	@Override
+	public ICloneable clone(){
+		return deepClone(new CloneContext());
+	}
+	
+	/**
+	 * Clones this model by filling in a new model directly, cloning the saved values
+	 * as well, so the clone can be reverted like this model.
+	 * @param argContext
+	 * @return
+	 */
+	AbstractGeneratedModel deepClone(CloneContext argContext){
+		AbstractGeneratedModel clone = newInstance();
+		argContext.put(this, clone);
+		clone.cloneFields(this, argContext);
+		if(savedValues != null){
+			clone.savedValues = new Object[savedValues.length];
+			for(int i=0; i<savedValues.length; i++){
+				clone.savedValues[i] = argContext.cloneObject(savedValues[i]);
+			}
+			clone.dirtyProperties = (BitSet) dirtyProperties.clone();
+			clone.dirtyCount = dirtyCount;
+		}
+		clone.overridingDirty = overridingDirty;
+		clone.addChildren();
+		clone.firedDirty = clone.isDirty();
+		clone.recording = recording;
+		return clone;
+	}
+	
+	/**
+	 * Sets every property to a clone of the other model's property, firing property changes.
+	 * @param argOther a model of the same class
+	 * @throws IllegalArgumentException if the other model isn't the same class
+	 * @see com.dmurph.mvc.ICloneable#cloneFrom(com.dmurph.mvc.ICloneable)
+	 */
+	public void cloneFrom(ICloneable argOther){
+		if(argOther == null || argOther.getClass() != getClass()){
+			throw new IllegalArgumentException(I18n.getText("model.notSameClass", getClass().getName()));
+		}
+		AbstractGeneratedModel other = (AbstractGeneratedModel) argOther;
+		CloneContext context = new CloneContext();
+		context.put(other, this);
+		for(int i=0; i<propertyNames.length; i++){
+			setProperty(i, context.cloneObject(other.getField(i)));
+		}
+	}
+	
+	/**
+	 * Writes the properties by name, so properties can be added to the interface
+	 * later, and the saved values of the changed properties.
+	 * @see IBinaryStreamable#writeBinary(ModelOutputStream)
+	 */
+	public void writeBinary(ModelOutputStream argOut) throws IOException {
+		argOut.writeVarInt(propertyNames.length);
+		for(int i=0; i<propertyNames.length; i++){
+			argOut.writeString(propertyNames[i]);
+			argOut.writeObject(getField(i));
+		}
+		argOut.writeVarInt(dirtyCount);
+		if(dirtyCount > 0){
+			for(int i = dirtyProperties.nextSetBit(0); i >= 0; i = dirtyProperties.nextSetBit(i + 1)){
+				argOut.writeString(propertyNames[i]);
+				argOut.writeObject(savedValues[i]);
+			}
+		}
+		argOut.writeBoolean(overridingDirty);
+	}
+	
+	/**
+	 * Reads the properties without firing any events.  Properties that
+	 * aren't in the model anymore are skipped.
+	 * @see IBinaryStreamable#readBinary(ModelInputStream)
+	 */
+	public void readBinary(ModelInputStream argIn) throws IOException, ClassNotFoundException {
+		int count = argIn.readLength();
+		for(int i=0; i<count; i++){
+			int id = getPropertyId(argIn.readString());
+			Object value = argIn.readObject();
+			if(id != -1){
+				setField(id, value);
+			}
+		}
+		clearSaved();
+		count = argIn.readLength();
+		for(int i=0; i<count; i++){
+			int id = getPropertyId(argIn.readString());
+			Object value = argIn.readObject();
+			if(id == -1){
+				continue;
+			}
+			if(savedValues == null){
+				savedValues = new Object[propertyNames.length];
+				dirtyProperties = new BitSet(propertyNames.length);
+			}
+			savedValues[id] = value;
+			dirtyProperties.set(id);
+			dirtyCount++;
+		}
+		overridingDirty = argIn.readBoolean();
+		addChildren();
+		firedDirty = isDirty();
+	}
+	
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString(){
+		StringBuilder sb = new StringBuilder(getClass().getSimpleName());
+		sb.append('{');
+		for(int i=0; i<propertyNames.length; i++){
+			if(i > 0){
+				sb.append(", ");
+			}
+			sb.append(propertyNames[i]).append('=').append(getField(i));
+		}
+		return sb.append('}').toString();
+	}
+	
+	private static boolean equal(Object argOne, Object argTwo){
+		return argOne == argTwo || (argOne != null && argOne.equals(argTwo));
+	}
+}
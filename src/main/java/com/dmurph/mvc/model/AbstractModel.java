@@ -63,6 +63,34 @@ public abstract class AbstractModel implements Serializable, IModel{
         propertyChangeSupport.removePropertyChangeListener(argListener);
     }
 
+    /**
+     * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+     */
+    public void addPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+        propertyChangeSupport.addPropertyChangeListener(argPropertyName, argListener);
+    }
+
+    /**
+     * @see com.dmurph.mvc.IModel#removePropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+     */
+    public void removePropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+        propertyChangeSupport.removePropertyChangeListener(argPropertyName, argListener);
+    }
+
+    /**
+     * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.beans.PropertyChangeListener)
+     */
+    public void addWeakPropertyChangeListener(PropertyChangeListener argListener) {
+        propertyChangeSupport.addWeakPropertyChangeListener(argListener);
+    }
+
+    /**
+     * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+     */
+    public void addWeakPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+        propertyChangeSupport.addWeakPropertyChangeListener(argPropertyName, argListener);
+    }
+
     /**
      * Fires a property change event.  If the argOldValue == argNewValue
      * or argOldValue.equals( argNewValue) then no event is thrown.
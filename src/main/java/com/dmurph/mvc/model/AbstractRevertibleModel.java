@@ -28,7 +28,6 @@ import com.dmurph.mvc.IDirtyable;
 import com.dmurph.mvc.IRevertible;
 import com.dmurph.mvc.support.ISupportable;
 import com.dmurph.mvc.support.RevertibleSupport;
-import com.dmurph.mvc.support.RevertibleSupport.PropertyWrapper;
 
 /**
  * This model keeps track of original and changed property values through the 
@@ -55,22 +54,23 @@ public abstract class AbstractRevertibleModel extends AbstractModel implements I
 		}, this);
 	}
     /**
-     * If the model is "dirty", or changed since last save.  This
-     * method can be expensive, as it checks all changed properties to
-     * see if they are dirty.  Will also return true if {@link #setDirty(boolean)}
-     * was recently called with true.
+     * If the model is "dirty", or changed since last save.  This is constant
+     * time, as only the dirty properties are recorded (see {@link RevertibleSupport}).
+     * Will also return true if {@link #setDirty(boolean)} was recently called with true.
      * @see com.dmurph.mvc.IDirtyable#isDirty()
      */
 	public boolean isDirty(){
-		if(overridingDirty){
-			return overridingDirty;
-		}
-		for(PropertyWrapper prop : revertibleSupport.getRecordedProperties()){
-			if(prop.isDirty()){
-				return true;
-			}
-		}
-		return false;
+		return overridingDirty || revertibleSupport.isDirty();
+	}
+	
+	/**
+	 * Turns recording changes on or off, so properties set while loading the
+	 * model aren't reverted and don't make the model dirty.
+	 * @param argRecording
+	 * @see RevertibleSupport#setRecording(boolean)
+	 */
+	public void setRecording(boolean argRecording){
+		revertibleSupport.setRecording(argRecording);
 	}
 	
 	/**
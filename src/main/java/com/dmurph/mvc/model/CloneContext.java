@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 5:20:13 PM
+ */
+package com.dmurph.mvc.model;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.dmurph.mvc.ICloneable;
+
+/**
+ * Deep clones graphs of models.  Every object is cloned at most once, so objects that are
+ * shared in the original graph are shared in the cloned graph, and loops in the graph (like
+ * a model that references itself) are cloned into the same loops instead of recursing forever.<br/>
+ * <br/>
+ * {@link HashModel}, {@link MVCArrayList}, {@link MVCHashSet}, {@link MVCHashMap}, {@link MVCCopyOnWriteList},
+ * {@link MVCChunkedList} and generated models (see {@link GenerateModel}) are filled in directly, without firing any property change events, and
+ * are clean after they are cloned (their saved state is cloned too).  Other {@link ICloneable} objects are cloned with {@link ICloneable#clone()}, and
+ * everything else is shared between the graphs.  If a subclass of one of those overrides it's <code>cloneImpl</code>
+ * hook, the elements or properties are cloned with the hook instead.
+ * @author Daniel Murphy
+ */
+public class CloneContext {
+	
+	// class -> if it overrides cloneImpl
+	private static final Map<Class<?>, Boolean> cloneImplOverrides = Collections.synchronizedMap(new WeakHashMap<Class<?>, Boolean>());
+	
+	private final IdentityHashMap<Object, Object> clones = new IdentityHashMap<Object, Object>();
+	
+	/**
+	 * Deep clones an object with a new context.
+	 * @param argObject
+	 * @return the clone
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T deepClone(T argObject){
+		return (T) new CloneContext().cloneObject(argObject);
+	}
+	
+	/**
+	 * Clones an object, or returns the clone if it was already cloned
+	 * with this context.
+	 * @param argObject
+	 * @return
+	 */
+	public Object cloneObject(Object argObject){
+		if(argObject == null){
+			return null;
+		}
+		Object clone = clones.get(argObject);
+		if(clone != null){
+			return clone;
+		}
+		if(argObject instanceof HashModel){
+			return ((HashModel) argObject).deepClone(this);
+		}else if(argObject instanceof MVCArrayList<?>){
+			return ((MVCArrayList<?>) argObject).deepClone(this);
+		}else if(argObject instanceof MVCHashSet<?>){
+			return ((MVCHashSet<?>) argObject).deepClone(this);
+		}else if(argObject instanceof MVCHashMap<?, ?>){
+			return ((MVCHashMap<?, ?>) argObject).deepClone(this);
+		}else if(argObject instanceof MVCCopyOnWriteList<?>){
+			return ((MVCCopyOnWriteList<?>) argObject).deepClone(this);
+		}else if(argObject instanceof MVCChunkedList<?>){
+			return ((MVCChunkedList<?>) argObject).deepClone(this);
+		}else if(argObject instanceof AbstractGeneratedModel){
+			return ((AbstractGeneratedModel) argObject).deepClone(this);
+		}else if(argObject instanceof ICloneable){
+			clone = ((ICloneable) argObject).clone();
+			clones.put(argObject, clone);
+			return clone;
+		}
+		return argObject;
+	}
+	
+	/**
+	 * Sets the clone of an object.  This has to be called before cloning
+	 * the children of an object, so loops back to the object get the clone.
+	 * @param argOriginal
+	 * @param argClone
+	 */
+	public void put(Object argOriginal, Object argClone){
+		clones.put(argOriginal, argClone);
+	}
+	
+	/**
+	 * @param argOriginal
+	 * @return the clone of the object, or null if it hasn't been cloned
+	 */
+	public Object get(Object argOriginal){
+		return clones.get(argOriginal);
+	}
+	
+	/**
+	 * @param argClass
+	 * @param argDeclaringClass the class that declares the <code>cloneImpl</code> hook
+	 * @return if the class, or a superclass below the declaring class, overrides <code>cloneImpl</code>
+	 */
+	static boolean overridesCloneImpl(Class<?> argClass, Class<?> argDeclaringClass){
+		Boolean ret = cloneImplOverrides.get(argClass);
+		if(ret == null){
+			ret = false;
+			for(Class<?> c = argClass; c != argDeclaringClass && c != null; c = c.getSuperclass()){
+				for(Method m : c.getDeclaredMethods()){
+					if(m.getName().equals("cloneImpl")){
+						ret = true;
+					}
+				}
+			}
+			cloneImplOverrides.put(argClass, ret);
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,364 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 11:20:42 AM
+ */
+package com.dmurph.mvc.model;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeListenerProxy;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dmurph.mvc.I18n;
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.support.WeakPropertyChangeListener;
+
+/**
+ * A value computed from the properties of other models, like a total or a validation flag.  Implement
+ * {@link #compute()}, reading the properties with {@link #get(IModel, String)}, {@link #get(ComputedProperty)}
+ * or {@link #depend(IModel)}, and the properties read are recorded as the dependencies of the value, so
+ * the dependencies can change each time the value is computed.<br/>
+ * <br/>
+ * The value is computed lazily.  When a dependency changes, the value is invalidated and a {@link #VALUE}
+ * event is fired with null old and new values (as the value isn't known yet), and it isn't computed again
+ * until {@link #getValue()} is called.  Once invalid, more changes don't fire anything, so changing many
+ * dependencies before the value is read only computes it once.  Values read from the same property as when
+ * the value was computed are checked before the value is used, so reading a value while the events of a
+ * change are still being fired (like from a {@link PropertyBinding}) never gets a value computed from old
+ * and new dependencies mixed.  Dependencies added with {@link #depend(IModel)} are only known to change by
+ * their events.<br/>
+ * <br/>
+ * While nothing listens to the computed property with a strong listener, the dependencies are listened
+ * to with weak listeners, so a computed property that isn't used anymore can be garbage collected without
+ * being disposed.  Once it has a strong listener (like a {@link PropertyBinding} from it), the dependencies
+ * are listened to with strong listeners, so it lasts as long as its dependencies do, until the strong
+ * listeners are removed.  Like other {@link AbstractModel}s, this isn't synchronized, so use it from one thread.
+ * @author Daniel Murphy
+ * @see PropertyBinding
+ */
+public abstract class ComputedProperty<T> extends AbstractModel {
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Fired when the value is invalidated, with null old and new values.
+	 */
+	public static final String VALUE = "COMPUTED_VALUE";
+	
+	// counts the changes to the dependencies of every computed property, so the
+	// dependencies don't have to be checked if nothing changed since the last check
+	private static final AtomicInteger changes = new AtomicInteger();
+	
+	private T value = null;
+	private boolean valid = false;
+	private boolean computing = false;
+	private int checkedChanges = 0;
+	private ArrayList<Dependency> dependencies = new ArrayList<Dependency>();
+	private ArrayList<Dependency> oldDependencies = null;
+	// if the dependencies are listened to with strong listeners, as this has strong listeners
+	private boolean held = false;
+	
+	/**
+	 * Computes the value.  The dependencies are read with {@link #get(IModel, String)},
+	 * {@link #get(ComputedProperty)} and {@link #depend(IModel)}.
+	 * @return the value
+	 */
+	protected abstract T compute();
+	
+	/**
+	 * Gets the value, computing it if it's invalid or its dependencies changed.
+	 * @return
+	 * @throws IllegalStateException if the value depends on itself
+	 */
+	public T getValue(){
+		if(valid && checkedChanges != changes.get()){
+			int now = changes.get();
+			if(isDependencyChanged()){
+				// the dependency hasn't fired its change yet, so tell the listeners here
+				recompute();
+				propertyChangeSupport.firePropertyChange(VALUE, null, null);
+				return value;
+			}
+			checkedChanges = now;
+		}
+		if(!valid){
+			recompute();
+		}
+		return value;
+	}
+	
+	/**
+	 * @return if the value is computed, and none of its dependencies fired a change
+	 */
+	public boolean isValid(){
+		return valid;
+	}
+	
+	/**
+	 * Invalidates the value, so it's computed the next time it's read.  Fires
+	 * {@link #VALUE} if the value was valid.
+	 */
+	public void invalidate(){
+		if(!valid){
+			return;
+		}
+		valid = false;
+		propertyChangeSupport.firePropertyChange(VALUE, null, null);
+	}
+	
+	/**
+	 * Stops listening to the dependencies, and forgets the value.
+	 */
+	public void dispose(){
+		for(Dependency d : dependencies){
+			d.stopListening();
+		}
+		dependencies.clear();
+		value = null;
+		valid = false;
+	}
+	
+	/**
+	 * @see AbstractModel#addPropertyChangeListener(PropertyChangeListener)
+	 */
+	@Override
+	public void addPropertyChangeListener(PropertyChangeListener argListener) {
+		super.addPropertyChangeListener(argListener);
+		updateHeld();
+	}
+	
+	/**
+	 * @see AbstractModel#addPropertyChangeListener(String, PropertyChangeListener)
+	 */
+	@Override
+	public void addPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		super.addPropertyChangeListener(argPropertyName, argListener);
+		updateHeld();
+	}
+	
+	/**
+	 * @see AbstractModel#removePropertyChangeListener(PropertyChangeListener)
+	 */
+	@Override
+	public void removePropertyChangeListener(PropertyChangeListener argListener) {
+		super.removePropertyChangeListener(argListener);
+		updateHeld();
+	}
+	
+	/**
+	 * @see AbstractModel#removePropertyChangeListener(String, PropertyChangeListener)
+	 */
+	@Override
+	public void removePropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		super.removePropertyChangeListener(argPropertyName, argListener);
+		updateHeld();
+	}
+	
+	// listens to the dependencies again if this got its first strong listener or lost its last one
+	private void updateHeld(){
+		boolean strong = false;
+		for(PropertyChangeListener l : propertyChangeSupport.getPropertyChangeListeners()){
+			if(l instanceof PropertyChangeListenerProxy){
+				l = (PropertyChangeListener) ((PropertyChangeListenerProxy) l).getListener();
+			}
+			if(!(l instanceof WeakPropertyChangeListener)){
+				strong = true;
+				break;
+			}
+		}
+		if(strong == held){
+			return;
+		}
+		held = strong;
+		relisten(dependencies);
+		if(oldDependencies != null){
+			relisten(oldDependencies);
+		}
+	}
+	
+	private void relisten(ArrayList<Dependency> argDependencies){
+		for(Dependency d : argDependencies){
+			d.stopListening();
+			d.listen();
+		}
+	}
+	
+	/**
+	 * Reads a property of a {@link HashModel}, a generated model (see {@link GenerateModel})
+	 * or the value of a computed property, and records it as a dependency if the value is being computed.
+	 * @param argModel
+	 * @param argPropertyName
+	 * @return the value of the property
+	 * @throws IllegalArgumentException if the model doesn't have named properties
+	 */
+	protected Object get(IModel argModel, String argPropertyName){
+		if(argModel instanceof ComputedProperty<?>){
+			return get((ComputedProperty<?>) argModel);
+		}
+		Object v = PropertyAccess.getProperty(argModel, argPropertyName);
+		if(computing){
+			track(argModel, argPropertyName, v);
+		}
+		return v;
+	}
+	
+	/**
+	 * Reads the value of another computed property, and records it as a dependency
+	 * if this value is being computed.
+	 * @param argProperty
+	 * @return the value of the other property
+	 */
+	protected <V> V get(ComputedProperty<V> argProperty){
+		V v = argProperty.getValue();
+		if(computing){
+			track(argProperty, VALUE, v);
+		}
+		return v;
+	}
+	
+	/**
+	 * Records any change to the model as a dependency if the value is being computed,
+	 * for models without named properties, like {@link MVCArrayList}.
+	 * @param argModel
+	 * @return the model, to read it
+	 */
+	protected <M extends IModel> M depend(M argModel){
+		if(computing){
+			track(argModel, null, null);
+		}
+		return argModel;
+	}
+	
+	private void recompute(){
+		if(computing){
+			throw new IllegalStateException(I18n.getText("model.computedCycle"));
+		}
+		int now = changes.get();
+		oldDependencies = dependencies;
+		dependencies = new ArrayList<Dependency>(oldDependencies.size());
+		computing = true;
+		try{
+			value = compute();
+		}finally{
+			computing = false;
+			for(Dependency d : oldDependencies){
+				d.stopListening();
+			}
+			oldDependencies = null;
+		}
+		valid = true;
+		checkedChanges = now;
+	}
+	
+	private void track(IModel argModel, String argPropertyName, Object argValue){
+		for(Dependency d : dependencies){
+			if(d.is(argModel, argPropertyName)){
+				return;
+			}
+		}
+		// keep listening to the dependencies that were read last time
+		for(int i=0; i<oldDependencies.size(); i++){
+			Dependency d = oldDependencies.get(i);
+			if(d.is(argModel, argPropertyName)){
+				oldDependencies.remove(i);
+				d.value = argValue;
+				dependencies.add(d);
+				return;
+			}
+		}
+		Dependency d = new Dependency(argModel, argPropertyName, argValue);
+		d.listen();
+		dependencies.add(d);
+	}
+	
+	private boolean isDependencyChanged(){
+		for(Dependency d : dependencies){
+			if(d.propertyName != null && !PropertyAccess.equal(d.value, PropertyAccess.getProperty(d.model, d.propertyName))){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString(){
+		return valid ? String.valueOf(value) : "(invalid)";
+	}
+	
+	private class Dependency implements PropertyChangeListener {
+		final IModel model;
+		// null for any change to the model
+		final String propertyName;
+		Object value;
+		
+		Dependency(IModel argModel, String argPropertyName, Object argValue){
+			model = argModel;
+			propertyName = argPropertyName;
+			value = argValue;
+		}
+		
+		boolean is(IModel argModel, String argPropertyName){
+			return model == argModel && (propertyName == null ? argPropertyName == null : propertyName.equals(argPropertyName));
+		}
+		
+		void listen(){
+			if(propertyName == null){
+				if(held){
+					model.addPropertyChangeListener(this);
+				}else{
+					model.addWeakPropertyChangeListener(this);
+				}
+			}else{
+				PropertyAccess.listen(model, propertyName, this, !held);
+			}
+		}
+		
+		void stopListening(){
+			if(propertyName == null){
+				model.removePropertyChangeListener(this);
+			}else{
+				PropertyAccess.stopListening(model, propertyName, this);
+			}
+		}
+		
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			changes.incrementAndGet();
+			if(!valid){
+				return;
+			}
+			if(propertyName != null && !(model instanceof ComputedProperty<?>)){
+				if(!PropertyAccess.isChanged(argEvt, propertyName)){
+					return;
+				}
+				// the value was already computed with the new value
+				if(PropertyAccess.equal(value, PropertyAccess.getNewValue(argEvt, propertyName))){
+					return;
+				}
+			}
+			invalidate();
+		}
+	}
+}
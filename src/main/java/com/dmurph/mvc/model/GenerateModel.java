@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 9:05:31 AM
+ */
+package com.dmurph.mvc.model;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a model class from an interface of getters and setters when the interface is compiled
+ * (see {@link GenerateModelProcessor}).  Each getter (<code>getX()</code>, or <code>isX()</code> for booleans)
+ * is a property named <code>x</code>, and a setter (<code>setX(value)</code>) is generated for every
+ * property whether the interface has it or not.  The generated class extends {@link AbstractGeneratedModel},
+ * so it's dirtyable, revertible, cloneable and can be written to model streams, but it keeps the
+ * properties in fields instead of a map like {@link HashModel}.  It also has a constant for the name
+ * and the id of each property, like <code>NAME</code> and <code>ID_NAME</code>.  Properties whose constants
+ * would have the same name, like <code>idName</code> and <code>name</code>, are a compile error.<br/>
+ * <br/>
+ * The generated class is in the same package as the interface, and is named after the interface
+ * without the leading 'I', with "Model" on the end (so <code>IPerson</code> generates <code>PersonModel</code>),
+ * unless {@link #name()} is given.
+ * @author Daniel Murphy
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateModel {
+	
+	/**
+	 * The simple name of the generated class, or empty for the default name.
+	 */
+	String name() default "";
+}
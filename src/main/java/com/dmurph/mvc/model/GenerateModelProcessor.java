@@ -0,0 +1,382 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 9:38:06 AM
+ */
+package com.dmurph.mvc.model;
+
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import com.dmurph.mvc.I18n;
+
+/**
+ * Generates the model classes of interfaces annotated with {@link GenerateModel}.  This is
+ * registered as an annotation processor in the jar, so it runs when code using the jar is compiled.
+ * @author Daniel Murphy
+ */
+@SupportedAnnotationTypes("com.dmurph.mvc.model.GenerateModel")
+public class GenerateModelProcessor extends AbstractProcessor {
+	private static final String PROPERTY_NAMES = "PROPERTY_NAMES";
+	
+	/**
+	 * @see javax.annotation.processing.AbstractProcessor#getSupportedSourceVersion()
+	 */
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	/**
+	 * @see javax.annotation.processing.AbstractProcessor#process(java.util.Set, javax.annotation.processing.RoundEnvironment)
+	 */
+	@Override
+	public boolean process(Set<? extends TypeElement> argAnnotations, RoundEnvironment argRoundEnv) {
+		for(Element element : argRoundEnv.getElementsAnnotatedWith(GenerateModel.class)){
+			if(element.getKind() != ElementKind.INTERFACE){
+				error(element, I18n.getText("model.generate.notInterface"));
+				continue;
+			}
+			TypeElement type = (TypeElement) element;
+			if(!type.getTypeParameters().isEmpty()){
+				error(type, I18n.getText("model.generate.generic", type.getQualifiedName().toString()));
+				continue;
+			}
+			List<Property> properties = getProperties(type);
+			if(properties != null){
+				write(type, properties);
+			}
+		}
+		return true;
+	}
+	
+	// gets the properties of the interface, or null if there was an error
+	private List<Property> getProperties(TypeElement argType){
+		// methods of the interfaces AbstractGeneratedModel already implements are skipped
+		Set<String> implemented = new HashSet<String>();
+		addSupertypes(processingEnv.getElementUtils().getTypeElement(AbstractGeneratedModel.class.getName()).asType(), implemented);
+		
+		ArrayList<ExecutableElement> methods = new ArrayList<ExecutableElement>();
+		addMethods(argType, methods, new HashSet<String>());
+		
+		LinkedHashMap<String, ExecutableElement> getters = new LinkedHashMap<String, ExecutableElement>();
+		LinkedHashMap<String, ExecutableElement> setters = new LinkedHashMap<String, ExecutableElement>();
+		boolean valid = true;
+		for(ExecutableElement method : methods){
+			String owner = ((TypeElement) method.getEnclosingElement()).getQualifiedName().toString();
+			if(!method.getModifiers().contains(Modifier.ABSTRACT) || implemented.contains(owner)){
+				continue;
+			}
+			String name = method.getSimpleName().toString();
+			TypeKind returns = method.getReturnType().getKind();
+			int params = method.getParameters().size();
+			String suffix = null;
+			if(method.getTypeParameters().isEmpty()){
+				if(params == 0 && returns != TypeKind.VOID && name.startsWith("get") && name.length() > 3){
+					suffix = name.substring(3);
+				}else if(params == 0 && returns == TypeKind.BOOLEAN && name.startsWith("is") && name.length() > 2){
+					suffix = name.substring(2);
+				}else if(params == 1 && returns == TypeKind.VOID && name.startsWith("set") && name.length() > 3){
+					if(!setters.containsKey(name.substring(3))){
+						setters.put(name.substring(3), method);
+					}
+					continue;
+				}
+			}
+			if(suffix == null){
+				error(method, I18n.getText("model.generate.badMethod", name));
+				valid = false;
+			}else if(!getters.containsKey(suffix)){
+				getters.put(suffix, method);
+			}
+		}
+		
+		for(String suffix : setters.keySet()){
+			ExecutableElement setter = setters.get(suffix);
+			ExecutableElement getter = getters.get(suffix);
+			if(getter == null){
+				error(setter, I18n.getText("model.generate.noGetter", setter.getSimpleName().toString()));
+				valid = false;
+			}else if(!processingEnv.getTypeUtils().isSameType(setter.getParameters().get(0).asType(), getter.getReturnType())){
+				error(setter, I18n.getText("model.generate.setterType", setter.getSimpleName().toString()));
+				valid = false;
+			}
+		}
+		if(!valid){
+			return null;
+		}
+		
+		ArrayList<Property> properties = new ArrayList<Property>();
+		// the constants generated for different properties can't have the same name
+		Set<String> constants = new HashSet<String>();
+		constants.add(PROPERTY_NAMES);
+		for(String suffix : getters.keySet()){
+			Property p = new Property(suffix, getters.get(suffix));
+			for(String constant : new String[]{p.constant, p.idConstant}){
+				if(!constants.add(constant)){
+					error(getters.get(suffix), I18n.getText("model.generate.clash", p.name, constant));
+					valid = false;
+				}
+			}
+			properties.add(p);
+		}
+		return valid ? properties : null;
+	}
+	
+	private void addSupertypes(TypeMirror argType, Set<String> argNames){
+		for(TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(argType)){
+			Element element = processingEnv.getTypeUtils().asElement(supertype);
+			if(element instanceof TypeElement && argNames.add(((TypeElement) element).getQualifiedName().toString())){
+				addSupertypes(supertype, argNames);
+			}
+		}
+	}
+	
+	// the interface's own methods first, then the methods of the interfaces it extends
+	private void addMethods(TypeElement argType, List<ExecutableElement> argMethods, Set<String> argVisited){
+		if(!argVisited.add(argType.getQualifiedName().toString())){
+			return;
+		}
+		argMethods.addAll(ElementFilter.methodsIn(argType.getEnclosedElements()));
+		for(TypeMirror supertype : argType.getInterfaces()){
+			addMethods((TypeElement) processingEnv.getTypeUtils().asElement(supertype), argMethods, argVisited);
+		}
+	}
+	
+	private void write(TypeElement argType, List<Property> argProperties){
+		String name = argType.getAnnotation(GenerateModel.class).name();
+		if(name.length() == 0){
+			name = argType.getSimpleName().toString();
+			if(name.length() > 1 && name.charAt(0) == 'I' && Character.isUpperCase(name.charAt(1))){
+				name = name.substring(1);
+			}
+			name += "Model";
+		}
+		String pkg = processingEnv.getElementUtils().getPackageOf(argType).getQualifiedName().toString();
+		String qualifiedName = pkg.length() == 0 ? name : pkg + "." + name;
+		
+		PrintWriter out;
+		try{
+			out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, argType).openWriter());
+		}catch(IOException e){
+			error(argType, I18n.getText("model.generate.writing", qualifiedName, e.toString()));
+			return;
+		}
+		
+		if(pkg.length() > 0){
+			out.println("package " + pkg + ";");
+			out.println();
+		}
+		out.println("import com.dmurph.mvc.model.AbstractGeneratedModel;");
+		out.println("import com.dmurph.mvc.model.CloneContext;");
+		out.println();
+		out.println("/**");
+		out.println(" * Generated from {@link " + argType.getQualifiedName() + "}, don't edit.");
+		out.println(" */");
+		out.println("public class " + name + " extends AbstractGeneratedModel implements " + argType.getQualifiedName() + " {");
+		out.println("\tprivate static final long serialVersionUID = 1L;");
+		out.println("\t");
+		for(int i=0; i<argProperties.size(); i++){
+			Property p = argProperties.get(i);
+			out.println("\tpublic static final String " + p.constant + " = \"" + p.name + "\";");
+			out.println("\tpublic static final int " + p.idConstant + " = " + i + ";");
+		}
+		out.print("\tprivate static final String[] " + PROPERTY_NAMES + " = {");
+		for(int i=0; i<argProperties.size(); i++){
+			out.print((i == 0 ? "" : ", ") + argProperties.get(i).constant);
+		}
+		out.println("};");
+		out.println("\t");
+		for(Property p : argProperties){
+			out.println("\tprivate " + p.type + " " + p.field + ";");
+		}
+		out.println("\t");
+		out.println("\tpublic " + name + "(){");
+		out.println("\t\tsuper(" + PROPERTY_NAMES + ");");
+		out.println("\t}");
+		
+		for(Property p : argProperties){
+			out.println("\t");
+			out.println("\tpublic " + p.type + " " + p.getter + "(){");
+			out.println("\t\treturn " + p.field + ";");
+			out.println("\t}");
+			out.println("\t");
+			out.println("\tpublic void " + p.setter + "(" + p.type + " argValue){");
+			out.println("\t\t" + p.type + " old = " + p.field + ";");
+			out.println("\t\tif(" + p.equalsExpression("old", "argValue") + "){");
+			out.println("\t\t\treturn;");
+			out.println("\t\t}");
+			out.println("\t\t" + p.field + " = argValue;");
+			out.println("\t\tpropertyChanged(" + p.idConstant + ", old, argValue);");
+			out.println("\t}");
+		}
+		
+		out.println("\t");
+		out.println("\t@Override");
+		out.println("\tprotected Object getField(int argId){");
+		out.println("\t\tswitch(argId){");
+		for(Property p : argProperties){
+			out.println("\t\t\tcase " + p.idConstant + ":");
+			out.println("\t\t\t\treturn " + p.field + ";");
+		}
+		out.println("\t\t\tdefault:");
+		out.println("\t\t\t\tthrow new IndexOutOfBoundsException(String.valueOf(argId));");
+		out.println("\t\t}");
+		out.println("\t}");
+		out.println("\t");
+		out.println("\t@Override");
+		out.println("\t@SuppressWarnings(\"unchecked\")");
+		out.println("\tprotected void setField(int argId, Object argValue){");
+		out.println("\t\tswitch(argId){");
+		for(Property p : argProperties){
+			out.println("\t\t\tcase " + p.idConstant + ":");
+			if(p.kind.isPrimitive()){
+				out.println("\t\t\t\tcheckNotNull(argId, argValue);");
+			}
+			out.println("\t\t\t\t" + p.field + " = (" + p.boxedType + ") argValue;");
+			out.println("\t\t\t\tbreak;");
+		}
+		out.println("\t\t\tdefault:");
+		out.println("\t\t\t\tthrow new IndexOutOfBoundsException(String.valueOf(argId));");
+		out.println("\t\t}");
+		out.println("\t}");
+		out.println("\t");
+		out.println("\t@Override");
+		out.println("\tprotected " + name + " newInstance(){");
+		out.println("\t\treturn new " + name + "();");
+		out.println("\t}");
+		out.println("\t");
+		out.println("\t@Override");
+		out.println("\t@SuppressWarnings(\"unchecked\")");
+		out.println("\tprotected void cloneFields(AbstractGeneratedModel argOther, CloneContext argContext){");
+		out.println("\t\t" + name + " other = (" + name + ") argOther;");
+		for(Property p : argProperties){
+			if(p.immutable){
+				out.println("\t\t" + p.field + " = other." + p.field + ";");
+			}else{
+				out.println("\t\t" + p.field + " = (" + p.type + ") argContext.cloneObject(other." + p.field + ");");
+			}
+		}
+		out.println("\t}");
+		out.println("}");
+		out.close();
+	}
+	
+	private void error(Element argElement, String argMessage){
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, argMessage, argElement);
+	}
+	
+	private class Property {
+		final String name;
+		final String constant;
+		final String idConstant;
+		final String field;
+		final String getter;
+		final String setter;
+		final TypeKind kind;
+		final String type;
+		final String boxedType;
+		// if the value can be shared by clones
+		final boolean immutable;
+		
+		Property(String argSuffix, ExecutableElement argGetter){
+			name = Introspector.decapitalize(argSuffix);
+			field = SourceVersion.isKeyword(name) ? name + "_" : name;
+			getter = argGetter.getSimpleName().toString();
+			setter = "set" + argSuffix;
+			
+			StringBuilder sb = new StringBuilder();
+			for(int i=0; i<name.length(); i++){
+				char c = name.charAt(i);
+				if(i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(name.charAt(i - 1))){
+					sb.append('_');
+				}
+				sb.append(Character.toUpperCase(c));
+			}
+			constant = sb.toString();
+			idConstant = "ID_" + constant;
+			
+			TypeMirror returnType = argGetter.getReturnType();
+			kind = returnType.getKind();
+			type = returnType.toString();
+			if(kind.isPrimitive()){
+				boxedType = processingEnv.getTypeUtils().boxedClass((PrimitiveType) returnType).getQualifiedName().toString();
+				immutable = true;
+			}else{
+				boxedType = type;
+				boolean imm = false;
+				if(kind == TypeKind.DECLARED){
+					TypeElement element = (TypeElement) ((DeclaredType) returnType).asElement();
+					String qualified = element.getQualifiedName().toString();
+					imm = element.getKind() == ElementKind.ENUM || qualified.equals(String.class.getName())
+							|| (qualified.startsWith("java.lang.") && isBoxed(returnType));
+				}
+				immutable = imm;
+			}
+		}
+		
+		private boolean isBoxed(TypeMirror argType){
+			try{
+				processingEnv.getTypeUtils().unboxedType(argType);
+				return true;
+			}catch(IllegalArgumentException e){
+				return false;
+			}
+		}
+		
+		String equalsExpression(String argOld, String argNew){
+			switch(kind){
+				case FLOAT:
+					return "Float.floatToIntBits(" + argOld + ") == Float.floatToIntBits(" + argNew + ")";
+				case DOUBLE:
+					return "Double.doubleToLongBits(" + argOld + ") == Double.doubleToLongBits(" + argNew + ")";
+				default:
+					if(kind.isPrimitive()){
+						return argOld + " == " + argNew;
+					}
+					return argOld + " == " + argNew + " || (" + argOld + " != null && " + argOld + ".equals(" + argNew + "))";
+			}
+		}
+	}
+}
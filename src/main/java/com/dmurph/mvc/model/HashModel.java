@@ -24,10 +24,14 @@
  */
 package com.dmurph.mvc.model;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,8 +41,15 @@ import com.dmurph.mvc.ICloneable;
 import com.dmurph.mvc.IDirtyable;
 import com.dmurph.mvc.IModel;
 import com.dmurph.mvc.IRevertible;
+import com.dmurph.mvc.io.IBinaryStreamable;
+import com.dmurph.mvc.io.ModelInputStream;
+import com.dmurph.mvc.io.ModelOutputStream;
 import com.dmurph.mvc.support.AbstractMVCSupport;
+import com.dmurph.mvc.support.DirtySupport;
+import com.dmurph.mvc.support.IDirtySupportable;
 import com.dmurph.mvc.support.ISupportable;
+import com.dmurph.mvc.support.MVCPropertiesChangedEvent;
+import com.dmurph.mvc.support.MVCPropertyChangeSupport;
 import com.dmurph.mvc.support.RevertibleSupport;
 import com.dmurph.mvc.support.RevertibleSupport.PropertyWrapper;
 
@@ -54,18 +65,51 @@ import com.dmurph.mvc.support.RevertibleSupport.PropertyWrapper;
  * properties that you don't want any calls forwarded to, or if you want more control, you can override
  * {@link AbstractMVCSupport#cloneImpl(String, Object)}, {@link AbstractMVCSupport#revertChangesImpl(String, Object)},
  * {@link AbstractMVCSupport#isDirtyImpl(String, Object)}, {@link AbstractMVCSupport#setDirtyImpl(String, Object)},
- * or {@link AbstractMVCSupport#saveChangesImpl(String, Object)} to prevent this as well.
+ * or {@link AbstractMVCSupport#saveChangesImpl(String, Object)} to prevent this as well.<br/>
+ * <br/>
+ * To set many properties at once, call {@link #beginUpdate()} first and {@link #commitUpdate()}
+ * after.  Instead of firing an event for every property (and setting {@link IModel#DIRTY} every time),
+ * a single {@link MVCPropertiesChangedEvent} is fired with the name {@link #PROPERTIES_CHANGED}
+ * when the update is committed.<br/>
+ * <br/>
+ * The dirty state of properties that are {@link IDirtyable} is kept track of as they change
+ * (see {@link DirtySupport}), so {@link #isDirty()} doesn't have to check every property.  A property
+ * is asked with {@link AbstractMVCSupport#isDirtyImpl(String, Object)} when it's set and when it fires
+ * a change, instead of every time {@link #isDirty()} is called.  The
+ * {@link IModel#DIRTY} property change event is fired whenever {@link #isDirty()} changes, including
+ * when it changes because of a property.<br/>
+ * <br/>
+ * Models can be written to a {@link ModelOutputStream} and read back from a {@link ModelInputStream},
+ * which is much smaller and faster than java serialization.
  * 
  * @author Daniel Murphy
  *
  */
-public class HashModel extends AbstractMVCSupport implements IDirtyable, ICloneable, IRevertible, IModel{
+public class HashModel extends AbstractMVCSupport implements IDirtyable, ICloneable, IRevertible, IModel, IBinaryStreamable{
 	private static final long serialVersionUID = 2L;
 	
+	/**
+	 * Not exactly a property, but the name of the property when multiple properties
+	 * are changed in an update (see {@link #beginUpdate()}).  This fires an
+	 * {@link MVCPropertiesChangedEvent}.
+	 */
+	public static final String PROPERTIES_CHANGED = "HASH_MODEL_PROPERTIES_CHANGED";
+	
 	private static final Logger log = LoggerFactory.getLogger(HashModel.class);
 	
 	private final HashMap<String, ModelProperty> propertyMap = new HashMap<String, ModelProperty>();
 	private final RevertibleSupport revertibleSupport;
+	private final DirtySupport dirtySupport;
+	// dirtyable child -> the properties it's stored in, so dirty checks can go through isDirtyImpl
+	private final IdentityHashMap<Object, ArrayList<String>> childKeys = new IdentityHashMap<Object, ArrayList<String>>();
+	
+	// mirror of the DIRTY property, and the last dirty value we fired
+	private volatile boolean dirty = false;
+	private final AtomicBoolean firedDirty = new AtomicBoolean(false);
+	
+	// update nesting depth, and the original values of the properties changed in the update
+	private int updateDepth = 0;
+	private LinkedHashMap<String, Object> updateOldValues = null;
 	
 	public enum PropertyType{
 		/**
@@ -93,17 +137,6 @@ public class HashModel extends AbstractMVCSupport implements IDirtyable, IClonea
 		FINAL
 	}
 	
-	// for listening to dirty updates from children
-	private final PropertyChangeListener childPropertyChangeListener = new PropertyChangeListener() {
-		public void propertyChange(PropertyChangeEvent argEvt) {
-			if(argEvt.getPropertyName().equals(IModel.DIRTY)){
-				if(argEvt.getNewValue() == Boolean.TRUE){
-					propertyChangeSupport.firePropertyChange(argEvt);
-				}
-			}
-		}
-	};
-	
 	/**
 	 * Constructs a hash model with an {@link IModel#DIRTY} property.
 	 */
@@ -113,6 +146,28 @@ public class HashModel extends AbstractMVCSupport implements IDirtyable, IClonea
 				HashModel.this.setProperty(argPropertyName, argProperty);
 			}
 		}, this);
+		dirtySupport = new DirtySupport(this, new IDirtySupportable() {
+			public boolean isChildDirty(Object argChild) {
+				String[] keys;
+				synchronized (childKeys) {
+					ArrayList<String> list = childKeys.get(argChild);
+					if(list == null){
+						return false;
+					}
+					keys = list.toArray(new String[list.size()]);
+				}
+				for(String key : keys){
+					if(isDirtyImpl(key, argChild)){
+						return true;
+					}
+				}
+				return false;
+			}
+			
+			public void dirtyChildrenChanged(boolean argHasDirtyChildren) {
+				fireDirtyChanged();
+			}
+		});
 		
 		registerProperty(DIRTY, PropertyType.READ_WRITE, false);
 	}
@@ -127,15 +182,40 @@ public class HashModel extends AbstractMVCSupport implements IDirtyable, IClonea
 		registerProperty(argProperties, PropertyType.READ_WRITE);
 	}
 	
-	private void addListener(Object argObject){
-		if(argObject instanceof IModel){
-			((IModel) argObject).addPropertyChangeListener(childPropertyChangeListener);
+	private void addChild(String argKey, Object argObject){
+		if(argObject instanceof IDirtyable && isDeepMVCEnabled(argKey)){
+			synchronized (childKeys) {
+				ArrayList<String> keys = childKeys.get(argObject);
+				if(keys == null){
+					keys = new ArrayList<String>(1);
+					childKeys.put(argObject, keys);
+				}
+				keys.add(argKey);
+			}
+			dirtySupport.addChild(argObject);
+		}
+	}
+	
+	private void removeChild(String argKey, Object argObject){
+		if(argObject instanceof IDirtyable){
+			synchronized (childKeys) {
+				ArrayList<String> keys = childKeys.get(argObject);
+				if(keys == null || !keys.remove(argKey)){
+					return;
+				}
+				if(keys.isEmpty()){
+					childKeys.remove(argObject);
+				}
+			}
+			dirtySupport.removeChild(argObject);
 		}
 	}
 	
-	private void removeListener(Object argObject){
-		if(argObject instanceof IModel){
-			((IModel) argObject).removePropertyChangeListener(childPropertyChangeListener);
+	// fires the dirty property if isDirty() changed since the last time we fired it
+	private void fireDirtyChanged(){
+		boolean dirtyNow = isDirty();
+		if(firedDirty.compareAndSet(!dirtyNow, dirtyNow)){
+			propertyChangeSupport.firePropertyChange(DIRTY, !dirtyNow, dirtyNow);
 		}
 	}
 	
@@ -164,14 +244,18 @@ public class HashModel extends AbstractMVCSupport implements IDirtyable, IClonea
 			if(mp.type == PropertyType.FINAL){
 				throw new PropertyPermissionException(I18n.getText("model.propertyFinal", argKey));
 			}
+			removeChild(argKey, mp.prop);
 		}else{
 			mp = new ModelProperty();
 		}
 		mp.type = argType;
 		mp.prop = argInitial;
 		mp.name = argKey;
-		addListener(mp.prop);
+		addChild(argKey, mp.prop);
 		propertyMap.put(argKey, mp);
+		if(argKey.equals(DIRTY)){
+			dirty = Boolean.TRUE.equals(argInitial);
+		}
 	}
 	
 	/**
@@ -202,13 +286,22 @@ public class HashModel extends AbstractMVCSupport implements IDirtyable, IClonea
 						return argProperty;
 					}
 					Object old = mp.prop;
-					removeListener(old);
+					removeChild(argKey, old);
 					mp.prop = argProperty;
-					addListener(mp.prop);
-					firePropertyChange(argKey, old, argProperty);
-					if(!argKey.equals(DIRTY)){
-						setProperty(DIRTY, true);
+					addChild(argKey, mp.prop);
+					if(argKey.equals(DIRTY)){
+						dirty = Boolean.TRUE.equals(argProperty);
+						fireDirtyChanged();
+						return old;
 					}
+					if(updateDepth > 0){
+						if(!updateOldValues.containsKey(argKey)){
+							updateOldValues.put(argKey, old);
+						}
+						return old;
+					}
+					firePropertyChange(argKey, old, argProperty);
+					setProperty(DIRTY, true);
 					return old;
 				case READ_ONLY:
 					if(log.isWarnEnabled()){
@@ -226,6 +319,61 @@ public class HashModel extends AbstractMVCSupport implements IDirtyable, IClonea
 		}
 	}
 		
+	/**
+	 * Starts an update.  Until {@link #commitUpdate()} is called, properties set with
+	 * {@link #setProperty(String, Object)} don't fire property change events or set the model
+	 * as dirty.  Updates can be nested, only the outermost {@link #commitUpdate()} fires the event.
+	 * Call {@link #commitUpdate()} in a <code>finally</code> block.
+	 * @see #commitUpdate()
+	 */
+	public synchronized void beginUpdate(){
+		if(updateDepth == 0){
+			updateOldValues = new LinkedHashMap<String, Object>();
+		}
+		updateDepth++;
+	}
+	
+	/**
+	 * Commits an update started by {@link #beginUpdate()}.  If this is the outermost update
+	 * and any properties changed, then a single {@link MVCPropertiesChangedEvent} is fired
+	 * with the name {@link #PROPERTIES_CHANGED}, and the model is set as dirty.
+	 * @throws IllegalStateException if {@link #beginUpdate()} wasn't called
+	 */
+	public synchronized void commitUpdate(){
+		if(updateDepth == 0){
+			throw new IllegalStateException(I18n.getText("model.noUpdate"));
+		}
+		updateDepth--;
+		if(updateDepth > 0){
+			return;
+		}
+		LinkedHashMap<String, Object> oldValues = new LinkedHashMap<String, Object>();
+		LinkedHashMap<String, Object> newValues = new LinkedHashMap<String, Object>();
+		for(String key : updateOldValues.keySet()){
+			Object old = updateOldValues.get(key);
+			Object current = propertyMap.get(key).prop;
+			if(old == current || MVCPropertyChangeSupport.isUnchanged(old, current)){
+				continue;
+			}
+			oldValues.put(key, old);
+			newValues.put(key, current);
+		}
+		updateOldValues = null;
+		if(newValues.isEmpty()){
+			return;
+		}
+		propertyChangeSupport.firePropertiesChangedEvent(PROPERTIES_CHANGED, oldValues, newValues);
+		setProperty(DIRTY, true);
+	}
+	
+	/**
+	 * @return if the model is in an update
+	 * @see #beginUpdate()
+	 */
+	public synchronized boolean isUpdating(){
+		return updateDepth > 0;
+	}
+		
 	/**
 	 * Get a property
 	 * @param argKey
@@ -272,13 +420,129 @@ public class HashModel extends AbstractMVCSupport implements IDirtyable, IClonea
 	}
 	
 	/**
+	 * Deep clones this model with a {@link CloneContext}, so models that are shared
+	 * or reference each other are cloned once.  No events are fired while cloning.
+	 * Use {@link #cloneFrom(ICloneable)} to clone into an existing model.
 	 * @see ICloneable#clone()
 	 */
 	@Override
 	public ICloneable clone(){
-		HashModel model = new HashModel();
-		model.cloneFrom(this);
-		return model;
+		return deepClone(new CloneContext());
+	}
+	
+	/**
+	 * Clones this model by filling in a new model directly, without firing events.  Properties
+	 * that have deep mvc enabled (see {@link #isDeepMVCEnabled(String)}) are cloned with the context,
+	 * and the saved values are cloned as well, so the clone can be reverted like this model.  If
+	 * {@link #cloneImpl(String, Object)} is overridden, it's used to clone the properties instead.
+	 * @param argContext
+	 * @return
+	 */
+	HashModel deepClone(CloneContext argContext){
+		HashModel clone = new HashModel();
+		argContext.put(this, clone);
+		
+		ModelProperty[] props;
+		PropertyWrapper[] recorded;
+		synchronized (this) {
+			props = propertyMap.values().toArray(new ModelProperty[propertyMap.size()]);
+			recorded = revertibleSupport.getRecordedProperties().toArray(new PropertyWrapper[0]);
+		}
+		// properties are cloned with cloneImpl if it's overridden
+		boolean hook = CloneContext.overridesCloneImpl(getClass(), AbstractMVCSupport.class);
+		clone.propertyMap.clear();
+		for(ModelProperty mp : props){
+			ModelProperty cmp = new ModelProperty();
+			cmp.name = mp.name;
+			cmp.type = mp.type;
+			cmp.prop = cloneProperty(argContext, hook, mp.name, mp.prop);
+			clone.propertyMap.put(cmp.name, cmp);
+			clone.addChild(cmp.name, cmp.prop);
+		}
+		for(PropertyWrapper wrapper : recorded){
+			String name = wrapper.getName();
+			clone.revertibleSupport.record(name, cloneProperty(argContext, hook, name, wrapper.getCleanObject()),
+										   cloneProperty(argContext, hook, name, wrapper.getDirtyObject()));
+		}
+		clone.dirty = Boolean.TRUE.equals(clone.getProperty(DIRTY));
+		clone.firedDirty.set(clone.isDirty());
+		return clone;
+	}
+	
+	private Object cloneProperty(CloneContext argContext, boolean argHook, String argName, Object argValue){
+		if(argHook){
+			return cloneImpl(argName, argValue);
+		}
+		return isDeepMVCEnabled(argName) ? argContext.cloneObject(argValue) : argValue;
+	}
+	
+	/**
+	 * Writes the properties, their property types, and the saved values
+	 * of the changed properties.
+	 * @see IBinaryStreamable#writeBinary(ModelOutputStream)
+	 */
+	public void writeBinary(ModelOutputStream argOut) throws IOException {
+		ModelProperty[] props;
+		PropertyWrapper[] recorded;
+		synchronized (this) {
+			props = propertyMap.values().toArray(new ModelProperty[propertyMap.size()]);
+			recorded = revertibleSupport.getRecordedProperties().toArray(new PropertyWrapper[0]);
+		}
+		argOut.writeVarInt(props.length);
+		for(ModelProperty mp : props){
+			argOut.writeString(mp.name);
+			argOut.write(mp.type.ordinal());
+			argOut.writeObject(mp.prop);
+		}
+		argOut.writeVarInt(recorded.length);
+		for(PropertyWrapper wrapper : recorded){
+			argOut.writeString(wrapper.getName());
+			argOut.writeObject(wrapper.getCleanObject());
+			argOut.writeObject(wrapper.getDirtyObject());
+		}
+	}
+	
+	/**
+	 * Replaces the properties of this model with the ones read from the stream,
+	 * without firing any events.
+	 * @see IBinaryStreamable#readBinary(ModelInputStream)
+	 */
+	public void readBinary(ModelInputStream argIn) throws IOException, ClassNotFoundException {
+		PropertyType[] types = PropertyType.values();
+		int count = argIn.readLength();
+		ArrayList<ModelProperty> props = new ArrayList<ModelProperty>(argIn.getInitialCapacity(count));
+		for(int i=0; i<count; i++){
+			ModelProperty mp = new ModelProperty();
+			mp.name = argIn.readString();
+			int type = argIn.read();
+			if(type < 0 || type >= types.length){
+				throw new StreamCorruptedException(I18n.getText("io.badTag", type+""));
+			}
+			mp.type = types[type];
+			mp.prop = argIn.readObject();
+			props.add(mp);
+		}
+		int recordedCount = argIn.readLength();
+		ArrayList<String> names = new ArrayList<String>(argIn.getInitialCapacity(recordedCount));
+		ArrayList<Object> values = new ArrayList<Object>(argIn.getInitialCapacity(recordedCount * 2));
+		for(int i=0; i<recordedCount; i++){
+			names.add(argIn.readString());
+			values.add(argIn.readObject());
+			values.add(argIn.readObject());
+		}
+		synchronized (this) {
+			cleanClear();
+			for(ModelProperty mp : props){
+				propertyMap.put(mp.name, mp);
+				addChild(mp.name, mp.prop);
+			}
+			revertibleSupport.saveChanges();
+			for(int i=0; i<recordedCount; i++){
+				revertibleSupport.record(names.get(i), values.get(i*2), values.get(i*2 + 1));
+			}
+			dirty = Boolean.TRUE.equals(getProperty(DIRTY));
+		}
+		firedDirty.set(isDirty());
 	}
 	
 	// clears properties of the model, making sure the remove listeners
@@ -286,7 +550,8 @@ public class HashModel extends AbstractMVCSupport implements IDirtyable, IClonea
 	private void cleanClear(){
 		Iterator<ModelProperty> it = propertyMap.values().iterator();
 		while(it.hasNext()){
-			removeListener(it.next().prop);
+			ModelProperty mp = it.next();
+			removeChild(mp.name, mp.prop);
 			it.remove();
 		}
 	}
@@ -335,28 +600,24 @@ public class HashModel extends AbstractMVCSupport implements IDirtyable, IClonea
 	}
 	
 	/**
+	 * This doesn't check every property, as the dirty state of properties
+	 * that are {@link IDirtyable} is kept track of as they change.
 	 * @see com.dmurph.mvc.IDirtyable#isDirty()
 	 */
-	public synchronized boolean isDirty() {
-		if((Boolean)getProperty(DIRTY)){
-			return true;
-		}
-		for(PropertyWrapper prop : revertibleSupport.getRecordedProperties()){
-			if(prop.isDirty()){
-				return true;
-			}
-		}
-		boolean ret = false;
-		for(String key: propertyMap.keySet()){
-			ModelProperty mp = propertyMap.get(key);
-			ret = ret || isDirtyImpl(key, mp.prop);
-			if(ret){
-				return ret;
-			}
-		}
-		return ret;
+	public boolean isDirty() {
+		return dirty || dirtySupport.hasDirtyChildren();
 	}
 
+	/**
+	 * Turns recording changes on or off.  Properties set while recording is off aren't
+	 * reverted by {@link #revertChanges()}, so turn it off while loading the model.
+	 * @param argRecording
+	 * @see RevertibleSupport#setRecording(boolean)
+	 */
+	public void setRecording(boolean argRecording){
+		revertibleSupport.setRecording(argRecording);
+	}
+	
 	/**
 	 * @see com.dmurph.mvc.IRevertible#revertChanges()
 	 */
@@ -367,6 +628,7 @@ public class HashModel extends AbstractMVCSupport implements IDirtyable, IClonea
 			revertChangesImpl(key, mp.prop);
 		}
 		setProperty(DIRTY, false);
+		dirtySupport.refresh();
 	}
 	
 	/**
@@ -379,6 +641,7 @@ public class HashModel extends AbstractMVCSupport implements IDirtyable, IClonea
 			ModelProperty mp = propertyMap.get(key);
 			saveChangesImpl(key, mp.prop);
 		}
+		dirtySupport.refresh();
 	}
 	
 	/**
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 11:21:40 PM
+ */
+package com.dmurph.mvc.model;
+
+import java.util.Comparator;
+import java.util.List;
+
+import com.dmurph.mvc.IFilter;
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.ITransformer;
+
+/**
+ * A list model that fires the {@link MVCArrayList} events ({@link MVCArrayList#ADDED},
+ * {@link MVCArrayList#REMOVED}, {@link MVCArrayList#CHANGED}, the bulk versions, and
+ * {@link MVCArrayList#SIZE}) when it changes, so live views can be made from it.
+ * @author Daniel Murphy
+ */
+public interface IMVCList<E> extends List<E>, IModel {
+	
+	/**
+	 * Gets a live view of the elements accepted by the filter.
+	 * @param argFilter
+	 * @return
+	 * @see MVCFilteredListView
+	 */
+	public MVCFilteredListView<E> filtered(IFilter<? super E> argFilter);
+	
+	/**
+	 * Gets a live view of the elements sorted by the comparator, or by their
+	 * natural ordering if the comparator is null.
+	 * @param argComparator
+	 * @return
+	 * @see MVCSortedListView
+	 */
+	public MVCSortedListView<E> sorted(Comparator<? super E> argComparator);
+	
+	/**
+	 * Gets a live view of the result of the transformer for each element.
+	 * @param argTransformer
+	 * @return
+	 * @see MVCMappedListView
+	 */
+	public <T> MVCMappedListView<E, T> mapped(ITransformer<? super E, ? extends T> argTransformer);
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 3:02:44 AM
+ */
+package com.dmurph.mvc.model;
+
+import java.util.List;
+
+/**
+ * Provides the elements of a {@link MVCLazyList} a page at a time, like from a database
+ * query.  Pages can be requested from any thread.
+ * @author Daniel Murphy
+ * @see ListPageProvider
+ */
+public interface IPageProvider<E> {
+	
+	/**
+	 * @return the number of elements
+	 */
+	public int getSize();
+	
+	/**
+	 * Gets a page of elements
+	 * @param argStart the index of the first element
+	 * @param argCount the number of elements, which won't go past {@link #getSize()}
+	 * @return the elements
+	 */
+	public List<E> getPage(int argStart, int argCount);
+}
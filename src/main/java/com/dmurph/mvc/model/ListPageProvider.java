@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 3:05:10 AM
+ */
+package com.dmurph.mvc.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link IPageProvider} for a list in memory, which also counts how many
+ * pages were requested.  Useful for testing.
+ * @author Daniel Murphy
+ */
+public class ListPageProvider<E> implements IPageProvider<E> {
+	
+	private final List<E> list;
+	private final AtomicInteger pageCount = new AtomicInteger(0);
+	
+	public ListPageProvider(List<E> argList){
+		list = argList;
+	}
+	
+	public int getSize() {
+		return list.size();
+	}
+	
+	public List<E> getPage(int argStart, int argCount) {
+		pageCount.incrementAndGet();
+		return new ArrayList<E>(list.subList(argStart, argStart + argCount));
+	}
+	
+	/**
+	 * @return how many pages were requested
+	 */
+	public int getPageCount(){
+		return pageCount.get();
+	}
+}
@@ -25,17 +25,33 @@
 package com.dmurph.mvc.model;
 
 import java.beans.IndexedPropertyChangeEvent;
-import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.dmurph.mvc.I18n;
 import com.dmurph.mvc.ICloneable;
 import com.dmurph.mvc.IDirtyable;
+import com.dmurph.mvc.IFilter;
 import com.dmurph.mvc.IModel;
 import com.dmurph.mvc.IRevertible;
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.io.IBinaryStreamable;
+import com.dmurph.mvc.io.ModelInputStream;
+import com.dmurph.mvc.io.ModelOutputStream;
+import com.dmurph.mvc.support.DirtySupport;
+import com.dmurph.mvc.support.IDirtySupportable;
+import com.dmurph.mvc.support.ListChangeSet;
+import com.dmurph.mvc.support.ListRevertSupport;
+import com.dmurph.mvc.support.MVCIndexedPropertiesChangedEvent;
 import com.dmurph.mvc.support.MVCPropertiesAddedEvent;
 import com.dmurph.mvc.support.MVCPropertiesRemovedEvent;
 import com.dmurph.mvc.support.MVCPropertyAddedEvent;
@@ -58,10 +74,17 @@ import com.dmurph.mvc.support.MVCPropertyRemovedEvent;
  * {@link #setDirtyImpl(Object, boolean)}
  * or {@link #saveChangesImpl(Object)} to prevent this.<br/>
  * <br/>
+ * Saving doesn't copy the list, instead the changes since the last save are kept track of
+ * (see {@link ListRevertSupport}), so {@link #saveChanges()} is fast and reverting only undoes what changed.<br/>
+ * <br/>
+ * The bulk operations ({@link #removeAll(Collection)}, {@link #retainAll(Collection)}, {@link #removeRange(int, int)},
+ * {@link #removeAllMatching(IFilter)} and {@link #transformAll(ITransformer)}) change the list in one pass, and
+ * fire one event for all the elements instead of an event per element.<br/>
+ * <br/>
  * All the operations are also synchronized, as most MVC implementations are multithreaded.
  * @author Daniel Murphy
  */
-public class MVCArrayList<E> extends ArrayList<E> implements IModel, ICloneable, IDirtyable, IRevertible {
+public class MVCArrayList<E> extends ArrayList<E> implements IMVCList<E>, ICloneable, IDirtyable, IRevertible, IBinaryStreamable{
 	private static final long serialVersionUID = 2L;
 	
 	/**
@@ -79,7 +102,9 @@ public class MVCArrayList<E> extends ArrayList<E> implements IModel, ICloneable,
 	
 	/**
 	 * Not exactly a property, but the name of the property when  <b>multiple</b> elements
-	 * are removed from the array.  This fires an {@link MVCPropertiesRemovedEvent}.
+	 * are removed from the array.  This fires an {@link MVCPropertiesRemovedEvent}.  If the
+	 * elements weren't next to each other (like with {@link #removeAll(Collection)}),
+	 * {@link MVCPropertiesRemovedEvent#getIndexes()} has the index of each element.
 	 */
 	public static final String REMOVED_ALL = "ARRAY_LIST_REMOVED_ALL";
 	
@@ -102,31 +127,65 @@ public class MVCArrayList<E> extends ArrayList<E> implements IModel, ICloneable,
 	 */
 	public static final String CHANGED = "ARRAY_LIST_CHANGED";
 	
-	private boolean dirty = false;
+	/**
+	 * Not exactly a property, but the name of the property when <b>multiple</b> values
+	 * in the array were changed (through {@link #transformAll(ITransformer)}).  This fires an
+	 * {@link MVCIndexedPropertiesChangedEvent}.
+	 */
+	public static final String CHANGED_ALL = "ARRAY_LIST_CHANGED_ALL";
+	
+	private volatile boolean dirty = false;
+	private final AtomicBoolean firedDirty = new AtomicBoolean(false);
 	
-	private final ArrayList<E> saved = new ArrayList<E>();
+	private final ListRevertSupport<E> revertSupport = new ListRevertSupport<E>();
 	private final MVCPropertyChangeSupport propertyChangeSupport = new MVCPropertyChangeSupport(this);
-;
 	
-	private final PropertyChangeListener childPropertyChangeListener = new PropertyChangeListener() {
-		public void propertyChange(PropertyChangeEvent argEvt) {
-			if(argEvt.getPropertyName().equals(IModel.DIRTY)){
-				if(argEvt.getNewValue() == Boolean.TRUE){
-					propertyChangeSupport.firePropertyChange(argEvt);
-				}
-			}
+	// changes made in an update, see beginUpdate()
+	private ListChangeSet<E> updateChanges = null;
+	private int updateDepth = 0;
+	private int updateOldSize;
+	private boolean updateScheduled = false;
+	
+	private final DirtySupport dirtySupport = new DirtySupport(this, new IDirtySupportable() {
+		@SuppressWarnings("unchecked")
+		public boolean isChildDirty(Object argChild) {
+			return isDirtyImpl((E) argChild);
 		}
-	};
-    
-    private void addListener(Object argObject){
-		if(argObject instanceof IModel){
-			((IModel) argObject).addPropertyChangeListener(childPropertyChangeListener);
+		
+		public void dirtyChildrenChanged(boolean argHasDirtyChildren) {
+			fireDirtyChanged();
 		}
+	});
+	
+	private void addListener(Object argObject){
+		dirtySupport.addChild(argObject);
 	}
 	
 	private void removeListener(Object argObject){
-		if(argObject instanceof IModel){
-			((IModel) argObject).removePropertyChangeListener(childPropertyChangeListener);
+		dirtySupport.removeChild(argObject);
+	}
+	
+	private void addListeners(Collection<?> argObjects){
+		dirtySupport.addChildren(argObjects);
+	}
+	
+	private void removeListeners(Collection<?> argObjects){
+		dirtySupport.removeChildren(argObjects);
+	}
+	
+	private void markDirty(){
+		dirty = true;
+		fireDirtyChanged();
+	}
+	
+	// fires the dirty property if isDirty() changed since the last time we fired it
+	private void fireDirtyChanged(){
+		if(updateDepth > 0){
+			return;
+		}
+		boolean dirtyNow = isDirty();
+		if(firedDirty.compareAndSet(!dirtyNow, dirtyNow)){
+			firePropertyChange(DIRTY, !dirtyNow, dirtyNow);
 		}
 	}
 	
@@ -134,116 +193,407 @@ public class MVCArrayList<E> extends ArrayList<E> implements IModel, ICloneable,
 	 * @see java.util.ArrayList#addAll(java.util.Collection)
 	 */
 	@Override
-	public boolean addAll(Collection<? extends E> argC) {
+	public synchronized boolean addAll(Collection<? extends E> argC) {
 		int oldSize = size();
 		boolean ret = super.addAll(argC);
 		if(!ret){
 			return false;
 		}
-		propertyChangeSupport.firePropertiesAddedEvent(ADDED_ALL, Collections.unmodifiableCollection(argC), oldSize, size()-1);
-		firePropertyChange(SIZE, oldSize, size());
-		boolean old = dirty;
-		dirty = true;
-		firePropertyChange(DIRTY, old, dirty);
+		revertSupport.recordAdd(oldSize, size() - oldSize, this);
+		addListeners(argC);
+		fireAddedAll(oldSize, argC);
+		fireSizeChanged(oldSize);
+		markDirty();
 		return ret;
 	}
     
 	@Override
 	public synchronized boolean add(E e) {
 		boolean ret = super.add(e);
+		revertSupport.recordAdd(size()-1, 1, this);
 		addListener(e);
-		propertyChangeSupport.firePropertyAddedEvent(ADDED, e, size()-1);
-		firePropertyChange(SIZE, size() - 1, size());
-		boolean old = dirty;
-		dirty = true;
-		firePropertyChange(DIRTY, old, dirty);
+		fireAdded(size()-1, e);
+		fireSizeChanged(size() - 1);
+		markDirty();
 		return ret;
 	}
 	
 	public synchronized void add(int index, E element) {
 		super.add(index, element);
+		revertSupport.recordAdd(index, 1, this);
 		addListener(element);
-		propertyChangeSupport.firePropertyAddedEvent(ADDED, element, index);
-		firePropertyChange(SIZE, size() - 1, size());
-		boolean old = dirty;
-		dirty = true;
-		firePropertyChange(DIRTY, old, dirty);
+		fireAdded(index, element);
+		fireSizeChanged(size() - 1);
+		markDirty();
 	}
 	
-	private final ArrayList<E> temp = new ArrayList<E>();
-	
+	/**
+	 * Removes all the elements, firing a single {@link #REMOVED_ALL} event.  The elements
+	 * stop being listened to all at once, instead of one at a time.
+	 * @see java.util.ArrayList#clear()
+	 */
 	@Override
 	public synchronized void clear() {
 		if(size() > 0){
 			int oldSize = size();
-			temp.clear();
-			temp.addAll(this);
+			ArrayList<E> removed = new ArrayList<E>(this);
 			super.clear();
-			for(int i=0; i<oldSize; i++){
-				removeListener(temp.get(i));
-			}
-			propertyChangeSupport.firePropertiesRemovedEvent(REMOVED_ALL, Collections.unmodifiableCollection(temp), 0, oldSize);
-			firePropertyChange(SIZE, oldSize, 0);
-			boolean old = dirty;
-			dirty = true;
-			firePropertyChange(DIRTY, old, dirty);
+			revertSupport.recordRemoveAll(0, removed, this);
+			dirtySupport.clear();
+			fireRemovedAll(0, removed);
+			fireSizeChanged(oldSize);
+			markDirty();
 		}
 	}
 	
 	@Override
 	public synchronized E remove(int index) {
 		E ret = super.remove(index);
+		revertSupport.recordRemove(index, ret, this);
 		removeListener(ret);
-		propertyChangeSupport.firePropertyRemovedEvent(REMOVED, ret, index);
-		firePropertyChange(SIZE, size() + 1, size());
-		boolean old = dirty;
-		dirty = true;
-		firePropertyChange(DIRTY, old, dirty);
+		fireRemoved(index, ret);
+		fireSizeChanged(size() + 1);
+		markDirty();
 		return ret;
 	}
 	
 	@Override
 	public synchronized boolean remove(Object o) {
-		boolean ret = super.remove(o);
-		if(ret){
-			removeListener(o);
-			propertyChangeSupport.firePropertyRemovedEvent(REMOVED, o);
-			firePropertyChange(SIZE, size() + 1, size());
-			boolean old = dirty;
-			dirty = true;
-			firePropertyChange(DIRTY, old, dirty);
+		int index = indexOf(o);
+		if(index == -1){
+			return false;
 		}
-		return ret;
+		remove(index);
+		return true;
 	}
 	
 	@Override
 	public synchronized E set(int index, E element) {
 		E ret = super.set(index, element);
+		revertSupport.recordSet(index, ret, this);
 		removeListener(ret);
 		addListener(element);
-		propertyChangeSupport.fireIndexedPropertyChange(CHANGED, index, ret, element);
-		boolean old = dirty;
-		dirty = true;
-		firePropertyChange(DIRTY, old, dirty);
+		fireChanged(index, ret, element);
+		markDirty();
 		return ret;
 	}
 	
-	// do shallow clone, need to keep object references
-	private void setFromSaved(){
-		clear();
-		for(E e: saved){
-			add(e);
+	/**
+	 * Removes every element that is in the given collection, firing a single
+	 * {@link #REMOVED_ALL} event.  If the collection isn't a {@link Set} it's copied
+	 * into one first, so each element is looked up in constant time.
+	 * @see java.util.ArrayList#removeAll(java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean removeAll(Collection<?> argC) {
+		final Collection<?> remove = argC instanceof Set<?> ? argC : new HashSet<Object>(argC);
+		return removeAllMatching(new IFilter<E>() {
+			public boolean accept(E argObject) {
+				return remove.contains(argObject);
+			}
+		});
+	}
+	
+	/**
+	 * Removes every element that isn't in the given collection, firing a single
+	 * {@link #REMOVED_ALL} event.  If the collection isn't a {@link Set} it's copied
+	 * into one first, so each element is looked up in constant time.
+	 * @see java.util.ArrayList#retainAll(java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean retainAll(Collection<?> argC) {
+		final Collection<?> keep = argC instanceof Set<?> ? argC : new HashSet<Object>(argC);
+		return removeAllMatching(new IFilter<E>() {
+			public boolean accept(E argObject) {
+				return !keep.contains(argObject);
+			}
+		});
+	}
+	
+	/**
+	 * Removes every element accepted by the filter in one pass, firing a single
+	 * {@link #REMOVED_ALL} event with the index of each element removed.
+	 * @param argFilter
+	 * @return if any elements were removed
+	 */
+	public synchronized boolean removeAllMatching(IFilter<? super E> argFilter){
+		int oldSize = size();
+		ArrayList<E> kept = new ArrayList<E>(oldSize);
+		ArrayList<E> removed = new ArrayList<E>();
+		int[] indexes = new int[oldSize];
+		for(int i=0; i<oldSize; i++){
+			E e = get(i);
+			if(argFilter.accept(e)){
+				indexes[removed.size()] = i;
+				removed.add(e);
+			}else{
+				kept.add(e);
+			}
 		}
+		if(removed.isEmpty()){
+			return false;
+		}
+		int[] removedIndexes = new int[removed.size()];
+		System.arraycopy(indexes, 0, removedIndexes, 0, removedIndexes.length);
+		
+		super.clear();
+		super.addAll(kept);
+		revertSupport.recordRemoveAll(removedIndexes, removed, this);
+		removeListeners(removed);
+		fireRemovedAll(removedIndexes, removed);
+		fireSizeChanged(oldSize);
+		markDirty();
+		return true;
 	}
 	
-	// do shallow clone, need to keep object references
-	private void setToSaved(){
-		saved.clear();
-		for(E e: this){
-			saved.add(e);
+	/**
+	 * Removes the elements from <code>argFromIndex</code>, inclusive, to <code>argToIndex</code>,
+	 * exclusive, firing a single {@link #REMOVED_ALL} event.  This is also used by
+	 * <code>subList(from, to).clear()</code>.
+	 * @see java.util.ArrayList#removeRange(int, int)
+	 */
+	@Override
+	public synchronized void removeRange(int argFromIndex, int argToIndex) {
+		if(argFromIndex < 0 || argToIndex > size() || argFromIndex > argToIndex){
+			throw new IndexOutOfBoundsException("From: "+argFromIndex+", To: "+argToIndex+", Size: "+size());
+		}
+		if(argFromIndex == argToIndex){
+			return;
+		}
+		int oldSize = size();
+		ArrayList<E> removed = new ArrayList<E>(argToIndex - argFromIndex);
+		for(int i=argFromIndex; i<argToIndex; i++){
+			removed.add(get(i));
+		}
+		super.removeRange(argFromIndex, argToIndex);
+		revertSupport.recordRemoveAll(argFromIndex, removed, this);
+		removeListeners(removed);
+		fireRemovedAll(argFromIndex, removed);
+		fireSizeChanged(oldSize);
+		markDirty();
+	}
+	
+	/**
+	 * Replaces every element with the result of the transformer, firing a single {@link #CHANGED_ALL}
+	 * event with the elements that changed.  Elements are changed if the transformer returns a different
+	 * object.
+	 * @param argTransformer
+	 */
+	public synchronized void transformAll(ITransformer<? super E, ? extends E> argTransformer){
+		int size = size();
+		int[] indexes = new int[size];
+		ArrayList<E> oldValues = new ArrayList<E>();
+		ArrayList<E> newValues = new ArrayList<E>();
+		for(int i=0; i<size; i++){
+			E old = get(i);
+			E e = argTransformer.transform(old);
+			if(e == old){
+				continue;
+			}
+			super.set(i, e);
+			indexes[oldValues.size()] = i;
+			oldValues.add(old);
+			newValues.add(e);
+		}
+		if(oldValues.isEmpty()){
+			return;
+		}
+		int[] changedIndexes = new int[oldValues.size()];
+		System.arraycopy(indexes, 0, changedIndexes, 0, changedIndexes.length);
+		
+		revertSupport.recordSetAll(changedIndexes, oldValues, this);
+		removeListeners(oldValues);
+		addListeners(newValues);
+		fireChangedAll(changedIndexes, oldValues, newValues);
+		markDirty();
+	}
+	
+	/**
+	 * Starts an update.  Until {@link #commitUpdate()} is called, changes to the list don't fire
+	 * any events, and are instead recorded in a {@link ListChangeSet}, which merges changes that are
+	 * next to each other.  The outermost {@link #commitUpdate()} fires an event for each range that
+	 * changed, then a single {@link #SIZE} and {@link IModel#DIRTY} event.  Listeners (including
+	 * views) don't see the changes until the update is committed.  Updates can be nested.
+	 * Call {@link #commitUpdate()} in a <code>finally</code> block.
+	 * @see #commitUpdate()
+	 */
+	public synchronized void beginUpdate(){
+		if(updateDepth == 0){
+			updateChanges = new ListChangeSet<E>();
+			updateOldSize = size();
+		}
+		updateDepth++;
+	}
+	
+	/**
+	 * Starts an update that is committed by the executor, if one isn't already waiting to be
+	 * committed.  This batches all the changes made until the executor runs, so with an executor that
+	 * calls {@link javax.swing.SwingUtilities#invokeLater(Runnable)}, a list that gets a stream of
+	 * changes fires it's events once per trip through the Swing event queue.
+	 * @param argExecutor
+	 * @see #beginUpdate()
+	 */
+	public synchronized void beginUpdate(Executor argExecutor){
+		if(updateScheduled){
+			return;
+		}
+		beginUpdate();
+		updateScheduled = true;
+		argExecutor.execute(new Runnable() {
+			public void run() {
+				synchronized (MVCArrayList.this) {
+					updateScheduled = false;
+					commitUpdate();
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Commits an update started by {@link #beginUpdate()}.  If this is the outermost update,
+	 * the changes are fired as {@link #ADDED}, {@link #REMOVED}, or {@link #CHANGED} events (or the
+	 * bulk versions) for each range of elements, in the order they happened, then the {@link #SIZE}
+	 * and {@link IModel#DIRTY} events if they changed.
+	 * @throws IllegalStateException if {@link #beginUpdate()} wasn't called
+	 */
+	public synchronized void commitUpdate(){
+		if(updateDepth == 0){
+			throw new IllegalStateException(I18n.getText("model.noUpdate"));
+		}
+		updateDepth--;
+		if(updateDepth > 0){
+			return;
+		}
+		ListChangeSet<E> changes = updateChanges;
+		updateChanges = null;
+		for(ListChangeSet.Change<E> change : changes.getChanges()){
+			int index = change.getIndex();
+			int count = change.getCount();
+			switch(change.getType()){
+				case ListChangeSet.ADD:
+					if(count == 1){
+						propertyChangeSupport.firePropertyAddedEvent(ADDED, change.getElements().get(0), index);
+					}else{
+						propertyChangeSupport.firePropertiesAddedEvent(ADDED_ALL, change.getElements(), index, index + count - 1);
+					}
+					break;
+				case ListChangeSet.REMOVE:
+					if(count == 1){
+						propertyChangeSupport.firePropertyRemovedEvent(REMOVED, change.getElements().get(0), index);
+					}else{
+						propertyChangeSupport.firePropertiesRemovedEvent(REMOVED_ALL, change.getElements(), index, index + count - 1);
+					}
+					break;
+				case ListChangeSet.SET:
+					if(count == 1){
+						propertyChangeSupport.fireIndexedPropertyChange(CHANGED, index, change.getOldElements().get(0), change.getElements().get(0));
+					}else{
+						int[] indexes = new int[count];
+						for(int i=0; i<count; i++){
+							indexes[i] = index + i;
+						}
+						propertyChangeSupport.fireIndexedPropertiesChangedEvent(CHANGED_ALL, indexes, change.getOldElements(), change.getElements());
+					}
+					break;
+			}
+		}
+		fireSizeChanged(updateOldSize);
+		fireDirtyChanged();
+	}
+	
+	/**
+	 * @return if the list is in an update
+	 * @see #beginUpdate()
+	 */
+	public synchronized boolean isUpdating(){
+		return updateDepth > 0;
+	}
+	
+	private void fireAdded(int argIndex, E argElement){
+		if(updateDepth > 0){
+			updateChanges.recordAdd(argIndex, Collections.singletonList(argElement));
+		}else{
+			propertyChangeSupport.firePropertyAddedEvent(ADDED, argElement, argIndex);
+		}
+	}
+	
+	private void fireAddedAll(int argIndex, Collection<? extends E> argElements){
+		if(updateDepth > 0){
+			updateChanges.recordAdd(argIndex, argElements);
+		}else{
+			propertyChangeSupport.firePropertiesAddedEvent(ADDED_ALL, Collections.unmodifiableCollection(argElements),
+														   argIndex, argIndex + argElements.size() - 1);
 		}
 	}
 	
+	private void fireRemoved(int argIndex, E argElement){
+		if(updateDepth > 0){
+			updateChanges.recordRemove(argIndex, Collections.singletonList(argElement));
+		}else{
+			propertyChangeSupport.firePropertyRemovedEvent(REMOVED, argElement, argIndex);
+		}
+	}
+	
+	private void fireRemovedAll(int argIndex, Collection<E> argElements){
+		if(updateDepth > 0){
+			updateChanges.recordRemove(argIndex, argElements);
+		}else{
+			propertyChangeSupport.firePropertiesRemovedEvent(REMOVED_ALL, Collections.unmodifiableCollection(argElements),
+															 argIndex, argIndex + argElements.size() - 1);
+		}
+	}
+	
+	private void fireRemovedAll(int[] argIndexes, List<E> argElements){
+		if(updateDepth > 0){
+			updateChanges.recordRemoveAll(argIndexes, argElements);
+		}else{
+			propertyChangeSupport.firePropertiesRemovedEvent(REMOVED_ALL, Collections.unmodifiableCollection(argElements), argIndexes);
+		}
+	}
+	
+	private void fireChanged(int argIndex, E argOld, E argNew){
+		if(updateDepth > 0){
+			updateChanges.recordSet(argIndex, argOld, argNew);
+		}else{
+			propertyChangeSupport.fireIndexedPropertyChange(CHANGED, argIndex, argOld, argNew);
+		}
+	}
+	
+	private void fireChangedAll(int[] argIndexes, List<E> argOld, List<E> argNew){
+		if(updateDepth > 0){
+			updateChanges.recordSetAll(argIndexes, argOld, argNew);
+		}else{
+			propertyChangeSupport.fireIndexedPropertiesChangedEvent(CHANGED_ALL, argIndexes, argOld, argNew);
+		}
+	}
+	
+	private void fireSizeChanged(int argOldSize){
+		if(updateDepth == 0){
+			firePropertyChange(SIZE, argOldSize, size());
+		}
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#filtered(com.dmurph.mvc.IFilter)
+	 */
+	public MVCFilteredListView<E> filtered(IFilter<? super E> argFilter) {
+		return new MVCFilteredListView<E>(this, argFilter);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#sorted(java.util.Comparator)
+	 */
+	public MVCSortedListView<E> sorted(Comparator<? super E> argComparator) {
+		return new MVCSortedListView<E>(this, argComparator);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#mapped(com.dmurph.mvc.ITransformer)
+	 */
+	public <T> MVCMappedListView<E, T> mapped(ITransformer<? super E, ? extends T> argTransformer) {
+		return new MVCMappedListView<E, T>(this, argTransformer);
+	}
+	
 	 /**
 	 * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.beans.PropertyChangeListener)
 	 */
@@ -258,6 +608,34 @@ public class MVCArrayList<E> extends ArrayList<E> implements IModel, ICloneable,
         propertyChangeSupport.removePropertyChangeListener(argListener);
     }
 
+    /**
+     * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+     */
+    public void addPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+        propertyChangeSupport.addPropertyChangeListener(argPropertyName, argListener);
+    }
+
+    /**
+     * @see com.dmurph.mvc.IModel#removePropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+     */
+    public void removePropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+        propertyChangeSupport.removePropertyChangeListener(argPropertyName, argListener);
+    }
+
+    /**
+     * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.beans.PropertyChangeListener)
+     */
+    public void addWeakPropertyChangeListener(PropertyChangeListener argListener) {
+        propertyChangeSupport.addWeakPropertyChangeListener(argListener);
+    }
+
+    /**
+     * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+     */
+    public void addWeakPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+        propertyChangeSupport.addWeakPropertyChangeListener(argPropertyName, argListener);
+    }
+
     private void firePropertyChange(String argPropertyName, Object argOldValue, Object argNewValue) {
         propertyChangeSupport.firePropertyChange(argPropertyName, argOldValue, argNewValue);
     }
@@ -276,11 +654,17 @@ public class MVCArrayList<E> extends ArrayList<E> implements IModel, ICloneable,
 		for(E e : other){
 			add(cloneImpl(e));
 		}
-		saved.clear();
-		for(E e : other.saved){
-			saved.add(cloneImpl(e));
+		if(other.revertSupport.isChanged()){
+			ArrayList<E> saved = new ArrayList<E>();
+			for(E e : other.revertSupport.getSaved(other)){
+				saved.add(cloneImpl(e));
+			}
+			revertSupport.setSaved(saved);
+		}else{
+			revertSupport.save();
 		}
 		this.dirty = other.dirty;
+		fireDirtyChanged();
 	}
 	
 	/**
@@ -301,38 +685,151 @@ public class MVCArrayList<E> extends ArrayList<E> implements IModel, ICloneable,
 	/**
 	 * Clones this object to another {@link MVCArrayList}.  If the array values
 	 * are also {@link ICloneable}, then they will be cloned as well.  If not, the values
-	 * are just set (shallow copy).
+	 * are just set (shallow copy).  This uses a {@link CloneContext}, so elements that
+	 * are in the list more than once (or loops) are only cloned once, and no events are
+	 * fired while cloning.
 	 * @see java.util.ArrayList#clone()
 	 */
 	@Override
-	public synchronized ICloneable clone(){
-		MVCArrayList<E> other = new MVCArrayList<E>();
-		other.cloneFrom(this);
-		return other;
+	public ICloneable clone(){
+		return deepClone(new CloneContext());
 	}
-
+	
 	/**
-	 * Also checks to see if elements in this
-	 * array are dirty, if any are {@link IDirtyable}.
-	 * @see com.dmurph.mvc.IDirtyable#isDirty()
+	 * Clones this list by filling in a new list directly, without firing events.  If
+	 * {@link #cloneImpl(Object)} is overridden, it's used to clone the elements.
+	 * @param argContext
+	 * @return
+	 */
+	MVCArrayList<E> deepClone(CloneContext argContext){
+		return deepCloneInto(new MVCArrayList<E>(), argContext);
+	}
+	
+	/**
+	 * Fills in a new, empty list with clones of the elements and the saved state, for
+	 * subclasses that have to construct the clone with their own configuration.
+	 * @param argClone
+	 * @param argContext
+	 * @return the clone
+	 */
+	@SuppressWarnings("unchecked")
+	<L extends MVCArrayList<E>> L deepCloneInto(L argClone, CloneContext argContext){
+		MVCArrayList<E> clone = argClone;
+		argContext.put(this, clone);
+		
+		Object[] elements;
+		ArrayList<E> saved = null;
+		boolean wasDirty;
+		synchronized (this) {
+			elements = toArray();
+			if(revertSupport.isChanged()){
+				saved = revertSupport.getSaved(this);
+			}
+			wasDirty = dirty;
+		}
+		// elements are cloned with cloneImpl if it's overridden
+		boolean hook = CloneContext.overridesCloneImpl(getClass(), MVCArrayList.class);
+		ArrayList<E> cloned = new ArrayList<E>(elements.length);
+		for(Object o : elements){
+			cloned.add(hook ? cloneImpl((E) o) : (E) argContext.cloneObject(o));
+		}
+		clone.addAllSilently(cloned);
+		if(saved != null){
+			ArrayList<E> clonedSaved = new ArrayList<E>(saved.size());
+			for(E e : saved){
+				clonedSaved.add(hook ? cloneImpl(e) : (E) argContext.cloneObject(e));
+			}
+			clone.revertSupport.setSaved(clonedSaved);
+		}
+		clone.dirty = wasDirty;
+		clone.firedDirty.set(clone.isDirty());
+		return argClone;
+	}
+	
+	/**
+	 * Writes the elements, the dirty state, and the saved elements if the list was changed.
+	 * @see IBinaryStreamable#writeBinary(ModelOutputStream)
 	 */
-	public synchronized boolean isDirty() {
-		if(dirty){
-			return true;
+	public void writeBinary(ModelOutputStream argOut) throws IOException {
+		Object[] elements;
+		ArrayList<E> saved = null;
+		boolean wasDirty;
+		synchronized (this) {
+			elements = toArray();
+			if(revertSupport.isChanged()){
+				saved = revertSupport.getSaved(this);
+			}
+			wasDirty = dirty;
 		}
-		for(E e : this){
-			if(e instanceof IDirtyable){
-				if(isDirtyImpl(e)){
-					return true;
-				}
+		argOut.writeVarInt(elements.length);
+		for(Object o : elements){
+			argOut.writeObject(o);
+		}
+		argOut.writeBoolean(wasDirty);
+		argOut.writeBoolean(saved != null);
+		if(saved != null){
+			argOut.writeVarInt(saved.size());
+			for(E e : saved){
+				argOut.writeObject(e);
 			}
 		}
-		return false;
+	}
+	
+	/**
+	 * Replaces the elements of this list with the ones read from the stream, without
+	 * firing any events.
+	 * @see IBinaryStreamable#readBinary(ModelInputStream)
+	 */
+	@SuppressWarnings("unchecked")
+	public void readBinary(ModelInputStream argIn) throws IOException, ClassNotFoundException {
+		int size = argIn.readLength();
+		ArrayList<E> elements = new ArrayList<E>(argIn.getInitialCapacity(size));
+		for(int i=0; i<size; i++){
+			elements.add((E) argIn.readObject());
+		}
+		boolean wasDirty = argIn.readBoolean();
+		ArrayList<E> saved = null;
+		if(argIn.readBoolean()){
+			int savedSize = argIn.readLength();
+			saved = new ArrayList<E>(argIn.getInitialCapacity(savedSize));
+			for(int i=0; i<savedSize; i++){
+				saved.add((E) argIn.readObject());
+			}
+		}
+		synchronized (this) {
+			dirtySupport.clear();
+			super.clear();
+			revertSupport.save();
+			addAllSilently(elements);
+			if(saved != null){
+				revertSupport.setSaved(saved);
+			}
+			dirty = wasDirty;
+		}
+		firedDirty.set(isDirty());
+	}
+	
+	// adds elements without recording or firing events, for cloning
+	private synchronized void addAllSilently(Collection<E> argC){
+		super.addAll(argC);
+		addListeners(argC);
+	}
+
+	/**
+	 * Also checks to see if elements in this
+	 * array are dirty, if any are {@link IDirtyable}.  This doesn't check
+	 * every element, as the dirty state of the elements is kept track of
+	 * as they change (see {@link DirtySupport}).
+	 * @see com.dmurph.mvc.IDirtyable#isDirty()
+	 */
+	public boolean isDirty() {
+		return dirty || dirtySupport.hasDirtyChildren();
 	}
 
 	/**
 	 * Default just calls {@link IDirtyable#isDirty()}, but override
-	 * to protect against loops (if the property tree goes in a loop).
+	 * if an element shouldn't count towards this being dirty.  This is called
+	 * when an element is added or when it fires a property change event.
 	 * @return
 	 */
 	protected boolean isDirtyImpl(E argE){
@@ -347,21 +844,17 @@ public class MVCArrayList<E> extends ArrayList<E> implements IModel, ICloneable,
 	 * @see java.util.ArrayList#addAll(int, java.util.Collection)
 	 */
 	@Override
-	public boolean addAll(int argIndex, Collection<? extends E> argC) {
+	public synchronized boolean addAll(int argIndex, Collection<? extends E> argC) {
 		int oldSize = size();
 		boolean ret = super.addAll(argIndex, argC);
 		if(!ret){
 			return false;
 		}
-		Iterator<? extends E> it = argC.iterator();
-		while(it.hasNext()){
-			addListener(it.next());
-		}
-		propertyChangeSupport.firePropertiesAddedEvent(ADDED_ALL, Collections.unmodifiableCollection(argC), argIndex, argIndex+argC.size()-1);
-		firePropertyChange(SIZE, oldSize, size());
-		boolean old = dirty;
-		dirty = true;
-		firePropertyChange(DIRTY, old, dirty);
+		revertSupport.recordAdd(argIndex, size() - oldSize, this);
+		addListeners(argC);
+		fireAddedAll(argIndex, argC);
+		fireSizeChanged(oldSize);
+		markDirty();
 		return ret;
 	}
 	/**
@@ -371,14 +864,14 @@ public class MVCArrayList<E> extends ArrayList<E> implements IModel, ICloneable,
 	 * @see com.dmurph.mvc.IDirtyable#setDirty(boolean)
 	 */
 	public synchronized void setDirty( boolean argDirty) {
-		boolean oldDirty = dirty;
 		dirty = argDirty;
 		if(!dirty){
 			for(E e: this){
 				setDirtyImpl(e, false);
 			}
+			dirtySupport.refresh();
 		}
-		firePropertyChange(DIRTY, oldDirty, dirty);
+		fireDirtyChanged();
 	}
 	
 	/**
@@ -399,7 +892,9 @@ public class MVCArrayList<E> extends ArrayList<E> implements IModel, ICloneable,
 	 * @see com.dmurph.mvc.IRevertible#revertChanges()
 	 */
 	public synchronized void revertChanges() {
-		setFromSaved();
+		if(revertSupport.isChanged()){
+			revertSupport.revert(this);
+		}
 		for(E e: this){
 			revertChangesImpl(e);
 		}
@@ -422,7 +917,7 @@ public class MVCArrayList<E> extends ArrayList<E> implements IModel, ICloneable,
 	 * @see com.dmurph.mvc.IRevertible#saveChanges()
 	 */
 	public synchronized void saveChanges() {
-		setToSaved();
+		revertSupport.save();
 		for(E e: this){
 			saveChangesImpl(e);
 		}
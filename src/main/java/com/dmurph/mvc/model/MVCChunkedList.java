@@ -0,0 +1,1206 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 1:40:52 AM
+ */
+package com.dmurph.mvc.model;
+
+import java.beans.PropertyChangeListener;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.dmurph.mvc.ICloneable;
+import com.dmurph.mvc.IDirtyable;
+import com.dmurph.mvc.IFilter;
+import com.dmurph.mvc.IRevertible;
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.support.DirtySupport;
+import com.dmurph.mvc.support.IDirtySupportable;
+import com.dmurph.mvc.support.MVCPropertyChangeSupport;
+
+/**
+ * A list model for very large lists.  Instead of one array, the elements are kept in chunks of up to
+ * {@value #CHUNK_SIZE} elements, which are the leaves of a B+ tree that knows how many elements are under each
+ * node.  So getting, inserting or removing an element anywhere in the list is O(log n), instead of shifting
+ * the rest of the array.  Iterating goes through a chunk at a time.<br/>
+ * <br/>
+ * {@link #saveChanges()} doesn't copy the list.  The saved list shares the chunks of the tree, and a chunk
+ * (and the nodes above it) is copied the first time it's changed after saving, so the memory used by the saved
+ * list is proportional to how much of the list changed.  Reverting undoes the changes through the list methods
+ * so the normal events are fired, unless there were too many changes, then the saved tree is put back and a
+ * single {@link MVCArrayList#REMOVED_ALL} and {@link MVCArrayList#ADDED_ALL} event are fired.<br/>
+ * <br/>
+ * This fires the same events as {@link MVCArrayList}, and all the methods are synchronized.  Iterating isn't,
+ * so synchronize on the list while iterating if another thread could change it.
+ * @author Daniel Murphy
+ */
+public class MVCChunkedList<E> extends AbstractList<E> implements IMVCList<E>, ICloneable, IDirtyable, IRevertible {
+	
+	/**
+	 * The most elements in a chunk.
+	 */
+	public static final int CHUNK_SIZE = 256;
+	private static final int BRANCH_SIZE = 64;
+	
+	// how many elements the revert log can hold before reverting just swaps the tree back
+	private static final int MAX_LOG_ELEMENTS = 4096;
+	
+	private static final int ADD = 0;
+	private static final int REMOVE = 1;
+	private static final int REMOVE_ALL = 2;
+	private static final int SET = 3;
+	private static final int SET_ALL = 4;
+	
+	private Node root;
+	private Node savedRoot;
+	// nodes from an older generation are shared with the saved tree, and are copied before they're changed
+	private int generation = 0;
+	
+	private final ArrayList<Change> log = new ArrayList<Change>();
+	private int logElements = 0;
+	private boolean logOverflowed = false;
+	private boolean recording = true;
+	
+	private volatile boolean dirty = false;
+	private final AtomicBoolean firedDirty = new AtomicBoolean(false);
+	private final MVCPropertyChangeSupport propertyChangeSupport = new MVCPropertyChangeSupport(this);
+	
+	private final DirtySupport dirtySupport = new DirtySupport(this, new IDirtySupportable() {
+		@SuppressWarnings("unchecked")
+		public boolean isChildDirty(Object argChild) {
+			return isDirtyImpl((E) argChild);
+		}
+		
+		public void dirtyChildrenChanged(boolean argHasDirtyChildren) {
+			fireDirtyChanged();
+		}
+	});
+	
+	public MVCChunkedList(){
+		root = new Leaf(generation);
+		save();
+	}
+	
+	/**
+	 * Constructs the list with the given elements, without firing events.  The list
+	 * isn't dirty.
+	 * @param argC
+	 */
+	public MVCChunkedList(Collection<? extends E> argC){
+		Object[] elements = argC.toArray();
+		root = build(elements, elements.length);
+		for(Object o : elements){
+			addListener(o);
+		}
+		save();
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public synchronized E get(int argIndex) {
+		checkIndex(argIndex, root.size);
+		Node node = root;
+		int index = argIndex;
+		while(node instanceof Branch){
+			Branch branch = (Branch) node;
+			int k = 0;
+			while(index >= branch.children[k].size){
+				index -= branch.children[k].size;
+				k++;
+			}
+			node = branch.children[k];
+		}
+		return (E) ((Leaf) node).elements[index];
+	}
+	
+	@Override
+	public synchronized int size() {
+		return root.size;
+	}
+	
+	@Override
+	public synchronized Object[] toArray() {
+		Object[] ret = new Object[root.size];
+		collect(root, ret, 0);
+		return ret;
+	}
+	
+	/**
+	 * Iterates a chunk at a time.  Not thread safe, see {@link MVCChunkedList}.
+	 * @see java.util.AbstractList#iterator()
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new ChunkIterator();
+	}
+	
+	@Override
+	public synchronized int indexOf(Object argObject) {
+		int i = 0;
+		for(E e : this){
+			if(argObject == null ? e == null : argObject.equals(e)){
+				return i;
+			}
+			i++;
+		}
+		return -1;
+	}
+	
+	@Override
+	public boolean contains(Object argObject) {
+		return indexOf(argObject) != -1;
+	}
+	
+	@Override
+	public synchronized boolean add(E argElement) {
+		add(root.size, argElement);
+		return true;
+	}
+	
+	@Override
+	public synchronized void add(int argIndex, E argElement) {
+		checkPosition(argIndex, root.size);
+		insert(argIndex, argElement);
+		record(ADD, argIndex, 1, null, null);
+		addListener(argElement);
+		modCount++;
+		propertyChangeSupport.firePropertyAddedEvent(MVCArrayList.ADDED, argElement, argIndex);
+		propertyChangeSupport.firePropertyChange(MVCArrayList.SIZE, root.size - 1, root.size);
+		markDirty();
+	}
+	
+	@Override
+	public synchronized boolean addAll(Collection<? extends E> argC) {
+		return addAll(root.size, argC);
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public synchronized boolean addAll(int argIndex, Collection<? extends E> argC) {
+		checkPosition(argIndex, root.size);
+		Object[] added = argC.toArray();
+		if(added.length == 0){
+			return false;
+		}
+		int oldSize = root.size;
+		// inserting a lot of elements is faster by building a new tree
+		if(added.length > oldSize / 16 + CHUNK_SIZE){
+			Object[] elements = new Object[oldSize + added.length];
+			collect(root, elements, 0);
+			System.arraycopy(elements, argIndex, elements, argIndex + added.length, oldSize - argIndex);
+			System.arraycopy(added, 0, elements, argIndex, added.length);
+			root = build(elements, elements.length);
+		}else{
+			for(int i=0; i<added.length; i++){
+				insert(argIndex + i, added[i]);
+			}
+		}
+		record(ADD, argIndex, added.length, null, null);
+		for(Object o : added){
+			addListener(o);
+		}
+		modCount++;
+		propertyChangeSupport.firePropertiesAddedEvent(MVCArrayList.ADDED_ALL, Collections.unmodifiableList(Arrays.asList(added)),
+													   argIndex, argIndex + added.length - 1);
+		propertyChangeSupport.firePropertyChange(MVCArrayList.SIZE, oldSize, root.size);
+		markDirty();
+		return true;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public synchronized E set(int argIndex, E argElement) {
+		checkIndex(argIndex, root.size);
+		E old = (E) replace(argIndex, argElement);
+		record(SET, argIndex, 1, old, null);
+		removeListener(old);
+		addListener(argElement);
+		propertyChangeSupport.fireIndexedPropertyChange(MVCArrayList.CHANGED, argIndex, old, argElement);
+		markDirty();
+		return old;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public synchronized E remove(int argIndex) {
+		checkIndex(argIndex, root.size);
+		E old = (E) delete(argIndex);
+		record(REMOVE, argIndex, 1, new Object[]{old}, null);
+		removeListener(old);
+		modCount++;
+		propertyChangeSupport.firePropertyRemovedEvent(MVCArrayList.REMOVED, old, argIndex);
+		propertyChangeSupport.firePropertyChange(MVCArrayList.SIZE, root.size + 1, root.size);
+		markDirty();
+		return old;
+	}
+	
+	@Override
+	public synchronized boolean remove(Object argObject) {
+		int index = indexOf(argObject);
+		if(index == -1){
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+	
+	@Override
+	public synchronized void clear() {
+		if(root.size > 0){
+			removeRange(0, root.size);
+		}
+	}
+	
+	/**
+	 * Removes the elements from <code>argFromIndex</code>, inclusive, to <code>argToIndex</code>,
+	 * exclusive, firing a single {@link MVCArrayList#REMOVED_ALL} event.
+	 * @see java.util.AbstractList#removeRange(int, int)
+	 */
+	@Override
+	public synchronized void removeRange(int argFromIndex, int argToIndex) {
+		int oldSize = root.size;
+		if(argFromIndex < 0 || argToIndex > oldSize || argFromIndex > argToIndex){
+			throw new IndexOutOfBoundsException("From: "+argFromIndex+", To: "+argToIndex+", Size: "+oldSize);
+		}
+		int count = argToIndex - argFromIndex;
+		if(count == 0){
+			return;
+		}
+		Object[] removed = new Object[count];
+		if(count > oldSize / 16 + CHUNK_SIZE){
+			Object[] elements = new Object[oldSize];
+			collect(root, elements, 0);
+			System.arraycopy(elements, argFromIndex, removed, 0, count);
+			System.arraycopy(elements, argToIndex, elements, argFromIndex, oldSize - argToIndex);
+			root = build(elements, oldSize - count);
+		}else{
+			for(int i=count-1; i>=0; i--){
+				removed[i] = delete(argFromIndex + i);
+			}
+		}
+		record(REMOVE, argFromIndex, count, removed, null);
+		for(Object o : removed){
+			removeListener(o);
+		}
+		modCount++;
+		propertyChangeSupport.firePropertiesRemovedEvent(MVCArrayList.REMOVED_ALL, Collections.unmodifiableList(Arrays.asList(removed)),
+														 argFromIndex, argToIndex - 1);
+		propertyChangeSupport.firePropertyChange(MVCArrayList.SIZE, oldSize, root.size);
+		markDirty();
+	}
+	
+	/**
+	 * Removes every element that is in the given collection, firing a single
+	 * {@link MVCArrayList#REMOVED_ALL} event.
+	 * @see java.util.AbstractCollection#removeAll(java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean removeAll(final Collection<?> argC) {
+		return removeAllMatching(new IFilter<E>() {
+			public boolean accept(E argObject) {
+				return argC.contains(argObject);
+			}
+		});
+	}
+	
+	/**
+	 * Removes every element that isn't in the given collection, firing a single
+	 * {@link MVCArrayList#REMOVED_ALL} event.
+	 * @see java.util.AbstractCollection#retainAll(java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean retainAll(final Collection<?> argC) {
+		return removeAllMatching(new IFilter<E>() {
+			public boolean accept(E argObject) {
+				return !argC.contains(argObject);
+			}
+		});
+	}
+	
+	/**
+	 * Removes every element accepted by the filter, rebuilding the tree once, and fires a single
+	 * {@link MVCArrayList#REMOVED_ALL} event with the index of each element removed.
+	 * @param argFilter
+	 * @return if any elements were removed
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized boolean removeAllMatching(IFilter<? super E> argFilter){
+		int oldSize = root.size;
+		Object[] elements = new Object[oldSize];
+		collect(root, elements, 0);
+		int[] indexes = new int[oldSize];
+		ArrayList<E> removed = new ArrayList<E>();
+		int kept = 0;
+		for(int i=0; i<oldSize; i++){
+			E e = (E) elements[i];
+			if(argFilter.accept(e)){
+				indexes[removed.size()] = i;
+				removed.add(e);
+			}else{
+				elements[kept++] = e;
+			}
+		}
+		if(removed.isEmpty()){
+			return false;
+		}
+		int[] removedIndexes = new int[removed.size()];
+		System.arraycopy(indexes, 0, removedIndexes, 0, removedIndexes.length);
+		root = build(elements, kept);
+		
+		record(REMOVE_ALL, removedIndexes[0], removed.size(), removed.toArray(), removedIndexes);
+		for(E e : removed){
+			removeListener(e);
+		}
+		modCount++;
+		propertyChangeSupport.firePropertiesRemovedEvent(MVCArrayList.REMOVED_ALL, Collections.unmodifiableCollection(removed), removedIndexes);
+		propertyChangeSupport.firePropertyChange(MVCArrayList.SIZE, oldSize, root.size);
+		markDirty();
+		return true;
+	}
+	
+	/**
+	 * Replaces every element with the result of the transformer, firing a single {@link MVCArrayList#CHANGED_ALL}
+	 * event with the elements that changed.  Elements are changed if the transformer returns a different
+	 * object.  Only the chunks with changed elements are copied.
+	 * @param argTransformer
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void transformAll(ITransformer<? super E, ? extends E> argTransformer){
+		int size = root.size;
+		Object[] elements = new Object[size];
+		collect(root, elements, 0);
+		int[] indexes = new int[size];
+		ArrayList<E> oldValues = new ArrayList<E>();
+		ArrayList<E> newValues = new ArrayList<E>();
+		for(int i=0; i<size; i++){
+			E old = (E) elements[i];
+			E e = argTransformer.transform(old);
+			if(e == old){
+				continue;
+			}
+			replace(i, e);
+			indexes[oldValues.size()] = i;
+			oldValues.add(old);
+			newValues.add(e);
+		}
+		if(oldValues.isEmpty()){
+			return;
+		}
+		int[] changedIndexes = new int[oldValues.size()];
+		System.arraycopy(indexes, 0, changedIndexes, 0, changedIndexes.length);
+		
+		record(SET_ALL, changedIndexes[0], changedIndexes.length, oldValues.toArray(), changedIndexes);
+		for(int i=0; i<changedIndexes.length; i++){
+			removeListener(oldValues.get(i));
+			addListener(newValues.get(i));
+		}
+		propertyChangeSupport.fireIndexedPropertiesChangedEvent(MVCArrayList.CHANGED_ALL, changedIndexes, oldValues, newValues);
+		markDirty();
+	}
+	
+	private static void checkIndex(int argIndex, int argSize){
+		if(argIndex < 0 || argIndex >= argSize){
+			throw new IndexOutOfBoundsException("Index: "+argIndex+", Size: "+argSize);
+		}
+	}
+	
+	private static void checkPosition(int argIndex, int argSize){
+		if(argIndex < 0 || argIndex > argSize){
+			throw new IndexOutOfBoundsException("Index: "+argIndex+", Size: "+argSize);
+		}
+	}
+	
+	// -------- tree --------
+	
+	// gets the node so it can be changed, copying it if it's shared with the saved tree
+	private Node mutable(Node argNode){
+		if(argNode.generation == generation){
+			return argNode;
+		}
+		return argNode.copy(generation);
+	}
+	
+	private void insert(int argIndex, Object argElement){
+		root = mutable(root);
+		Node split = insert(root, argIndex, argElement);
+		if(split != null){
+			Branch branch = new Branch(generation);
+			branch.children[0] = root;
+			branch.children[1] = split;
+			branch.count = 2;
+			branch.size = root.size + split.size;
+			root = branch;
+		}
+	}
+	
+	// inserts into a node that can be changed, and returns the new node to the right of it if it had to split
+	private Node insert(Node argNode, int argIndex, Object argElement){
+		if(argNode instanceof Leaf){
+			Leaf leaf = (Leaf) argNode;
+			if(leaf.size < CHUNK_SIZE){
+				System.arraycopy(leaf.elements, argIndex, leaf.elements, argIndex + 1, leaf.size - argIndex);
+				leaf.elements[argIndex] = argElement;
+				leaf.size++;
+				return null;
+			}
+			Leaf right = new Leaf(generation);
+			if(argIndex == leaf.size){
+				// appending, so keep the full chunk full
+				right.elements[0] = argElement;
+				right.size = 1;
+				return right;
+			}
+			int half = leaf.size / 2;
+			System.arraycopy(leaf.elements, half, right.elements, 0, leaf.size - half);
+			Arrays.fill(leaf.elements, half, leaf.size, null);
+			right.size = leaf.size - half;
+			leaf.size = half;
+			if(argIndex <= half){
+				insert(leaf, argIndex, argElement);
+			}else{
+				insert(right, argIndex - half, argElement);
+			}
+			return right;
+		}
+		
+		Branch branch = (Branch) argNode;
+		int index = argIndex;
+		int k = 0;
+		// inserting between two children goes at the end of the left one
+		while(k < branch.count - 1 && index > branch.children[k].size){
+			index -= branch.children[k].size;
+			k++;
+		}
+		Node child = mutable(branch.children[k]);
+		branch.children[k] = child;
+		Node split = insert(child, index, argElement);
+		branch.size++;
+		if(split == null){
+			return null;
+		}
+		if(branch.count < BRANCH_SIZE){
+			System.arraycopy(branch.children, k + 1, branch.children, k + 2, branch.count - k - 1);
+			branch.children[k + 1] = split;
+			branch.count++;
+			return null;
+		}
+		
+		Node[] children = new Node[BRANCH_SIZE + 1];
+		System.arraycopy(branch.children, 0, children, 0, k + 1);
+		children[k + 1] = split;
+		System.arraycopy(branch.children, k + 1, children, k + 2, branch.count - k - 1);
+		int leftCount = k + 1 == branch.count ? branch.count : (BRANCH_SIZE + 1) / 2;
+		Branch right = new Branch(generation);
+		Arrays.fill(branch.children, null);
+		System.arraycopy(children, 0, branch.children, 0, leftCount);
+		System.arraycopy(children, leftCount, right.children, 0, children.length - leftCount);
+		branch.count = leftCount;
+		right.count = children.length - leftCount;
+		branch.updateSize();
+		right.updateSize();
+		return right;
+	}
+	
+	private Object replace(int argIndex, Object argElement){
+		root = mutable(root);
+		Node node = root;
+		int index = argIndex;
+		while(node instanceof Branch){
+			Branch branch = (Branch) node;
+			int k = 0;
+			while(index >= branch.children[k].size){
+				index -= branch.children[k].size;
+				k++;
+			}
+			node = mutable(branch.children[k]);
+			branch.children[k] = node;
+		}
+		Leaf leaf = (Leaf) node;
+		Object old = leaf.elements[index];
+		leaf.elements[index] = argElement;
+		return old;
+	}
+	
+	private Object delete(int argIndex){
+		root = mutable(root);
+		Object old = delete(root, argIndex);
+		while(root instanceof Branch && ((Branch) root).count == 1){
+			root = ((Branch) root).children[0];
+		}
+		if(root instanceof Branch && ((Branch) root).count == 0){
+			root = new Leaf(generation);
+		}
+		return old;
+	}
+	
+	private Object delete(Node argNode, int argIndex){
+		if(argNode instanceof Leaf){
+			Leaf leaf = (Leaf) argNode;
+			Object old = leaf.elements[argIndex];
+			System.arraycopy(leaf.elements, argIndex + 1, leaf.elements, argIndex, leaf.size - argIndex - 1);
+			leaf.elements[--leaf.size] = null;
+			return old;
+		}
+		Branch branch = (Branch) argNode;
+		int index = argIndex;
+		int k = 0;
+		while(index >= branch.children[k].size){
+			index -= branch.children[k].size;
+			k++;
+		}
+		Node child = mutable(branch.children[k]);
+		branch.children[k] = child;
+		Object old = delete(child, index);
+		branch.size--;
+		if(child.size == 0){
+			removeChild(branch, k);
+		}else if(branch.count > 1 && child.isSmall()){
+			// merge with a neighbor if they fit in one node
+			int left = k == branch.count - 1 ? k - 1 : k;
+			Node a = branch.children[left];
+			Node b = branch.children[left + 1];
+			if(a.fits(b)){
+				a = mutable(a);
+				a.append(b);
+				branch.children[left] = a;
+				removeChild(branch, left + 1);
+			}
+		}
+		return old;
+	}
+	
+	private static void removeChild(Branch argBranch, int argIndex){
+		System.arraycopy(argBranch.children, argIndex + 1, argBranch.children, argIndex, argBranch.count - argIndex - 1);
+		argBranch.children[--argBranch.count] = null;
+	}
+	
+	// builds a tree from the first elements of the array, with full chunks
+	private Node build(Object[] argElements, int argSize){
+		ArrayList<Node> level = new ArrayList<Node>();
+		for(int i=0; i<argSize; i+=CHUNK_SIZE){
+			Leaf leaf = new Leaf(generation);
+			leaf.size = Math.min(CHUNK_SIZE, argSize - i);
+			System.arraycopy(argElements, i, leaf.elements, 0, leaf.size);
+			level.add(leaf);
+		}
+		if(level.isEmpty()){
+			return new Leaf(generation);
+		}
+		while(level.size() > 1){
+			ArrayList<Node> parents = new ArrayList<Node>();
+			for(int i=0; i<level.size(); i+=BRANCH_SIZE){
+				Branch branch = new Branch(generation);
+				branch.count = Math.min(BRANCH_SIZE, level.size() - i);
+				for(int j=0; j<branch.count; j++){
+					branch.children[j] = level.get(i + j);
+				}
+				branch.updateSize();
+				parents.add(branch);
+			}
+			level = parents;
+		}
+		return level.get(0);
+	}
+	
+	private static int collect(Node argNode, Object[] argDest, int argOffset){
+		if(argNode instanceof Leaf){
+			System.arraycopy(((Leaf) argNode).elements, 0, argDest, argOffset, argNode.size);
+			return argOffset + argNode.size;
+		}
+		Branch branch = (Branch) argNode;
+		for(int i=0; i<branch.count; i++){
+			argOffset = collect(branch.children[i], argDest, argOffset);
+		}
+		return argOffset;
+	}
+	
+	// -------- saving and reverting --------
+	
+	private void save(){
+		savedRoot = root;
+		generation++;
+		log.clear();
+		logElements = 0;
+		logOverflowed = false;
+	}
+	
+	private void record(int argType, int argIndex, int argCount, Object argValue, int[] argIndexes){
+		if(!recording || logOverflowed){
+			return;
+		}
+		logElements += argCount;
+		if(logElements > MAX_LOG_ELEMENTS){
+			logOverflowed = true;
+			log.clear();
+			return;
+		}
+		log.add(new Change(argType, argIndex, argCount, argValue, argIndexes));
+	}
+	
+	/**
+	 * @return if the list was changed since it was saved
+	 */
+	public synchronized boolean isChanged(){
+		return root != savedRoot;
+	}
+	
+	/**
+	 * @return a copy of the list as it was saved
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized List<E> getSaved(){
+		Object[] saved = new Object[savedRoot.size];
+		collect(savedRoot, saved, 0);
+		return (List<E>) new ArrayList<Object>(Arrays.asList(saved));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void revert(){
+		if(logOverflowed){
+			Object[] current = toArray();
+			Object[] saved = new Object[savedRoot.size];
+			collect(savedRoot, saved, 0);
+			root = savedRoot;
+			for(Object o : current){
+				removeListener(o);
+			}
+			for(Object o : saved){
+				addListener(o);
+			}
+			modCount++;
+			if(current.length > 0){
+				propertyChangeSupport.firePropertiesRemovedEvent(MVCArrayList.REMOVED_ALL, Collections.unmodifiableList(Arrays.asList(current)),
+																 0, current.length - 1);
+			}
+			if(saved.length > 0){
+				propertyChangeSupport.firePropertiesAddedEvent(MVCArrayList.ADDED_ALL, Collections.unmodifiableList(Arrays.asList(saved)),
+															   0, saved.length - 1);
+			}
+			propertyChangeSupport.firePropertyChange(MVCArrayList.SIZE, current.length, saved.length);
+			save();
+			return;
+		}
+		recording = false;
+		try{
+			for(int i=log.size()-1; i>=0; i--){
+				Change change = log.get(i);
+				switch(change.type){
+					case ADD:
+						if(change.count == 1){
+							remove(change.index);
+						}else{
+							removeRange(change.index, change.index + change.count);
+						}
+						break;
+					case REMOVE:{
+						Object[] removed = (Object[]) change.value;
+						if(removed.length == 1){
+							add(change.index, (E) removed[0]);
+						}else{
+							addAll(change.index, (List<E>) Arrays.asList(removed));
+						}
+						break;
+					}
+					case REMOVE_ALL:{
+						// put back each run of elements that were next to each other
+						Object[] removed = (Object[]) change.value;
+						int start = 0;
+						while(start < removed.length){
+							int end = start + 1;
+							while(end < removed.length && change.indexes[end] == change.indexes[end - 1] + 1){
+								end++;
+							}
+							addAll(change.indexes[start], (List<E>) Arrays.asList(removed).subList(start, end));
+							start = end;
+						}
+						break;
+					}
+					case SET:
+						set(change.index, (E) change.value);
+						break;
+					case SET_ALL:{
+						Object[] old = (Object[]) change.value;
+						for(int j=0; j<old.length; j++){
+							set(change.indexes[j], (E) old[j]);
+						}
+						break;
+					}
+				}
+			}
+		}finally{
+			recording = true;
+		}
+		// the same elements as the saved tree, so share it again
+		root = savedRoot;
+		save();
+	}
+	
+	// -------- IModel, IDirtyable, IRevertible, ICloneable --------
+	
+	private void addListener(Object argObject){
+		dirtySupport.addChild(argObject);
+	}
+	
+	private void removeListener(Object argObject){
+		dirtySupport.removeChild(argObject);
+	}
+	
+	private void markDirty(){
+		dirty = true;
+		fireDirtyChanged();
+	}
+	
+	// fires the dirty property if isDirty() changed since the last time we fired it
+	private void fireDirtyChanged(){
+		boolean dirtyNow = isDirty();
+		if(firedDirty.compareAndSet(!dirtyNow, dirtyNow)){
+			propertyChangeSupport.firePropertyChange(DIRTY, !dirtyNow, dirtyNow);
+		}
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#filtered(com.dmurph.mvc.IFilter)
+	 */
+	public MVCFilteredListView<E> filtered(IFilter<? super E> argFilter) {
+		return new MVCFilteredListView<E>(this, argFilter);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#sorted(java.util.Comparator)
+	 */
+	public MVCSortedListView<E> sorted(Comparator<? super E> argComparator) {
+		return new MVCSortedListView<E>(this, argComparator);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#mapped(com.dmurph.mvc.ITransformer)
+	 */
+	public <T> MVCMappedListView<E, T> mapped(ITransformer<? super E, ? extends T> argTransformer) {
+		return new MVCMappedListView<E, T>(this, argTransformer);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void addPropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.addPropertyChangeListener(argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#removePropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void removePropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.removePropertyChangeListener(argListener);
+	}
+
+	/**
+	 * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void addPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.addPropertyChangeListener(argPropertyName, argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#removePropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void removePropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.removePropertyChangeListener(argPropertyName, argListener);
+	}
+
+	/**
+	 * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void addWeakPropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.addWeakPropertyChangeListener(argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void addWeakPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.addWeakPropertyChangeListener(argPropertyName, argListener);
+	}
+	
+	/**
+	 * Clones the elements of the other list into this one, if they're {@link ICloneable}.
+	 * @see com.dmurph.mvc.ICloneable#cloneFrom(com.dmurph.mvc.ICloneable)
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void cloneFrom(ICloneable argOther) {
+		MVCChunkedList<E> other = (MVCChunkedList<E>) argOther;
+		CloneContext context = new CloneContext();
+		ArrayList<E> cloned = new ArrayList<E>();
+		ArrayList<E> saved = null;
+		boolean wasDirty;
+		synchronized (other) {
+			for(Object o : other.toArray()){
+				cloned.add((E) context.cloneObject(o));
+			}
+			if(other.isChanged()){
+				saved = new ArrayList<E>();
+				for(E e : other.getSaved()){
+					saved.add((E) context.cloneObject(e));
+				}
+			}
+			wasDirty = other.dirty;
+		}
+		clear();
+		addAll(cloned);
+		if(saved != null){
+			savedRoot = build(saved.toArray(), saved.size());
+			generation++;
+			logOverflowed = true;
+			log.clear();
+		}else{
+			save();
+		}
+		dirty = wasDirty;
+		fireDirtyChanged();
+	}
+	
+	/**
+	 * Clones this list with a {@link CloneContext}, so elements that are in the
+	 * list more than once (or loops) are only cloned once.
+	 * @see java.lang.Object#clone()
+	 */
+	@Override
+	public ICloneable clone(){
+		return deepClone(new CloneContext());
+	}
+	
+	/**
+	 * Clones this list by building a new tree directly, without firing events.
+	 * @param argContext
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	MVCChunkedList<E> deepClone(CloneContext argContext){
+		MVCChunkedList<E> clone = new MVCChunkedList<E>();
+		argContext.put(this, clone);
+		
+		Object[] elements;
+		List<E> saved = null;
+		boolean wasDirty;
+		synchronized (this) {
+			elements = toArray();
+			if(isChanged()){
+				saved = getSaved();
+			}
+			wasDirty = dirty;
+		}
+		for(int i=0; i<elements.length; i++){
+			elements[i] = argContext.cloneObject(elements[i]);
+			clone.addListener(elements[i]);
+		}
+		clone.root = clone.build(elements, elements.length);
+		clone.save();
+		if(saved != null){
+			Object[] clonedSaved = new Object[saved.size()];
+			for(int i=0; i<clonedSaved.length; i++){
+				clonedSaved[i] = argContext.cloneObject(saved.get(i));
+			}
+			clone.savedRoot = clone.build(clonedSaved, clonedSaved.length);
+			clone.generation++;
+			clone.logOverflowed = true;
+		}
+		clone.dirty = wasDirty;
+		clone.firedDirty.set(clone.isDirty());
+		return clone;
+	}
+	
+	/**
+	 * Also checks to see if elements in this list are dirty, if any are {@link IDirtyable}.
+	 * @see com.dmurph.mvc.IDirtyable#isDirty()
+	 */
+	public boolean isDirty() {
+		return dirty || dirtySupport.hasDirtyChildren();
+	}
+	
+	/**
+	 * Default just calls {@link IDirtyable#isDirty()}, but override
+	 * if an element shouldn't count towards this being dirty.
+	 * @return
+	 */
+	protected boolean isDirtyImpl(E argE){
+		if(argE instanceof IDirtyable){
+			return ((IDirtyable) argE).isDirty();
+		}
+		return false;
+	}
+	
+	/**
+	 * Sets the dirty variable and, if argDirty is false,
+	 * then will call {@link IDirtyable#setDirty(boolean)} on
+	 * all {@link IDirtyable} objects in this list.
+	 * @see com.dmurph.mvc.IDirtyable#setDirty(boolean)
+	 */
+	public synchronized void setDirty(boolean argDirty) {
+		dirty = argDirty;
+		if(!dirty){
+			for(E e : this){
+				setDirtyImpl(e, false);
+			}
+			dirtySupport.refresh();
+		}
+		fireDirtyChanged();
+	}
+	
+	/**
+	 * Default just calls {@link IDirtyable#setDirty(boolean)}, but override
+	 * to protect against loops (if the property tree goes in a loop).
+	 * @param argE
+	 * @param argDirty
+	 */
+	protected void setDirtyImpl(E argE, boolean argDirty){
+		if(argE instanceof IDirtyable){
+			((IDirtyable) argE).setDirty(argDirty);
+		}
+	}
+	
+	/**
+	 * Also calls {@link IRevertible#revertChanges()} on all
+	 * objects in the reverted list that are {@link IRevertible}.
+	 * @see com.dmurph.mvc.IRevertible#revertChanges()
+	 */
+	public synchronized void revertChanges() {
+		if(isChanged()){
+			revert();
+		}
+		for(E e : this){
+			revertChangesImpl(e);
+		}
+		setDirty(false);
+	}
+	
+	/**
+	 * Default just calls {@link IRevertible#revertChanges()}, but override
+	 * to protect against loops (if the property tree goes in a loop).
+	 */
+	protected void revertChangesImpl(E argE){
+		if(argE instanceof IRevertible){
+			((IRevertible) argE).revertChanges();
+		}
+	}
+	
+	/**
+	 * Saves the list without copying it, see {@link MVCChunkedList}.  Also calls
+	 * {@link IRevertible#saveChanges()} on all objects in the list that are {@link IRevertible}.
+	 * @see com.dmurph.mvc.IRevertible#saveChanges()
+	 */
+	public synchronized void saveChanges() {
+		save();
+		for(E e : this){
+			saveChangesImpl(e);
+		}
+		setDirty(false);
+	}
+	
+	/**
+	 * Default just calls {@link IRevertible#saveChanges()}, but override
+	 * to protect against loops (if the property tree goes in a loop).
+	 */
+	protected void saveChangesImpl(E argE){
+		if(argE instanceof IRevertible){
+			((IRevertible) argE).saveChanges();
+		}
+	}
+	
+	private class ChunkIterator implements Iterator<E> {
+		private int index = 0;
+		private int lastReturned = -1;
+		private Leaf leaf = null;
+		private int leafStart = 0;
+		private int expectedModCount = modCount;
+		
+		public boolean hasNext() {
+			return index < size();
+		}
+		
+		@SuppressWarnings("unchecked")
+		public E next() {
+			synchronized (MVCChunkedList.this) {
+				if(modCount != expectedModCount){
+					throw new ConcurrentModificationException();
+				}
+				if(index >= root.size){
+					throw new NoSuchElementException();
+				}
+				if(leaf == null || index >= leafStart + leaf.size){
+					findLeaf();
+				}
+				lastReturned = index;
+				return (E) leaf.elements[index++ - leafStart];
+			}
+		}
+		
+		public void remove() {
+			if(lastReturned == -1){
+				throw new IllegalStateException();
+			}
+			synchronized (MVCChunkedList.this) {
+				if(modCount != expectedModCount){
+					throw new ConcurrentModificationException();
+				}
+				MVCChunkedList.this.remove(lastReturned);
+				index = lastReturned;
+				lastReturned = -1;
+				leaf = null;
+				expectedModCount = modCount;
+			}
+		}
+		
+		private void findLeaf(){
+			Node node = root;
+			int offset = index;
+			while(node instanceof Branch){
+				Branch branch = (Branch) node;
+				int k = 0;
+				while(offset >= branch.children[k].size){
+					offset -= branch.children[k].size;
+					k++;
+				}
+				node = branch.children[k];
+			}
+			leaf = (Leaf) node;
+			leafStart = index - offset;
+		}
+	}
+	
+	private static abstract class Node {
+		final int generation;
+		// number of elements under this node
+		int size;
+		
+		Node(int argGeneration){
+			generation = argGeneration;
+		}
+		
+		abstract Node copy(int argGeneration);
+		
+		abstract boolean isSmall();
+		
+		// if the other node can be appended to this one
+		abstract boolean fits(Node argOther);
+		
+		abstract void append(Node argOther);
+	}
+	
+	private static final class Leaf extends Node {
+		final Object[] elements = new Object[CHUNK_SIZE];
+		
+		Leaf(int argGeneration){
+			super(argGeneration);
+		}
+		
+		@Override
+		Node copy(int argGeneration) {
+			Leaf leaf = new Leaf(argGeneration);
+			System.arraycopy(elements, 0, leaf.elements, 0, size);
+			leaf.size = size;
+			return leaf;
+		}
+		
+		@Override
+		boolean isSmall() {
+			return size < CHUNK_SIZE / 4;
+		}
+		
+		@Override
+		boolean fits(Node argOther) {
+			return size + argOther.size <= CHUNK_SIZE;
+		}
+		
+		@Override
+		void append(Node argOther) {
+			System.arraycopy(((Leaf) argOther).elements, 0, elements, size, argOther.size);
+			size += argOther.size;
+		}
+	}
+	
+	private static final class Branch extends Node {
+		final Node[] children = new Node[BRANCH_SIZE];
+		int count;
+		
+		Branch(int argGeneration){
+			super(argGeneration);
+		}
+		
+		void updateSize(){
+			size = 0;
+			for(int i=0; i<count; i++){
+				size += children[i].size;
+			}
+		}
+		
+		@Override
+		Node copy(int argGeneration) {
+			Branch branch = new Branch(argGeneration);
+			System.arraycopy(children, 0, branch.children, 0, count);
+			branch.count = count;
+			branch.size = size;
+			return branch;
+		}
+		
+		@Override
+		boolean isSmall() {
+			return count < BRANCH_SIZE / 4;
+		}
+		
+		@Override
+		boolean fits(Node argOther) {
+			return count + ((Branch) argOther).count <= BRANCH_SIZE;
+		}
+		
+		@Override
+		void append(Node argOther) {
+			Branch other = (Branch) argOther;
+			System.arraycopy(other.children, 0, children, count, other.count);
+			count += other.count;
+			size += other.size;
+		}
+	}
+	
+	private static class Change {
+		final int type;
+		final int index;
+		final int count;
+		final Object value;
+		final int[] indexes;
+		
+		Change(int argType, int argIndex, int argCount, Object argValue, int[] argIndexes){
+			type = argType;
+			index = argIndex;
+			count = argCount;
+			value = argValue;
+			indexes = argIndexes;
+		}
+	}
+}
@@ -0,0 +1,769 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 12:48:26 AM
+ */
+package com.dmurph.mvc.model;
+
+import java.beans.PropertyChangeListener;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.dmurph.mvc.ICloneable;
+import com.dmurph.mvc.IDirtyable;
+import com.dmurph.mvc.IFilter;
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.IRevertible;
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.support.DirtySupport;
+import com.dmurph.mvc.support.IDirtySupportable;
+import com.dmurph.mvc.support.ListRevertSupport;
+import com.dmurph.mvc.support.MVCPropertyChangeSupport;
+
+/**
+ * A thread safe list model for when the list is read much more often than it's changed, or is
+ * read from other threads while it's changed (like a list that's filled by a background thread
+ * and shown in Swing).  Every change copies the backing array, so reads never lock and iterators
+ * are a snapshot of the list when they were made, and never throw a
+ * {@link java.util.ConcurrentModificationException}.<br/>
+ * <br/>
+ * Changes are made while holding the monitor of the list, and fire the same events as
+ * {@link MVCArrayList} while still holding it, so listeners get the events of each change in the
+ * order the changes were made.  To make several changes at once (like checking if the list contains
+ * an element before adding it), synchronize on the list.  Like {@link MVCArrayList}, this is
+ * {@link IDirtyable}, {@link IRevertible} and {@link ICloneable}.
+ * @author Daniel Murphy
+ */
+public class MVCCopyOnWriteList<E> extends AbstractList<E> implements IMVCList<E>, ICloneable, IDirtyable, IRevertible {
+	
+	private static final Object[] EMPTY = new Object[0];
+	
+	private volatile Object[] array = EMPTY;
+	
+	private volatile boolean dirty = false;
+	private final AtomicBoolean firedDirty = new AtomicBoolean(false);
+	
+	private final ListRevertSupport<E> revertSupport = new ListRevertSupport<E>();
+	private final MVCPropertyChangeSupport propertyChangeSupport = new MVCPropertyChangeSupport(this);
+	
+	private final DirtySupport dirtySupport = new DirtySupport(this, new IDirtySupportable() {
+		@SuppressWarnings("unchecked")
+		public boolean isChildDirty(Object argChild) {
+			return isDirtyImpl((E) argChild);
+		}
+		
+		public void dirtyChildrenChanged(boolean argHasDirtyChildren) {
+			fireDirtyChanged();
+		}
+	});
+	
+	public MVCCopyOnWriteList(){}
+	
+	public MVCCopyOnWriteList(Collection<? extends E> argC){
+		addAllSilently(argC.toArray());
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public E get(int argIndex) {
+		Object[] a = array;
+		if(argIndex < 0 || argIndex >= a.length){
+			throw new IndexOutOfBoundsException("Index: "+argIndex+", Size: "+a.length);
+		}
+		return (E) a[argIndex];
+	}
+	
+	@Override
+	public int size() {
+		return array.length;
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		return array.length == 0;
+	}
+	
+	@Override
+	public int indexOf(Object argObject) {
+		return indexOf(array, argObject);
+	}
+	
+	@Override
+	public int lastIndexOf(Object argObject) {
+		Object[] a = array;
+		for(int i=a.length-1; i>=0; i--){
+			if(argObject == null ? a[i] == null : argObject.equals(a[i])){
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	@Override
+	public boolean contains(Object argObject) {
+		return indexOf(array, argObject) != -1;
+	}
+	
+	@Override
+	public Object[] toArray() {
+		return array.clone();
+	}
+	
+	/**
+	 * @return an iterator over a snapshot of the list, which doesn't support changing the list
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new SnapshotIterator<E>(array, 0);
+	}
+	
+	/**
+	 * @return an iterator over a snapshot of the list, which doesn't support changing the list
+	 */
+	@Override
+	public ListIterator<E> listIterator() {
+		return new SnapshotIterator<E>(array, 0);
+	}
+	
+	/**
+	 * @return an iterator over a snapshot of the list, which doesn't support changing the list
+	 */
+	@Override
+	public ListIterator<E> listIterator(int argIndex) {
+		Object[] a = array;
+		if(argIndex < 0 || argIndex > a.length){
+			throw new IndexOutOfBoundsException("Index: "+argIndex+", Size: "+a.length);
+		}
+		return new SnapshotIterator<E>(a, argIndex);
+	}
+	
+	@Override
+	public synchronized boolean add(E argElement) {
+		insert(array.length, new Object[]{argElement});
+		return true;
+	}
+	
+	@Override
+	public synchronized void add(int argIndex, E argElement) {
+		insert(argIndex, new Object[]{argElement});
+	}
+	
+	/**
+	 * Adds the element if it isn't in the list already.
+	 * @param argElement
+	 * @return if the element was added
+	 */
+	public synchronized boolean addIfAbsent(E argElement){
+		if(contains(argElement)){
+			return false;
+		}
+		insert(array.length, new Object[]{argElement});
+		return true;
+	}
+	
+	@Override
+	public synchronized boolean addAll(Collection<? extends E> argC) {
+		return addAll(array.length, argC);
+	}
+	
+	@Override
+	public synchronized boolean addAll(int argIndex, Collection<? extends E> argC) {
+		Object[] added = argC.toArray();
+		if(added.length == 0){
+			if(argIndex < 0 || argIndex > array.length){
+				throw new IndexOutOfBoundsException("Index: "+argIndex+", Size: "+array.length);
+			}
+			return false;
+		}
+		insert(argIndex, added);
+		return true;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public synchronized E set(int argIndex, E argElement) {
+		Object[] a = array.clone();
+		if(argIndex < 0 || argIndex >= a.length){
+			throw new IndexOutOfBoundsException("Index: "+argIndex+", Size: "+a.length);
+		}
+		E old = (E) a[argIndex];
+		a[argIndex] = argElement;
+		array = a;
+		revertSupport.recordSet(argIndex, old, this);
+		removeListener(old);
+		addListener(argElement);
+		propertyChangeSupport.fireIndexedPropertyChange(MVCArrayList.CHANGED, argIndex, old, argElement);
+		markDirty();
+		return old;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public synchronized E remove(int argIndex) {
+		Object[] a = array;
+		if(argIndex < 0 || argIndex >= a.length){
+			throw new IndexOutOfBoundsException("Index: "+argIndex+", Size: "+a.length);
+		}
+		E old = (E) a[argIndex];
+		Object[] n = new Object[a.length - 1];
+		System.arraycopy(a, 0, n, 0, argIndex);
+		System.arraycopy(a, argIndex + 1, n, argIndex, n.length - argIndex);
+		array = n;
+		revertSupport.recordRemove(argIndex, old, this);
+		removeListener(old);
+		propertyChangeSupport.firePropertyRemovedEvent(MVCArrayList.REMOVED, old, argIndex);
+		propertyChangeSupport.firePropertyChange(MVCArrayList.SIZE, a.length, n.length);
+		markDirty();
+		return old;
+	}
+	
+	@Override
+	public synchronized boolean remove(Object argObject) {
+		int index = indexOf(argObject);
+		if(index == -1){
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+	
+	@Override
+	public synchronized void clear() {
+		if(array.length > 0){
+			removeRange(0, array.length);
+		}
+	}
+	
+	/**
+	 * Removes the elements from <code>argFromIndex</code>, inclusive, to <code>argToIndex</code>,
+	 * exclusive, firing a single {@link MVCArrayList#REMOVED_ALL} event.
+	 * @see java.util.AbstractList#removeRange(int, int)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public synchronized void removeRange(int argFromIndex, int argToIndex) {
+		Object[] a = array;
+		if(argFromIndex < 0 || argToIndex > a.length || argFromIndex > argToIndex){
+			throw new IndexOutOfBoundsException("From: "+argFromIndex+", To: "+argToIndex+", Size: "+a.length);
+		}
+		if(argFromIndex == argToIndex){
+			return;
+		}
+		Object[] n = new Object[a.length - (argToIndex - argFromIndex)];
+		System.arraycopy(a, 0, n, 0, argFromIndex);
+		System.arraycopy(a, argToIndex, n, argFromIndex, a.length - argToIndex);
+		List<E> removed = (List<E>) Arrays.asList(a).subList(argFromIndex, argToIndex);
+		array = n;
+		revertSupport.recordRemoveAll(argFromIndex, removed, this);
+		for(E e : removed){
+			removeListener(e);
+		}
+		propertyChangeSupport.firePropertiesRemovedEvent(MVCArrayList.REMOVED_ALL, Collections.unmodifiableList(removed), argFromIndex, argToIndex - 1);
+		propertyChangeSupport.firePropertyChange(MVCArrayList.SIZE, a.length, n.length);
+		markDirty();
+	}
+	
+	/**
+	 * Removes every element that is in the given collection, firing a single
+	 * {@link MVCArrayList#REMOVED_ALL} event.
+	 * @see java.util.AbstractCollection#removeAll(java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean removeAll(final Collection<?> argC) {
+		return removeAllMatching(new IFilter<E>() {
+			public boolean accept(E argObject) {
+				return argC.contains(argObject);
+			}
+		});
+	}
+	
+	/**
+	 * Removes every element that isn't in the given collection, firing a single
+	 * {@link MVCArrayList#REMOVED_ALL} event.
+	 * @see java.util.AbstractCollection#retainAll(java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean retainAll(final Collection<?> argC) {
+		return removeAllMatching(new IFilter<E>() {
+			public boolean accept(E argObject) {
+				return !argC.contains(argObject);
+			}
+		});
+	}
+	
+	/**
+	 * Removes every element accepted by the filter with one copy of the list, firing a single
+	 * {@link MVCArrayList#REMOVED_ALL} event with the index of each element removed.
+	 * @param argFilter
+	 * @return if any elements were removed
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized boolean removeAllMatching(IFilter<? super E> argFilter){
+		Object[] a = array;
+		Object[] kept = new Object[a.length];
+		int keptSize = 0;
+		ArrayList<E> removed = new ArrayList<E>();
+		int[] indexes = new int[a.length];
+		for(int i=0; i<a.length; i++){
+			E e = (E) a[i];
+			if(argFilter.accept(e)){
+				indexes[removed.size()] = i;
+				removed.add(e);
+			}else{
+				kept[keptSize++] = e;
+			}
+		}
+		if(removed.isEmpty()){
+			return false;
+		}
+		int[] removedIndexes = new int[removed.size()];
+		System.arraycopy(indexes, 0, removedIndexes, 0, removedIndexes.length);
+		Object[] n = new Object[keptSize];
+		System.arraycopy(kept, 0, n, 0, keptSize);
+		array = n;
+		
+		revertSupport.recordRemoveAll(removedIndexes, removed, this);
+		for(E e : removed){
+			removeListener(e);
+		}
+		propertyChangeSupport.firePropertiesRemovedEvent(MVCArrayList.REMOVED_ALL, Collections.unmodifiableCollection(removed), removedIndexes);
+		propertyChangeSupport.firePropertyChange(MVCArrayList.SIZE, a.length, n.length);
+		markDirty();
+		return true;
+	}
+	
+	/**
+	 * Replaces every element with the result of the transformer, with one copy of the list, firing a
+	 * single {@link MVCArrayList#CHANGED_ALL} event with the elements that changed.  Elements are changed
+	 * if the transformer returns a different object.
+	 * @param argTransformer
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void transformAll(ITransformer<? super E, ? extends E> argTransformer){
+		Object[] a = array.clone();
+		int[] indexes = new int[a.length];
+		ArrayList<E> oldValues = new ArrayList<E>();
+		ArrayList<E> newValues = new ArrayList<E>();
+		for(int i=0; i<a.length; i++){
+			E old = (E) a[i];
+			E e = argTransformer.transform(old);
+			if(e == old){
+				continue;
+			}
+			a[i] = e;
+			indexes[oldValues.size()] = i;
+			oldValues.add(old);
+			newValues.add(e);
+		}
+		if(oldValues.isEmpty()){
+			return;
+		}
+		int[] changedIndexes = new int[oldValues.size()];
+		System.arraycopy(indexes, 0, changedIndexes, 0, changedIndexes.length);
+		array = a;
+		
+		revertSupport.recordSetAll(changedIndexes, oldValues, this);
+		for(int i=0; i<changedIndexes.length; i++){
+			removeListener(oldValues.get(i));
+			addListener(newValues.get(i));
+		}
+		propertyChangeSupport.fireIndexedPropertiesChangedEvent(MVCArrayList.CHANGED_ALL, changedIndexes, oldValues, newValues);
+		markDirty();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void insert(int argIndex, Object[] argAdded){
+		Object[] a = array;
+		if(argIndex < 0 || argIndex > a.length){
+			throw new IndexOutOfBoundsException("Index: "+argIndex+", Size: "+a.length);
+		}
+		Object[] n = new Object[a.length + argAdded.length];
+		System.arraycopy(a, 0, n, 0, argIndex);
+		System.arraycopy(argAdded, 0, n, argIndex, argAdded.length);
+		System.arraycopy(a, argIndex, n, argIndex + argAdded.length, a.length - argIndex);
+		array = n;
+		
+		revertSupport.recordAdd(argIndex, argAdded.length, this);
+		List<E> added = (List<E>) Arrays.asList(argAdded);
+		for(E e : added){
+			addListener(e);
+		}
+		if(argAdded.length == 1){
+			propertyChangeSupport.firePropertyAddedEvent(MVCArrayList.ADDED, argAdded[0], argIndex);
+		}else{
+			propertyChangeSupport.firePropertiesAddedEvent(MVCArrayList.ADDED_ALL, Collections.unmodifiableList(added),
+														   argIndex, argIndex + argAdded.length - 1);
+		}
+		propertyChangeSupport.firePropertyChange(MVCArrayList.SIZE, a.length, n.length);
+		markDirty();
+	}
+	
+	// adds elements without recording or firing events, for constructing and cloning
+	@SuppressWarnings("unchecked")
+	private synchronized void addAllSilently(Object[] argElements){
+		Object[] a = array;
+		Object[] n = new Object[a.length + argElements.length];
+		System.arraycopy(a, 0, n, 0, a.length);
+		System.arraycopy(argElements, 0, n, a.length, argElements.length);
+		array = n;
+		for(Object o : argElements){
+			addListener((E) o);
+		}
+	}
+	
+	private static int indexOf(Object[] argArray, Object argObject){
+		for(int i=0; i<argArray.length; i++){
+			if(argObject == null ? argArray[i] == null : argObject.equals(argArray[i])){
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	private void addListener(Object argObject){
+		dirtySupport.addChild(argObject);
+	}
+	
+	private void removeListener(Object argObject){
+		dirtySupport.removeChild(argObject);
+	}
+	
+	private void markDirty(){
+		dirty = true;
+		fireDirtyChanged();
+	}
+	
+	// fires the dirty property if isDirty() changed since the last time we fired it
+	private void fireDirtyChanged(){
+		boolean dirtyNow = isDirty();
+		if(firedDirty.compareAndSet(!dirtyNow, dirtyNow)){
+			propertyChangeSupport.firePropertyChange(DIRTY, !dirtyNow, dirtyNow);
+		}
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#filtered(com.dmurph.mvc.IFilter)
+	 */
+	public MVCFilteredListView<E> filtered(IFilter<? super E> argFilter) {
+		return new MVCFilteredListView<E>(this, argFilter);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#sorted(java.util.Comparator)
+	 */
+	public MVCSortedListView<E> sorted(Comparator<? super E> argComparator) {
+		return new MVCSortedListView<E>(this, argComparator);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#mapped(com.dmurph.mvc.ITransformer)
+	 */
+	public <T> MVCMappedListView<E, T> mapped(ITransformer<? super E, ? extends T> argTransformer) {
+		return new MVCMappedListView<E, T>(this, argTransformer);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void addPropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.addPropertyChangeListener(argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#removePropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void removePropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.removePropertyChangeListener(argListener);
+	}
+
+	/**
+	 * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void addPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.addPropertyChangeListener(argPropertyName, argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#removePropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void removePropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.removePropertyChangeListener(argPropertyName, argListener);
+	}
+
+	/**
+	 * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void addWeakPropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.addWeakPropertyChangeListener(argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void addWeakPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.addWeakPropertyChangeListener(argPropertyName, argListener);
+	}
+	
+	/**
+	 * Clones the elements of the other list into this one, if they're {@link ICloneable}.
+	 * @see com.dmurph.mvc.ICloneable#cloneFrom(com.dmurph.mvc.ICloneable)
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void cloneFrom(ICloneable argOther) {
+		MVCCopyOnWriteList<E> other = (MVCCopyOnWriteList<E>) argOther;
+		CloneContext context = new CloneContext();
+		ArrayList<E> cloned = new ArrayList<E>();
+		ArrayList<E> saved = null;
+		boolean wasDirty;
+		synchronized (other) {
+			for(Object o : other.array){
+				cloned.add((E) context.cloneObject(o));
+			}
+			if(other.revertSupport.isChanged()){
+				saved = new ArrayList<E>();
+				for(E e : other.revertSupport.getSaved(other)){
+					saved.add((E) context.cloneObject(e));
+				}
+			}
+			wasDirty = other.dirty;
+		}
+		clear();
+		addAll(cloned);
+		if(saved != null){
+			revertSupport.setSaved(saved);
+		}else{
+			revertSupport.save();
+		}
+		dirty = wasDirty;
+		fireDirtyChanged();
+	}
+	
+	/**
+	 * Clones this list with a {@link CloneContext}, so elements that are in the
+	 * list more than once (or loops) are only cloned once.
+	 * @see java.lang.Object#clone()
+	 */
+	@Override
+	public ICloneable clone(){
+		return deepClone(new CloneContext());
+	}
+	
+	/**
+	 * Clones this list by filling in a new list directly, without firing events.
+	 * @param argContext
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	MVCCopyOnWriteList<E> deepClone(CloneContext argContext){
+		MVCCopyOnWriteList<E> clone = new MVCCopyOnWriteList<E>();
+		argContext.put(this, clone);
+		
+		Object[] elements;
+		ArrayList<E> saved = null;
+		boolean wasDirty;
+		synchronized (this) {
+			elements = array;
+			if(revertSupport.isChanged()){
+				saved = revertSupport.getSaved(this);
+			}
+			wasDirty = dirty;
+		}
+		Object[] cloned = new Object[elements.length];
+		for(int i=0; i<elements.length; i++){
+			cloned[i] = argContext.cloneObject(elements[i]);
+		}
+		clone.addAllSilently(cloned);
+		if(saved != null){
+			ArrayList<E> clonedSaved = new ArrayList<E>(saved.size());
+			for(E e : saved){
+				clonedSaved.add((E) argContext.cloneObject(e));
+			}
+			clone.revertSupport.setSaved(clonedSaved);
+		}
+		clone.dirty = wasDirty;
+		clone.firedDirty.set(clone.isDirty());
+		return clone;
+	}
+	
+	/**
+	 * Also checks to see if elements in this list are dirty, if any are {@link IDirtyable}.
+	 * @see com.dmurph.mvc.IDirtyable#isDirty()
+	 */
+	public boolean isDirty() {
+		return dirty || dirtySupport.hasDirtyChildren();
+	}
+	
+	/**
+	 * Default just calls {@link IDirtyable#isDirty()}, but override
+	 * if an element shouldn't count towards this being dirty.
+	 * @return
+	 */
+	protected boolean isDirtyImpl(E argE){
+		if(argE instanceof IDirtyable){
+			return ((IDirtyable) argE).isDirty();
+		}
+		return false;
+	}
+	
+	/**
+	 * Sets the dirty variable and, if argDirty is false,
+	 * then will call {@link IDirtyable#setDirty(boolean)} on
+	 * all {@link IDirtyable} objects in this list.
+	 * @see com.dmurph.mvc.IDirtyable#setDirty(boolean)
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void setDirty(boolean argDirty) {
+		dirty = argDirty;
+		if(!dirty){
+			for(Object o : array){
+				setDirtyImpl((E) o, false);
+			}
+			dirtySupport.refresh();
+		}
+		fireDirtyChanged();
+	}
+	
+	/**
+	 * Default just calls {@link IDirtyable#setDirty(boolean)}, but override
+	 * to protect against loops (if the property tree goes in a loop).
+	 * @param argE
+	 * @param argDirty
+	 */
+	protected void setDirtyImpl(E argE, boolean argDirty){
+		if(argE instanceof IDirtyable){
+			((IDirtyable) argE).setDirty(argDirty);
+		}
+	}
+	
+	/**
+	 * Also calls {@link IRevertible#revertChanges()} on all
+	 * objects in the reverted list that are {@link IRevertible}.
+	 * @see com.dmurph.mvc.IRevertible#revertChanges()
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void revertChanges() {
+		if(revertSupport.isChanged()){
+			revertSupport.revert(this);
+		}
+		for(Object o : array){
+			revertChangesImpl((E) o);
+		}
+		setDirty(false);
+	}
+	
+	/**
+	 * Default just calls {@link IRevertible#revertChanges()}, but override
+	 * to protect against loops (if the property tree goes in a loop).
+	 */
+	protected void revertChangesImpl(E argE){
+		if(argE instanceof IRevertible){
+			((IRevertible) argE).revertChanges();
+		}
+	}
+	
+	/**
+	 * Also calls {@link IRevertible#saveChanges()} on all
+	 * objects in the list that are {@link IRevertible}.
+	 * @see com.dmurph.mvc.IRevertible#saveChanges()
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void saveChanges() {
+		revertSupport.save();
+		for(Object o : array){
+			saveChangesImpl((E) o);
+		}
+		setDirty(false);
+	}
+	
+	/**
+	 * Default just calls {@link IRevertible#saveChanges()}, but override
+	 * to protect against loops (if the property tree goes in a loop).
+	 */
+	protected void saveChangesImpl(E argE){
+		if(argE instanceof IRevertible){
+			((IRevertible) argE).saveChanges();
+		}
+	}
+	
+	private static class SnapshotIterator<E> implements ListIterator<E> {
+		private final Object[] snapshot;
+		private int cursor;
+		
+		public SnapshotIterator(Object[] argSnapshot, int argIndex){
+			snapshot = argSnapshot;
+			cursor = argIndex;
+		}
+		
+		public boolean hasNext() {
+			return cursor < snapshot.length;
+		}
+		
+		@SuppressWarnings("unchecked")
+		public E next() {
+			if(cursor >= snapshot.length){
+				throw new NoSuchElementException();
+			}
+			return (E) snapshot[cursor++];
+		}
+		
+		public boolean hasPrevious() {
+			return cursor > 0;
+		}
+		
+		@SuppressWarnings("unchecked")
+		public E previous() {
+			if(cursor <= 0){
+				throw new NoSuchElementException();
+			}
+			return (E) snapshot[--cursor];
+		}
+		
+		public int nextIndex() {
+			return cursor;
+		}
+		
+		public int previousIndex() {
+			return cursor - 1;
+		}
+		
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+		
+		public void set(E argE) {
+			throw new UnsupportedOperationException();
+		}
+		
+		public void add(E argE) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
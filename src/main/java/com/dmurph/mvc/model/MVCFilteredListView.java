@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 11:31:55 PM
+ */
+package com.dmurph.mvc.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.dmurph.mvc.IFilter;
+
+/**
+ * A live view of the elements of an {@link IMVCList} that are accepted by a filter, in the
+ * same order as the source.  The view keeps the source index of each of it's elements, so
+ * a change to the source is found with a binary search, and only the elements it changes are
+ * added, removed or changed in the view.
+ * @author Daniel Murphy
+ * @see IMVCList#filtered(IFilter)
+ */
+public class MVCFilteredListView<E> extends MVCListView<E, E> {
+	
+	private IFilter<? super E> filter;
+	private final ArrayList<E> elements = new ArrayList<E>();
+	// the source index of each element, ascending
+	private int[] sourceIndexes = new int[16];
+	
+	/**
+	 * @param argSource
+	 * @param argFilter
+	 */
+	public MVCFilteredListView(IMVCList<E> argSource, IFilter<? super E> argFilter){
+		super(argSource);
+		if(argFilter == null){
+			throw new NullPointerException();
+		}
+		filter = argFilter;
+		attach();
+	}
+	
+	public synchronized IFilter<? super E> getFilter(){
+		return filter;
+	}
+	
+	/**
+	 * Sets the filter and refreshes the view.
+	 * @param argFilter
+	 * @see #refresh()
+	 */
+	public void setFilter(IFilter<? super E> argFilter){
+		if(argFilter == null){
+			throw new NullPointerException();
+		}
+		synchronized (this) {
+			filter = argFilter;
+		}
+		refresh();
+	}
+	
+	/**
+	 * @param argIndex
+	 * @return the index in the source of the element at the given index
+	 */
+	public synchronized int getSourceIndex(int argIndex){
+		if(argIndex < 0 || argIndex >= elements.size()){
+			throw new IndexOutOfBoundsException("Index: "+argIndex+", Size: "+elements.size());
+		}
+		return sourceIndexes[argIndex];
+	}
+	
+	@Override
+	public synchronized E get(int argIndex) {
+		return elements.get(argIndex);
+	}
+	
+	@Override
+	public synchronized int size() {
+		return elements.size();
+	}
+	
+	@Override
+	protected void rebuild(List<E> argSource) {
+		elements.clear();
+		sourceIndexes = new int[Math.max(16, argSource.size())];
+		for(int i=0; i<argSource.size(); i++){
+			E e = argSource.get(i);
+			if(filter.accept(e)){
+				sourceIndexes[elements.size()] = i;
+				elements.add(e);
+			}
+		}
+	}
+	
+	@Override
+	protected void sourceAdded(int argIndex, List<E> argElements) {
+		int oldSize = elements.size();
+		int count = argElements.size();
+		int position = findPosition(argIndex);
+		for(int i=position; i<oldSize; i++){
+			sourceIndexes[i] += count;
+		}
+		ArrayList<E> added = new ArrayList<E>();
+		int[] addedIndexes = new int[count];
+		for(int i=0; i<count; i++){
+			E e = argElements.get(i);
+			if(filter.accept(e)){
+				addedIndexes[added.size()] = argIndex + i;
+				added.add(e);
+			}
+		}
+		if(added.isEmpty()){
+			return;
+		}
+		ensureCapacity(oldSize + added.size());
+		System.arraycopy(sourceIndexes, position, sourceIndexes, position + added.size(), oldSize - position);
+		System.arraycopy(addedIndexes, 0, sourceIndexes, position, added.size());
+		elements.addAll(position, added);
+		
+		fireAdded(position, added);
+		fireSizeChanged(oldSize);
+	}
+	
+	@Override
+	protected void sourceRemoved(int[] argIndexes, List<E> argElements) {
+		int oldSize = elements.size();
+		int first = findPosition(argIndexes[0]);
+		ArrayList<E> removed = new ArrayList<E>();
+		int[] removedIndexes = new int[Math.min(argIndexes.length, oldSize - first)];
+		ArrayList<E> kept = new ArrayList<E>(oldSize - first);
+		
+		// both the view and the removed indexes are sorted, so walk them together, shifting
+		// the source index of each element we keep down by how many were removed before it
+		int next = 0;
+		int keptSize = first;
+		for(int i=first; i<oldSize; i++){
+			int sourceIndex = sourceIndexes[i];
+			while(next < argIndexes.length && argIndexes[next] < sourceIndex){
+				next++;
+			}
+			if(next < argIndexes.length && argIndexes[next] == sourceIndex){
+				removedIndexes[removed.size()] = i;
+				removed.add(elements.get(i));
+			}else{
+				sourceIndexes[keptSize++] = sourceIndex - next;
+				kept.add(elements.get(i));
+			}
+		}
+		if(removed.isEmpty()){
+			return;
+		}
+		elements.subList(first, oldSize).clear();
+		elements.addAll(kept);
+		int[] indexes = new int[removed.size()];
+		System.arraycopy(removedIndexes, 0, indexes, 0, indexes.length);
+		
+		fireRemoved(indexes, removed);
+		fireSizeChanged(oldSize);
+	}
+	
+	@Override
+	protected void sourceChanged(int[] argIndexes, List<E> argOldElements, List<E> argNewElements) {
+		for(int i=0; i<argIndexes.length; i++){
+			int sourceIndex = argIndexes[i];
+			int position = findPosition(sourceIndex);
+			boolean was = position < elements.size() && sourceIndexes[position] == sourceIndex;
+			E e = argNewElements.get(i);
+			boolean is = filter.accept(e);
+			if(was && is){
+				E old = elements.set(position, e);
+				fireChanged(position, old, e);
+			}else if(was){
+				int oldSize = elements.size();
+				System.arraycopy(sourceIndexes, position + 1, sourceIndexes, position, oldSize - position - 1);
+				E old = elements.remove(position);
+				fireRemoved(position, old);
+				fireSizeChanged(oldSize);
+			}else if(is){
+				int oldSize = elements.size();
+				ensureCapacity(oldSize + 1);
+				System.arraycopy(sourceIndexes, position, sourceIndexes, position + 1, oldSize - position);
+				sourceIndexes[position] = sourceIndex;
+				elements.add(position, e);
+				fireAdded(position, e);
+				fireSizeChanged(oldSize);
+			}
+		}
+	}
+	
+	// the index of the first element with a source index at or after the given one
+	private int findPosition(int argSourceIndex){
+		int low = 0;
+		int high = elements.size();
+		while(low < high){
+			int mid = (low + high) >>> 1;
+			if(sourceIndexes[mid] < argSourceIndex){
+				low = mid + 1;
+			}else{
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	private void ensureCapacity(int argCapacity){
+		if(argCapacity > sourceIndexes.length){
+			int[] newIndexes = new int[Math.max(argCapacity, sourceIndexes.length * 2)];
+			System.arraycopy(sourceIndexes, 0, newIndexes, 0, elements.size());
+			sourceIndexes = newIndexes;
+		}
+	}
+}
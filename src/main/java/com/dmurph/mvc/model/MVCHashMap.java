@@ -0,0 +1,1077 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 4:31:48 AM
+ */
+package com.dmurph.mvc.model;
+
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.dmurph.mvc.I18n;
+import com.dmurph.mvc.ICloneable;
+import com.dmurph.mvc.IDirtyable;
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.IRevertible;
+import com.dmurph.mvc.io.IBinaryStreamable;
+import com.dmurph.mvc.io.ModelInputStream;
+import com.dmurph.mvc.io.ModelOutputStream;
+import com.dmurph.mvc.support.DirtySupport;
+import com.dmurph.mvc.support.IDirtySupportable;
+import com.dmurph.mvc.support.MVCMapChangedEvent;
+import com.dmurph.mvc.support.MVCPropertyChangeSupport;
+import com.dmurph.mvc.support.MapRevertSupport;
+
+/**
+ * A map model, like {@link MVCArrayList} and {@link MVCHashSet} but for keys and values.  Use this
+ * instead of a {@link HashModel} for general key-value data, it doesn't have property types or
+ * wrap each value, and it fires one event per change instead of dirtying each value.<br/>
+ * <br/>
+ * The entries are kept in two arrays with open addressing (linear probing), so there
+ * isn't an entry object for every key like with a {@link HashMap}.  Entries are only made when
+ * iterating over {@link #entrySet()}, and iterating over {@link #keySet()} or {@link #values()}
+ * doesn't make any.<br/>
+ * <br/>
+ * {@link #put(Object, Object)} and {@link #remove(Object)} fire a {@link #PUT} or {@link #REMOVED}
+ * event, and {@link #putAll(Map)}, {@link #clear()} and the bulk operations of {@link #keySet()}
+ * fire a single {@link #PUT_ALL} or {@link #REMOVED_ALL} event for all the entries.  All the events
+ * are {@link MVCMapChangedEvent}s.  Like the other models, saving doesn't copy the map, only the
+ * old value of each key changed since the last save is kept (see {@link MapRevertSupport}), and
+ * the values are checked for being dirty as they change (see {@link DirtySupport}).<br/>
+ * <br/>
+ * All the operations are synchronized.  Synchronize on the map while iterating over it or its views.
+ * @author Daniel Murphy
+ */
+public class MVCHashMap<K, V> extends AbstractMap<K, V> implements IModel, ICloneable, IDirtyable, IRevertible, IBinaryStreamable{
+	
+	/**
+	 * Map size property name for listening to property change events
+	 * @see #addPropertyChangeListener(PropertyChangeListener)
+	 */
+	public static final String SIZE = "MAP_SIZE";
+	
+	/**
+	 * Not exactly a property, but the name of the property when a <b>single</b> key
+	 * is put in the map.  This fires an {@link MVCMapChangedEvent}.
+	 */
+	public static final String PUT = "MAP_PUT";
+	
+	/**
+	 * Not exactly a property, but the name of the property when <b>multiple</b> keys
+	 * are put in the map (through {@link #putAll(Map)}).  This fires an {@link MVCMapChangedEvent}.
+	 */
+	public static final String PUT_ALL = "MAP_PUT_ALL";
+	
+	/**
+	 * Not exactly a property, but the name of the property when a <b>single</b> key
+	 * is removed from the map.  This fires an {@link MVCMapChangedEvent}.
+	 */
+	public static final String REMOVED = "MAP_REMOVED";
+	
+	/**
+	 * Not exactly a property, but the name of the property when <b>multiple</b> keys
+	 * are removed from the map.  This fires an {@link MVCMapChangedEvent}.
+	 */
+	public static final String REMOVED_ALL = "MAP_REMOVED_ALL";
+	
+	// stands in for the null key, as null marks an empty slot
+	private static final Object NULL_KEY = new Object();
+	private static final int MIN_CAPACITY = 8;
+	
+	private Object[] keys;
+	private Object[] values;
+	private int size = 0;
+	private int mask;
+	private int threshold;
+	private int modCount = 0;
+	
+	private volatile boolean dirty = false;
+	private final AtomicBoolean firedDirty = new AtomicBoolean(false);
+	private final MVCPropertyChangeSupport propertyChangeSupport = new MVCPropertyChangeSupport(this);
+	private final MapRevertSupport<K, V> revertSupport = new MapRevertSupport<K, V>();
+	
+	private final DirtySupport dirtySupport = new DirtySupport(this, new IDirtySupportable() {
+		@SuppressWarnings("unchecked")
+		public boolean isChildDirty(Object argChild) {
+			return isDirtyImpl((V) argChild);
+		}
+		
+		public void dirtyChildrenChanged(boolean argHasDirtyChildren) {
+			fireDirtyChanged();
+		}
+	});
+	
+	private transient Set<K> keySet;
+	private transient Collection<V> valuesCollection;
+	private transient Set<Map.Entry<K, V>> entrySet;
+	
+	public MVCHashMap(){
+		this(0);
+	}
+	
+	/**
+	 * @param argExpectedSize how many entries the map should hold without growing
+	 */
+	public MVCHashMap(int argExpectedSize){
+		if(argExpectedSize < 0){
+			throw new IllegalArgumentException(I18n.getText("model.badCapacity", argExpectedSize+""));
+		}
+		allocate(capacityFor(argExpectedSize));
+	}
+	
+	public MVCHashMap(Map<? extends K, ? extends V> argMap){
+		this(argMap.size());
+		putAllSilently(argMap);
+	}
+	
+	private void allocate(int argCapacity){
+		keys = new Object[argCapacity];
+		values = new Object[argCapacity];
+		mask = argCapacity - 1;
+		threshold = argCapacity / 2 + argCapacity / 4;
+	}
+	
+	// smallest power of two that holds the given size without going over the load factor
+	private static int capacityFor(int argSize){
+		int capacity = MIN_CAPACITY;
+		while(capacity / 2 + capacity / 4 < argSize){
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+	
+	private static int hash(Object argKey){
+		int h = argKey.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+	
+	private static Object maskNull(Object argKey){
+		return argKey == null ? NULL_KEY : argKey;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <K> K unmaskNull(Object argKey){
+		return argKey == NULL_KEY ? null : (K) argKey;
+	}
+	
+	// the slot of the key, or -(insertion slot + 1) if it's not in the map
+	private int find(Object argMaskedKey){
+		int i = hash(argMaskedKey) & mask;
+		Object k;
+		while((k = keys[i]) != null){
+			if(k == argMaskedKey || k.equals(argMaskedKey)){
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		return -(i + 1);
+	}
+	
+	private void insert(int argSlot, Object argMaskedKey, Object argValue){
+		keys[argSlot] = argMaskedKey;
+		values[argSlot] = argValue;
+		size++;
+		modCount++;
+		if(size > threshold){
+			rehash(keys.length << 1);
+		}
+	}
+	
+	private void ensureCapacity(int argSize){
+		int capacity = capacityFor(argSize);
+		if(capacity > keys.length){
+			rehash(capacity);
+		}
+	}
+	
+	private void rehash(int argCapacity){
+		Object[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(argCapacity);
+		for(int i=0; i<oldKeys.length; i++){
+			Object k = oldKeys[i];
+			if(k != null){
+				int slot = hash(k) & mask;
+				while(keys[slot] != null){
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = k;
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+	
+	/**
+	 * Empties the slot and moves the entries after it back, so lookups never have to skip
+	 * over removed entries.  If an entry from the start of the table wraps around to the end, it's
+	 * added to the given list, for iterators that go from the end of the table to the start.
+	 */
+	private void deleteSlot(int argSlot, ArrayList<Object> argWrapped){
+		size--;
+		modCount++;
+		int last;
+		int pos = argSlot;
+		for(;;){
+			pos = ((last = pos) + 1) & mask;
+			Object k;
+			for(;;){
+				if((k = keys[pos]) == null){
+					keys[last] = null;
+					values[last] = null;
+					return;
+				}
+				int slot = hash(k) & mask;
+				if(last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)){
+					break;
+				}
+				pos = (pos + 1) & mask;
+			}
+			if(pos < last && argWrapped != null){
+				argWrapped.add(k);
+			}
+			keys[last] = k;
+			values[last] = values[pos];
+		}
+	}
+	
+	private void addListener(Object argObject){
+		dirtySupport.addChild(argObject);
+	}
+	
+	private void removeListener(Object argObject){
+		dirtySupport.removeChild(argObject);
+	}
+	
+	private void markDirty(){
+		dirty = true;
+		fireDirtyChanged();
+	}
+	
+	// fires the dirty property if isDirty() changed since the last time we fired it
+	private void fireDirtyChanged(){
+		boolean dirtyNow = isDirty();
+		if(firedDirty.compareAndSet(!dirtyNow, dirtyNow)){
+			firePropertyChange(DIRTY, !dirtyNow, dirtyNow);
+		}
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void addPropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.addPropertyChangeListener(argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#removePropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void removePropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.removePropertyChangeListener(argListener);
+	}
+
+	/**
+	 * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void addPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.addPropertyChangeListener(argPropertyName, argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#removePropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void removePropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.removePropertyChangeListener(argPropertyName, argListener);
+	}
+
+	/**
+	 * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void addWeakPropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.addWeakPropertyChangeListener(argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void addWeakPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.addWeakPropertyChangeListener(argPropertyName, argListener);
+	}
+	
+	private void firePropertyChange(String argPropertyName, Object argOldValue, Object argNewValue) {
+		propertyChangeSupport.firePropertyChange(argPropertyName, argOldValue, argNewValue);
+	}
+	
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+	
+	@Override
+	public synchronized boolean isEmpty() {
+		return size == 0;
+	}
+	
+	@Override
+	public synchronized boolean containsKey(Object argKey) {
+		return find(maskNull(argKey)) >= 0;
+	}
+	
+	@Override
+	public synchronized boolean containsValue(Object argValue) {
+		for(int i=0; i<keys.length; i++){
+			if(keys[i] != null && (argValue == null ? values[i] == null : argValue.equals(values[i]))){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public synchronized V get(Object argKey) {
+		int slot = find(maskNull(argKey));
+		return slot >= 0 ? (V) values[slot] : null;
+	}
+	
+	/**
+	 * Puts the value, firing a {@link #PUT} event.  Putting the same instance that's
+	 * already in the map doesn't do anything.
+	 * @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public synchronized V put(K argKey, V argValue) {
+		Object k = maskNull(argKey);
+		int slot = find(k);
+		if(slot >= 0){
+			V old = (V) values[slot];
+			if(old == argValue){
+				return old;
+			}
+			values[slot] = argValue;
+			revertSupport.recordPut(argKey, true, old);
+			removeListener(old);
+			addListener(argValue);
+			propertyChangeSupport.fireMapChangedEvent(PUT, Collections.singletonMap(argKey, old), Collections.singletonMap(argKey, argValue));
+			markDirty();
+			return old;
+		}
+		insert(-slot - 1, k, argValue);
+		revertSupport.recordPut(argKey, false, null);
+		addListener(argValue);
+		propertyChangeSupport.fireMapChangedEvent(PUT, Collections.emptyMap(), Collections.singletonMap(argKey, argValue));
+		firePropertyChange(SIZE, size - 1, size);
+		markDirty();
+		return null;
+	}
+	
+	/**
+	 * Puts all the entries, firing a single {@link #PUT_ALL} event with the entries that changed.
+	 * @see java.util.AbstractMap#putAll(java.util.Map)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public synchronized void putAll(Map<? extends K, ? extends V> argMap) {
+		int oldSize = size;
+		ensureCapacity(size + argMap.size());
+		HashMap<K, V> oldValues = new HashMap<K, V>();
+		HashMap<K, V> newValues = new HashMap<K, V>();
+		ArrayList<V> replaced = new ArrayList<V>();
+		for(Map.Entry<? extends K, ? extends V> e : argMap.entrySet()){
+			K key = e.getKey();
+			V value = e.getValue();
+			Object k = maskNull(key);
+			int slot = find(k);
+			if(slot >= 0){
+				V old = (V) values[slot];
+				if(old == value){
+					continue;
+				}
+				values[slot] = value;
+				if(!oldValues.containsKey(key)){
+					oldValues.put(key, old);
+				}
+				revertSupport.recordPut(key, true, old);
+				replaced.add(old);
+			}else{
+				insert(-slot - 1, k, value);
+				revertSupport.recordPut(key, false, null);
+			}
+			newValues.put(key, value);
+		}
+		if(newValues.isEmpty()){
+			return;
+		}
+		dirtySupport.removeChildren(replaced);
+		dirtySupport.addChildren(newValues.values());
+		propertyChangeSupport.fireMapChangedEvent(PUT_ALL, oldValues, newValues);
+		if(oldSize != size){
+			firePropertyChange(SIZE, oldSize, size);
+		}
+		markDirty();
+	}
+	
+	/**
+	 * Removes the key, firing a {@link #REMOVED} event if it was in the map.
+	 * @see java.util.AbstractMap#remove(java.lang.Object)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public synchronized V remove(Object argKey) {
+		int slot = find(maskNull(argKey));
+		if(slot < 0){
+			return null;
+		}
+		V old = (V) values[slot];
+		deleteSlot(slot, null);
+		removed((K) argKey, old);
+		return old;
+	}
+	
+	// records and fires the removal of an entry already taken out of the map
+	private void removed(K argKey, V argOldValue){
+		revertSupport.recordRemove(argKey, argOldValue);
+		removeListener(argOldValue);
+		propertyChangeSupport.fireMapChangedEvent(REMOVED, Collections.singletonMap(argKey, argOldValue), Collections.emptyMap());
+		firePropertyChange(SIZE, size + 1, size);
+		markDirty();
+	}
+	
+	// removes the keys, firing a single event
+	@SuppressWarnings("unchecked")
+	private synchronized boolean removeKeys(Collection<?> argKeys){
+		if(argKeys == keySet || argKeys == valuesCollection || argKeys == entrySet){
+			// the views iterate over the slots we're deleting from
+			argKeys = new ArrayList<Object>(argKeys);
+		}
+		HashMap<K, V> removed = new HashMap<K, V>();
+		for(Object key : argKeys){
+			int slot = find(maskNull(key));
+			if(slot >= 0){
+				removed.put((K) key, (V) values[slot]);
+				deleteSlot(slot, null);
+			}
+		}
+		return removedAll(removed);
+	}
+	
+	// removes the keys that aren't in the collection, firing a single event
+	private synchronized boolean retainKeys(Collection<?> argKeys){
+		Collection<?> keep = argKeys instanceof Set<?> ? argKeys : new HashSet<Object>(argKeys);
+		ArrayList<Object> toRemove = new ArrayList<Object>();
+		for(int i=0; i<keys.length; i++){
+			if(keys[i] != null && !keep.contains(unmaskNull(keys[i]))){
+				toRemove.add(unmaskNull(keys[i]));
+			}
+		}
+		return removeKeys(toRemove);
+	}
+	
+	// records and fires the removal of entries already taken out of the map
+	private boolean removedAll(HashMap<K, V> argRemoved){
+		if(argRemoved.isEmpty()){
+			return false;
+		}
+		revertSupport.recordRemoveAll(argRemoved);
+		dirtySupport.removeChildren(argRemoved.values());
+		propertyChangeSupport.fireMapChangedEvent(REMOVED_ALL, argRemoved, Collections.emptyMap());
+		firePropertyChange(SIZE, size + argRemoved.size(), size);
+		markDirty();
+		return true;
+	}
+	
+	/**
+	 * Removes all the entries, firing a single {@link #REMOVED_ALL} event.
+	 * @see java.util.AbstractMap#clear()
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public synchronized void clear() {
+		if(size == 0){
+			return;
+		}
+		HashMap<K, V> removed = new HashMap<K, V>(size * 2);
+		for(int i=0; i<keys.length; i++){
+			if(keys[i] != null){
+				removed.put((K) unmaskNull(keys[i]), (V) values[i]);
+			}
+		}
+		Arrays.fill(keys, null);
+		Arrays.fill(values, null);
+		size = 0;
+		modCount++;
+		revertSupport.recordRemoveAll(removed);
+		dirtySupport.clear();
+		propertyChangeSupport.fireMapChangedEvent(REMOVED_ALL, removed, Collections.emptyMap());
+		firePropertyChange(SIZE, removed.size(), 0);
+		markDirty();
+	}
+	
+	/**
+	 * The key set is backed by the map.  Removing keys from it fires the same events as removing
+	 * them from the map, and {@link Set#removeAll(Collection)} and {@link Set#retainAll(Collection)}
+	 * fire a single {@link #REMOVED_ALL} event.
+	 * @see java.util.AbstractMap#keySet()
+	 */
+	@Override
+	public Set<K> keySet() {
+		if(keySet == null){
+			keySet = new AbstractSet<K>() {
+				@Override
+				public Iterator<K> iterator() {
+					return new SlotIterator<K>() {
+						@Override
+						K get(int argSlot) {
+							return unmaskNull(keys[argSlot]);
+						}
+					};
+				}
+				
+				@Override
+				public int size() {
+					return MVCHashMap.this.size();
+				}
+				
+				@Override
+				public boolean contains(Object argKey) {
+					return containsKey(argKey);
+				}
+				
+				@Override
+				public boolean remove(Object argKey) {
+					synchronized (MVCHashMap.this) {
+						if(!containsKey(argKey)){
+							return false;
+						}
+						MVCHashMap.this.remove(argKey);
+						return true;
+					}
+				}
+				
+				@Override
+				public boolean removeAll(Collection<?> argKeys) {
+					return removeKeys(argKeys);
+				}
+				
+				@Override
+				public boolean retainAll(Collection<?> argKeys) {
+					return retainKeys(argKeys);
+				}
+				
+				@Override
+				public void clear() {
+					MVCHashMap.this.clear();
+				}
+			};
+		}
+		return keySet;
+	}
+	
+	/**
+	 * @see java.util.AbstractMap#values()
+	 */
+	@Override
+	public Collection<V> values() {
+		if(valuesCollection == null){
+			valuesCollection = new AbstractCollection<V>() {
+				@Override
+				public Iterator<V> iterator() {
+					return new SlotIterator<V>() {
+						@Override
+						@SuppressWarnings("unchecked")
+						V get(int argSlot) {
+							return (V) values[argSlot];
+						}
+					};
+				}
+				
+				@Override
+				public int size() {
+					return MVCHashMap.this.size();
+				}
+				
+				@Override
+				public boolean contains(Object argValue) {
+					return containsValue(argValue);
+				}
+				
+				@Override
+				public void clear() {
+					MVCHashMap.this.clear();
+				}
+			};
+		}
+		return valuesCollection;
+	}
+	
+	/**
+	 * The entries are made as the set is iterated over, and {@link Map.Entry#setValue(Object)}
+	 * puts the value in the map.
+	 * @see java.util.AbstractMap#entrySet()
+	 */
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		if(entrySet == null){
+			entrySet = new AbstractSet<Map.Entry<K, V>>() {
+				@Override
+				public Iterator<Map.Entry<K, V>> iterator() {
+					return new SlotIterator<Map.Entry<K, V>>() {
+						@Override
+						@SuppressWarnings("unchecked")
+						Map.Entry<K, V> get(int argSlot) {
+							return new MapEntry((K) unmaskNull(keys[argSlot]), (V) values[argSlot]);
+						}
+					};
+				}
+				
+				@Override
+				public int size() {
+					return MVCHashMap.this.size();
+				}
+				
+				@Override
+				public boolean contains(Object argObject) {
+					if(!(argObject instanceof Map.Entry<?, ?>)){
+						return false;
+					}
+					Map.Entry<?, ?> e = (Map.Entry<?, ?>) argObject;
+					synchronized (MVCHashMap.this) {
+						int slot = find(maskNull(e.getKey()));
+						return slot >= 0 && (e.getValue() == null ? values[slot] == null : e.getValue().equals(values[slot]));
+					}
+				}
+				
+				@Override
+				public boolean remove(Object argObject) {
+					synchronized (MVCHashMap.this) {
+						if(!contains(argObject)){
+							return false;
+						}
+						MVCHashMap.this.remove(((Map.Entry<?, ?>) argObject).getKey());
+						return true;
+					}
+				}
+				
+				@Override
+				public void clear() {
+					MVCHashMap.this.clear();
+				}
+			};
+		}
+		return entrySet;
+	}
+	
+	private class MapEntry extends AbstractMap.SimpleEntry<K, V> {
+		private static final long serialVersionUID = 1L;
+		
+		public MapEntry(K argKey, V argValue){
+			super(argKey, argValue);
+		}
+		
+		@Override
+		public V setValue(V argValue) {
+			super.setValue(argValue);
+			return put(getKey(), argValue);
+		}
+	}
+	
+	/**
+	 * Goes from the end of the table to the start, so removing an entry only moves entries
+	 * that were already returned, except for ones that wrap around from the start of the
+	 * table, which are returned at the end.
+	 */
+	private abstract class SlotIterator<T> implements Iterator<T> {
+		private int pos = keys.length;
+		private int last = -1;
+		private int remaining = size;
+		private int expectedModCount = modCount;
+		private ArrayList<Object> wrapped = null;
+		private Object lastWrappedKey = null;
+		
+		abstract T get(int argSlot);
+		
+		public boolean hasNext() {
+			return remaining > 0;
+		}
+		
+		public T next() {
+			synchronized (MVCHashMap.this) {
+				if(modCount != expectedModCount){
+					throw new ConcurrentModificationException();
+				}
+				if(remaining <= 0){
+					throw new NoSuchElementException();
+				}
+				remaining--;
+				for(;;){
+					if(--pos < 0){
+						lastWrappedKey = wrapped.get(-pos - 1);
+						last = find(lastWrappedKey);
+						return get(last);
+					}
+					if(keys[pos] != null){
+						lastWrappedKey = null;
+						last = pos;
+						return get(last);
+					}
+				}
+			}
+		}
+		
+		@SuppressWarnings("unchecked")
+		public void remove() {
+			synchronized (MVCHashMap.this) {
+				if(last == -1){
+					throw new IllegalStateException();
+				}
+				if(modCount != expectedModCount){
+					throw new ConcurrentModificationException();
+				}
+				K key = unmaskNull(keys[last]);
+				V old = (V) values[last];
+				if(lastWrappedKey != null){
+					deleteSlot(last, null);
+				}else{
+					if(wrapped == null){
+						wrapped = new ArrayList<Object>(2);
+					}
+					deleteSlot(last, wrapped);
+				}
+				last = -1;
+				expectedModCount = modCount;
+				removed(key, old);
+			}
+		}
+	}
+	
+	/**
+	 * Clones from another {@link MVCHashMap}, if the values are {@link ICloneable}, then
+	 * they will be cloned to this one.  Otherwise it's a shallow copy (just sets the same values).
+	 * The keys are never cloned.
+	 * @param argOther an {@link MVCHashMap}
+	 * @see com.dmurph.mvc.ICloneable#cloneFrom(com.dmurph.mvc.ICloneable)
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void cloneFrom(ICloneable argOther) {
+		MVCHashMap<K, V> other = (MVCHashMap<K, V>) argOther;
+		clear();
+		HashMap<K, V> cloned = new HashMap<K, V>();
+		HashMap<K, V> saved = null;
+		synchronized (other) {
+			for(Map.Entry<K, V> e : other.entrySet()){
+				cloned.put(e.getKey(), cloneImpl(e.getValue()));
+			}
+			if(other.revertSupport.isChanged()){
+				saved = new HashMap<K, V>();
+				for(Map.Entry<K, V> e : other.revertSupport.getSaved(other).entrySet()){
+					saved.put(e.getKey(), cloneImpl(e.getValue()));
+				}
+			}
+		}
+		putAll(cloned);
+		if(saved != null){
+			revertSupport.setSaved(this, saved);
+		}else{
+			revertSupport.save();
+		}
+		this.dirty = other.dirty;
+		fireDirtyChanged();
+	}
+	
+	/**
+	 * Default just calls {@link ICloneable#clone}, but override
+	 * to protect against loops (if the property tree goes in a loop).
+	 * @param argObject
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	protected V cloneImpl(V argObject){
+		if(argObject instanceof ICloneable){
+			return (V) ((ICloneable) argObject).clone();
+		}else{
+			return argObject;
+		}
+	}
+	
+	/**
+	 * Clones this map by filling in a new map directly, without firing events.
+	 * The keys are shared, only the values are cloned.  If {@link #cloneImpl(Object)} is
+	 * overridden, it's used to clone the values.
+	 * @param argContext
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	MVCHashMap<K, V> deepClone(CloneContext argContext){
+		MVCHashMap<K, V> clone = new MVCHashMap<K, V>();
+		argContext.put(this, clone);
+		
+		HashMap<K, V> entries;
+		HashMap<K, V> saved = null;
+		boolean wasDirty;
+		synchronized (this) {
+			entries = new HashMap<K, V>(this);
+			if(revertSupport.isChanged()){
+				saved = revertSupport.getSaved(this);
+			}
+			wasDirty = dirty;
+		}
+		// values are cloned with cloneImpl if it's overridden
+		boolean hook = CloneContext.overridesCloneImpl(getClass(), MVCHashMap.class);
+		for(Map.Entry<K, V> e : entries.entrySet()){
+			e.setValue(hook ? cloneImpl(e.getValue()) : (V) argContext.cloneObject(e.getValue()));
+		}
+		clone.putAllSilently(entries);
+		if(saved != null){
+			for(Map.Entry<K, V> e : saved.entrySet()){
+				e.setValue(hook ? cloneImpl(e.getValue()) : (V) argContext.cloneObject(e.getValue()));
+			}
+			clone.revertSupport.setSaved(clone, saved);
+		}
+		clone.dirty = wasDirty;
+		clone.firedDirty.set(clone.isDirty());
+		return clone;
+	}
+	
+	/**
+	 * Writes the entries, the dirty state, and the saved entries if the map was changed.
+	 * @see IBinaryStreamable#writeBinary(ModelOutputStream)
+	 */
+	public void writeBinary(ModelOutputStream argOut) throws IOException {
+		HashMap<K, V> entries;
+		HashMap<K, V> saved = null;
+		boolean wasDirty;
+		synchronized (this) {
+			entries = new HashMap<K, V>(this);
+			if(revertSupport.isChanged()){
+				saved = revertSupport.getSaved(this);
+			}
+			wasDirty = dirty;
+		}
+		writeEntries(argOut, entries);
+		argOut.writeBoolean(wasDirty);
+		argOut.writeBoolean(saved != null);
+		if(saved != null){
+			writeEntries(argOut, saved);
+		}
+	}
+	
+	private static void writeEntries(ModelOutputStream argOut, Map<?, ?> argEntries) throws IOException {
+		argOut.writeVarInt(argEntries.size());
+		for(Map.Entry<?, ?> e : argEntries.entrySet()){
+			argOut.writeObject(e.getKey());
+			argOut.writeObject(e.getValue());
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private HashMap<K, V> readEntries(ModelInputStream argIn) throws IOException, ClassNotFoundException {
+		int size = argIn.readLength();
+		HashMap<K, V> entries = new HashMap<K, V>();
+		for(int i=0; i<size; i++){
+			K key = (K) argIn.readObject();
+			entries.put(key, (V) argIn.readObject());
+		}
+		return entries;
+	}
+	
+	/**
+	 * Replaces the entries of this map with the ones read from the stream, without
+	 * firing any events.
+	 * @see IBinaryStreamable#readBinary(ModelInputStream)
+	 */
+	public void readBinary(ModelInputStream argIn) throws IOException, ClassNotFoundException {
+		HashMap<K, V> entries = readEntries(argIn);
+		boolean wasDirty = argIn.readBoolean();
+		HashMap<K, V> saved = null;
+		if(argIn.readBoolean()){
+			saved = readEntries(argIn);
+		}
+		synchronized (this) {
+			dirtySupport.clear();
+			allocate(capacityFor(entries.size()));
+			size = 0;
+			modCount++;
+			revertSupport.save();
+			putAllSilently(entries);
+			if(saved != null){
+				revertSupport.setSaved(this, saved);
+			}
+			dirty = wasDirty;
+		}
+		firedDirty.set(isDirty());
+	}
+	
+	// puts entries without recording or firing events, for cloning
+	private synchronized void putAllSilently(Map<? extends K, ? extends V> argMap){
+		ensureCapacity(size + argMap.size());
+		ArrayList<V> added = new ArrayList<V>(argMap.size());
+		for(Map.Entry<? extends K, ? extends V> e : argMap.entrySet()){
+			Object k = maskNull(e.getKey());
+			int slot = find(k);
+			if(slot >= 0){
+				removeListener(values[slot]);
+				values[slot] = e.getValue();
+			}else{
+				insert(-slot - 1, k, e.getValue());
+			}
+			added.add(e.getValue());
+		}
+		dirtySupport.addChildren(added);
+	}
+	
+	/**
+	 * Clones this object to another {@link MVCHashMap}.  If the values
+	 * are also {@link ICloneable}, then they will be cloned as well.  If not, the values
+	 * are just set (shallow copy).  This uses a {@link CloneContext}, so loops are only
+	 * cloned once, and no events are fired while cloning.
+	 * @see java.util.AbstractMap#clone()
+	 */
+	@Override
+	public ICloneable clone(){
+		return deepClone(new CloneContext());
+	}
+	
+	/**
+	 * Also checks to see if values in this
+	 * map are dirty, if any are {@link IDirtyable}.  This doesn't check
+	 * every value, as the dirty state of the values is kept track of
+	 * as they change (see {@link DirtySupport}).
+	 * @see com.dmurph.mvc.IDirtyable#isDirty()
+	 */
+	public boolean isDirty() {
+		return dirty || dirtySupport.hasDirtyChildren();
+	}
+	
+	/**
+	 * Default just calls {@link IDirtyable#isDirty()}, but override
+	 * if a value shouldn't count towards this being dirty.  This is called
+	 * when a value is put or when it fires a property change event.
+	 * @return
+	 */
+	protected boolean isDirtyImpl(V argV){
+		if(argV instanceof IDirtyable){
+			if(((IDirtyable) argV).isDirty()){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Sets the dirty variable and, if argDirty is false,
+	 * then will call {@link IDirtyable#setDirty(boolean)} on
+	 * all {@link IDirtyable} values in this map.
+	 * @see com.dmurph.mvc.IDirtyable#setDirty(boolean)
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void setDirty(boolean argDirty) {
+		dirty = argDirty;
+		if(!dirty){
+			for(int i=0; i<keys.length; i++){
+				if(keys[i] != null){
+					setDirtyImpl((V) values[i], false);
+				}
+			}
+			dirtySupport.refresh();
+		}
+		fireDirtyChanged();
+	}
+	
+	/**
+	 * Default just calls {@link IDirtyable#setDirty(boolean)}, but override
+	 * to protect against loops (if the property tree goes in a loop).
+	 * @param argV
+	 * @param argDirty
+	 */
+	protected void setDirtyImpl(V argV, boolean argDirty){
+		if(argV instanceof IDirtyable){
+			((IDirtyable) argV).setDirty(argDirty);
+		}
+	}
+	
+	/**
+	 * Also calls {@link IRevertible#revertChanges()} on all
+	 * values in the reverted map that are {@link IRevertible}.
+	 * @see com.dmurph.mvc.IRevertible#revertChanges()
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void revertChanges() {
+		revertSupport.revert(this);
+		for(int i=0; i<keys.length; i++){
+			if(keys[i] != null){
+				revertChangesImpl((V) values[i]);
+			}
+		}
+		setDirty(false);
+	}
+	
+	/**
+	 * Default just calls {@link IRevertible#revertChanges()}, but override
+	 * to protect against loops (if the property tree goes in a loop).
+	 */
+	protected void revertChangesImpl(V argV){
+		if(argV instanceof IRevertible){
+			((IRevertible) argV).revertChanges();
+		}
+	}
+	
+	/**
+	 * Also calls {@link IRevertible#saveChanges()} on all
+	 * values in the map that are {@link IRevertible}.
+	 * @see com.dmurph.mvc.IRevertible#saveChanges()
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void saveChanges() {
+		revertSupport.save();
+		for(int i=0; i<keys.length; i++){
+			if(keys[i] != null){
+				saveChangesImpl((V) values[i]);
+			}
+		}
+		setDirty(false);
+	}
+	
+	/**
+	 * Default just calls {@link IRevertible#saveChanges()}, but override
+	 * to protect against loops (if the property tree goes in a loop).
+	 */
+	protected void saveChangesImpl(V argV){
+		if(argV instanceof IRevertible){
+			((IRevertible) argV).saveChanges();
+		}
+	}
+}
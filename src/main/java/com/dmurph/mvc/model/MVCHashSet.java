@@ -24,29 +24,39 @@
  */
 package com.dmurph.mvc.model;
 
-import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.dmurph.mvc.ICloneable;
 import com.dmurph.mvc.IDirtyable;
 import com.dmurph.mvc.IModel;
 import com.dmurph.mvc.IRevertible;
+import com.dmurph.mvc.io.IBinaryStreamable;
+import com.dmurph.mvc.io.ModelInputStream;
+import com.dmurph.mvc.io.ModelOutputStream;
+import com.dmurph.mvc.support.DirtySupport;
+import com.dmurph.mvc.support.IDirtySupportable;
 import com.dmurph.mvc.support.MVCPropertiesAddedEvent;
 import com.dmurph.mvc.support.MVCPropertiesRemovedEvent;
 import com.dmurph.mvc.support.MVCPropertyAddedEvent;
 import com.dmurph.mvc.support.MVCPropertyChangeSupport;
 import com.dmurph.mvc.support.MVCPropertyRemovedEvent;
+import com.dmurph.mvc.support.SetRevertSupport;
 
 /**
- * A fully implemented {@link HashSet}, pretty much exactly like {@link MVCArrayList}.
+ * A fully implemented {@link HashSet}, pretty much exactly like {@link MVCArrayList}.  Saving
+ * doesn't copy the set, only the elements added and removed since the last save are kept track of
+ * (see {@link SetRevertSupport}).
  * @author Daniel Murphy
  */
-public class MVCHashSet<E> extends HashSet<E> implements IModel, ICloneable, IDirtyable, IRevertible{
+public class MVCHashSet<E> extends HashSet<E> implements IModel, ICloneable, IDirtyable, IRevertible, IBinaryStreamable{
 	private static final long serialVersionUID = 1L;
 	
 	/**
@@ -80,29 +90,78 @@ public class MVCHashSet<E> extends HashSet<E> implements IModel, ICloneable, IDi
 	 */
 	public static final String ADDED_ALL = "ARRAY_LIST_ADDED_ALL";
 	
-	private boolean dirty = false;
+	private volatile boolean dirty = false;
+	private final AtomicBoolean firedDirty = new AtomicBoolean(false);
 	private final MVCPropertyChangeSupport propertyChangeSupport = new MVCPropertyChangeSupport(this);
-	private final HashSet<E> saved = new HashSet<E>();
+	private final SetRevertSupport<E> revertSupport = new SetRevertSupport<E>();
 	
-	private final PropertyChangeListener childPropertyChangeListener = new PropertyChangeListener() {
-		public void propertyChange(PropertyChangeEvent argEvt) {
-			if(argEvt.getPropertyName().equals(IModel.DIRTY)){
-				if(argEvt.getNewValue() == Boolean.TRUE){
-					propertyChangeSupport.firePropertyChange(argEvt);
-				}
+	private final DirtySupport dirtySupport = new DirtySupport(this, new IDirtySupportable() {
+		@SuppressWarnings("unchecked")
+		public boolean isChildDirty(Object argChild) {
+			return isDirtyImpl((E) argChild);
+		}
+		
+		public void dirtyChildrenChanged(boolean argHasDirtyChildren) {
+			fireDirtyChanged();
+		}
+	});
+	
+	/**
+	 * Finds the element of the set that equals an object.  {@link Collection#contains(Object)}
+	 * tests the object's equals against the elements, so this remembers the element it
+	 * was equal to.  Removing needs the stored element, not just an equal one, as that's
+	 * the one we listen to.
+	 */
+	private class Finder{
+		private final Object object;
+		private E found = null;
+		
+		public Finder(Object argObject){
+			object = argObject;
+		}
+		
+		@SuppressWarnings("unchecked")
+		@Override
+		public boolean equals(Object argOther) {
+			if(object == null ? argOther == null : object.equals(argOther)){
+				found = (E) argOther;
+				return true;
 			}
+			return false;
 		}
-	};
-    
-    private void addListener(Object argObject){
-		if(argObject instanceof IModel){
-			((IModel) argObject).addPropertyChangeListener(childPropertyChangeListener);
+		
+		@Override
+		public int hashCode() {
+			return object == null ? 0 : object.hashCode();
 		}
 	}
 	
+	private void addListener(Object argObject){
+		dirtySupport.addChild(argObject);
+	}
+	
 	private void removeListener(Object argObject){
-		if(argObject instanceof IModel){
-			((IModel) argObject).removePropertyChangeListener(childPropertyChangeListener);
+		dirtySupport.removeChild(argObject);
+	}
+	
+	private void addListeners(Collection<?> argObjects){
+		dirtySupport.addChildren(argObjects);
+	}
+	
+	private void removeListeners(Collection<?> argObjects){
+		dirtySupport.removeChildren(argObjects);
+	}
+	
+	private void markDirty(){
+		dirty = true;
+		fireDirtyChanged();
+	}
+	
+	// fires the dirty property if isDirty() changed since the last time we fired it
+	private void fireDirtyChanged(){
+		boolean dirtyNow = isDirty();
+		if(firedDirty.compareAndSet(!dirtyNow, dirtyNow)){
+			firePropertyChange(DIRTY, !dirtyNow, dirtyNow);
 		}
 	}
 	
@@ -120,6 +179,34 @@ public class MVCHashSet<E> extends HashSet<E> implements IModel, ICloneable, IDi
         propertyChangeSupport.removePropertyChangeListener(argListener);
     }
 
+    /**
+     * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+     */
+    public void addPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+        propertyChangeSupport.addPropertyChangeListener(argPropertyName, argListener);
+    }
+
+    /**
+     * @see com.dmurph.mvc.IModel#removePropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+     */
+    public void removePropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+        propertyChangeSupport.removePropertyChangeListener(argPropertyName, argListener);
+    }
+
+    /**
+     * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.beans.PropertyChangeListener)
+     */
+    public void addWeakPropertyChangeListener(PropertyChangeListener argListener) {
+        propertyChangeSupport.addWeakPropertyChangeListener(argListener);
+    }
+
+    /**
+     * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+     */
+    public void addWeakPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+        propertyChangeSupport.addWeakPropertyChangeListener(argPropertyName, argListener);
+    }
+
     private void firePropertyChange(String argPropertyName, Object argOldValue, Object argNewValue) {
         propertyChangeSupport.firePropertyChange(argPropertyName, argOldValue, argNewValue);
     }
@@ -127,84 +214,167 @@ public class MVCHashSet<E> extends HashSet<E> implements IModel, ICloneable, IDi
 	@Override
 	public synchronized boolean add(E e) {
 		boolean ret = super.add(e);
-		addListener(e);
-		firePropertyChange(SIZE, size() - 1, size());
-		propertyChangeSupport.firePropertyAddedEvent(ADDED, e);
-		boolean old = dirty;
-		dirty = true;
-		firePropertyChange(DIRTY, old, dirty);
+		if(ret){
+			revertSupport.recordAdd(e);
+			addListener(e);
+			propertyChangeSupport.firePropertyAddedEvent(ADDED, e);
+			firePropertyChange(SIZE, size() - 1, size());
+			markDirty();
+		}
 		return ret;
 	}
 	
 	/**
+	 * Adds all the elements that aren't already in the set, firing a single {@link #ADDED_ALL}
+	 * event with the elements that were added.
 	 * @see java.util.AbstractCollection#addAll(java.util.Collection)
 	 */
 	@Override
-	public boolean addAll(Collection<? extends E> argC) {
-		boolean modified = false;
-		Iterator<? extends E> e = argC.iterator();
-		while (e.hasNext()) {
-			E o = e.next();
-		    if (super.add(o)){
-		    	addListener(o);
-		    	modified = true;
-		    }
-		}
-		if(!modified){
+	public synchronized boolean addAll(Collection<? extends E> argC) {
+		int oldSize = size();
+		ArrayList<E> added = new ArrayList<E>();
+		for(E e : argC){
+			if(super.add(e)){
+				revertSupport.recordAdd(e);
+				added.add(e);
+			}
+		}
+		if(added.isEmpty()){
 			return false;
 		}
-		propertyChangeSupport.firePropertiesAddedEvent(ADDED_ALL, Collections.unmodifiableCollection(argC));
+		addListeners(added);
+		propertyChangeSupport.firePropertiesAddedEvent(ADDED_ALL, Collections.unmodifiableCollection(added));
+		firePropertyChange(SIZE, oldSize, size());
+		markDirty();
 		return true;
 	}
 	
-	private final HashSet<E> temp = new HashSet<E>();
-	
+	/**
+	 * Removes all the elements, firing a single {@link #REMOVED_ALL} event.
+	 * @see java.util.HashSet#clear()
+	 */
 	@Override
 	public synchronized void clear() {
 		if(size() > 0){
 			int oldSize = size();
-			temp.clear();
-			temp.addAll(this);
+			ArrayList<E> removed = new ArrayList<E>(this);
 			super.clear();
-			Iterator<E> it = temp.iterator();
-			while(it.hasNext()){
-				E e = it.next();
-				removeListener(e);
-			}
-			propertyChangeSupport.firePropertiesRemovedEvent(REMOVED_ALL, Collections.unmodifiableCollection(temp));
+			revertSupport.recordRemoveAll(removed);
+			dirtySupport.clear();
+			propertyChangeSupport.firePropertiesRemovedEvent(REMOVED_ALL, Collections.unmodifiableCollection(removed));
 			firePropertyChange(SIZE, oldSize, 0);
-			boolean old = dirty;
-			dirty = true;
-			firePropertyChange(DIRTY, old, dirty);
+			markDirty();
 		}
 	}
 	
 	@Override
 	public synchronized boolean remove(Object o) {
-		boolean ret = super.remove(o);
+		Finder finder = new Finder(o);
+		boolean ret = super.contains(finder);
 		if(ret){
-			removeListener(o);
-			firePropertyChange(REMOVED, o, null);
+			E e = finder.found;
+			super.remove(e);
+			revertSupport.recordRemove(e);
+			removeListener(e);
+			propertyChangeSupport.firePropertyRemovedEvent(REMOVED, e);
 			firePropertyChange(SIZE, size() + 1, size());
-			boolean old = dirty;
-			dirty = true;
-			firePropertyChange(DIRTY, old, dirty);
+			markDirty();
 		}
 		return ret;
 	}
 	
-	// do shallow clone, need to keep object references
-	private void setFromSaved(){
-		clear();
-		addAll(saved);
+	/**
+	 * Removes all the elements in the given collection, firing a single {@link #REMOVED_ALL}
+	 * event with the elements that were removed.  This looks up each element of the
+	 * collection in the set, so it takes time proportional to the size of the collection,
+	 * not the set.
+	 * @see java.util.AbstractSet#removeAll(java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean removeAll(Collection<?> argC) {
+		if(argC == this){
+			boolean ret = !isEmpty();
+			clear();
+			return ret;
+		}
+		ArrayList<E> removed = new ArrayList<E>();
+		for(Object o : argC){
+			Finder finder = new Finder(o);
+			if(super.contains(finder)){
+				super.remove(finder.found);
+				removed.add(finder.found);
+			}
+		}
+		return removed(removed);
 	}
 	
-	// do shallow clone, need to keep object references
-	private void setToSaved(){
-		saved.clear();
-		saved.addAll(this);
+	/**
+	 * Removes all the elements not in the given collection, firing a single {@link #REMOVED_ALL}
+	 * event with the elements that were removed.  If the collection isn't a {@link Set}, it's
+	 * copied to a {@link HashSet} first so each lookup is constant time.
+	 * @see java.util.AbstractCollection#retainAll(java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean retainAll(Collection<?> argC) {
+		Collection<?> keep = argC instanceof Set<?> ? argC : new HashSet<Object>(argC);
+		ArrayList<E> removed = new ArrayList<E>();
+		Iterator<E> it = super.iterator();
+		while(it.hasNext()){
+			E e = it.next();
+			if(!keep.contains(e)){
+				it.remove();
+				removed.add(e);
+			}
+		}
+		return removed(removed);
 	}
-
+	
+	// records and fires the removal of elements already taken out of the set
+	private boolean removed(ArrayList<E> argRemoved){
+		if(argRemoved.isEmpty()){
+			return false;
+		}
+		revertSupport.recordRemoveAll(argRemoved);
+		removeListeners(argRemoved);
+		propertyChangeSupport.firePropertiesRemovedEvent(REMOVED_ALL, Collections.unmodifiableCollection(argRemoved));
+		firePropertyChange(SIZE, size() + argRemoved.size(), size());
+		markDirty();
+		return true;
+	}
+	
+	/**
+	 * The returned iterator's {@link Iterator#remove()} goes through the same bookkeeping
+	 * as {@link #remove(Object)}, firing {@link #REMOVED}.
+	 * @see java.util.HashSet#iterator()
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		final Iterator<E> it = super.iterator();
+		return new Iterator<E>() {
+			private E last;
+			
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+			
+			public E next() {
+				last = it.next();
+				return last;
+			}
+			
+			public void remove() {
+				synchronized (MVCHashSet.this) {
+					it.remove();
+					revertSupport.recordRemove(last);
+					removeListener(last);
+					propertyChangeSupport.firePropertyRemovedEvent(REMOVED, last);
+					firePropertyChange(SIZE, size() + 1, size());
+					markDirty();
+				}
+			}
+		};
+	}
+	
 	/**
 	 * Clones from another {@link ArrayList}, if the values are {@link ICloneable}, then
 	 * they will be cloned to this one.  Otherwise it's a shallow copy (just sets the same values).
@@ -215,14 +385,22 @@ public class MVCHashSet<E> extends HashSet<E> implements IModel, ICloneable, IDi
 	public synchronized void cloneFrom( ICloneable argOther) {
 		MVCHashSet<E> other = (MVCHashSet<E>) argOther;
 		clear();
+		ArrayList<E> cloned = new ArrayList<E>(other.size());
 		for(E e : other){
-			add(cloneImpl(e));
+			cloned.add(cloneImpl(e));
 		}
-		saved.clear();
-		for(E e : other.saved){
-			saved.add(cloneImpl(e));
+		addAll(cloned);
+		if(other.revertSupport.isChanged()){
+			HashSet<E> saved = new HashSet<E>();
+			for(E e : other.revertSupport.getSaved(other)){
+				saved.add(cloneImpl(e));
+			}
+			revertSupport.setSaved(this, saved);
+		}else{
+			revertSupport.save();
 		}
 		this.dirty = other.dirty;
+		fireDirtyChanged();
 	}
 	
 	/**
@@ -241,40 +419,146 @@ public class MVCHashSet<E> extends HashSet<E> implements IModel, ICloneable, IDi
 	}
 
 	/**
-	 * Clones this object to another {@link MVCArrayList}.  If the array values
+	 * Clones this set by filling in a new set directly, without firing events.  If
+	 * {@link #cloneImpl(Object)} is overridden, it's used to clone the elements.
+	 * @param argContext
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	MVCHashSet<E> deepClone(CloneContext argContext){
+		MVCHashSet<E> clone = new MVCHashSet<E>();
+		argContext.put(this, clone);
+		
+		Object[] elements;
+		HashSet<E> saved = null;
+		boolean wasDirty;
+		synchronized (this) {
+			elements = toArray();
+			if(revertSupport.isChanged()){
+				saved = revertSupport.getSaved(this);
+			}
+			wasDirty = dirty;
+		}
+		// elements are cloned with cloneImpl if it's overridden
+		boolean hook = CloneContext.overridesCloneImpl(getClass(), MVCHashSet.class);
+		ArrayList<E> cloned = new ArrayList<E>(elements.length);
+		for(Object o : elements){
+			cloned.add(hook ? cloneImpl((E) o) : (E) argContext.cloneObject(o));
+		}
+		clone.addAllSilently(cloned);
+		if(saved != null){
+			HashSet<E> clonedSaved = new HashSet<E>();
+			for(E e : saved){
+				clonedSaved.add(hook ? cloneImpl(e) : (E) argContext.cloneObject(e));
+			}
+			clone.revertSupport.setSaved(clone, clonedSaved);
+		}
+		clone.dirty = wasDirty;
+		clone.firedDirty.set(clone.isDirty());
+		return clone;
+	}
+	
+	/**
+	 * Writes the elements, the dirty state, and the saved elements if the set was changed.
+	 * @see IBinaryStreamable#writeBinary(ModelOutputStream)
+	 */
+	public void writeBinary(ModelOutputStream argOut) throws IOException {
+		Object[] elements;
+		HashSet<E> saved = null;
+		boolean wasDirty;
+		synchronized (this) {
+			elements = toArray();
+			if(revertSupport.isChanged()){
+				saved = revertSupport.getSaved(this);
+			}
+			wasDirty = dirty;
+		}
+		argOut.writeVarInt(elements.length);
+		for(Object o : elements){
+			argOut.writeObject(o);
+		}
+		argOut.writeBoolean(wasDirty);
+		argOut.writeBoolean(saved != null);
+		if(saved != null){
+			argOut.writeVarInt(saved.size());
+			for(E e : saved){
+				argOut.writeObject(e);
+			}
+		}
+	}
+	
+	/**
+	 * Replaces the elements of this set with the ones read from the stream, without
+	 * firing any events.
+	 * @see IBinaryStreamable#readBinary(ModelInputStream)
+	 */
+	@SuppressWarnings("unchecked")
+	public void readBinary(ModelInputStream argIn) throws IOException, ClassNotFoundException {
+		int size = argIn.readLength();
+		ArrayList<E> elements = new ArrayList<E>(argIn.getInitialCapacity(size));
+		for(int i=0; i<size; i++){
+			elements.add((E) argIn.readObject());
+		}
+		boolean wasDirty = argIn.readBoolean();
+		HashSet<E> saved = null;
+		if(argIn.readBoolean()){
+			int savedSize = argIn.readLength();
+			saved = new HashSet<E>();
+			for(int i=0; i<savedSize; i++){
+				saved.add((E) argIn.readObject());
+			}
+		}
+		synchronized (this) {
+			dirtySupport.clear();
+			super.clear();
+			revertSupport.save();
+			addAllSilently(elements);
+			if(saved != null){
+				revertSupport.setSaved(this, saved);
+			}
+			dirty = wasDirty;
+		}
+		firedDirty.set(isDirty());
+	}
+	
+	// adds elements without recording or firing events, for cloning
+	private synchronized void addAllSilently(Collection<E> argC){
+		ArrayList<E> added = new ArrayList<E>(argC.size());
+		for(E e : argC){
+			if(super.add(e)){
+				added.add(e);
+			}
+		}
+		addListeners(added);
+	}
+	
+	/**
+	 * Clones this object to another {@link MVCHashSet}.  If the elements
 	 * are also {@link ICloneable}, then they will be cloned as well.  If not, the values
-	 * are just set (shallow copy).
-	 * @see java.util.ArrayList#clone()
+	 * are just set (shallow copy).  This uses a {@link CloneContext}, so loops are only
+	 * cloned once, and no events are fired while cloning.
+	 * @see java.util.HashSet#clone()
 	 */
 	@Override
-	public synchronized ICloneable clone(){
-		MVCArrayList<E> other = new MVCArrayList<E>();
-		other.cloneFrom(this);
-		return other;
+	public ICloneable clone(){
+		return deepClone(new CloneContext());
 	}
 
 	/**
 	 * Also checks to see if elements in this
-	 * array are dirty, if any are {@link IDirtyable}.
+	 * array are dirty, if any are {@link IDirtyable}.  This doesn't check
+	 * every element, as the dirty state of the elements is kept track of
+	 * as they change (see {@link DirtySupport}).
 	 * @see com.dmurph.mvc.IDirtyable#isDirty()
 	 */
-	public synchronized boolean isDirty() {
-		if(dirty){
-			return true;
-		}
-		for(E e : this){
-			if(e instanceof IDirtyable){
-				if(isDirtyImpl(e)){
-					return true;
-				}
-			}
-		}
-		return false;
+	public boolean isDirty() {
+		return dirty || dirtySupport.hasDirtyChildren();
 	}
 
 	/**
 	 * Default just calls {@link IDirtyable#isDirty()}, but override
-	 * to protect against loops (if the property tree goes in a loop).
+	 * if an element shouldn't count towards this being dirty.  This is called
+	 * when an element is added or when it fires a property change event.
 	 * @return
 	 */
 	protected boolean isDirtyImpl(E argE){
@@ -293,14 +577,14 @@ public class MVCHashSet<E> extends HashSet<E> implements IModel, ICloneable, IDi
 	 * @see com.dmurph.mvc.IDirtyable#setDirty(boolean)
 	 */
 	public synchronized void setDirty( boolean argDirty) {
-		boolean oldDirty = dirty;
 		dirty = argDirty;
 		if(!dirty){
 			for(E e: this){
 				setDirtyImpl(e, false);
 			}
+			dirtySupport.refresh();
 		}
-		firePropertyChange(DIRTY, oldDirty, dirty);
+		fireDirtyChanged();
 	}
 	
 	/**
@@ -321,7 +605,7 @@ public class MVCHashSet<E> extends HashSet<E> implements IModel, ICloneable, IDi
 	 * @see com.dmurph.mvc.IRevertible#revertChanges()
 	 */
 	public synchronized void revertChanges() {
-		setFromSaved();
+		revertSupport.revert(this);
 		for(E e: this){
 			revertChangesImpl(e);
 		}
@@ -344,7 +628,7 @@ public class MVCHashSet<E> extends HashSet<E> implements IModel, ICloneable, IDi
 	 * @see com.dmurph.mvc.IRevertible#saveChanges()
 	 */
 	public synchronized void saveChanges() {
-		setToSaved();
+		revertSupport.save();
 		for(E e: this){
 			saveChangesImpl(e);
 		}
@@ -0,0 +1,584 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 10:52:09 PM
+ */
+package com.dmurph.mvc.model;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.dmurph.mvc.I18n;
+import com.dmurph.mvc.IFilter;
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.io.IBinaryStreamable;
+import com.dmurph.mvc.io.ModelInputStream;
+import com.dmurph.mvc.io.ModelOutputStream;
+
+/**
+ * An {@link MVCArrayList} with secondary indexes, for looking up elements by a key instead of
+ * searching through the list.  The key of an element is extracted with an {@link ITransformer}, and
+ * indexes are either hashed ({@link #addHashIndex(String, ITransformer)}) or sorted by key
+ * ({@link #addSortedIndex(String, ITransformer)}), which also supports looking up a range of keys.<br/>
+ * <br/>
+ * The indexes are kept up to date by the methods that change the list, so they're updated before
+ * any listener gets an event, and are up to date in the middle of an update (see {@link #beginUpdate()}),
+ * when the events haven't been fired yet.  If the key of an element changes, call {@link #reindex(Object)}.<br/>
+ * <br/>
+ * The index definitions are written with the elements to a {@link ModelOutputStream}, so the extractors
+ * and comparators have to be {@link IBinaryStreamable} or {@link Serializable} (or null, for comparators)
+ * to write the list.
+ * @author Daniel Murphy
+ */
+public class MVCIndexedArrayList<E> extends MVCArrayList<E> {
+	private static final long serialVersionUID = 1L;
+	
+	private final LinkedHashMap<String, Index<E, ?>> indexes = new LinkedHashMap<String, Index<E, ?>>();
+	
+	/**
+	 * Adds a hashed index.
+	 * @param argName the name of the index
+	 * @param argExtractor gets the key of an element
+	 * @return the index
+	 * @throws IllegalArgumentException if there is already an index with the name
+	 */
+	public synchronized <K> HashIndex<E, K> addHashIndex(String argName, ITransformer<? super E, ? extends K> argExtractor){
+		HashIndex<E, K> index = new HashIndex<E, K>(this, argName, argExtractor);
+		putIndex(index);
+		return index;
+	}
+	
+	/**
+	 * Adds an index sorted by the natural ordering of the keys.  Elements with
+	 * a null key aren't in the index.
+	 * @param argName the name of the index
+	 * @param argExtractor gets the key of an element
+	 * @return the index
+	 * @throws IllegalArgumentException if there is already an index with the name
+	 */
+	public synchronized <K extends Comparable<? super K>> SortedIndex<E, K> addSortedIndex(String argName,
+			ITransformer<? super E, ? extends K> argExtractor){
+		return addSortedIndex(argName, argExtractor, null);
+	}
+	
+	/**
+	 * Adds an index sorted by the comparator.  Elements with a null key aren't in the index.
+	 * @param argName the name of the index
+	 * @param argExtractor gets the key of an element
+	 * @param argComparator compares the keys, or null for their natural ordering
+	 * @return the index
+	 * @throws IllegalArgumentException if there is already an index with the name
+	 */
+	public synchronized <K> SortedIndex<E, K> addSortedIndex(String argName, ITransformer<? super E, ? extends K> argExtractor,
+			Comparator<? super K> argComparator){
+		SortedIndex<E, K> index = new SortedIndex<E, K>(this, argName, argExtractor, argComparator);
+		putIndex(index);
+		return index;
+	}
+	
+	private void putIndex(Index<E, ?> argIndex){
+		if(indexes.containsKey(argIndex.getName())){
+			throw new IllegalArgumentException(I18n.getText("model.indexExists", argIndex.getName()));
+		}
+		indexes.put(argIndex.getName(), argIndex);
+		argIndex.rebuild();
+	}
+	
+	/**
+	 * @param argName
+	 * @return the index with the name, or null if there isn't one
+	 */
+	public synchronized Index<E, ?> getIndex(String argName){
+		return indexes.get(argName);
+	}
+	
+	/**
+	 * Removes an index.
+	 * @param argName
+	 * @return the index removed, or null if there wasn't one
+	 */
+	public synchronized Index<E, ?> removeIndex(String argName){
+		return indexes.remove(argName);
+	}
+	
+	/**
+	 * Updates the indexes for an element whose key changed.
+	 * @param argElement
+	 */
+	public synchronized void reindex(E argElement){
+		for(Index<E, ?> index : indexes.values()){
+			index.reindex(argElement);
+		}
+	}
+	
+	// the indexes are changed before calling super, so they're up to date when the events are fired
+	
+	@Override
+	public synchronized boolean add(E argElement) {
+		indexAdd(argElement);
+		return super.add(argElement);
+	}
+	
+	@Override
+	public synchronized void add(int argIndex, E argElement) {
+		checkPosition(argIndex);
+		indexAdd(argElement);
+		super.add(argIndex, argElement);
+	}
+	
+	@Override
+	public synchronized boolean addAll(Collection<? extends E> argC) {
+		ArrayList<E> added = new ArrayList<E>(argC);
+		for(E e : added){
+			indexAdd(e);
+		}
+		return super.addAll(added);
+	}
+	
+	@Override
+	public synchronized boolean addAll(int argIndex, Collection<? extends E> argC) {
+		checkPosition(argIndex);
+		ArrayList<E> added = new ArrayList<E>(argC);
+		for(E e : added){
+			indexAdd(e);
+		}
+		return super.addAll(argIndex, added);
+	}
+	
+	@Override
+	public synchronized E remove(int argIndex) {
+		indexRemove(get(argIndex));
+		return super.remove(argIndex);
+	}
+	
+	@Override
+	public synchronized E set(int argIndex, E argElement) {
+		indexRemove(get(argIndex));
+		indexAdd(argElement);
+		return super.set(argIndex, argElement);
+	}
+	
+	@Override
+	public synchronized void clear() {
+		for(Index<E, ?> index : indexes.values()){
+			index.clear();
+		}
+		super.clear();
+	}
+	
+	@Override
+	public synchronized boolean removeAllMatching(final IFilter<? super E> argFilter) {
+		// every element accepted is removed
+		return super.removeAllMatching(new IFilter<E>() {
+			public boolean accept(E argObject) {
+				if(argFilter.accept(argObject)){
+					indexRemove(argObject);
+					return true;
+				}
+				return false;
+			}
+		});
+	}
+	
+	@Override
+	public synchronized void removeRange(int argFromIndex, int argToIndex) {
+		for(int i=argFromIndex; i<argToIndex; i++){
+			indexRemove(get(i));
+		}
+		super.removeRange(argFromIndex, argToIndex);
+	}
+	
+	@Override
+	public synchronized void transformAll(final ITransformer<? super E, ? extends E> argTransformer) {
+		// each transformed element is set right after it's transformed
+		super.transformAll(new ITransformer<E, E>() {
+			public E transform(E argObject) {
+				E e = argTransformer.transform(argObject);
+				if(e != argObject){
+					indexRemove(argObject);
+					indexAdd(e);
+				}
+				return e;
+			}
+		});
+	}
+	
+	private void checkPosition(int argIndex){
+		if(argIndex < 0 || argIndex > size()){
+			throw new IndexOutOfBoundsException("Index: "+argIndex+", Size: "+size());
+		}
+	}
+	
+	private void indexAdd(E argElement){
+		for(Index<E, ?> index : indexes.values()){
+			index.add(argElement);
+		}
+	}
+	
+	private void indexRemove(E argElement){
+		for(Index<E, ?> index : indexes.values()){
+			index.remove(argElement);
+		}
+	}
+	
+	private void rebuildIndexes(){
+		for(Index<E, ?> index : indexes.values()){
+			index.rebuild();
+		}
+	}
+	
+	/**
+	 * Clones into a list with the same indexes.
+	 * @see com.dmurph.mvc.model.MVCArrayList#deepClone(com.dmurph.mvc.model.CloneContext)
+	 */
+	@Override
+	MVCArrayList<E> deepClone(CloneContext argContext) {
+		MVCIndexedArrayList<E> clone = new MVCIndexedArrayList<E>();
+		synchronized (this) {
+			for(Index<E, ?> index : indexes.values()){
+				clone.putIndex(index.copy(clone));
+			}
+		}
+		deepCloneInto(clone, argContext);
+		synchronized (clone) {
+			clone.rebuildIndexes();
+		}
+		return clone;
+	}
+	
+	/**
+	 * Writes the index definitions (their names, extractors and comparators), then the elements.
+	 * @see com.dmurph.mvc.model.MVCArrayList#writeBinary(com.dmurph.mvc.io.ModelOutputStream)
+	 */
+	@Override
+	public void writeBinary(ModelOutputStream argOut) throws IOException {
+		Index<?, ?>[] definitions;
+		synchronized (this) {
+			definitions = indexes.values().toArray(new Index<?, ?>[indexes.size()]);
+		}
+		argOut.writeVarInt(definitions.length);
+		for(Index<?, ?> index : definitions){
+			argOut.writeString(index.getName());
+			argOut.writeObject(index.extractor);
+			boolean sorted = index instanceof SortedIndex<?, ?>;
+			argOut.writeBoolean(sorted);
+			if(sorted){
+				argOut.writeObject(((SortedIndex<?, ?>) index).map.comparator());
+			}
+		}
+		super.writeBinary(argOut);
+	}
+	
+	/**
+	 * Reads the index definitions, which replace the indexes of this list, then the
+	 * elements, and builds the indexes.
+	 * @see com.dmurph.mvc.model.MVCArrayList#readBinary(com.dmurph.mvc.io.ModelInputStream)
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Override
+	public synchronized void readBinary(ModelInputStream argIn) throws IOException, ClassNotFoundException {
+		int count = argIn.readLength();
+		LinkedHashMap<String, Index<E, ?>> read = new LinkedHashMap<String, Index<E, ?>>();
+		for(int i=0; i<count; i++){
+			String name = argIn.readString();
+			ITransformer extractor = (ITransformer) argIn.readObject();
+			if(argIn.readBoolean()){
+				read.put(name, new SortedIndex(this, name, extractor, (Comparator) argIn.readObject()));
+			}else{
+				read.put(name, new HashIndex(this, name, extractor));
+			}
+		}
+		super.readBinary(argIn);
+		indexes.clear();
+		indexes.putAll(read);
+		rebuildIndexes();
+	}
+	
+	/**
+	 * An index of the elements by key.  The elements with the same key are kept
+	 * in the order they were added, not the order they're in the list.
+	 */
+	public static abstract class Index<E, K>{
+		final MVCIndexedArrayList<E> list;
+		private final String name;
+		final ITransformer<? super E, ? extends K> extractor;
+		// the key each element is indexed with
+		private final IdentityHashMap<E, Key<K>> keys = new IdentityHashMap<E, Key<K>>();
+		
+		Index(MVCIndexedArrayList<E> argList, String argName, ITransformer<? super E, ? extends K> argExtractor){
+			list = argList;
+			name = argName;
+			extractor = argExtractor;
+		}
+		
+		abstract Map<K, ArrayList<E>> getMap();
+		
+		// an empty index of another list, with the same configuration
+		abstract Index<E, K> copy(MVCIndexedArrayList<E> argList);
+		
+		boolean isIndexed(K argKey){
+			return true;
+		}
+		
+		public String getName(){
+			return name;
+		}
+		
+		/**
+		 * @param argKey
+		 * @return the elements with the key
+		 */
+		public List<E> get(K argKey){
+			synchronized (list) {
+				ArrayList<E> elements = getMap().get(argKey);
+				if(elements == null){
+					return Collections.emptyList();
+				}
+				return new ArrayList<E>(elements);
+			}
+		}
+		
+		/**
+		 * @param argKey
+		 * @return the first element added with the key, or null if there isn't one
+		 */
+		public E getFirst(K argKey){
+			synchronized (list) {
+				ArrayList<E> elements = getMap().get(argKey);
+				return elements == null ? null : elements.get(0);
+			}
+		}
+		
+		/**
+		 * @param argKey
+		 * @return if there are any elements with the key
+		 */
+		public boolean containsKey(K argKey){
+			synchronized (list) {
+				return getMap().containsKey(argKey);
+			}
+		}
+		
+		/**
+		 * @return the number of different keys
+		 */
+		public int getKeyCount(){
+			synchronized (list) {
+				return getMap().size();
+			}
+		}
+		
+		void add(E argElement){
+			Key<K> key = keys.get(argElement);
+			if(key == null){
+				key = new Key<K>(extractor.transform(argElement));
+				keys.put(argElement, key);
+			}
+			key.count++;
+			addToMap(key.key, argElement, 1);
+		}
+		
+		void remove(E argElement){
+			Key<K> key = keys.get(argElement);
+			if(key == null){
+				return;
+			}
+			if(--key.count == 0){
+				keys.remove(argElement);
+			}
+			removeFromMap(key.key, argElement, 1);
+		}
+		
+		void reindex(E argElement){
+			Key<K> key = keys.get(argElement);
+			if(key == null){
+				return;
+			}
+			K newKey = extractor.transform(argElement);
+			if(newKey == null ? key.key == null : newKey.equals(key.key)){
+				return;
+			}
+			removeFromMap(key.key, argElement, key.count);
+			key.key = newKey;
+			addToMap(newKey, argElement, key.count);
+		}
+		
+		private void addToMap(K argKey, E argElement, int argCount){
+			if(!isIndexed(argKey)){
+				return;
+			}
+			ArrayList<E> elements = getMap().get(argKey);
+			if(elements == null){
+				elements = new ArrayList<E>(1);
+				getMap().put(argKey, elements);
+			}
+			for(int i=0; i<argCount; i++){
+				elements.add(argElement);
+			}
+		}
+		
+		private void removeFromMap(K argKey, E argElement, int argCount){
+			if(!isIndexed(argKey)){
+				return;
+			}
+			ArrayList<E> elements = getMap().get(argKey);
+			for(int i=elements.size()-1; i>=0 && argCount > 0; i--){
+				if(elements.get(i) == argElement){
+					elements.remove(i);
+					argCount--;
+				}
+			}
+			if(elements.isEmpty()){
+				getMap().remove(argKey);
+			}
+		}
+		
+		void clear(){
+			keys.clear();
+			getMap().clear();
+		}
+		
+		void rebuild(){
+			clear();
+			for(E e : list){
+				add(e);
+			}
+		}
+	}
+	
+	// key of an element, and how many times the element is in the list
+	private static class Key<K>{
+		K key;
+		int count = 0;
+		
+		Key(K argKey){
+			key = argKey;
+		}
+	}
+	
+	/**
+	 * Index that hashes the keys.
+	 */
+	public static class HashIndex<E, K> extends Index<E, K>{
+		private final HashMap<K, ArrayList<E>> map = new HashMap<K, ArrayList<E>>();
+		
+		HashIndex(MVCIndexedArrayList<E> argList, String argName, ITransformer<? super E, ? extends K> argExtractor){
+			super(argList, argName, argExtractor);
+		}
+		
+		@Override
+		Map<K, ArrayList<E>> getMap() {
+			return map;
+		}
+		
+		@Override
+		Index<E, K> copy(MVCIndexedArrayList<E> argList) {
+			return new HashIndex<E, K>(argList, getName(), extractor);
+		}
+	}
+	
+	/**
+	 * Index that keeps the keys sorted, so ranges of keys can be looked up.
+	 */
+	public static class SortedIndex<E, K> extends Index<E, K>{
+		final TreeMap<K, ArrayList<E>> map;
+		
+		SortedIndex(MVCIndexedArrayList<E> argList, String argName, ITransformer<? super E, ? extends K> argExtractor,
+					Comparator<? super K> argComparator){
+			super(argList, argName, argExtractor);
+			map = new TreeMap<K, ArrayList<E>>(argComparator);
+		}
+		
+		@Override
+		Map<K, ArrayList<E>> getMap() {
+			return map;
+		}
+		
+		@Override
+		boolean isIndexed(K argKey) {
+			return argKey != null;
+		}
+		
+		@Override
+		Index<E, K> copy(MVCIndexedArrayList<E> argList) {
+			return new SortedIndex<E, K>(argList, getName(), extractor, map.comparator());
+		}
+		
+		/**
+		 * Gets the elements with keys from <code>argFromKey</code>, inclusive, to <code>argToKey</code>,
+		 * exclusive, in order of their keys.
+		 * @param argFromKey
+		 * @param argToKey
+		 * @return
+		 */
+		public List<E> getRange(K argFromKey, K argToKey){
+			synchronized (list) {
+				ArrayList<E> ret = new ArrayList<E>();
+				for(ArrayList<E> elements : map.subMap(argFromKey, argToKey).values()){
+					ret.addAll(elements);
+				}
+				return ret;
+			}
+		}
+		
+		/**
+		 * @return all of the indexed elements, in order of their keys
+		 */
+		public List<E> getAll(){
+			synchronized (list) {
+				ArrayList<E> ret = new ArrayList<E>();
+				for(ArrayList<E> elements : map.values()){
+					ret.addAll(elements);
+				}
+				return ret;
+			}
+		}
+		
+		/**
+		 * @return the smallest key, or null if the index is empty
+		 */
+		public K getFirstKey(){
+			synchronized (list) {
+				return map.isEmpty() ? null : map.firstKey();
+			}
+		}
+		
+		/**
+		 * @return the largest key, or null if the index is empty
+		 */
+		public K getLastKey(){
+			synchronized (list) {
+				return map.isEmpty() ? null : map.lastKey();
+			}
+		}
+	}
+}
@@ -0,0 +1,331 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 3:11:38 AM
+ */
+package com.dmurph.mvc.model;
+
+import java.beans.PropertyChangeListener;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dmurph.mvc.I18n;
+import com.dmurph.mvc.IFilter;
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.support.MVCPropertyChangeSupport;
+
+/**
+ * A read-only list model whose elements are loaded from an {@link IPageProvider} a page at a time, as
+ * they're needed, so a list of millions of rows can be shown without loading all of them.  The size
+ * comes from the provider up front, and the most recently used pages are cached, with the least recently
+ * used page dropped when there are too many (it's loaded again if it's needed again).<br/>
+ * <br/>
+ * If the list is given an {@link Executor}, pages are loaded with it, and {@link #get(int)} returns the
+ * placeholder (see {@link #setPlaceholder(Object)}) until the page is loaded, when a
+ * {@link MVCArrayList#CHANGED_ALL} event is fired for the page (on the thread that loaded it).  Without
+ * an executor, {@link #get(int)} loads the page right away.
+ * @author Daniel Murphy
+ */
+public class MVCLazyList<E> extends AbstractList<E> implements IMVCList<E> {
+	private static final Logger log = LoggerFactory.getLogger(MVCLazyList.class);
+	
+	public static final int DEFAULT_PAGE_SIZE = 100;
+	public static final int DEFAULT_MAX_PAGES = 50;
+	
+	private final IPageProvider<E> provider;
+	private final int pageSize;
+	private final Executor executor;
+	private final LinkedHashMap<Integer, Object[]> pages;
+	private final HashSet<Integer> loading = new HashSet<Integer>();
+	private final MVCPropertyChangeSupport propertyChangeSupport = new MVCPropertyChangeSupport(this);
+	
+	private int size;
+	private E placeholder = null;
+	// pages loading from before a refresh are ignored
+	private int generation = 0;
+	
+	/**
+	 * Constructs the list with the default page size and number of pages cached,
+	 * loading pages when {@link #get(int)} is called.
+	 * @param argProvider
+	 */
+	public MVCLazyList(IPageProvider<E> argProvider){
+		this(argProvider, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES, null);
+	}
+	
+	/**
+	 * @param argProvider
+	 * @param argPageSize the number of elements in a page
+	 * @param argMaxPages the most pages to keep
+	 * @param argExecutor the executor to load pages with, or null to load them when {@link #get(int)} is called
+	 */
+	public MVCLazyList(IPageProvider<E> argProvider, int argPageSize, final int argMaxPages, Executor argExecutor){
+		if(argPageSize < 1 || argMaxPages < 1){
+			throw new IllegalArgumentException(I18n.getText("model.badPaging", argPageSize+"", argMaxPages+""));
+		}
+		provider = argProvider;
+		pageSize = argPageSize;
+		executor = argExecutor;
+		pages = new LinkedHashMap<Integer, Object[]>(16, .75f, true){
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> argEldest) {
+				return size() > argMaxPages;
+			}
+		};
+		size = provider.getSize();
+	}
+	
+	public IPageProvider<E> getProvider(){
+		return provider;
+	}
+	
+	public int getPageSize(){
+		return pageSize;
+	}
+	
+	/**
+	 * @return the element returned by {@link #get(int)} for elements that aren't loaded yet
+	 */
+	public synchronized E getPlaceholder(){
+		return placeholder;
+	}
+	
+	/**
+	 * Sets the element returned by {@link #get(int)} for elements that aren't loaded yet.  The
+	 * default is null.
+	 * @param argPlaceholder
+	 */
+	public synchronized void setPlaceholder(E argPlaceholder){
+		placeholder = argPlaceholder;
+	}
+	
+	/**
+	 * Gets the element, loading it's page if it isn't loaded.  If the list has an executor
+	 * and the page isn't loaded, this returns the placeholder.
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public synchronized E get(int argIndex) {
+		if(argIndex < 0 || argIndex >= size){
+			throw new IndexOutOfBoundsException("Index: "+argIndex+", Size: "+size);
+		}
+		int page = argIndex / pageSize;
+		Object[] elements = pages.get(page);
+		if(elements == null){
+			if(executor != null){
+				request(page);
+				return placeholder;
+			}
+			elements = toPage(page, provider.getPage(page * pageSize, getPageLength(page)));
+			pages.put(page, elements);
+		}
+		return (E) elements[argIndex - page * pageSize];
+	}
+	
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+	
+	/**
+	 * @param argIndex
+	 * @return if the page of the element is loaded
+	 */
+	public synchronized boolean isLoaded(int argIndex){
+		return pages.containsKey(argIndex / pageSize);
+	}
+	
+	/**
+	 * Starts loading the pages of the given elements, if the list has an executor.
+	 * @param argFromIndex inclusive
+	 * @param argToIndex exclusive
+	 */
+	public synchronized void prefetch(int argFromIndex, int argToIndex){
+		if(executor == null || argFromIndex >= argToIndex){
+			return;
+		}
+		int last = (Math.min(argToIndex, size) - 1) / pageSize;
+		for(int page = Math.max(0, argFromIndex) / pageSize; page <= last; page++){
+			if(!pages.containsKey(page)){
+				request(page);
+			}
+		}
+	}
+	
+	/**
+	 * Drops all the loaded pages and gets the size from the provider again, firing a
+	 * {@link MVCArrayList#REMOVED_ALL} event for the old elements and an {@link MVCArrayList#ADDED_ALL}
+	 * event for the new ones (which are all placeholders).
+	 */
+	public synchronized void refresh(){
+		generation++;
+		pages.clear();
+		loading.clear();
+		int oldSize = size;
+		size = provider.getSize();
+		if(oldSize > 0){
+			propertyChangeSupport.firePropertiesRemovedEvent(MVCArrayList.REMOVED_ALL, Collections.nCopies(oldSize, placeholder), 0, oldSize - 1);
+		}
+		if(size > 0){
+			propertyChangeSupport.firePropertiesAddedEvent(MVCArrayList.ADDED_ALL, Collections.nCopies(size, placeholder), 0, size - 1);
+		}
+		propertyChangeSupport.firePropertyChange(MVCArrayList.SIZE, oldSize, size);
+	}
+	
+	private void request(final int argPage){
+		if(!loading.add(argPage)){
+			return;
+		}
+		final int requestGeneration = generation;
+		final int start = argPage * pageSize;
+		final int count = getPageLength(argPage);
+		executor.execute(new Runnable() {
+			public void run() {
+				List<E> elements;
+				try{
+					elements = provider.getPage(start, count);
+				}catch(RuntimeException e){
+					log.error("Unable to load the page starting at "+start, e);
+					synchronized (MVCLazyList.this) {
+						if(requestGeneration == generation){
+							loading.remove(argPage);
+						}
+					}
+					return;
+				}
+				pageLoaded(argPage, requestGeneration, elements);
+			}
+		});
+	}
+	
+	private synchronized void pageLoaded(int argPage, int argGeneration, List<E> argElements){
+		if(argGeneration != generation){
+			return;
+		}
+		loading.remove(argPage);
+		Object[] elements = toPage(argPage, argElements);
+		pages.put(argPage, elements);
+		
+		int start = argPage * pageSize;
+		if(elements.length == 1){
+			propertyChangeSupport.fireIndexedPropertyChange(MVCArrayList.CHANGED, start, placeholder, elements[0]);
+			return;
+		}
+		int[] indexes = new int[elements.length];
+		for(int i=0; i<indexes.length; i++){
+			indexes[i] = start + i;
+		}
+		propertyChangeSupport.fireIndexedPropertiesChangedEvent(MVCArrayList.CHANGED_ALL, indexes,
+																Collections.nCopies(elements.length, placeholder), Arrays.asList(elements));
+	}
+	
+	// copies the elements of a page, using the placeholder for any the provider didn't return
+	private Object[] toPage(int argPage, List<E> argElements){
+		Object[] elements = new Object[getPageLength(argPage)];
+		int count = Math.min(elements.length, argElements.size());
+		for(int i=0; i<count; i++){
+			elements[i] = argElements.get(i);
+		}
+		Arrays.fill(elements, count, elements.length, placeholder);
+		return elements;
+	}
+	
+	private int getPageLength(int argPage){
+		return Math.min(pageSize, size - argPage * pageSize);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#filtered(com.dmurph.mvc.IFilter)
+	 */
+	public MVCFilteredListView<E> filtered(IFilter<? super E> argFilter) {
+		return new MVCFilteredListView<E>(this, argFilter);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#sorted(java.util.Comparator)
+	 */
+	public MVCSortedListView<E> sorted(Comparator<? super E> argComparator) {
+		return new MVCSortedListView<E>(this, argComparator);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#mapped(com.dmurph.mvc.ITransformer)
+	 */
+	public <T> MVCMappedListView<E, T> mapped(ITransformer<? super E, ? extends T> argTransformer) {
+		return new MVCMappedListView<E, T>(this, argTransformer);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void addPropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.addPropertyChangeListener(argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#removePropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void removePropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.removePropertyChangeListener(argListener);
+	}
+
+	/**
+	 * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void addPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.addPropertyChangeListener(argPropertyName, argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#removePropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void removePropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.removePropertyChangeListener(argPropertyName, argListener);
+	}
+
+	/**
+	 * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void addWeakPropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.addWeakPropertyChangeListener(argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void addWeakPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.addWeakPropertyChangeListener(argPropertyName, argListener);
+	}
+}
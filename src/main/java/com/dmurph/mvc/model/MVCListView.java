@@ -0,0 +1,327 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 11:24:12 PM
+ */
+package com.dmurph.mvc.model;
+
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.dmurph.mvc.IFilter;
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.support.MVCIndexedPropertiesChangedEvent;
+import com.dmurph.mvc.support.MVCPropertiesAddedEvent;
+import com.dmurph.mvc.support.MVCPropertiesRemovedEvent;
+import com.dmurph.mvc.support.MVCPropertyAddedEvent;
+import com.dmurph.mvc.support.MVCPropertyChangeSupport;
+import com.dmurph.mvc.support.MVCPropertyRemovedEvent;
+
+/**
+ * A read-only view of an {@link IMVCList} that updates itself from the indexed events of the source list
+ * instead of being rebuilt, and fires the same events as {@link MVCArrayList} so it can be listened to
+ * (or viewed) like any other list.  Subclasses get each change to the source as the indexes and elements
+ * that were added, removed, or changed.<br/>
+ * <br/>
+ * Views listen to the source until {@link #dispose()} is called.  Views don't know when the elements themselves
+ * change, so if the result of a filter, comparator or transformer changes, call {@link #refresh()}.
+ * @author Daniel Murphy
+ */
+public abstract class MVCListView<S, E> extends AbstractList<E> implements IMVCList<E> {
+	
+	protected final MVCPropertyChangeSupport propertyChangeSupport = new MVCPropertyChangeSupport(this);
+	private final IMVCList<S> source;
+	
+	private final PropertyChangeListener sourceListener = new PropertyChangeListener() {
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			sourceChanged(argEvt);
+		}
+	};
+	
+	protected MVCListView(IMVCList<S> argSource){
+		if(argSource == null){
+			throw new NullPointerException();
+		}
+		source = argSource;
+	}
+	
+	/**
+	 * Builds the view and starts listening to the source.  Called by subclasses
+	 * at the end of their constructor.
+	 */
+	protected final void attach(){
+		synchronized (source) {
+			synchronized (this) {
+				rebuild(source);
+			}
+			source.addPropertyChangeListener(sourceListener);
+		}
+	}
+	
+	/**
+	 * Stops listening to the source list.  The view won't change after this.
+	 */
+	public void dispose(){
+		source.removePropertyChangeListener(sourceListener);
+	}
+	
+	/**
+	 * @return the list this is a view of
+	 */
+	public IMVCList<S> getSource(){
+		return source;
+	}
+	
+	/**
+	 * Rebuilds the whole view from the source, firing a {@link MVCArrayList#REMOVED_ALL} event for
+	 * the old elements and a {@link MVCArrayList#ADDED_ALL} event for the new ones.
+	 */
+	public void refresh(){
+		synchronized (source) {
+			rebuildAndFire();
+		}
+	}
+	
+	private synchronized void rebuildAndFire(){
+		ArrayList<E> old = new ArrayList<E>(this);
+		rebuild(source);
+		if(!old.isEmpty()){
+			propertyChangeSupport.firePropertiesRemovedEvent(MVCArrayList.REMOVED_ALL, Collections.unmodifiableCollection(old), 0, old.size() - 1);
+		}
+		if(size() > 0){
+			propertyChangeSupport.firePropertiesAddedEvent(MVCArrayList.ADDED_ALL, Collections.unmodifiableCollection(new ArrayList<E>(this)), 0, size()-1);
+		}
+		fireSizeChanged(old.size());
+	}
+	
+	/**
+	 * Builds the view from the whole source list, without firing any events.
+	 * @param argSource
+	 */
+	protected abstract void rebuild(List<S> argSource);
+	
+	/**
+	 * Elements were inserted into the source
+	 * @param argIndex the index of the first element
+	 * @param argElements
+	 */
+	protected abstract void sourceAdded(int argIndex, List<S> argElements);
+	
+	/**
+	 * Elements were removed from the source
+	 * @param argIndexes the index of each element, in ascending order, from before anything was removed
+	 * @param argElements
+	 */
+	protected abstract void sourceRemoved(int[] argIndexes, List<S> argElements);
+	
+	/**
+	 * Elements in the source were replaced
+	 * @param argIndexes the index of each element, in ascending order
+	 * @param argOldElements
+	 * @param argNewElements
+	 */
+	protected abstract void sourceChanged(int[] argIndexes, List<S> argOldElements, List<S> argNewElements);
+	
+	@SuppressWarnings("unchecked")
+	private synchronized void sourceChanged(PropertyChangeEvent argEvt){
+		String name = argEvt.getPropertyName();
+		if(MVCArrayList.ADDED.equals(name)){
+			MVCPropertyAddedEvent evt = (MVCPropertyAddedEvent) argEvt;
+			if(!evt.isIndexed()){
+				rebuildAndFire();
+				return;
+			}
+			sourceAdded(evt.getIndex(), Collections.singletonList((S) evt.getNewValue()));
+		}else if(MVCArrayList.ADDED_ALL.equals(name)){
+			MVCPropertiesAddedEvent evt = (MVCPropertiesAddedEvent) argEvt;
+			if(!evt.isIndexed()){
+				rebuildAndFire();
+				return;
+			}
+			sourceAdded(evt.getStartIndex(), new ArrayList<S>((Collection<S>) evt.getNewValue()));
+		}else if(MVCArrayList.REMOVED.equals(name)){
+			MVCPropertyRemovedEvent evt = (MVCPropertyRemovedEvent) argEvt;
+			if(!evt.isIndexed()){
+				rebuildAndFire();
+				return;
+			}
+			sourceRemoved(new int[]{evt.getIndex()}, Collections.singletonList((S) evt.getOldValue()));
+		}else if(MVCArrayList.REMOVED_ALL.equals(name)){
+			MVCPropertiesRemovedEvent evt = (MVCPropertiesRemovedEvent) argEvt;
+			int[] indexes = evt.getIndexes();
+			if(indexes == null){
+				rebuildAndFire();
+				return;
+			}
+			sourceRemoved(indexes, new ArrayList<S>((Collection<S>) evt.getOldValue()));
+		}else if(MVCArrayList.CHANGED.equals(name)){
+			IndexedPropertyChangeEvent evt = (IndexedPropertyChangeEvent) argEvt;
+			sourceChanged(new int[]{evt.getIndex()}, Collections.singletonList((S) evt.getOldValue()),
+						  Collections.singletonList((S) evt.getNewValue()));
+		}else if(MVCArrayList.CHANGED_ALL.equals(name)){
+			MVCIndexedPropertiesChangedEvent evt = (MVCIndexedPropertiesChangedEvent) argEvt;
+			ArrayList<S> oldElements = new ArrayList<S>(evt.getCount());
+			ArrayList<S> newElements = new ArrayList<S>(evt.getCount());
+			for(int i=0; i<evt.getCount(); i++){
+				oldElements.add((S) evt.getOldValue(i));
+				newElements.add((S) evt.getNewValue(i));
+			}
+			sourceChanged(evt.getIndexes(), oldElements, newElements);
+		}
+	}
+	
+	protected void fireAdded(int argIndex, E argElement){
+		propertyChangeSupport.firePropertyAddedEvent(MVCArrayList.ADDED, argElement, argIndex);
+	}
+	
+	/**
+	 * Fires {@link MVCArrayList#ADDED} or {@link MVCArrayList#ADDED_ALL}, depending on how many
+	 * elements were added.
+	 * @param argIndex
+	 * @param argElements
+	 */
+	protected void fireAdded(int argIndex, List<E> argElements){
+		if(argElements.size() == 1){
+			fireAdded(argIndex, argElements.get(0));
+		}else if(argElements.size() > 1){
+			propertyChangeSupport.firePropertiesAddedEvent(MVCArrayList.ADDED_ALL, Collections.unmodifiableCollection(argElements),
+														   argIndex, argIndex + argElements.size() - 1);
+		}
+	}
+	
+	protected void fireRemoved(int argIndex, E argElement){
+		propertyChangeSupport.firePropertyRemovedEvent(MVCArrayList.REMOVED, argElement, argIndex);
+	}
+	
+	/**
+	 * Fires {@link MVCArrayList#REMOVED} or {@link MVCArrayList#REMOVED_ALL}, depending on how many
+	 * elements were removed.
+	 * @param argIndexes
+	 * @param argElements
+	 */
+	protected void fireRemoved(int[] argIndexes, List<E> argElements){
+		if(argIndexes.length == 1){
+			fireRemoved(argIndexes[0], argElements.get(0));
+		}else if(argIndexes.length > 1){
+			propertyChangeSupport.firePropertiesRemovedEvent(MVCArrayList.REMOVED_ALL, Collections.unmodifiableCollection(argElements), argIndexes);
+		}
+	}
+	
+	protected void fireChanged(int argIndex, E argOldElement, E argNewElement){
+		propertyChangeSupport.fireIndexedPropertyChange(MVCArrayList.CHANGED, argIndex, argOldElement, argNewElement);
+	}
+	
+	/**
+	 * Fires {@link MVCArrayList#CHANGED} or {@link MVCArrayList#CHANGED_ALL}, depending on how many
+	 * elements were changed.
+	 * @param argIndexes
+	 * @param argOldElements
+	 * @param argNewElements
+	 */
+	protected void fireChanged(int[] argIndexes, List<E> argOldElements, List<E> argNewElements){
+		if(argIndexes.length == 1){
+			fireChanged(argIndexes[0], argOldElements.get(0), argNewElements.get(0));
+		}else if(argIndexes.length > 1){
+			propertyChangeSupport.fireIndexedPropertiesChangedEvent(MVCArrayList.CHANGED_ALL, argIndexes, argOldElements, argNewElements);
+		}
+	}
+	
+	/**
+	 * Fires {@link MVCArrayList#SIZE} if the size isn't the given size anymore
+	 * @param argOldSize
+	 */
+	protected void fireSizeChanged(int argOldSize){
+		if(argOldSize != size()){
+			propertyChangeSupport.firePropertyChange(MVCArrayList.SIZE, argOldSize, size());
+		}
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#filtered(com.dmurph.mvc.IFilter)
+	 */
+	public MVCFilteredListView<E> filtered(IFilter<? super E> argFilter) {
+		return new MVCFilteredListView<E>(this, argFilter);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#sorted(java.util.Comparator)
+	 */
+	public MVCSortedListView<E> sorted(Comparator<? super E> argComparator) {
+		return new MVCSortedListView<E>(this, argComparator);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.model.IMVCList#mapped(com.dmurph.mvc.ITransformer)
+	 */
+	public <T> MVCMappedListView<E, T> mapped(ITransformer<? super E, ? extends T> argTransformer) {
+		return new MVCMappedListView<E, T>(this, argTransformer);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void addPropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.addPropertyChangeListener(argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#removePropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void removePropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.removePropertyChangeListener(argListener);
+	}
+
+	/**
+	 * @see com.dmurph.mvc.IModel#addPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void addPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.addPropertyChangeListener(argPropertyName, argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#removePropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void removePropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.removePropertyChangeListener(argPropertyName, argListener);
+	}
+
+	/**
+	 * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.beans.PropertyChangeListener)
+	 */
+	public void addWeakPropertyChangeListener(PropertyChangeListener argListener) {
+		propertyChangeSupport.addWeakPropertyChangeListener(argListener);
+	}
+	
+	/**
+	 * @see com.dmurph.mvc.IModel#addWeakPropertyChangeListener(java.lang.String, java.beans.PropertyChangeListener)
+	 */
+	public void addWeakPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener) {
+		propertyChangeSupport.addWeakPropertyChangeListener(argPropertyName, argListener);
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 11:47:03 PM
+ */
+package com.dmurph.mvc.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.dmurph.mvc.ITransformer;
+
+/**
+ * A live view of the result of a transformer for each element of an {@link IMVCList}, at the
+ * same indexes as the source.  The results are cached, so the transformer is only called for the
+ * elements added or changed in the source.
+ * @author Daniel Murphy
+ * @see IMVCList#mapped(ITransformer)
+ */
+public class MVCMappedListView<S, T> extends MVCListView<S, T> {
+	
+	private final ITransformer<? super S, ? extends T> transformer;
+	private final ArrayList<T> elements = new ArrayList<T>();
+	
+	/**
+	 * @param argSource
+	 * @param argTransformer
+	 */
+	public MVCMappedListView(IMVCList<S> argSource, ITransformer<? super S, ? extends T> argTransformer){
+		super(argSource);
+		if(argTransformer == null){
+			throw new NullPointerException();
+		}
+		transformer = argTransformer;
+		attach();
+	}
+	
+	public ITransformer<? super S, ? extends T> getTransformer(){
+		return transformer;
+	}
+	
+	@Override
+	public synchronized T get(int argIndex) {
+		return elements.get(argIndex);
+	}
+	
+	@Override
+	public synchronized int size() {
+		return elements.size();
+	}
+	
+	@Override
+	protected void rebuild(List<S> argSource) {
+		elements.clear();
+		elements.ensureCapacity(argSource.size());
+		for(int i=0; i<argSource.size(); i++){
+			elements.add(transformer.transform(argSource.get(i)));
+		}
+	}
+	
+	@Override
+	protected void sourceAdded(int argIndex, List<S> argElements) {
+		int oldSize = elements.size();
+		ArrayList<T> added = new ArrayList<T>(argElements.size());
+		for(S e : argElements){
+			added.add(transformer.transform(e));
+		}
+		elements.addAll(argIndex, added);
+		fireAdded(argIndex, added);
+		fireSizeChanged(oldSize);
+	}
+	
+	@Override
+	protected void sourceRemoved(int[] argIndexes, List<S> argElements) {
+		int oldSize = elements.size();
+		int first = argIndexes[0];
+		int last = argIndexes[argIndexes.length - 1];
+		ArrayList<T> removed = new ArrayList<T>(argIndexes.length);
+		if(last - first == argIndexes.length - 1){
+			List<T> range = elements.subList(first, last + 1);
+			removed.addAll(range);
+			range.clear();
+		}else{
+			ArrayList<T> kept = new ArrayList<T>(oldSize - first);
+			int next = 0;
+			for(int i=first; i<oldSize; i++){
+				if(next < argIndexes.length && argIndexes[next] == i){
+					removed.add(elements.get(i));
+					next++;
+				}else{
+					kept.add(elements.get(i));
+				}
+			}
+			elements.subList(first, oldSize).clear();
+			elements.addAll(kept);
+		}
+		fireRemoved(argIndexes, removed);
+		fireSizeChanged(oldSize);
+	}
+	
+	@Override
+	protected void sourceChanged(int[] argIndexes, List<S> argOldElements, List<S> argNewElements) {
+		ArrayList<T> oldValues = new ArrayList<T>(argIndexes.length);
+		ArrayList<T> newValues = new ArrayList<T>(argIndexes.length);
+		for(int i=0; i<argIndexes.length; i++){
+			T e = transformer.transform(argNewElements.get(i));
+			oldValues.add(elements.set(argIndexes[i], e));
+			newValues.add(e);
+		}
+		fireChanged(argIndexes, oldValues, newValues);
+	}
+}
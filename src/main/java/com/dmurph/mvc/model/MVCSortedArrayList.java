@@ -0,0 +1,295 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 10:18:35 PM
+ */
+package com.dmurph.mvc.model;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.dmurph.mvc.I18n;
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.io.IBinaryStreamable;
+import com.dmurph.mvc.io.ModelInputStream;
+import com.dmurph.mvc.io.ModelOutputStream;
+
+/**
+ * An {@link MVCArrayList} that keeps it's elements sorted, either by their natural ordering or
+ * by a {@link Comparator}.  {@link #add(Object)} finds where to insert the element with a binary
+ * search, and {@link #indexOf(Object)} and {@link #contains(Object)} use a binary search as well.
+ * Elements that compare as equal are kept in the order they were added.<br/>
+ * <br/>
+ * The methods that take an index ({@link #add(int, Object)}, {@link #addAll(int, Collection)} and
+ * {@link #set(int, Object)}) and {@link #transformAll(ITransformer)} only work if the list stays sorted,
+ * otherwise they throw an {@link IllegalArgumentException}.  This way undoing and reverting changes,
+ * which put elements back where they were, still works.  The same events as {@link MVCArrayList} are fired.<br/>
+ * <br/>
+ * If elements change in a way that changes their order, they have to be removed and added again.<br/>
+ * <br/>
+ * The comparator is written with the elements to a {@link ModelOutputStream}, so it has to be
+ * {@link IBinaryStreamable} or {@link Serializable} (or null) to write the list.
+ * @author Daniel Murphy
+ */
+public class MVCSortedArrayList<E> extends MVCArrayList<E> {
+	private static final long serialVersionUID = 1L;
+	
+	private volatile Comparator<? super E> comparator;
+	
+	/**
+	 * Constructs a list sorted by the natural ordering of the elements,
+	 * which have to be {@link Comparable}.
+	 */
+	public MVCSortedArrayList(){
+		this(null);
+	}
+	
+	/**
+	 * Constructs a list sorted by the comparator.
+	 * @param argComparator the comparator, or null for the natural ordering
+	 */
+	public MVCSortedArrayList(Comparator<? super E> argComparator){
+		comparator = argComparator;
+	}
+	
+	/**
+	 * @return the comparator, or null if the list is sorted by the natural ordering
+	 */
+	public Comparator<? super E> getComparator(){
+		return comparator;
+	}
+	
+	/**
+	 * Inserts the element after any elements that are less than or equal to it.
+	 * @see com.dmurph.mvc.model.MVCArrayList#add(java.lang.Object)
+	 */
+	@Override
+	public synchronized boolean add(E argElement) {
+		super.add(insertionIndex(argElement), argElement);
+		return true;
+	}
+	
+	/**
+	 * Adds all the elements in sorted order.  If all of the elements go at
+	 * the end of the list, they are added with a single {@link #ADDED_ALL} event.
+	 * @see com.dmurph.mvc.model.MVCArrayList#addAll(java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean addAll(Collection<? extends E> argC) {
+		if(argC.isEmpty()){
+			return false;
+		}
+		ArrayList<E> sorted = new ArrayList<E>(argC);
+		Collections.sort(sorted, comparator);
+		if(isEmpty() || compare(get(size() - 1), sorted.get(0)) <= 0){
+			return super.addAll(sorted);
+		}
+		for(E e : sorted){
+			add(e);
+		}
+		return true;
+	}
+	
+	/**
+	 * Inserts the element at the index, if the element belongs there.
+	 * @throws IllegalArgumentException if the list wouldn't be sorted
+	 * @see com.dmurph.mvc.model.MVCArrayList#add(int, java.lang.Object)
+	 */
+	@Override
+	public synchronized void add(int argIndex, E argElement) {
+		checkFits(argIndex, argIndex, Collections.singletonList(argElement));
+		super.add(argIndex, argElement);
+	}
+	
+	/**
+	 * Inserts the elements at the index, if they're sorted and belong there.
+	 * @throws IllegalArgumentException if the list wouldn't be sorted
+	 * @see com.dmurph.mvc.model.MVCArrayList#addAll(int, java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean addAll(int argIndex, Collection<? extends E> argC) {
+		checkFits(argIndex, argIndex, new ArrayList<E>(argC));
+		return super.addAll(argIndex, argC);
+	}
+	
+	/**
+	 * Replaces the element at the index, if the new element belongs there.
+	 * @throws IllegalArgumentException if the list wouldn't be sorted
+	 * @see com.dmurph.mvc.model.MVCArrayList#set(int, java.lang.Object)
+	 */
+	@Override
+	public synchronized E set(int argIndex, E argElement) {
+		checkFits(argIndex, argIndex + 1, Collections.singletonList(argElement));
+		return super.set(argIndex, argElement);
+	}
+	
+	/**
+	 * Transforms the elements, if they're still sorted after.
+	 * @throws IllegalArgumentException if the list wouldn't be sorted
+	 * @see com.dmurph.mvc.model.MVCArrayList#transformAll(com.dmurph.mvc.ITransformer)
+	 */
+	@Override
+	public synchronized void transformAll(ITransformer<? super E, ? extends E> argTransformer) {
+		final ArrayList<E> transformed = new ArrayList<E>(size());
+		for(int i=0; i<size(); i++){
+			E e = argTransformer.transform(get(i));
+			if(i > 0 && compare(transformed.get(i - 1), e) > 0){
+				throw new IllegalArgumentException(I18n.getText("model.notSorted", i+""));
+			}
+			transformed.add(e);
+		}
+		super.transformAll(new ITransformer<E, E>() {
+			int index = 0;
+			
+			public E transform(E argObject) {
+				return transformed.get(index++);
+			}
+		});
+	}
+	
+	/**
+	 * Uses a binary search to find the element.
+	 * @see java.util.ArrayList#indexOf(java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public synchronized int indexOf(Object argObject) {
+		int index;
+		try{
+			index = lowerBound((E) argObject);
+		}catch(ClassCastException e){
+			return -1;
+		}
+		for(int i=index; i<size(); i++){
+			E e = get(i);
+			if(argObject == null ? e == null : argObject.equals(e)){
+				return i;
+			}
+			if(compare(e, (E) argObject) != 0){
+				break;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * @see java.util.ArrayList#contains(java.lang.Object)
+	 */
+	@Override
+	public boolean contains(Object argObject) {
+		return indexOf(argObject) != -1;
+	}
+	
+	/**
+	 * Clones into a list sorted with the same comparator.
+	 * @see com.dmurph.mvc.model.MVCArrayList#deepClone(com.dmurph.mvc.model.CloneContext)
+	 */
+	@Override
+	MVCArrayList<E> deepClone(CloneContext argContext) {
+		return deepCloneInto(new MVCSortedArrayList<E>(comparator), argContext);
+	}
+	
+	/**
+	 * Writes the comparator, then the elements.
+	 * @see com.dmurph.mvc.model.MVCArrayList#writeBinary(com.dmurph.mvc.io.ModelOutputStream)
+	 */
+	@Override
+	public void writeBinary(ModelOutputStream argOut) throws IOException {
+		argOut.writeObject(comparator);
+		super.writeBinary(argOut);
+	}
+	
+	/**
+	 * Reads the comparator, then the elements.
+	 * @see com.dmurph.mvc.model.MVCArrayList#readBinary(com.dmurph.mvc.io.ModelInputStream)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void readBinary(ModelInputStream argIn) throws IOException, ClassNotFoundException {
+		Comparator<? super E> read = (Comparator<? super E>) argIn.readObject();
+		synchronized (this) {
+			comparator = read;
+			super.readBinary(argIn);
+		}
+	}
+	
+	// throws if the elements (in order) don't fit between index-1 and next
+	private void checkFits(int argIndex, int argNext, List<? extends E> argElements){
+		if(argElements.isEmpty()){
+			return;
+		}
+		E previous = argIndex > 0 ? get(argIndex - 1) : null;
+		for(int i=0; i<argElements.size(); i++){
+			E e = argElements.get(i);
+			if((argIndex > 0 || i > 0) && compare(previous, e) > 0){
+				throw new IllegalArgumentException(I18n.getText("model.notSorted", argIndex+""));
+			}
+			previous = e;
+		}
+		if(argNext < size() && compare(previous, get(argNext)) > 0){
+			throw new IllegalArgumentException(I18n.getText("model.notSorted", argIndex+""));
+		}
+	}
+	
+	// first index with an element greater than the given one
+	private int insertionIndex(E argElement){
+		int low = 0;
+		int high = size();
+		while(low < high){
+			int mid = (low + high) >>> 1;
+			if(compare(get(mid), argElement) <= 0){
+				low = mid + 1;
+			}else{
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	// first index with an element greater than or equal to the given one
+	private int lowerBound(E argElement){
+		int low = 0;
+		int high = size();
+		while(low < high){
+			int mid = (low + high) >>> 1;
+			if(compare(get(mid), argElement) < 0){
+				low = mid + 1;
+			}else{
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private int compare(E argFirst, E argSecond){
+		if(comparator != null){
+			return comparator.compare(argFirst, argSecond);
+		}
+		return ((Comparable<? super E>) argFirst).compareTo(argSecond);
+	}
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 11:40:18 PM
+ */
+package com.dmurph.mvc.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A live view of the elements of an {@link IMVCList}, sorted by a {@link Comparator} or by their
+ * natural ordering.  Elements added to the source are inserted where they belong with a binary search,
+ * and elements that compare as equal are kept in the order they were added to the view.
+ * @author Daniel Murphy
+ * @see IMVCList#sorted(Comparator)
+ */
+public class MVCSortedListView<E> extends MVCListView<E, E> {
+	
+	private Comparator<? super E> comparator;
+	private final ArrayList<E> elements = new ArrayList<E>();
+	
+	/**
+	 * @param argSource
+	 * @param argComparator the comparator, or null to use the natural ordering of the elements
+	 */
+	public MVCSortedListView(IMVCList<E> argSource, Comparator<? super E> argComparator){
+		super(argSource);
+		comparator = argComparator;
+		attach();
+	}
+	
+	public synchronized Comparator<? super E> getComparator(){
+		return comparator;
+	}
+	
+	/**
+	 * Sets the comparator and refreshes the view.
+	 * @param argComparator the comparator, or null to use the natural ordering of the elements
+	 * @see #refresh()
+	 */
+	public void setComparator(Comparator<? super E> argComparator){
+		synchronized (this) {
+			comparator = argComparator;
+		}
+		refresh();
+	}
+	
+	@Override
+	public synchronized E get(int argIndex) {
+		return elements.get(argIndex);
+	}
+	
+	@Override
+	public synchronized int size() {
+		return elements.size();
+	}
+	
+	/**
+	 * Uses a binary search to find the element.
+	 * @see java.util.AbstractList#indexOf(java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public synchronized int indexOf(Object argObject) {
+		int low;
+		try{
+			low = lowerBound((E) argObject);
+		}catch(ClassCastException e){
+			return -1;
+		}
+		for(int i=low; i<elements.size(); i++){
+			E e = elements.get(i);
+			if(compare(e, (E) argObject) != 0){
+				break;
+			}
+			if(argObject == null ? e == null : argObject.equals(e)){
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	@Override
+	public boolean contains(Object argObject) {
+		return indexOf(argObject) != -1;
+	}
+	
+	@Override
+	protected void rebuild(List<E> argSource) {
+		elements.clear();
+		elements.addAll(argSource);
+		Collections.sort(elements, new Comparator<E>() {
+			public int compare(E argO1, E argO2) {
+				return MVCSortedListView.this.compare(argO1, argO2);
+			}
+		});
+	}
+	
+	@Override
+	protected void sourceAdded(int argIndex, List<E> argElements) {
+		for(E e : argElements){
+			int oldSize = elements.size();
+			int position = upperBound(e);
+			elements.add(position, e);
+			fireAdded(position, e);
+			fireSizeChanged(oldSize);
+		}
+	}
+	
+	@Override
+	protected void sourceRemoved(int[] argIndexes, List<E> argElements) {
+		int oldSize = elements.size();
+		if(argElements.size() == 1){
+			int position = find(argElements.get(0), null);
+			E old = elements.remove(position);
+			fireRemoved(position, old);
+			fireSizeChanged(oldSize);
+			return;
+		}
+		
+		BitSet removing = new BitSet(oldSize);
+		for(E e : argElements){
+			removing.set(find(e, removing));
+		}
+		int[] indexes = new int[argElements.size()];
+		ArrayList<E> removed = new ArrayList<E>(indexes.length);
+		ArrayList<E> kept = new ArrayList<E>(oldSize - indexes.length);
+		for(int i=0; i<oldSize; i++){
+			if(removing.get(i)){
+				indexes[removed.size()] = i;
+				removed.add(elements.get(i));
+			}else{
+				kept.add(elements.get(i));
+			}
+		}
+		elements.clear();
+		elements.addAll(kept);
+		fireRemoved(indexes, removed);
+		fireSizeChanged(oldSize);
+	}
+	
+	@Override
+	protected void sourceChanged(int[] argIndexes, List<E> argOldElements, List<E> argNewElements) {
+		for(int i=0; i<argIndexes.length; i++){
+			int oldPosition = find(argOldElements.get(i), null);
+			E old = elements.remove(oldPosition);
+			E e = argNewElements.get(i);
+			int position = upperBound(e);
+			elements.add(position, e);
+			if(position == oldPosition){
+				fireChanged(position, old, e);
+			}else{
+				fireRemoved(oldPosition, old);
+				fireAdded(position, e);
+			}
+		}
+	}
+	
+	// finds the position of the element, preferring the same instance
+	private int find(E argElement, BitSet argSkip){
+		int size = elements.size();
+		int low = lowerBound(argElement);
+		int high = low;
+		while(high < size && compare(elements.get(high), argElement) == 0){
+			high++;
+		}
+		for(int i=low; i<high; i++){
+			if(elements.get(i) == argElement && (argSkip == null || !argSkip.get(i))){
+				return i;
+			}
+		}
+		// the element might have changed since it was added, so it isn't where
+		// it would be sorted anymore
+		for(int i=0; i<size; i++){
+			if(elements.get(i) == argElement && (argSkip == null || !argSkip.get(i))){
+				return i;
+			}
+		}
+		for(int i=0; i<size; i++){
+			E e = elements.get(i);
+			if((argElement == null ? e == null : argElement.equals(e)) && (argSkip == null || !argSkip.get(i))){
+				return i;
+			}
+		}
+		throw new IllegalStateException();
+	}
+	
+	// index of the first element not less than the given one
+	private int lowerBound(E argElement){
+		int low = 0;
+		int high = elements.size();
+		while(low < high){
+			int mid = (low + high) >>> 1;
+			if(compare(elements.get(mid), argElement) < 0){
+				low = mid + 1;
+			}else{
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	// index of the first element greater than the given one
+	private int upperBound(E argElement){
+		int low = 0;
+		int high = elements.size();
+		while(low < high){
+			int mid = (low + high) >>> 1;
+			if(compare(elements.get(mid), argElement) <= 0){
+				low = mid + 1;
+			}else{
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private int compare(E argO1, E argO2){
+		if(comparator != null){
+			return comparator.compare(argO1, argO2);
+		}
+		return ((Comparable<? super E>) argO1).compareTo(argO2);
+	}
+}
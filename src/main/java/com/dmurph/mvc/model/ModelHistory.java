@@ -0,0 +1,720 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 3:05:44 PM
+ */
+package com.dmurph.mvc.model;
+
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.dmurph.mvc.IFilter;
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.support.MVCIndexedPropertiesChangedEvent;
+import com.dmurph.mvc.support.MVCPropertiesAddedEvent;
+import com.dmurph.mvc.support.MVCPropertiesChangedEvent;
+import com.dmurph.mvc.support.MVCPropertiesRemovedEvent;
+import com.dmurph.mvc.support.MVCPropertyAddedEvent;
+import com.dmurph.mvc.support.MVCPropertyRemovedEvent;
+
+/**
+ * Undo and redo history for models.  The history listens to the property change events of the
+ * models added with {@link #addModel(IModel, boolean)}, and records each change as a small edit
+ * (the property and it's old and new value, or the index and elements added to or removed
+ * from a list) instead of a copy of the model.  Supported models are {@link HashModel}, {@link MVCArrayList}
+ * and {@link MVCHashSet}.<br/>
+ * <br/>
+ * Changes to the same {@link HashModel} property within the merge time (see {@link #setMergeTime(long)})
+ * are merged into one edit, so typing into a field doesn't make an edit per key.  Changes made between
+ * {@link #beginCompoundEdit()} and {@link #endCompoundEdit()} are undone and redone together.  The
+ * size of the history is capped (see {@link #setMaxSize(int)}), where each edit counts as the number of
+ * values it holds, and the oldest edits are dropped when the history gets too big.<br/>
+ * <br/>
+ * This fires {@link #CAN_UNDO} and {@link #CAN_REDO} property change events, for enabling undo and redo buttons.
+ * @author Daniel Murphy
+ */
+public class ModelHistory extends AbstractModel {
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Property name for if {@link #undo()} can be called.
+	 */
+	public static final String CAN_UNDO = "HISTORY_CAN_UNDO";
+	
+	/**
+	 * Property name for if {@link #redo()} can be called.
+	 */
+	public static final String CAN_REDO = "HISTORY_CAN_REDO";
+	
+	public static final int DEFAULT_MAX_SIZE = 10000;
+	public static final long DEFAULT_MERGE_TIME = 500;
+	
+	private final LinkedList<Edit> undoEdits = new LinkedList<Edit>();
+	private final LinkedList<Edit> redoEdits = new LinkedList<Edit>();
+	private final IdentityHashMap<IModel, Boolean> models = new IdentityHashMap<IModel, Boolean>();
+	
+	private int maxSize = DEFAULT_MAX_SIZE;
+	private long mergeTime = DEFAULT_MERGE_TIME;
+	private int size = 0;
+	
+	private int compoundDepth = 0;
+	private CompoundEdit compound = null;
+	
+	// undo and redo change the models without holding the history's lock, as the models
+	// record their changes while holding their own locks.  This keeps them from running at
+	// the same time, and the changes made by the applying thread aren't recorded.
+	private final Object applyLock = new Object();
+	private volatile Thread applyingThread = null;
+	
+	private final PropertyChangeListener listener = new PropertyChangeListener() {
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			record(argEvt);
+		}
+	};
+	
+	/**
+	 * Adds a model to record changes from.
+	 * @param argModel
+	 * @param argDeep if models that are properties or elements of the model (and
+	 * 				  models added to it later) should be recorded as well
+	 */
+	public void addModel(IModel argModel, boolean argDeep){
+		synchronized (this) {
+			if(models.containsKey(argModel)){
+				return;
+			}
+			models.put(argModel, argDeep);
+			argModel.addPropertyChangeListener(listener);
+		}
+		if(argDeep){
+			// not locked, as this reads the model
+			addChildren(argModel);
+		}
+	}
+	
+	/**
+	 * Stops recording changes from a model.  Edits that were already recorded
+	 * stay in the history.
+	 * @param argModel
+	 */
+	public synchronized void removeModel(IModel argModel){
+		if(models.remove(argModel) != null){
+			argModel.removePropertyChangeListener(listener);
+		}
+	}
+	
+	/**
+	 * Sets the maximum size of the history, where each edit counts as the number
+	 * of values it holds.  Default is {@link #DEFAULT_MAX_SIZE}.
+	 * @param argMaxSize
+	 */
+	public synchronized void setMaxSize(int argMaxSize){
+		maxSize = argMaxSize;
+		trim();
+	}
+	
+	public synchronized int getMaxSize(){
+		return maxSize;
+	}
+	
+	/**
+	 * Sets the time in milliseconds that changes to the same property are merged into one edit.
+	 * Set to 0 to not merge edits.  Default is {@link #DEFAULT_MERGE_TIME}.
+	 * @param argMergeTime
+	 */
+	public synchronized void setMergeTime(long argMergeTime){
+		mergeTime = argMergeTime;
+	}
+	
+	public synchronized long getMergeTime(){
+		return mergeTime;
+	}
+	
+	/**
+	 * Starts a compound edit, all changes until {@link #endCompoundEdit()} are
+	 * undone and redone together.  These can be nested.
+	 */
+	public synchronized void beginCompoundEdit(){
+		if(compoundDepth == 0){
+			compound = new CompoundEdit();
+		}
+		compoundDepth++;
+	}
+	
+	/**
+	 * Ends a compound edit.
+	 * @see #beginCompoundEdit()
+	 */
+	public synchronized void endCompoundEdit(){
+		if(compoundDepth == 0){
+			return;
+		}
+		compoundDepth--;
+		if(compoundDepth == 0){
+			CompoundEdit edit = compound;
+			compound = null;
+			if(!edit.edits.isEmpty()){
+				addEdit(edit);
+			}
+		}
+	}
+	
+	public synchronized boolean canUndo(){
+		return !undoEdits.isEmpty();
+	}
+	
+	public synchronized boolean canRedo(){
+		return !redoEdits.isEmpty();
+	}
+	
+	/**
+	 * Undoes the last edit.
+	 * @return false if there was nothing to undo
+	 */
+	public boolean undo(){
+		synchronized (applyLock) {
+			Edit edit;
+			synchronized (this) {
+				if(undoEdits.isEmpty()){
+					return false;
+				}
+				edit = undoEdits.removeLast();
+			}
+			applyingThread = Thread.currentThread();
+			try{
+				edit.undo();
+			}finally{
+				applyingThread = null;
+			}
+			synchronized (this) {
+				boolean oldRedo = canRedo();
+				redoEdits.addLast(edit);
+				firePropertyChange(CAN_UNDO, true, canUndo());
+				firePropertyChange(CAN_REDO, oldRedo, true);
+			}
+			return true;
+		}
+	}
+	
+	/**
+	 * Redoes the last undone edit.
+	 * @return false if there was nothing to redo
+	 */
+	public boolean redo(){
+		synchronized (applyLock) {
+			Edit edit;
+			synchronized (this) {
+				if(redoEdits.isEmpty()){
+					return false;
+				}
+				edit = redoEdits.removeLast();
+			}
+			applyingThread = Thread.currentThread();
+			try{
+				edit.redo();
+			}finally{
+				applyingThread = null;
+			}
+			synchronized (this) {
+				boolean oldUndo = canUndo();
+				undoEdits.addLast(edit);
+				firePropertyChange(CAN_UNDO, oldUndo, true);
+				firePropertyChange(CAN_REDO, true, canRedo());
+			}
+			return true;
+		}
+	}
+	
+	/**
+	 * Clears the history.
+	 */
+	public synchronized void clear(){
+		boolean oldUndo = canUndo();
+		boolean oldRedo = canRedo();
+		undoEdits.clear();
+		redoEdits.clear();
+		size = 0;
+		firePropertyChange(CAN_UNDO, oldUndo, false);
+		firePropertyChange(CAN_REDO, oldRedo, false);
+	}
+	
+	private void addChildren(Object argParent){
+		if(argParent instanceof HashModel){
+			HashModel model = (HashModel) argParent;
+			for(String name : model.getPropertyNames()){
+				addChild(model.getProperty(name));
+			}
+		}else if(argParent instanceof Collection<?>){
+			for(Object o : new ArrayList<Object>((Collection<?>) argParent)){
+				addChild(o);
+			}
+		}
+	}
+	
+	private void addChild(Object argChild){
+		if(argChild instanceof IModel){
+			addModel((IModel) argChild, true);
+		}
+	}
+	
+	// collects the values to add, if the source is recorded deeply
+	private void addChildren(Object argSource, Collection<?> argValues, List<Object> argChildren){
+		if(models.get(argSource) == Boolean.TRUE){
+			argChildren.addAll(argValues);
+		}
+	}
+	
+	private void record(PropertyChangeEvent argEvt){
+		if(Thread.currentThread() == applyingThread){
+			return;
+		}
+		String name = argEvt.getPropertyName();
+		if(IModel.DIRTY.equals(name)){
+			return;
+		}
+		ArrayList<Object> children = new ArrayList<Object>();
+		synchronized (this) {
+			record(argEvt, children);
+		}
+		// added after unlocking, as adding a model reads it
+		for(Object child : children){
+			addChild(child);
+		}
+	}
+	
+	private void record(PropertyChangeEvent argEvt, List<Object> argChildren){
+		Object source = argEvt.getSource();
+		String name = argEvt.getPropertyName();
+		Edit edit = null;
+		if(source instanceof HashModel){
+			HashModel model = (HashModel) source;
+			if(argEvt instanceof MVCPropertiesChangedEvent){
+				MVCPropertiesChangedEvent evt = (MVCPropertiesChangedEvent) argEvt;
+				CompoundEdit ce = new CompoundEdit();
+				for(String prop : evt.getPropertyNames()){
+					ce.edits.add(new PropertyEdit(model, prop, evt.getOldValue(prop), evt.getNewValue(prop)));
+				}
+				addChildren(source, ((Map<?, ?>) evt.getNewValue()).values(), argChildren);
+				edit = ce;
+			}else{
+				edit = new PropertyEdit(model, name, argEvt.getOldValue(), argEvt.getNewValue());
+				addChildren(source, Collections.singleton(argEvt.getNewValue()), argChildren);
+			}
+		}else if(source instanceof MVCArrayList<?>){
+			edit = createListEdit((MVCArrayList<?>) source, argEvt, argChildren);
+		}else if(source instanceof MVCHashSet<?>){
+			edit = createSetEdit((MVCHashSet<?>) source, argEvt, argChildren);
+		}
+		if(edit != null){
+			addEdit(edit);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Edit createListEdit(MVCArrayList<?> argList, PropertyChangeEvent argEvt, List<Object> argChildren){
+		MVCArrayList<Object> list = (MVCArrayList<Object>) argList;
+		String name = argEvt.getPropertyName();
+		if(argEvt instanceof MVCPropertyAddedEvent && ((MVCPropertyAddedEvent) argEvt).isIndexed()){
+			List<Object> added = Collections.singletonList(argEvt.getNewValue());
+			addChildren(list, added, argChildren);
+			return new ListEdit(list, ((MVCPropertyAddedEvent) argEvt).getIndex(), added, true);
+		}else if(argEvt instanceof MVCPropertiesAddedEvent && ((MVCPropertiesAddedEvent) argEvt).isIndexed()){
+			List<Object> added = new ArrayList<Object>((Collection<Object>) argEvt.getNewValue());
+			addChildren(list, added, argChildren);
+			return new ListEdit(list, ((MVCPropertiesAddedEvent) argEvt).getStartIndex(), added, true);
+		}else if(argEvt instanceof MVCPropertyRemovedEvent && ((MVCPropertyRemovedEvent) argEvt).isIndexed()){
+			List<Object> removed = Collections.singletonList(argEvt.getOldValue());
+			return new ListEdit(list, ((MVCPropertyRemovedEvent) argEvt).getIndex(), removed, false);
+		}else if(argEvt instanceof MVCPropertiesRemovedEvent && ((MVCPropertiesRemovedEvent) argEvt).isIndexed()){
+			MVCPropertiesRemovedEvent evt = (MVCPropertiesRemovedEvent) argEvt;
+			List<Object> removed = new ArrayList<Object>((Collection<Object>) argEvt.getOldValue());
+			if(evt.isContiguous()){
+				return new ListEdit(list, evt.getStartIndex(), removed, false);
+			}
+			return new ListRemoveAllEdit(list, evt.getIndexes(), removed);
+		}else if(argEvt instanceof MVCIndexedPropertiesChangedEvent){
+			MVCIndexedPropertiesChangedEvent evt = (MVCIndexedPropertiesChangedEvent) argEvt;
+			List<Object> newValues = new ArrayList<Object>((List<Object>) evt.getNewValue());
+			addChildren(list, newValues, argChildren);
+			return new ListSetAllEdit(list, evt.getIndexes(), new ArrayList<Object>((List<Object>) evt.getOldValue()), newValues);
+		}else if(MVCArrayList.CHANGED.equals(name) && argEvt instanceof IndexedPropertyChangeEvent){
+			addChildren(list, Collections.singleton(argEvt.getNewValue()), argChildren);
+			return new ListSetEdit(list, ((IndexedPropertyChangeEvent) argEvt).getIndex(), argEvt.getOldValue(), argEvt.getNewValue());
+		}
+		return null;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Edit createSetEdit(MVCHashSet<?> argSet, PropertyChangeEvent argEvt, List<Object> argChildren){
+		MVCHashSet<Object> set = (MVCHashSet<Object>) argSet;
+		String name = argEvt.getPropertyName();
+		if(MVCHashSet.ADDED.equals(name)){
+			List<Object> added = Collections.singletonList(argEvt.getNewValue());
+			addChildren(set, added, argChildren);
+			return new SetEdit(set, added, true);
+		}else if(MVCHashSet.ADDED_ALL.equals(name)){
+			List<Object> added = new ArrayList<Object>((Collection<Object>) argEvt.getNewValue());
+			addChildren(set, added, argChildren);
+			return new SetEdit(set, added, true);
+		}else if(MVCHashSet.REMOVED.equals(name)){
+			return new SetEdit(set, Collections.singletonList(argEvt.getOldValue()), false);
+		}else if(MVCHashSet.REMOVED_ALL.equals(name)){
+			return new SetEdit(set, new ArrayList<Object>((Collection<Object>) argEvt.getOldValue()), false);
+		}
+		return null;
+	}
+	
+	private void addEdit(Edit argEdit){
+		if(compound != null && argEdit != compound){
+			compound.add(argEdit, mergeTime);
+			return;
+		}
+		boolean oldUndo = canUndo();
+		boolean oldRedo = canRedo();
+		redoEdits.clear();
+		if(!undoEdits.isEmpty() && undoEdits.getLast().merge(argEdit, mergeTime)){
+			// merged
+		}else{
+			undoEdits.addLast(argEdit);
+			size += argEdit.getSize();
+		}
+		trim();
+		firePropertyChange(CAN_UNDO, oldUndo, canUndo());
+		firePropertyChange(CAN_REDO, oldRedo, false);
+	}
+	
+	private void trim(){
+		while(size > maxSize && undoEdits.size() > 1){
+			size -= undoEdits.removeFirst().getSize();
+		}
+	}
+	
+	private static abstract class Edit{
+		final long time = System.currentTimeMillis();
+		
+		abstract void undo();
+		abstract void redo();
+		
+		/**
+		 * @return the number of values this edit holds
+		 */
+		int getSize(){
+			return 1;
+		}
+		
+		/**
+		 * @return if the edit was merged into this one
+		 */
+		boolean merge(Edit argEdit, long argMergeTime){
+			return false;
+		}
+	}
+	
+	private static class CompoundEdit extends Edit{
+		final ArrayList<Edit> edits = new ArrayList<Edit>();
+		int size = 0;
+		
+		void add(Edit argEdit, long argMergeTime){
+			if(edits.isEmpty() || !edits.get(edits.size()-1).merge(argEdit, argMergeTime)){
+				edits.add(argEdit);
+				size += argEdit.getSize();
+			}
+		}
+		
+		@Override
+		void undo() {
+			for(int i=edits.size()-1; i>=0; i--){
+				edits.get(i).undo();
+			}
+		}
+		
+		@Override
+		void redo() {
+			for(Edit e : edits){
+				e.redo();
+			}
+		}
+		
+		@Override
+		int getSize() {
+			return size;
+		}
+	}
+	
+	private static class PropertyEdit extends Edit{
+		final HashModel model;
+		final String property;
+		final Object oldValue;
+		Object newValue;
+		long lastTime = time;
+		
+		PropertyEdit(HashModel argModel, String argProperty, Object argOld, Object argNew){
+			model = argModel;
+			property = argProperty;
+			oldValue = argOld;
+			newValue = argNew;
+		}
+		
+		@Override
+		void undo() {
+			model.setProperty(property, oldValue);
+		}
+		
+		@Override
+		void redo() {
+			model.setProperty(property, newValue);
+		}
+		
+		@Override
+		boolean merge(Edit argEdit, long argMergeTime) {
+			if(!(argEdit instanceof PropertyEdit)){
+				return false;
+			}
+			PropertyEdit other = (PropertyEdit) argEdit;
+			if(other.model != model || !other.property.equals(property) || other.time - lastTime > argMergeTime){
+				return false;
+			}
+			newValue = other.newValue;
+			lastTime = other.time;
+			return true;
+		}
+	}
+	
+	private static class ListEdit extends Edit{
+		final MVCArrayList<Object> list;
+		final int index;
+		final List<Object> elements;
+		final boolean added;
+		
+		ListEdit(MVCArrayList<Object> argList, int argIndex, List<Object> argElements, boolean argAdded){
+			list = argList;
+			index = argIndex;
+			elements = argElements;
+			added = argAdded;
+		}
+		
+		@Override
+		void undo() {
+			if(added){
+				remove();
+			}else{
+				add();
+			}
+		}
+		
+		@Override
+		void redo() {
+			if(added){
+				add();
+			}else{
+				remove();
+			}
+		}
+		
+		private void add(){
+			if(elements.size() == 1){
+				list.add(index, elements.get(0));
+			}else{
+				list.addAll(index, elements);
+			}
+		}
+		
+		private void remove(){
+			if(index == 0 && elements.size() == list.size()){
+				list.clear();
+			}else if(elements.size() == 1){
+				list.remove(index);
+			}else{
+				list.removeRange(index, index + elements.size());
+			}
+		}
+		
+		@Override
+		int getSize() {
+			return elements.size();
+		}
+	}
+	
+	private static class ListSetEdit extends Edit{
+		final MVCArrayList<Object> list;
+		final int index;
+		final Object oldValue;
+		final Object newValue;
+		
+		ListSetEdit(MVCArrayList<Object> argList, int argIndex, Object argOld, Object argNew){
+			list = argList;
+			index = argIndex;
+			oldValue = argOld;
+			newValue = argNew;
+		}
+		
+		@Override
+		void undo() {
+			list.set(index, oldValue);
+		}
+		
+		@Override
+		void redo() {
+			list.set(index, newValue);
+		}
+	}
+	
+	private static class ListRemoveAllEdit extends Edit{
+		final MVCArrayList<Object> list;
+		final int[] indexes;
+		final List<Object> elements;
+		
+		ListRemoveAllEdit(MVCArrayList<Object> argList, int[] argIndexes, List<Object> argElements){
+			list = argList;
+			indexes = argIndexes;
+			elements = argElements;
+		}
+		
+		@Override
+		void undo() {
+			// indexes are from before the remove, so add them back in order
+			for(int i=0; i<indexes.length; i++){
+				list.add(indexes[i], elements.get(i));
+			}
+		}
+		
+		@Override
+		void redo() {
+			// the filter is called for each element in order
+			list.removeAllMatching(new IFilter<Object>() {
+				int index = 0;
+				int next = 0;
+				
+				public boolean accept(Object argObject) {
+					boolean remove = next < indexes.length && indexes[next] == index;
+					index++;
+					if(remove){
+						next++;
+					}
+					return remove;
+				}
+			});
+		}
+		
+		@Override
+		int getSize() {
+			return elements.size();
+		}
+	}
+	
+	private static class ListSetAllEdit extends Edit{
+		final MVCArrayList<Object> list;
+		final int[] indexes;
+		final List<Object> oldValues;
+		final List<Object> newValues;
+		
+		ListSetAllEdit(MVCArrayList<Object> argList, int[] argIndexes, List<Object> argOld, List<Object> argNew){
+			list = argList;
+			indexes = argIndexes;
+			oldValues = argOld;
+			newValues = argNew;
+		}
+		
+		@Override
+		void undo() {
+			set(oldValues);
+		}
+		
+		@Override
+		void redo() {
+			set(newValues);
+		}
+		
+		private void set(final List<Object> argValues){
+			// the transformer is called for each element in order
+			list.transformAll(new ITransformer<Object, Object>() {
+				int index = 0;
+				int next = 0;
+				
+				public Object transform(Object argObject) {
+					Object ret = argObject;
+					if(next < indexes.length && indexes[next] == index){
+						ret = argValues.get(next++);
+					}
+					index++;
+					return ret;
+				}
+			});
+		}
+		
+		@Override
+		int getSize() {
+			return indexes.length;
+		}
+	}
+	
+	private static class SetEdit extends Edit{
+		final Set<Object> set;
+		final List<Object> elements;
+		final boolean added;
+		
+		SetEdit(Set<Object> argSet, List<Object> argElements, boolean argAdded){
+			set = argSet;
+			elements = argElements;
+			added = argAdded;
+		}
+		
+		@Override
+		void undo() {
+			if(added){
+				remove();
+			}else{
+				set.addAll(elements);
+			}
+		}
+		
+		@Override
+		void redo() {
+			if(added){
+				set.addAll(elements);
+			}else{
+				remove();
+			}
+		}
+		
+		private void remove(){
+			for(Object o : elements){
+				set.remove(o);
+			}
+		}
+		
+		@Override
+		int getSize() {
+			return elements.size();
+		}
+	}
+}
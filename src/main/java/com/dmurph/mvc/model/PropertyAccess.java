@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 11:03:18 AM
+ */
+package com.dmurph.mvc.model;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
+import com.dmurph.mvc.I18n;
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.support.MVCPropertiesChangedEvent;
+
+/**
+ * Reads, writes and listens to properties by name, for the models that have named
+ * properties: {@link HashModel}, generated models (see {@link GenerateModel}) and
+ * {@link ComputedProperty} (which only has {@link ComputedProperty#VALUE}).
+ * @author Daniel Murphy
+ */
+final class PropertyAccess {
+	
+	private PropertyAccess(){}
+	
+	static Object getProperty(IModel argModel, String argPropertyName){
+		if(argModel instanceof HashModel){
+			return ((HashModel) argModel).getProperty(argPropertyName);
+		}else if(argModel instanceof AbstractGeneratedModel){
+			return ((AbstractGeneratedModel) argModel).getProperty(argPropertyName);
+		}else if(argModel instanceof ComputedProperty<?>){
+			return ((ComputedProperty<?>) argModel).getValue();
+		}
+		throw new IllegalArgumentException(I18n.getText("model.notBindable", argModel.getClass().getName()));
+	}
+	
+	static void setProperty(IModel argModel, String argPropertyName, Object argValue){
+		if(argModel instanceof HashModel){
+			((HashModel) argModel).setProperty(argPropertyName, argValue);
+		}else if(argModel instanceof AbstractGeneratedModel){
+			((AbstractGeneratedModel) argModel).setProperty(argPropertyName, argValue);
+		}else{
+			throw new IllegalArgumentException(I18n.getText("model.notBindable", argModel.getClass().getName()));
+		}
+	}
+	
+	/**
+	 * Listens to a property.  {@link HashModel}s fire the changes made in an update
+	 * as one {@link HashModel#PROPERTIES_CHANGED} event, so that's listened to as well.
+	 */
+	static void listen(IModel argModel, String argPropertyName, PropertyChangeListener argListener, boolean argWeak){
+		if(argWeak){
+			argModel.addWeakPropertyChangeListener(argPropertyName, argListener);
+			if(argModel instanceof HashModel){
+				argModel.addWeakPropertyChangeListener(HashModel.PROPERTIES_CHANGED, argListener);
+			}
+		}else{
+			argModel.addPropertyChangeListener(argPropertyName, argListener);
+			if(argModel instanceof HashModel){
+				argModel.addPropertyChangeListener(HashModel.PROPERTIES_CHANGED, argListener);
+			}
+		}
+	}
+	
+	static void stopListening(IModel argModel, String argPropertyName, PropertyChangeListener argListener){
+		argModel.removePropertyChangeListener(argPropertyName, argListener);
+		if(argModel instanceof HashModel){
+			argModel.removePropertyChangeListener(HashModel.PROPERTIES_CHANGED, argListener);
+		}
+	}
+	
+	/**
+	 * @return if the event changed the property, checking the properties
+	 * 		   of a {@link MVCPropertiesChangedEvent}
+	 */
+	static boolean isChanged(PropertyChangeEvent argEvt, String argPropertyName){
+		if(argEvt instanceof MVCPropertiesChangedEvent){
+			return ((MVCPropertiesChangedEvent) argEvt).getPropertyNames().contains(argPropertyName);
+		}
+		return argPropertyName.equals(argEvt.getPropertyName());
+	}
+	
+	/**
+	 * @return the new value of the property from the event
+	 */
+	static Object getNewValue(PropertyChangeEvent argEvt, String argPropertyName){
+		if(argEvt instanceof MVCPropertiesChangedEvent){
+			return ((MVCPropertiesChangedEvent) argEvt).getNewValue(argPropertyName);
+		}
+		return argEvt.getNewValue();
+	}
+	
+	static boolean equal(Object argOne, Object argTwo){
+		return argOne == argTwo || (argOne != null && argOne.equals(argTwo));
+	}
+}
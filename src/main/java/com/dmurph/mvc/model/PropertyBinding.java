@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 11:58:27 AM
+ */
+package com.dmurph.mvc.model;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
+import com.dmurph.mvc.IModel;
+
+/**
+ * Binds a property of one model to a property of another model, so when the source property
+ * changes the target property is set to the same value.  Properties of {@link HashModel}s and
+ * generated models (see {@link GenerateModel}) can be bound, and a {@link ComputedProperty} can
+ * be the source, in which case it's computed again as soon as it's invalidated.  The target is set
+ * when the binding is made.  Bindings listen with strong listeners, so they last until
+ * {@link #unbind()} is called, and a computed source isn't garbage collected while it's bound.
+ * @author Daniel Murphy
+ * @see ComputedProperty
+ */
+public class PropertyBinding {
+	
+	private final IModel source;
+	private final String sourceProperty;
+	private final IModel target;
+	private final String targetProperty;
+	private final boolean bidirectional;
+	private boolean updating = false;
+	private boolean bound = true;
+	
+	private final PropertyChangeListener sourceListener = new PropertyChangeListener() {
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			if(source instanceof ComputedProperty<?> || PropertyAccess.isChanged(argEvt, sourceProperty)){
+				update(source, sourceProperty, target, targetProperty);
+			}
+		}
+	};
+	
+	private final PropertyChangeListener targetListener = new PropertyChangeListener() {
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			if(PropertyAccess.isChanged(argEvt, targetProperty)){
+				update(target, targetProperty, source, sourceProperty);
+			}
+		}
+	};
+	
+	private PropertyBinding(IModel argSource, String argSourceProperty, IModel argTarget, String argTargetProperty,
+							boolean argBidirectional){
+		source = argSource;
+		sourceProperty = argSourceProperty;
+		target = argTarget;
+		targetProperty = argTargetProperty;
+		bidirectional = argBidirectional;
+		
+		update(source, sourceProperty, target, targetProperty);
+		PropertyAccess.listen(source, sourceProperty, sourceListener, false);
+		if(bidirectional){
+			PropertyAccess.listen(target, targetProperty, targetListener, false);
+		}
+	}
+	
+	/**
+	 * Binds the target property to the source property.
+	 * @param argSource
+	 * @param argSourceProperty
+	 * @param argTarget
+	 * @param argTargetProperty
+	 * @return the binding, to unbind it
+	 * @throws IllegalArgumentException if either model doesn't have named properties
+	 */
+	public static PropertyBinding bind(IModel argSource, String argSourceProperty, IModel argTarget, String argTargetProperty){
+		return new PropertyBinding(argSource, argSourceProperty, argTarget, argTargetProperty, false);
+	}
+	
+	/**
+	 * Binds the target property to the value of a computed property.
+	 * @param argSource
+	 * @param argTarget
+	 * @param argTargetProperty
+	 * @return the binding, to unbind it
+	 * @throws IllegalArgumentException if the target doesn't have named properties
+	 */
+	public static PropertyBinding bind(ComputedProperty<?> argSource, IModel argTarget, String argTargetProperty){
+		return new PropertyBinding(argSource, ComputedProperty.VALUE, argTarget, argTargetProperty, false);
+	}
+	
+	/**
+	 * Binds two properties to each other, so changing either one sets the other.
+	 * The second property is set to the first when they're bound.
+	 * @param argFirst
+	 * @param argFirstProperty
+	 * @param argSecond
+	 * @param argSecondProperty
+	 * @return the binding, to unbind it
+	 * @throws IllegalArgumentException if either model doesn't have named properties
+	 */
+	public static PropertyBinding bindBidirectional(IModel argFirst, String argFirstProperty, IModel argSecond,
+													 String argSecondProperty){
+		return new PropertyBinding(argFirst, argFirstProperty, argSecond, argSecondProperty, true);
+	}
+	
+	/**
+	 * @return if the binding hasn't been unbound
+	 */
+	public boolean isBound(){
+		return bound;
+	}
+	
+	/**
+	 * Stops updating the properties.
+	 */
+	public void unbind(){
+		if(!bound){
+			return;
+		}
+		bound = false;
+		PropertyAccess.stopListening(source, sourceProperty, sourceListener);
+		if(bidirectional){
+			PropertyAccess.stopListening(target, targetProperty, targetListener);
+		}
+	}
+	
+	private void update(IModel argFrom, String argFromProperty, IModel argTo, String argToProperty){
+		// don't bounce the change back from the other property
+		if(updating || !bound){
+			return;
+		}
+		updating = true;
+		try{
+			Object value = PropertyAccess.getProperty(argFrom, argFromProperty);
+			if(!PropertyAccess.equal(value, PropertyAccess.getProperty(argTo, argToProperty))){
+				PropertyAccess.setProperty(argTo, argToProperty, value);
+			}
+		}finally{
+			updating = false;
+		}
+	}
+}
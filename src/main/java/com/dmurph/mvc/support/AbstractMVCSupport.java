@@ -52,6 +52,9 @@ public abstract class AbstractMVCSupport extends AbstractModel implements IClone
 	 * Default just calls {@link IDirtyable#isDirty()} if the object
 	 * is {@link IDirtyable}, but override
 	 * to protect against loops (if the property tree goes in a loop).
+	 * {@link com.dmurph.mvc.model.HashModel} keeps track of the dirty state of it's
+	 * properties as they change, so it calls this when a property is set or fires a
+	 * change, not every time it's asked if it's dirty.
 	 * @see #isDeepMVCEnabled(String)
 	 */
 	protected boolean isDirtyImpl(String argProperty, Object argObject){
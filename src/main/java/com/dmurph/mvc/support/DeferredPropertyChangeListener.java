@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 6:34:19 AM
+ */
+package com.dmurph.mvc.support;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executor;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Wraps a listener so it gets property change events later, on another thread, instead of
+ * on the thread that changed the model.  Add this to a model in place of the listener (and
+ * remove it the same way), so only that listener is deferred and every other listener of the
+ * model still gets events right away.  {@link MVCPropertyChangeSupport} also removes this when
+ * asked to remove the wrapped listener.<br/>
+ * <br/>
+ * Events are queued, and the executor is given one task at a time that delivers every event
+ * queued when it runs, in the order they were fired.  With {@link #EDT} (the default), a model
+ * changed by a worker thread has it's events delivered once per trip through the Swing event
+ * queue, on the event dispatch thread, no matter how quickly it's changed.<br/>
+ * <br/>
+ * If coalescing, a plain {@link PropertyChangeEvent} replaces the queued event for the same
+ * source and property in its place in the queue, keeping the first old value and the last new value,
+ * so the listener only sees the latest value.  The mvc events for collections (like {@link MVCPropertyAddedEvent})
+ * are never coalesced, as each one describes a different change.
+ * @author Daniel Murphy
+ */
+public class DeferredPropertyChangeListener implements PropertyChangeListener {
+	
+	/**
+	 * Runs tasks on the Swing event dispatch thread, with {@link SwingUtilities#invokeLater(Runnable)}.
+	 */
+	public static final Executor EDT = new Executor() {
+		public void execute(Runnable argCommand) {
+			SwingUtilities.invokeLater(argCommand);
+		}
+	};
+	
+	private final PropertyChangeListener listener;
+	private final Executor executor;
+	private final boolean coalesce;
+	
+	// keyed by the source and property for plain events, or the event itself for the others
+	private LinkedHashMap<Object, PropertyChangeEvent> queued = new LinkedHashMap<Object, PropertyChangeEvent>();
+	private boolean scheduled = false;
+	
+	private final Runnable flush = new Runnable() {
+		public void run() {
+			flush();
+		}
+	};
+	
+	/**
+	 * Delivers events to the listener on the event dispatch thread, coalescing
+	 * changes to the same property.
+	 * @param argListener
+	 */
+	public DeferredPropertyChangeListener(PropertyChangeListener argListener){
+		this(argListener, EDT, true);
+	}
+	
+	/**
+	 * @param argListener the listener to deliver the events to
+	 * @param argExecutor runs the tasks that deliver the events
+	 * @param argCoalesce if queued changes to the same property should be combined
+	 */
+	public DeferredPropertyChangeListener(PropertyChangeListener argListener, Executor argExecutor, boolean argCoalesce){
+		if(argListener == null || argExecutor == null){
+			throw new NullPointerException();
+		}
+		listener = argListener;
+		executor = argExecutor;
+		coalesce = argCoalesce;
+	}
+	
+	/**
+	 * @return the listener the events are delivered to
+	 */
+	public PropertyChangeListener getListener(){
+		return listener;
+	}
+	
+	/**
+	 * Queues the event, and gives the executor a task to deliver it if there
+	 * isn't one already waiting.
+	 * @see java.beans.PropertyChangeListener#propertyChange(java.beans.PropertyChangeEvent)
+	 */
+	public void propertyChange(PropertyChangeEvent argEvt) {
+		boolean schedule;
+		synchronized (this) {
+			queue(argEvt);
+			schedule = !scheduled;
+			scheduled = true;
+		}
+		if(schedule){
+			executor.execute(flush);
+		}
+	}
+	
+	private void queue(PropertyChangeEvent argEvt){
+		if(!coalesce || argEvt.getClass() != PropertyChangeEvent.class || argEvt.getPropertyName() == null){
+			queued.put(argEvt, argEvt);
+			return;
+		}
+		PropertyKey key = new PropertyKey(argEvt.getSource(), argEvt.getPropertyName());
+		PropertyChangeEvent old = queued.get(key);
+		if(old == null){
+			queued.put(key, argEvt);
+			return;
+		}
+		Object oldValue = old.getOldValue();
+		Object newValue = argEvt.getNewValue();
+		if(MVCPropertyChangeSupport.isUnchanged(oldValue, newValue)){
+			queued.remove(key);
+			return; // changed back, so there's nothing to deliver
+		}
+		PropertyChangeEvent merged = new PropertyChangeEvent(argEvt.getSource(), argEvt.getPropertyName(), oldValue, newValue);
+		merged.setPropagationId(argEvt.getPropagationId());
+		// replacing the value of a key keeps its place in the queue
+		queued.put(key, merged);
+	}
+	
+	// delivers the queued events until there are none left
+	private void flush(){
+		for(;;){
+			ArrayList<PropertyChangeEvent> events;
+			synchronized (this) {
+				if(queued.isEmpty()){
+					scheduled = false;
+					return;
+				}
+				events = new ArrayList<PropertyChangeEvent>(queued.values());
+				queued = new LinkedHashMap<Object, PropertyChangeEvent>();
+			}
+			for(PropertyChangeEvent evt : events){
+				listener.propertyChange(evt);
+			}
+		}
+	}
+	
+	private static class PropertyKey {
+		private final Object source;
+		private final String name;
+		
+		public PropertyKey(Object argSource, String argName){
+			source = argSource;
+			name = argName;
+		}
+		
+		@Override
+		public boolean equals(Object argOther) {
+			if(!(argOther instanceof PropertyKey)){
+				return false;
+			}
+			PropertyKey other = (PropertyKey) argOther;
+			return source == other.source && name.equals(other.name);
+		}
+		
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(source) * 31 + name.hashCode();
+		}
+	}
+}
@@ -0,0 +1,281 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 10:48:51 AM
+ */
+package com.dmurph.mvc.support;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+
+import com.dmurph.mvc.IDirtyable;
+import com.dmurph.mvc.IModel;
+
+/**
+ * Keeps track of which children of a model are dirty, so the model doesn't have to ask
+ * every child when {@link IDirtyable#isDirty()} is called.  Children that are {@link IModel}s
+ * are listened to, and when they fire a property change their dirty state is checked again
+ * with {@link IDirtySupportable#isChildDirty(Object)}.  Children that are only {@link IDirtyable}
+ * are checked when they are added and when {@link #refresh()} is called.<br/>
+ * <br/>
+ * Children are kept by identity, and can be added more than once (like in a list), in which
+ * case they have to be removed the same number of times.  Only one listener is added to each child.
+ * @author Daniel Murphy
+ */
+public class DirtySupport {
+	
+	private final Object owner;
+	private final IDirtySupportable supportable;
+	
+	// child -> number of times it was added
+	private final IdentityHashMap<Object, int[]> children = new IdentityHashMap<Object, int[]>();
+	private final IdentityHashMap<Object, Object> dirtyChildren = new IdentityHashMap<Object, Object>();
+	
+	private final PropertyChangeListener childListener = new PropertyChangeListener() {
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			update(argEvt.getSource());
+		}
+	};
+	
+	/**
+	 * @param argOwner the owner of the children, which is never tracked as it's own child
+	 * @param argSupportable
+	 */
+	public DirtySupport(Object argOwner, IDirtySupportable argSupportable){
+		owner = argOwner;
+		supportable = argSupportable;
+	}
+	
+	/**
+	 * Adds a child.  Does nothing if the child isn't {@link IDirtyable}.
+	 * @param argChild
+	 */
+	public void addChild(Object argChild){
+		if(argChild == owner || !(argChild instanceof IDirtyable)){
+			return;
+		}
+		// don't ask the child while we're locked, it might be locked by another thread that
+		// is waiting on us
+		boolean dirty = supportable.isChildDirty(argChild);
+		boolean changed;
+		synchronized (this) {
+			int[] count = children.get(argChild);
+			if(count == null){
+				children.put(argChild, new int[]{1});
+				if(argChild instanceof IModel){
+					((IModel) argChild).addPropertyChangeListener(childListener);
+				}
+			}else{
+				count[0]++;
+			}
+			changed = setChildDirty(argChild, dirty);
+		}
+		if(changed){
+			supportable.dirtyChildrenChanged(dirty);
+		}
+	}
+	
+	/**
+	 * Removes a child.  If the child was added more than once, it is still tracked.
+	 * @param argChild
+	 */
+	public void removeChild(Object argChild){
+		if(argChild == owner || !(argChild instanceof IDirtyable)){
+			return;
+		}
+		boolean changed = false;
+		synchronized (this) {
+			int[] count = children.get(argChild);
+			if(count == null){
+				return;
+			}
+			count[0]--;
+			if(count[0] == 0){
+				children.remove(argChild);
+				if(argChild instanceof IModel){
+					((IModel) argChild).removePropertyChangeListener(childListener);
+				}
+				changed = setChildDirty(argChild, false);
+			}
+		}
+		if(changed){
+			supportable.dirtyChildrenChanged(false);
+		}
+	}
+	
+	/**
+	 * Adds each of the children, locking once and telling the {@link IDirtySupportable} at
+	 * most once if {@link #hasDirtyChildren()} changed.
+	 * @param argChildren
+	 * @see #addChild(Object)
+	 */
+	public void addChildren(Collection<?> argChildren){
+		ArrayList<Object> added = new ArrayList<Object>(argChildren.size());
+		ArrayList<Boolean> dirty = new ArrayList<Boolean>(argChildren.size());
+		for(Object child : argChildren){
+			if(child == owner || !(child instanceof IDirtyable)){
+				continue;
+			}
+			added.add(child);
+			dirty.add(supportable.isChildDirty(child));
+		}
+		if(added.isEmpty()){
+			return;
+		}
+		boolean before;
+		boolean after;
+		synchronized (this) {
+			before = !dirtyChildren.isEmpty();
+			for(int i=0; i<added.size(); i++){
+				Object child = added.get(i);
+				int[] count = children.get(child);
+				if(count == null){
+					children.put(child, new int[]{1});
+					if(child instanceof IModel){
+						((IModel) child).addPropertyChangeListener(childListener);
+					}
+				}else{
+					count[0]++;
+				}
+				setChildDirty(child, dirty.get(i));
+			}
+			after = !dirtyChildren.isEmpty();
+		}
+		if(before != after){
+			supportable.dirtyChildrenChanged(after);
+		}
+	}
+	
+	/**
+	 * Removes each of the children, locking once and telling the {@link IDirtySupportable} at
+	 * most once if {@link #hasDirtyChildren()} changed.
+	 * @param argChildren
+	 * @see #removeChild(Object)
+	 */
+	public void removeChildren(Collection<?> argChildren){
+		boolean before;
+		boolean after;
+		synchronized (this) {
+			before = !dirtyChildren.isEmpty();
+			for(Object child : argChildren){
+				if(child == owner || !(child instanceof IDirtyable)){
+					continue;
+				}
+				int[] count = children.get(child);
+				if(count == null){
+					continue;
+				}
+				count[0]--;
+				if(count[0] == 0){
+					children.remove(child);
+					if(child instanceof IModel){
+						((IModel) child).removePropertyChangeListener(childListener);
+					}
+					setChildDirty(child, false);
+				}
+			}
+			after = !dirtyChildren.isEmpty();
+		}
+		if(before != after){
+			supportable.dirtyChildrenChanged(after);
+		}
+	}
+	
+	/**
+	 * Removes all children.
+	 */
+	public void clear(){
+		boolean changed;
+		synchronized (this) {
+			for(Object child : children.keySet()){
+				if(child instanceof IModel){
+					((IModel) child).removePropertyChangeListener(childListener);
+				}
+			}
+			children.clear();
+			changed = !dirtyChildren.isEmpty();
+			dirtyChildren.clear();
+		}
+		if(changed){
+			supportable.dirtyChildrenChanged(false);
+		}
+	}
+	
+	/**
+	 * Checks the dirty state of every child again.  Should be called after
+	 * the children are saved or reverted, as not all children tell us when that happens.
+	 */
+	public void refresh(){
+		ArrayList<Object> copy;
+		synchronized (this) {
+			copy = new ArrayList<Object>(children.keySet());
+		}
+		for(Object child : copy){
+			update(child);
+		}
+	}
+	
+	/**
+	 * @return if any of the children are dirty
+	 */
+	public synchronized boolean hasDirtyChildren(){
+		return !dirtyChildren.isEmpty();
+	}
+	
+	/**
+	 * @return the number of (distinct) dirty children
+	 */
+	public synchronized int getDirtyChildCount(){
+		return dirtyChildren.size();
+	}
+	
+	private void update(Object argChild){
+		boolean dirty = supportable.isChildDirty(argChild);
+		boolean changed;
+		synchronized (this) {
+			if(!children.containsKey(argChild)){
+				return;
+			}
+			changed = setChildDirty(argChild, dirty);
+		}
+		if(changed){
+			supportable.dirtyChildrenChanged(dirty);
+		}
+	}
+	
+	// returns if hasDirtyChildren() changed
+	private boolean setChildDirty(Object argChild, boolean argDirty){
+		if(argDirty){
+			boolean wasEmpty = dirtyChildren.isEmpty();
+			dirtyChildren.put(argChild, argChild);
+			return wasEmpty;
+		}else{
+			if(dirtyChildren.remove(argChild) == null){
+				return false;
+			}
+			return dirtyChildren.isEmpty();
+		}
+	}
+}
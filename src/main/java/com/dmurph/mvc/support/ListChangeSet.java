@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 12:10:44 AM
+ */
+package com.dmurph.mvc.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Accumulates the changes to a list as ranges of elements that were added, removed, or set, merging each
+ * change into the last one when they touch.  So adding elements one at a time to the end of a list is
+ * recorded as a single range, and removing elements that were added in the same change set takes them
+ * out of the added range instead of recording another change.  The changes are in the order they
+ * happened, so the index of each change is for the list after the changes before it.
+ * @author Daniel Murphy
+ */
+public class ListChangeSet<E> {
+	public static final int ADD = 0;
+	public static final int REMOVE = 1;
+	public static final int SET = 2;
+	
+	private final ArrayList<Change<E>> changes = new ArrayList<Change<E>>();
+	
+	/**
+	 * Records that elements were added
+	 * @param argIndex the index of the first element added
+	 * @param argElements the elements
+	 */
+	public void recordAdd(int argIndex, Collection<? extends E> argElements){
+		if(argElements.isEmpty()){
+			return;
+		}
+		Change<E> last = getLast();
+		if(last != null && last.type == ADD && argIndex >= last.index && argIndex <= last.index + last.getCount()){
+			last.elements.addAll(argIndex - last.index, argElements);
+			return;
+		}
+		changes.add(new Change<E>(ADD, argIndex, argElements, null));
+	}
+	
+	/**
+	 * Records that elements next to each other were removed
+	 * @param argIndex the index of the first element removed
+	 * @param argElements the elements
+	 */
+	public void recordRemove(int argIndex, Collection<? extends E> argElements){
+		int count = argElements.size();
+		if(count == 0){
+			return;
+		}
+		Change<E> last = getLast();
+		if(last != null){
+			if(last.type == ADD && argIndex >= last.index && argIndex + count <= last.index + last.getCount()){
+				last.elements.subList(argIndex - last.index, argIndex - last.index + count).clear();
+				if(last.elements.isEmpty()){
+					changes.remove(changes.size() - 1);
+				}
+				return;
+			}
+			if(last.type == REMOVE){
+				if(argIndex == last.index){
+					last.elements.addAll(argElements);
+					return;
+				}
+				if(argIndex + count == last.index){
+					last.elements.addAll(0, argElements);
+					last.index = argIndex;
+					return;
+				}
+			}
+		}
+		changes.add(new Change<E>(REMOVE, argIndex, argElements, null));
+	}
+	
+	/**
+	 * Records that elements were removed
+	 * @param argIndexes the index of each element, in ascending order, from before
+	 * 		  anything was removed
+	 * @param argElements the elements
+	 */
+	public void recordRemoveAll(int[] argIndexes, List<? extends E> argElements){
+		int removed = 0;
+		int start = 0;
+		while(start < argIndexes.length){
+			int end = start + 1;
+			while(end < argIndexes.length && argIndexes[end] == argIndexes[end - 1] + 1){
+				end++;
+			}
+			recordRemove(argIndexes[start] - removed, argElements.subList(start, end));
+			removed += end - start;
+			start = end;
+		}
+	}
+	
+	/**
+	 * Records that an element was set
+	 * @param argIndex
+	 * @param argOld
+	 * @param argNew
+	 */
+	public void recordSet(int argIndex, E argOld, E argNew){
+		Change<E> last = getLast();
+		if(last != null){
+			if(last.type == ADD && argIndex >= last.index && argIndex < last.index + last.getCount()){
+				last.elements.set(argIndex - last.index, argNew);
+				return;
+			}
+			if(last.type == SET && argIndex >= last.index && argIndex <= last.index + last.getCount()){
+				if(argIndex < last.index + last.getCount()){
+					last.elements.set(argIndex - last.index, argNew);
+				}else{
+					last.elements.add(argNew);
+					last.oldElements.add(argOld);
+				}
+				return;
+			}
+		}
+		changes.add(new Change<E>(SET, argIndex, Collections.singletonList(argNew), Collections.singletonList(argOld)));
+	}
+	
+	/**
+	 * Records that elements were set
+	 * @param argIndexes the index of each element
+	 * @param argOldElements
+	 * @param argNewElements
+	 */
+	public void recordSetAll(int[] argIndexes, List<? extends E> argOldElements, List<? extends E> argNewElements){
+		for(int i=0; i<argIndexes.length; i++){
+			recordSet(argIndexes[i], argOldElements.get(i), argNewElements.get(i));
+		}
+	}
+	
+	/**
+	 * @return the changes, in the order they happened
+	 */
+	public List<Change<E>> getChanges(){
+		return Collections.unmodifiableList(changes);
+	}
+	
+	public boolean isEmpty(){
+		return changes.isEmpty();
+	}
+	
+	public void clear(){
+		changes.clear();
+	}
+	
+	private Change<E> getLast(){
+		return changes.isEmpty() ? null : changes.get(changes.size() - 1);
+	}
+	
+	/**
+	 * A range of elements that were added, removed or set.
+	 */
+	public static class Change<E> {
+		private final int type;
+		private int index;
+		private final ArrayList<E> elements;
+		private final ArrayList<E> oldElements;
+		
+		private Change(int argType, int argIndex, Collection<? extends E> argElements, Collection<? extends E> argOldElements){
+			type = argType;
+			index = argIndex;
+			elements = new ArrayList<E>(argElements);
+			oldElements = argOldElements == null ? null : new ArrayList<E>(argOldElements);
+		}
+		
+		/**
+		 * @return {@link ListChangeSet#ADD}, {@link ListChangeSet#REMOVE}, or {@link ListChangeSet#SET}
+		 */
+		public int getType(){
+			return type;
+		}
+		
+		/**
+		 * @return the index of the first element
+		 */
+		public int getIndex(){
+			return index;
+		}
+		
+		public int getCount(){
+			return elements.size();
+		}
+		
+		/**
+		 * @return the elements added or removed, or the new elements if they were set
+		 */
+		public List<E> getElements(){
+			return Collections.unmodifiableList(elements);
+		}
+		
+		/**
+		 * @return the old elements if they were set, otherwise null
+		 */
+		public List<E> getOldElements(){
+			return oldElements == null ? null : Collections.unmodifiableList(oldElements);
+		}
+	}
+}
@@ -0,0 +1,327 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 1:15:32 PM
+ */
+package com.dmurph.mvc.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps track of the saved state of a list without copying the list on every save.  Instead
+ * of a copy, a log of the changes since the last save is kept, and the saved state is the current
+ * list with the changes undone.  This makes {@link #save()} constant time, and the memory used is
+ * proportional to the number of changes instead of the size of the list.  A bulk removal is logged
+ * with the elements it removed, so it costs as much as those elements.  If the log gets longer
+ * than the list, it's replaced by a copy of the saved list, so the memory is never more than
+ * a plain copy would use.<br/>
+ * <br/>
+ * The list should call the <code>record</code> methods after every change.
+ * @author Daniel Murphy
+ */
+public class ListRevertSupport<E> {
+	private static final int ADD = 0;
+	private static final int REMOVE = 1;
+	private static final int SET = 2;
+	
+	private static final int MIN_LOG_SIZE = 16;
+	
+	private int[] ops = new int[MIN_LOG_SIZE];
+	private int[] indexes = new int[MIN_LOG_SIZE];
+	private int[] counts = new int[MIN_LOG_SIZE];
+	// the element of a change, or an Object[] of the elements of a bulk removal
+	private Object[] values = new Object[MIN_LOG_SIZE];
+	private int logSize = 0;
+	// the number of entries plus the elements of bulk removals, compared to the list size
+	private int logCost = 0;
+	
+	// copy of the saved list, if the log got too long
+	private ArrayList<E> snapshot = null;
+	private boolean recording = true;
+	
+	/**
+	 * Records that elements were added
+	 * @param argIndex the index of the first element added
+	 * @param argCount the number of elements added
+	 * @param argCurrent the list, after the elements were added
+	 */
+	public void recordAdd(int argIndex, int argCount, List<E> argCurrent){
+		if(log(ADD, argIndex, argCount, null)){
+			checkLogSize(argCurrent);
+		}
+	}
+	
+	/**
+	 * Records that an element was removed
+	 * @param argIndex the index of the element removed
+	 * @param argOld the element
+	 * @param argCurrent the list, after the element was removed
+	 */
+	public void recordRemove(int argIndex, E argOld, List<E> argCurrent){
+		if(log(REMOVE, argIndex, 1, argOld)){
+			checkLogSize(argCurrent);
+		}
+	}
+	
+	/**
+	 * Records that elements were removed.  The elements removed are logged as one change.
+	 * @param argIndex index of the first element removed
+	 * @param argRemoved the elements removed
+	 * @param argCurrent the list, after the elements were removed
+	 */
+	public void recordRemoveAll(int argIndex, Collection<? extends E> argRemoved, List<E> argCurrent){
+		if(argRemoved.isEmpty()){
+			return;
+		}
+		if(logRemoveRange(argIndex, argRemoved.toArray())){
+			checkLogSize(argCurrent);
+		}
+	}
+	
+	/**
+	 * Records that elements that weren't next to each other were removed.  Each run of
+	 * elements that were next to each other is logged as one change.
+	 * @param argIndexes the index of each element removed, in ascending order, from before
+	 * 					 anything was removed
+	 * @param argRemoved the elements removed, in the same order as the indexes
+	 * @param argCurrent the list, after the elements were removed
+	 */
+	public void recordRemoveAll(int[] argIndexes, List<? extends E> argRemoved, List<E> argCurrent){
+		if(!recording || snapshot != null || argIndexes.length == 0){
+			return;
+		}
+		// the last run first, so the indexes of the runs before it don't move
+		int end = argIndexes.length;
+		while(end > 0){
+			int start = end - 1;
+			while(start > 0 && argIndexes[start - 1] == argIndexes[start] - 1){
+				start--;
+			}
+			logRemoveRange(argIndexes[start], argRemoved.subList(start, end).toArray());
+			end = start;
+		}
+		checkLogSize(argCurrent);
+	}
+	
+	/**
+	 * Records that elements were replaced.  Every replacement is logged before the log
+	 * size is checked, as the list already has all the new elements.
+	 * @param argIndexes index of each element
+	 * @param argOld the elements that were replaced, in the same order as the indexes
+	 * @param argCurrent the list, after the elements were replaced
+	 */
+	public void recordSetAll(int[] argIndexes, List<? extends E> argOld, List<E> argCurrent){
+		if(!recording || snapshot != null || argIndexes.length == 0){
+			return;
+		}
+		for(int i=0; i<argIndexes.length; i++){
+			log(SET, argIndexes[i], 1, argOld.get(i));
+		}
+		checkLogSize(argCurrent);
+	}
+	
+	/**
+	 * Records that an element was replaced
+	 * @param argIndex index of the element
+	 * @param argOld the element that was replaced
+	 * @param argCurrent the list, after the element was replaced
+	 */
+	public void recordSet(int argIndex, E argOld, List<E> argCurrent){
+		if(log(SET, argIndex, 1, argOld)){
+			checkLogSize(argCurrent);
+		}
+	}
+	
+	/**
+	 * Sets if changes are recorded.  Turn this off when the list is being reverted.
+	 * @param argRecording
+	 */
+	public void setRecording(boolean argRecording){
+		recording = argRecording;
+	}
+	
+	/**
+	 * @return if anything was recorded since the last save
+	 */
+	public boolean isChanged(){
+		return logSize > 0 || snapshot != null;
+	}
+	
+	/**
+	 * Makes the current state of the list the saved state.
+	 */
+	public void save(){
+		clearLog();
+		snapshot = null;
+	}
+	
+	/**
+	 * Makes the given list the saved state, regardless of the current state of the list.
+	 * @param argSaved
+	 */
+	public void setSaved(Collection<? extends E> argSaved){
+		clearLog();
+		snapshot = new ArrayList<E>(argSaved);
+	}
+	
+	/**
+	 * Gets a copy of the saved list.
+	 * @param argCurrent the current list
+	 * @return
+	 */
+	public ArrayList<E> getSaved(List<E> argCurrent){
+		if(snapshot != null){
+			return new ArrayList<E>(snapshot);
+		}
+		return undo(new ArrayList<E>(argCurrent));
+	}
+	
+	/**
+	 * Reverts the list to the saved state by undoing each recorded change.  The changes
+	 * are undone through the list methods, so the list fires it's normal events.  If
+	 * a copy of the saved list was being kept, the list is cleared and the saved elements
+	 * are added back.  Recording is turned off while reverting, and the log is
+	 * cleared after.
+	 * @param argList the list to revert
+	 */
+	@SuppressWarnings("unchecked")
+	public void revert(List<E> argList){
+		recording = false;
+		try{
+			if(snapshot != null){
+				argList.clear();
+				argList.addAll(snapshot);
+			}else{
+				for(int i=logSize-1; i>=0; i--){
+					switch(ops[i]){
+						case ADD:
+							if(counts[i] == 1){
+								argList.remove(indexes[i]);
+							}else{
+								argList.subList(indexes[i], indexes[i] + counts[i]).clear();
+							}
+							break;
+						case REMOVE:
+							if(counts[i] == 1){
+								argList.add(indexes[i], (E) values[i]);
+							}else{
+								argList.addAll(indexes[i], (List<E>) Arrays.asList((Object[]) values[i]));
+							}
+							break;
+						case SET:
+							argList.set(indexes[i], (E) values[i]);
+							break;
+					}
+				}
+			}
+		}finally{
+			recording = true;
+		}
+		save();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private ArrayList<E> undo(ArrayList<E> argList){
+		for(int i=logSize-1; i>=0; i--){
+			switch(ops[i]){
+				case ADD:
+					argList.subList(indexes[i], indexes[i] + counts[i]).clear();
+					break;
+				case REMOVE:
+					if(counts[i] == 1){
+						argList.add(indexes[i], (E) values[i]);
+					}else{
+						argList.addAll(indexes[i], (List<E>) Arrays.asList((Object[]) values[i]));
+					}
+					break;
+				case SET:
+					argList.set(indexes[i], (E) values[i]);
+					break;
+			}
+		}
+		return argList;
+	}
+	
+	// logs the removal of elements that were next to each other, returning if it was logged
+	private boolean logRemoveRange(int argIndex, Object[] argRemoved){
+		if(argRemoved.length == 1){
+			return log(REMOVE, argIndex, 1, argRemoved[0]);
+		}
+		if(!log(REMOVE, argIndex, argRemoved.length, argRemoved)){
+			return false;
+		}
+		logCost += argRemoved.length - 1;
+		return true;
+	}
+	
+	// adds a change to the log, returning if it was logged
+	private boolean log(int argOp, int argIndex, int argCount, Object argValue){
+		if(!recording || snapshot != null){
+			return false;
+		}
+		if(logSize == ops.length){
+			int newLength = ops.length * 2;
+			ops = copyOf(ops, newLength);
+			indexes = copyOf(indexes, newLength);
+			counts = copyOf(counts, newLength);
+			Object[] newValues = new Object[newLength];
+			System.arraycopy(values, 0, newValues, 0, logSize);
+			values = newValues;
+		}
+		ops[logSize] = argOp;
+		indexes[logSize] = argIndex;
+		counts[logSize] = argCount;
+		values[logSize] = argValue;
+		logSize++;
+		logCost++;
+		return true;
+	}
+	
+	// replaces the log with a copy of the saved list if it got longer than the list
+	private void checkLogSize(List<E> argCurrent){
+		if(logCost > MIN_LOG_SIZE && logCost > argCurrent.size()){
+			snapshot = undo(new ArrayList<E>(argCurrent));
+			clearLog();
+		}
+	}
+	
+	private void clearLog(){
+		Arrays.fill(values, 0, logSize, null);
+		logSize = 0;
+		logCost = 0;
+		if(ops.length > MIN_LOG_SIZE * 4){
+			ops = new int[MIN_LOG_SIZE];
+			indexes = new int[MIN_LOG_SIZE];
+			counts = new int[MIN_LOG_SIZE];
+			values = new Object[MIN_LOG_SIZE];
+		}
+	}
+	
+	private static int[] copyOf(int[] argArray, int argLength){
+		int[] ret = new int[argLength];
+		System.arraycopy(argArray, 0, ret, 0, Math.min(argArray.length, argLength));
+		return ret;
+	}
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 7:41:27 AM
+ */
+package com.dmurph.mvc.support;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Reports how many listeners each model has, to find views that never remove their listeners.
+ * This has to be enabled before the models are made, as only the {@link MVCPropertyChangeSupport}s
+ * made while it's enabled are tracked.  The supports are weakly referenced, so tracking doesn't keep
+ * any models alive, but it does cost a reference for every model, so leave it off in production.  The
+ * references of collected models are removed as new models are tracked.
+ * @author Daniel Murphy
+ */
+public class ListenerDiagnostics {
+	
+	private static volatile boolean enabled = false;
+	// guarded by supports
+	private static final HashSet<WeakReference<MVCPropertyChangeSupport>> supports = new HashSet<WeakReference<MVCPropertyChangeSupport>>();
+	private static final ReferenceQueue<MVCPropertyChangeSupport> collected = new ReferenceQueue<MVCPropertyChangeSupport>();
+	
+	private ListenerDiagnostics(){}
+	
+	/**
+	 * Starts or stops tracking new models.  Stopping forgets the models already tracked.
+	 * @param argEnabled
+	 */
+	public static void setEnabled(boolean argEnabled){
+		enabled = argEnabled;
+		if(!argEnabled){
+			synchronized (supports) {
+				supports.clear();
+			}
+		}
+	}
+	
+	public static boolean isEnabled(){
+		return enabled;
+	}
+	
+	static void track(MVCPropertyChangeSupport argSupport){
+		if(!enabled){
+			return;
+		}
+		synchronized (supports) {
+			Reference<? extends MVCPropertyChangeSupport> ref;
+			while((ref = collected.poll()) != null){
+				supports.remove(ref);
+			}
+			supports.add(new WeakReference<MVCPropertyChangeSupport>(argSupport, collected));
+		}
+	}
+	
+	/**
+	 * Gets the number of listeners of every tracked model that has any listeners, including
+	 * listeners for single properties.  Weak listeners that were garbage collected aren't counted.
+	 * @return map of model to the number of listeners
+	 */
+	public static Map<Object, Integer> getListenerCounts(){
+		IdentityHashMap<Object, Integer> counts = new IdentityHashMap<Object, Integer>();
+		synchronized (supports) {
+			Iterator<WeakReference<MVCPropertyChangeSupport>> it = supports.iterator();
+			while(it.hasNext()){
+				MVCPropertyChangeSupport support = it.next().get();
+				if(support == null){
+					it.remove();
+					continue;
+				}
+				int count = support.getListenerCount();
+				if(count > 0){
+					counts.put(support.getSource(), count);
+				}
+			}
+		}
+		return counts;
+	}
+	
+	/**
+	 * @return the total number of listeners of all the tracked models
+	 */
+	public static int getTotalListenerCount(){
+		int total = 0;
+		for(int count : getListenerCounts().values()){
+			total += count;
+		}
+		return total;
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 9:41:18 PM
+ */
+package com.dmurph.mvc.support;
+
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Event for when multiple elements of a list are replaced at once, for performance
+ * issues instead of firing an {@link IndexedPropertyChangeEvent} for each element we fire this
+ * event, which contains the index, old value and new value of every element replaced.
+ * {@link #getOldValue()} and {@link #getNewValue()} return unmodifiable lists of the old and
+ * new values, in the same order as {@link #getIndexes()}.
+ * @author Daniel Murphy
+ */
+public class MVCIndexedPropertiesChangedEvent extends PropertyChangeEvent {
+	private static final long serialVersionUID = 1L;
+	
+	private final int[] indexes;
+	private final List<?> oldValues;
+	private final List<?> newValues;
+	
+	/**
+	 * @param argSource
+	 * @param argPropertyName
+	 * @param argIndexes the index of each element replaced, in ascending order
+	 * @param argOldValues
+	 * @param argNewValues
+	 */
+	public MVCIndexedPropertiesChangedEvent(Object argSource, String argPropertyName, int[] argIndexes,
+											List<?> argOldValues, List<?> argNewValues) {
+		super(argSource, argPropertyName, Collections.unmodifiableList(argOldValues), Collections.unmodifiableList(argNewValues));
+		indexes = argIndexes;
+		oldValues = argOldValues;
+		newValues = argNewValues;
+	}
+	
+	/**
+	 * @return the index of each element replaced
+	 */
+	public int[] getIndexes(){
+		return indexes.clone();
+	}
+	
+	/**
+	 * @return the number of elements replaced
+	 */
+	public int getCount(){
+		return indexes.length;
+	}
+	
+	/**
+	 * @param argIndex index in {@link #getIndexes()}
+	 * @return the index in the list of that element
+	 */
+	public int getIndex(int argIndex){
+		return indexes[argIndex];
+	}
+	
+	/**
+	 * @param argIndex index in {@link #getIndexes()}
+	 * @return the old value of that element
+	 */
+	public Object getOldValue(int argIndex){
+		return oldValues.get(argIndex);
+	}
+	
+	/**
+	 * @param argIndex index in {@link #getIndexes()}
+	 * @return the new value of that element
+	 */
+	public Object getNewValue(int argIndex){
+		return newValues.get(argIndex);
+	}
+}
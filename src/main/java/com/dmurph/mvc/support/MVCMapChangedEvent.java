@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 4:05:37 AM
+ */
+package com.dmurph.mvc.support;
+
+import java.beans.PropertyChangeEvent;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Event for when entries of a map model are put or removed.  {@link #getOldValue()} is an
+ * unmodifiable map of the entries that changed as they were before the change, and
+ * {@link #getNewValue()} is an unmodifiable map of the same entries after the change.  A key
+ * that was added isn't in the old values, and a key that was removed isn't in the new values,
+ * so use {@link #wasPresent(Object)} and {@link #isPresent(Object)} to tell a <code>null</code>
+ * value from a missing key.
+ * @author Daniel Murphy
+ */
+public class MVCMapChangedEvent extends PropertyChangeEvent {
+	private static final long serialVersionUID = 1L;
+	
+	private final Map<?, ?> oldValues;
+	private final Map<?, ?> newValues;
+	
+	/**
+	 * @param argSource
+	 * @param argPropertyName
+	 * @param argOldValues map of each changed key to its old value, if it had one
+	 * @param argNewValues map of each changed key to its new value, if it has one
+	 */
+	public MVCMapChangedEvent(Object argSource, String argPropertyName, Map<?, ?> argOldValues, Map<?, ?> argNewValues) {
+		super(argSource, argPropertyName, Collections.unmodifiableMap(argOldValues), Collections.unmodifiableMap(argNewValues));
+		oldValues = argOldValues;
+		newValues = argNewValues;
+	}
+	
+	/**
+	 * Gets all the keys that were put or removed.
+	 * @return
+	 */
+	public Set<Object> getKeys(){
+		HashSet<Object> keys = new HashSet<Object>(oldValues.keySet());
+		keys.addAll(newValues.keySet());
+		return Collections.unmodifiableSet(keys);
+	}
+	
+	/**
+	 * @param argKey
+	 * @return if the key was in the map before the change
+	 */
+	public boolean wasPresent(Object argKey){
+		return oldValues.containsKey(argKey);
+	}
+	
+	/**
+	 * @param argKey
+	 * @return if the key is in the map after the change
+	 */
+	public boolean isPresent(Object argKey){
+		return newValues.containsKey(argKey);
+	}
+	
+	/**
+	 * Gets the old value of a changed key.
+	 * @param argKey
+	 * @return
+	 */
+	public Object getOldValue(Object argKey){
+		return oldValues.get(argKey);
+	}
+	
+	/**
+	 * Gets the new value of a changed key.
+	 * @param argKey
+	 * @return
+	 */
+	public Object getNewValue(Object argKey){
+		return newValues.get(argKey);
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 10:12:40 AM
+ */
+package com.dmurph.mvc.support;
+
+import java.beans.PropertyChangeEvent;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Event for when multiple properties of a model are changed at once, for performance
+ * issues instead of firing a {@link PropertyChangeEvent} for each property we fire this
+ * event, which contains the old and new values of every property that changed.
+ * {@link #getOldValue()} and {@link #getNewValue()} return unmodifiable maps of
+ * property name to value, use {@link #getOldValue(String)} and {@link #getNewValue(String)}
+ * to look up a single property.
+ * @author Daniel Murphy
+ */
+public class MVCPropertiesChangedEvent extends PropertyChangeEvent {
+	private static final long serialVersionUID = 1L;
+	
+	private final Map<String, Object> oldValues;
+	private final Map<String, Object> newValues;
+	
+	/**
+	 * @param argSource
+	 * @param argPropertyName
+	 * @param argOldValues map of property name to old value
+	 * @param argNewValues map of property name to new value, should have the same keys
+	 * 					   as <code>argOldValues</code>
+	 */
+	public MVCPropertiesChangedEvent(Object argSource, String argPropertyName, Map<String, Object> argOldValues,
+									 Map<String, Object> argNewValues) {
+		super(argSource, argPropertyName, Collections.unmodifiableMap(argOldValues), Collections.unmodifiableMap(argNewValues));
+		oldValues = argOldValues;
+		newValues = argNewValues;
+	}
+	
+	/**
+	 * Gets the names of all the properties that changed.
+	 * @return
+	 */
+	public Set<String> getPropertyNames(){
+		return Collections.unmodifiableSet(newValues.keySet());
+	}
+	
+	/**
+	 * Gets the old value of a changed property.
+	 * @param argPropertyName
+	 * @return
+	 */
+	public Object getOldValue(String argPropertyName){
+		return oldValues.get(argPropertyName);
+	}
+	
+	/**
+	 * Gets the new value of a changed property.
+	 * @param argPropertyName
+	 * @return
+	 */
+	public Object getNewValue(String argPropertyName){
+		return newValues.get(argPropertyName);
+	}
+}
@@ -32,7 +32,9 @@ import java.util.Collection;
  * instead of firing many {@link MVCPropertyRemovedEvent}s, we fire this event, which
  * contains a collection of all the elements removed.  If the properties are indexed, 
  * you can check by calling {@link #isIndexed()}, and the start and end indexes
- * are {@link #getStartIndex()} and {@link #getEndIndex()}.  {@link #getNewValue()}
+ * are {@link #getStartIndex()} and {@link #getEndIndex()}.  If the elements removed weren't next
+ * to each other, {@link #getIndexes()} returns the index of each element (before anything
+ * was removed), in the same order as the collection.  {@link #getNewValue()}
  * will always return null.
  * @author Daniel Murphy
  */
@@ -42,6 +44,7 @@ public class MVCPropertiesRemovedEvent extends PropertyChangeEvent {
 	
 	private final int startIndex;
 	private final int endIndex;
+	private final int[] indexes;
 	
 	/**
 	 * Constructs the event with no indexes
@@ -53,6 +56,7 @@ public class MVCPropertiesRemovedEvent extends PropertyChangeEvent {
 		super(argSource, argPropertyName, argOldValues, null);
 		startIndex = -1;
 		endIndex = -1;
+		indexes = null;
 	}
 	
 	/**
@@ -68,6 +72,21 @@ public class MVCPropertiesRemovedEvent extends PropertyChangeEvent {
 		super(argSource, argPropertyName, argOldValues, null);
 		startIndex = argStartIndex;
 		endIndex = argEndIndex;
+		indexes = null;
+	}
+	
+	/**
+	 * Constructs the event for elements that weren't next to each other.
+	 * @param argSource
+	 * @param argPropertyName
+	 * @param argOldValues
+	 * @param argIndexes the index of each element removed, in ascending order
+	 */
+	public MVCPropertiesRemovedEvent(Object argSource, String argPropertyName, Collection argOldValues, int[] argIndexes){
+		super(argSource, argPropertyName, argOldValues, null);
+		startIndex = argIndexes.length == 0 ? -1 : argIndexes[0];
+		endIndex = argIndexes.length == 0 ? -1 : argIndexes[argIndexes.length - 1];
+		indexes = argIndexes;
 	}
 	
 	/**
@@ -79,7 +98,7 @@ public class MVCPropertiesRemovedEvent extends PropertyChangeEvent {
 	}
 	
 	/**
-	 * Gets the first index of the properties added, 
+	 * Gets the first index of the properties removed, 
 	 * if the properties are indexed.
 	 * @return
 	 */
@@ -88,11 +107,38 @@ public class MVCPropertiesRemovedEvent extends PropertyChangeEvent {
 	}
 	
 	/**
-	 * Gets the index of the last property added,
+	 * Gets the index of the last property removed (inclusive),
 	 * if the properties are indexed.
 	 * @return
 	 */
 	public int getEndIndex(){
 		return endIndex;
 	}
+	
+	/**
+	 * Gets the index of each element removed, if the properties are
+	 * indexed.  The indexes are from before anything was removed.
+	 * @return the indexes, or null if the properties aren't indexed
+	 */
+	public int[] getIndexes(){
+		if(indexes != null){
+			return indexes.clone();
+		}
+		if(!isIndexed()){
+			return null;
+		}
+		int[] ret = new int[((Collection) getOldValue()).size()];
+		for(int i=0; i<ret.length; i++){
+			ret[i] = startIndex + i;
+		}
+		return ret;
+	}
+	
+	/**
+	 * @return if the elements removed were next to each other, starting
+	 * 		   at {@link #getStartIndex()}
+	 */
+	public boolean isContiguous(){
+		return isIndexed() && (indexes == null || endIndex - startIndex == indexes.length - 1);
+	}
 }
@@ -24,65 +24,536 @@
  */
 package com.dmurph.mvc.support;
 
-import java.beans.PropertyChangeSupport;
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeListenerProxy;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.dmurph.mvc.IModel;
 
 /**
- * Adds custom mvc property change events.
+ * Keeps track of the {@link PropertyChangeListener}s of a model and fires property change events
+ * to them, including the custom mvc events.  This works like {@link java.beans.PropertyChangeSupport},
+ * but is made for models that fire a lot of events:
+ * <ul>
+ * <li>If nothing is listening to a property, firing it returns right away, without making an event
+ * (or boxing the values of the primitive overloads).</li>
+ * <li>The listeners are kept in arrays that are replaced when a listener is added or removed, so
+ * firing an event doesn't lock or copy the listeners.</li>
+ * <li>Listeners for a single property are kept in a table by the property name, so they're only
+ * looked up for events with that name.</li>
+ * </ul>
+ * Listeners are fired in the order they were added, the listeners for all properties first.
+ * Like {@link java.beans.PropertyChangeSupport}, an event isn't fired if the old and new
+ * values are equal and not null, except for models, which have to be the same model (see
+ * {@link #isUnchanged(Object, Object)}).  To get events on another thread (like the event dispatch
+ * thread), add the listener wrapped in a {@link DeferredPropertyChangeListener}.  Listeners of
+ * views that don't always remove them can be added with {@link #addWeakPropertyChangeListener(PropertyChangeListener)}.
  * @author Daniel Murphy
  *
  */
 @SuppressWarnings("rawtypes") 
-public class MVCPropertyChangeSupport extends PropertyChangeSupport {
-	private static final long serialVersionUID = 1L;
-
+public class MVCPropertyChangeSupport implements Serializable {
+	private static final long serialVersionUID = 2L;
+	
+	private static final PropertyChangeListener[] EMPTY = new PropertyChangeListener[0];
+	
 	private final Object source;
+	private transient volatile PropertyChangeListener[] listeners = EMPTY;
+	// null until a listener is added for a single property
+	private transient volatile Map<String, PropertyChangeListener[]> namedListeners = null;
+	// null until a weak listener is added
+	private transient volatile ReferenceQueue<PropertyChangeListener> staleListeners = null;
+	
 	/**
 	 * @param argSourceBean
 	 */
 	public MVCPropertyChangeSupport(Object argSourceBean) {
-		super(argSourceBean);
+		if(argSourceBean == null){
+			throw new NullPointerException();
+		}
 		source = argSourceBean;
+		ListenerDiagnostics.track(this);
+	}
+	
+	/**
+	 * @return the source of the events
+	 */
+	public Object getSource(){
+		return source;
+	}
+	
+	/**
+	 * Adds a listener for all properties.  If the listener is a {@link PropertyChangeListenerProxy},
+	 * it's added for the property of the proxy.
+	 * @param argListener
+	 */
+	public synchronized void addPropertyChangeListener(PropertyChangeListener argListener){
+		if(argListener == null){
+			return;
+		}
+		expungeStaleListeners(null);
+		if(argListener instanceof PropertyChangeListenerProxy){
+			PropertyChangeListenerProxy proxy = (PropertyChangeListenerProxy) argListener;
+			addPropertyChangeListener(proxy.getPropertyName(), (PropertyChangeListener) proxy.getListener());
+			return;
+		}
+		listeners = add(listeners, argListener);
+	}
+	
+	/**
+	 * Removes a listener for all properties.  If the listener is a {@link PropertyChangeListenerProxy},
+	 * it's removed for the property of the proxy.
+	 * @param argListener
+	 */
+	public synchronized void removePropertyChangeListener(PropertyChangeListener argListener){
+		if(argListener == null){
+			return;
+		}
+		expungeStaleListeners(null);
+		if(argListener instanceof PropertyChangeListenerProxy){
+			PropertyChangeListenerProxy proxy = (PropertyChangeListenerProxy) argListener;
+			removePropertyChangeListener(proxy.getPropertyName(), (PropertyChangeListener) proxy.getListener());
+			return;
+		}
+		listeners = remove(listeners, argListener);
+	}
+	
+	/**
+	 * Adds a listener that only gets the events of one property.
+	 * @param argPropertyName
+	 * @param argListener
+	 */
+	public synchronized void addPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener){
+		if(argListener == null || argPropertyName == null){
+			return;
+		}
+		expungeStaleListeners(null);
+		HashMap<String, PropertyChangeListener[]> table = namedListeners == null ?
+				new HashMap<String, PropertyChangeListener[]>() : new HashMap<String, PropertyChangeListener[]>(namedListeners);
+		PropertyChangeListener[] current = table.get(argPropertyName);
+		table.put(argPropertyName, add(current == null ? EMPTY : current, argListener));
+		namedListeners = table;
+	}
+	
+	/**
+	 * Removes a listener added for one property.
+	 * @param argPropertyName
+	 * @param argListener
+	 */
+	public synchronized void removePropertyChangeListener(String argPropertyName, PropertyChangeListener argListener){
+		expungeStaleListeners(null);
+		if(argListener == null || argPropertyName == null || namedListeners == null){
+			return;
+		}
+		PropertyChangeListener[] current = namedListeners.get(argPropertyName);
+		if(current == null){
+			return;
+		}
+		PropertyChangeListener[] removed = remove(current, argListener);
+		if(removed == current){
+			return;
+		}
+		HashMap<String, PropertyChangeListener[]> table = new HashMap<String, PropertyChangeListener[]>(namedListeners);
+		if(removed.length == 0){
+			table.remove(argPropertyName);
+		}else{
+			table.put(argPropertyName, removed);
+		}
+		namedListeners = table.isEmpty() ? null : table;
+	}
+	
+	/**
+	 * Adds a listener for all properties that's only weakly referenced, so it doesn't keep
+	 * the listener from being garbage collected.  Once it's collected it's removed automatically.
+	 * Remove it early with {@link #removePropertyChangeListener(PropertyChangeListener)}.  Make
+	 * sure something else references the listener (like the view it updates), an anonymous
+	 * listener that's only referenced here is collected right away.
+	 * @param argListener
+	 * @see WeakPropertyChangeListener
+	 */
+	public synchronized void addWeakPropertyChangeListener(PropertyChangeListener argListener){
+		if(argListener == null){
+			return;
+		}
+		addPropertyChangeListener(new WeakPropertyChangeListener(argListener, null, getStaleListeners()));
+	}
+	
+	/**
+	 * Adds a weakly referenced listener that only gets the events of one property.
+	 * @param argPropertyName
+	 * @param argListener
+	 * @see #addWeakPropertyChangeListener(PropertyChangeListener)
+	 */
+	public synchronized void addWeakPropertyChangeListener(String argPropertyName, PropertyChangeListener argListener){
+		if(argListener == null || argPropertyName == null){
+			return;
+		}
+		addPropertyChangeListener(argPropertyName, new WeakPropertyChangeListener(argListener, argPropertyName, getStaleListeners()));
+	}
+	
+	private ReferenceQueue<PropertyChangeListener> getStaleListeners(){
+		if(staleListeners == null){
+			staleListeners = new ReferenceQueue<PropertyChangeListener>();
+		}
+		return staleListeners;
+	}
+	
+	// removes the weak listeners that were garbage collected, starting with the given one
+	private synchronized void expungeStaleListeners(WeakPropertyChangeListener argFirst){
+		ReferenceQueue<PropertyChangeListener> queue = staleListeners;
+		if(queue == null){
+			return;
+		}
+		Reference<? extends PropertyChangeListener> stale = argFirst != null ? argFirst : queue.poll();
+		while(stale != null){
+			WeakPropertyChangeListener listener = (WeakPropertyChangeListener) stale;
+			if(listener.getPropertyName() == null){
+				listeners = remove(listeners, listener);
+			}else if(namedListeners != null){
+				PropertyChangeListener[] current = namedListeners.get(listener.getPropertyName());
+				if(current != null){
+					PropertyChangeListener[] removed = remove(current, listener);
+					HashMap<String, PropertyChangeListener[]> table = new HashMap<String, PropertyChangeListener[]>(namedListeners);
+					if(removed.length == 0){
+						table.remove(listener.getPropertyName());
+					}else{
+						table.put(listener.getPropertyName(), removed);
+					}
+					namedListeners = table.isEmpty() ? null : table;
+				}
+			}
+			stale = queue.poll();
+		}
+	}
+	
+	private static PropertyChangeListener[] add(PropertyChangeListener[] argListeners, PropertyChangeListener argListener){
+		PropertyChangeListener[] ret = new PropertyChangeListener[argListeners.length + 1];
+		System.arraycopy(argListeners, 0, ret, 0, argListeners.length);
+		ret[argListeners.length] = argListener;
+		return ret;
+	}
+	
+	// removes the first occurrence (or deferred wrapper of it), or returns the same array if it's not there
+	private static PropertyChangeListener[] remove(PropertyChangeListener[] argListeners, PropertyChangeListener argListener){
+		for(int i=0; i<argListeners.length; i++){
+			PropertyChangeListener l = argListeners[i];
+			if(l.equals(argListener) || (l instanceof DeferredPropertyChangeListener
+					&& ((DeferredPropertyChangeListener) l).getListener().equals(argListener))
+					|| (l instanceof WeakPropertyChangeListener && argListener.equals(((WeakPropertyChangeListener) l).get()))){
+				if(argListeners.length == 1){
+					return EMPTY;
+				}
+				PropertyChangeListener[] ret = new PropertyChangeListener[argListeners.length - 1];
+				System.arraycopy(argListeners, 0, ret, 0, i);
+				System.arraycopy(argListeners, i + 1, ret, i, ret.length - i);
+				return ret;
+			}
+		}
+		return argListeners;
+	}
+	
+	/**
+	 * Gets all the listeners, with the listeners for one property wrapped in a
+	 * {@link PropertyChangeListenerProxy}.
+	 * @return
+	 */
+	public PropertyChangeListener[] getPropertyChangeListeners(){
+		PropertyChangeListener[] all = listeners;
+		Map<String, PropertyChangeListener[]> table = namedListeners;
+		if(table == null){
+			return all.clone();
+		}
+		ArrayList<PropertyChangeListener> ret = new ArrayList<PropertyChangeListener>();
+		for(PropertyChangeListener l : all){
+			ret.add(l);
+		}
+		for(Map.Entry<String, PropertyChangeListener[]> e : table.entrySet()){
+			for(PropertyChangeListener l : e.getValue()){
+				ret.add(new PropertyChangeListenerProxy(e.getKey(), l));
+			}
+		}
+		return ret.toArray(new PropertyChangeListener[ret.size()]);
+	}
+	
+	/**
+	 * Gets the listeners added for one property.
+	 * @param argPropertyName
+	 * @return
+	 */
+	public PropertyChangeListener[] getPropertyChangeListeners(String argPropertyName){
+		Map<String, PropertyChangeListener[]> table = namedListeners;
+		if(table == null || argPropertyName == null){
+			return EMPTY;
+		}
+		PropertyChangeListener[] ret = table.get(argPropertyName);
+		return ret == null ? EMPTY : ret.clone();
+	}
+	
+	/**
+	 * Gets the number of listeners, including the listeners for single properties.  Weak listeners
+	 * that were garbage collected aren't counted.
+	 * @return
+	 * @see ListenerDiagnostics
+	 */
+	public int getListenerCount(){
+		int count = count(listeners);
+		Map<String, PropertyChangeListener[]> table = namedListeners;
+		if(table != null){
+			for(PropertyChangeListener[] named : table.values()){
+				count += count(named);
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Gets the number of listeners for each property, with the number of listeners
+	 * for all properties under the <code>null</code> key.
+	 * @return
+	 */
+	public Map<String, Integer> getListenerCounts(){
+		HashMap<String, Integer> counts = new HashMap<String, Integer>();
+		counts.put(null, count(listeners));
+		Map<String, PropertyChangeListener[]> table = namedListeners;
+		if(table != null){
+			for(Map.Entry<String, PropertyChangeListener[]> e : table.entrySet()){
+				counts.put(e.getKey(), count(e.getValue()));
+			}
+		}
+		return counts;
+	}
+	
+	private static int count(PropertyChangeListener[] argListeners){
+		int count = 0;
+		for(PropertyChangeListener l : argListeners){
+			if(!(l instanceof WeakPropertyChangeListener) || ((WeakPropertyChangeListener) l).get() != null){
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * @param argPropertyName the property name, or null for only the listeners of all properties
+	 * @return if any listeners would get an event for the property
+	 */
+	public boolean hasListeners(String argPropertyName){
+		if(listeners.length > 0){
+			return true;
+		}
+		Map<String, PropertyChangeListener[]> table = namedListeners;
+		return table != null && argPropertyName != null && table.containsKey(argPropertyName);
+	}
+	
+	/**
+	 * @param argOldValue
+	 * @param argNewValue
+	 * @return if the values are equal and not null, so a change between them isn't fired.  Models
+	 * are only unchanged if they're the same model, as a model replaced by an equal one is a
+	 * different model to listen to.
+	 */
+	public static boolean isUnchanged(Object argOldValue, Object argNewValue){
+		if(argOldValue == null || argNewValue == null){
+			return false;
+		}
+		if(argOldValue == argNewValue){
+			return true;
+		}
+		return !(argNewValue instanceof IModel) && argOldValue.equals(argNewValue);
+	}
+	
+	public void firePropertyChange(String argPropertyName, Object argOldValue, Object argNewValue){
+		if(isUnchanged(argOldValue, argNewValue)){
+			return;
+		}
+		if(!hasListeners(argPropertyName)){
+			return;
+		}
+		fire(new PropertyChangeEvent(source, argPropertyName, argOldValue, argNewValue));
+	}
+	
+	public void firePropertyChange(String argPropertyName, int argOldValue, int argNewValue){
+		if(argOldValue != argNewValue && hasListeners(argPropertyName)){
+			fire(new PropertyChangeEvent(source, argPropertyName, Integer.valueOf(argOldValue), Integer.valueOf(argNewValue)));
+		}
+	}
+	
+	public void firePropertyChange(String argPropertyName, boolean argOldValue, boolean argNewValue){
+		if(argOldValue != argNewValue && hasListeners(argPropertyName)){
+			fire(new PropertyChangeEvent(source, argPropertyName, Boolean.valueOf(argOldValue), Boolean.valueOf(argNewValue)));
+		}
+	}
+	
+	/**
+	 * Fires an event that was already made.  The event isn't fired if
+	 * the old and new values are unchanged (see {@link #isUnchanged(Object, Object)}).
+	 * @param argEvent
+	 */
+	public void firePropertyChange(PropertyChangeEvent argEvent){
+		Object oldValue = argEvent.getOldValue();
+		Object newValue = argEvent.getNewValue();
+		if(isUnchanged(oldValue, newValue)){
+			return;
+		}
+		fire(argEvent);
+	}
+	
+	public void fireIndexedPropertyChange(String argPropertyName, int argIndex, Object argOldValue, Object argNewValue){
+		if(isUnchanged(argOldValue, argNewValue)){
+			return;
+		}
+		if(!hasListeners(argPropertyName)){
+			return;
+		}
+		fire(new IndexedPropertyChangeEvent(source, argPropertyName, argOldValue, argNewValue, argIndex));
+	}
+	
+	// the listeners are read once, so listeners added or removed while firing don't get this event
+	private void fire(PropertyChangeEvent argEvent){
+		ReferenceQueue<PropertyChangeListener> queue = staleListeners;
+		if(queue != null){
+			Reference<? extends PropertyChangeListener> stale = queue.poll();
+			if(stale != null){
+				expungeStaleListeners((WeakPropertyChangeListener) stale);
+			}
+		}
+		PropertyChangeListener[] all = listeners;
+		for(PropertyChangeListener l : all){
+			l.propertyChange(argEvent);
+		}
+		Map<String, PropertyChangeListener[]> table = namedListeners;
+		if(table != null && argEvent.getPropertyName() != null){
+			PropertyChangeListener[] named = table.get(argEvent.getPropertyName());
+			if(named != null){
+				for(PropertyChangeListener l : named){
+					l.propertyChange(argEvent);
+				}
+			}
+		}
 	}
-
 	
 	public void firePropertyAddedEvent(String argPropertyName, Object argProperty){
-		MVCPropertyAddedEvent event = new MVCPropertyAddedEvent(source, argPropertyName, argProperty);
-		firePropertyChange(event);
+		if(hasListeners(argPropertyName)){
+			fire(new MVCPropertyAddedEvent(source, argPropertyName, argProperty));
+		}
 	}
 	
 	public void firePropertyAddedEvent(String argPropertyName, Object argProperty, int argIndex){
-		MVCPropertyAddedEvent event = new MVCPropertyAddedEvent(source, argPropertyName, argProperty, argIndex);
-		firePropertyChange(event);
+		if(hasListeners(argPropertyName)){
+			fire(new MVCPropertyAddedEvent(source, argPropertyName, argProperty, argIndex));
+		}
 	}
 	
 	public void firePropertiesAddedEvent(String argPropertyName, Collection argProperties){
-		MVCPropertiesAddedEvent event = new MVCPropertiesAddedEvent(source, argPropertyName, argProperties);
-		firePropertyChange(event);
+		if(hasListeners(argPropertyName)){
+			firePropertyChange(new MVCPropertiesAddedEvent(source, argPropertyName, argProperties));
+		}
 	}
 	
 	public void firePropertiesAddedEvent(String argPropertyName, Collection argProperties, int argStartIndex, int argEndIndex){
-		MVCPropertiesAddedEvent event = new MVCPropertiesAddedEvent(source, argPropertyName, argProperties, argStartIndex, argEndIndex);
-		firePropertyChange(event);
+		if(hasListeners(argPropertyName)){
+			firePropertyChange(new MVCPropertiesAddedEvent(source, argPropertyName, argProperties, argStartIndex, argEndIndex));
+		}
 	}
 	
 	public void firePropertyRemovedEvent(String argPropertyName, Object argProperty){
-		MVCPropertyRemovedEvent event = new MVCPropertyRemovedEvent(source, argPropertyName, argProperty);
-		firePropertyChange(event);
+		if(hasListeners(argPropertyName)){
+			fire(new MVCPropertyRemovedEvent(source, argPropertyName, argProperty));
+		}
 	}
 	
 	public void firePropertyRemovedEvent(String argPropertyName, Object argProperty, int argIndex){
-		MVCPropertyRemovedEvent event = new MVCPropertyRemovedEvent(source, argPropertyName, argProperty, argIndex);
-		firePropertyChange(event);
+		if(hasListeners(argPropertyName)){
+			fire(new MVCPropertyRemovedEvent(source, argPropertyName, argProperty, argIndex));
+		}
 	}
 	
 	public void firePropertiesRemovedEvent(String argPropertyName, Collection argProperties){
-		MVCPropertiesRemovedEvent event = new MVCPropertiesRemovedEvent(source, argPropertyName, argProperties);
-		firePropertyChange(event);
+		if(hasListeners(argPropertyName)){
+			firePropertyChange(new MVCPropertiesRemovedEvent(source, argPropertyName, argProperties));
+		}
 	}
 	
 	public void firePropertiesRemovedEvent(String argPropertyName, Collection argProperties, int argStartIndex, int argEndIndex){
-		MVCPropertiesRemovedEvent event = new MVCPropertiesRemovedEvent(source, argPropertyName, argProperties, argStartIndex, argEndIndex);
-		firePropertyChange(event);
+		if(hasListeners(argPropertyName)){
+			firePropertyChange(new MVCPropertiesRemovedEvent(source, argPropertyName, argProperties, argStartIndex, argEndIndex));
+		}
+	}
+	
+	public void firePropertiesRemovedEvent(String argPropertyName, Collection argProperties, int[] argIndexes){
+		if(hasListeners(argPropertyName)){
+			firePropertyChange(new MVCPropertiesRemovedEvent(source, argPropertyName, argProperties, argIndexes));
+		}
+	}
+	
+	public void fireIndexedPropertiesChangedEvent(String argPropertyName, int[] argIndexes, List argOldValues, List argNewValues){
+		if(hasListeners(argPropertyName)){
+			firePropertyChange(new MVCIndexedPropertiesChangedEvent(source, argPropertyName, argIndexes, argOldValues, argNewValues));
+		}
+	}
+	
+	public void firePropertiesChangedEvent(String argPropertyName, Map<String, Object> argOldValues, Map<String, Object> argNewValues){
+		if(hasListeners(argPropertyName)){
+			firePropertyChange(new MVCPropertiesChangedEvent(source, argPropertyName, argOldValues, argNewValues));
+		}
+	}
+	
+	public void fireMapChangedEvent(String argPropertyName, Map<?, ?> argOldValues, Map<?, ?> argNewValues){
+		if(hasListeners(argPropertyName)){
+			firePropertyChange(new MVCMapChangedEvent(source, argPropertyName, argOldValues, argNewValues));
+		}
+	}
+	
+	// writes the listeners that are serializable, like java.beans.PropertyChangeSupport
+	private void writeObject(ObjectOutputStream argOut) throws IOException {
+		argOut.defaultWriteObject();
+		for(PropertyChangeListener l : listeners){
+			if(l instanceof Serializable){
+				argOut.writeObject(null);
+				argOut.writeObject(l);
+			}
+		}
+		Map<String, PropertyChangeListener[]> table = namedListeners;
+		if(table != null){
+			for(Map.Entry<String, PropertyChangeListener[]> e : table.entrySet()){
+				for(PropertyChangeListener l : e.getValue()){
+					if(l instanceof Serializable){
+						argOut.writeObject(e.getKey());
+						argOut.writeObject(l);
+					}
+				}
+			}
+		}
+		argOut.writeObject(null);
+		argOut.writeObject(null);
+	}
+	
+	private void readObject(ObjectInputStream argIn) throws IOException, ClassNotFoundException {
+		argIn.defaultReadObject();
+		listeners = EMPTY;
+		for(;;){
+			String name = (String) argIn.readObject();
+			PropertyChangeListener l = (PropertyChangeListener) argIn.readObject();
+			if(l == null){
+				break;
+			}
+			if(name == null){
+				addPropertyChangeListener(l);
+			}else{
+				addPropertyChangeListener(name, l);
+			}
+		}
 	}
 }
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 4:12:15 AM
+ */
+package com.dmurph.mvc.support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of the saved state of a map without copying the map on every save.  Only
+ * the value each key had before its first change since the last save is kept, so
+ * {@link #save()} is constant time and the memory used is proportional to the number of
+ * keys changed.<br/>
+ * <br/>
+ * The map should call the <code>record</code> methods after every change.
+ * @author Daniel Murphy
+ */
+public class MapRevertSupport<K, V> {
+	
+	// marks keys that weren't in the saved map
+	private static final Object ABSENT = new Object();
+	
+	private HashMap<K, Object> saved = new HashMap<K, Object>();
+	private boolean recording = true;
+	
+	/**
+	 * Records that a key was put in the map.
+	 * @param argKey
+	 * @param argHadKey if the key was in the map before
+	 * @param argOldValue the value the key had before, if it was in the map
+	 */
+	public void recordPut(K argKey, boolean argHadKey, V argOldValue){
+		if(!recording || saved.containsKey(argKey)){
+			return;
+		}
+		saved.put(argKey, argHadKey ? argOldValue : ABSENT);
+	}
+	
+	/**
+	 * Records that a key was removed from the map.
+	 * @param argKey
+	 * @param argOldValue
+	 */
+	public void recordRemove(K argKey, V argOldValue){
+		recordPut(argKey, true, argOldValue);
+	}
+	
+	/**
+	 * Records that entries were removed from the map.
+	 * @param argRemoved map of the removed keys to their old values
+	 */
+	public void recordRemoveAll(Map<? extends K, ? extends V> argRemoved){
+		for(Map.Entry<? extends K, ? extends V> e : argRemoved.entrySet()){
+			recordRemove(e.getKey(), e.getValue());
+		}
+	}
+	
+	/**
+	 * @return if anything was recorded since the last save
+	 */
+	public boolean isChanged(){
+		return !saved.isEmpty();
+	}
+	
+	/**
+	 * Makes the current state of the map the saved state.
+	 */
+	public void save(){
+		if(isChanged()){
+			saved = new HashMap<K, Object>();
+		}
+	}
+	
+	/**
+	 * Makes the given map the saved state.
+	 * @param argCurrent the current map
+	 * @param argSaved the saved map
+	 */
+	public void setSaved(Map<K, V> argCurrent, Map<K, V> argSaved){
+		save();
+		for(Map.Entry<K, V> e : argCurrent.entrySet()){
+			K key = e.getKey();
+			if(!argSaved.containsKey(key)){
+				saved.put(key, ABSENT);
+			}else{
+				V value = argSaved.get(key);
+				if(value != e.getValue()){
+					saved.put(key, value);
+				}
+			}
+		}
+		for(Map.Entry<K, V> e : argSaved.entrySet()){
+			if(!argCurrent.containsKey(e.getKey())){
+				saved.put(e.getKey(), e.getValue());
+			}
+		}
+	}
+	
+	/**
+	 * Gets a copy of the saved map.
+	 * @param argCurrent the current map
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public HashMap<K, V> getSaved(Map<K, V> argCurrent){
+		HashMap<K, V> ret = new HashMap<K, V>(argCurrent);
+		for(Map.Entry<K, Object> e : saved.entrySet()){
+			if(e.getValue() == ABSENT){
+				ret.remove(e.getKey());
+			}else{
+				ret.put(e.getKey(), (V) e.getValue());
+			}
+		}
+		return ret;
+	}
+	
+	/**
+	 * Reverts the map to the saved state, by putting back the changed keys with
+	 * {@link Map#putAll(Map)} and removing the added keys from the key set, so the
+	 * map fires it's normal events.
+	 * @param argMap
+	 */
+	@SuppressWarnings("unchecked")
+	public void revert(Map<K, V> argMap){
+		HashMap<K, V> toPut = new HashMap<K, V>();
+		ArrayList<K> toRemove = new ArrayList<K>();
+		for(Map.Entry<K, Object> e : saved.entrySet()){
+			if(e.getValue() == ABSENT){
+				toRemove.add(e.getKey());
+			}else{
+				toPut.put(e.getKey(), (V) e.getValue());
+			}
+		}
+		recording = false;
+		try{
+			argMap.putAll(toPut);
+			argMap.keySet().removeAll(toRemove);
+		}finally{
+			recording = true;
+		}
+		save();
+	}
+}
@@ -26,20 +26,27 @@ package com.dmurph.mvc.support;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 
 import com.dmurph.mvc.IRevertible;
 
 /**
+ * Records the original value of every property that changes, so the changes can be reverted.
+ * Only the properties that are dirty (changed to a value that isn't equal to the saved value)
+ * are kept, so saving just forgets the recorded properties, and {@link #isDirty()} and
+ * {@link #revertChanges()} only look at the properties that changed.  A property that's changed
+ * back to it's saved value is forgotten.  Recording can be turned off with {@link #setRecording(boolean)},
+ * for loading a lot of properties that shouldn't be reverted.
  * @author daniel
  *
  */
 public class RevertibleSupport implements IRevertible{
 	
-	private final HashMap<String, PropertyWrapper> revertibleProperties = new HashMap<String, PropertyWrapper>();
+	private HashMap<String, PropertyWrapper> revertibleProperties = new HashMap<String, PropertyWrapper>();
 	private final ISupportable supportable;
+	private volatile boolean recording = true;
 	
 	/**
 	 * 
@@ -48,40 +55,86 @@ public class RevertibleSupport implements IRevertible{
 	 * @param argSource the source that the events have to originate from.  The changes are not recorded if the source doesn't match the event
 	 * source.
 	 */
-	public RevertibleSupport(PropertyChangeSupport argPropertyChangeSupport, ISupportable argSupportable, final Object argSource){
+	public RevertibleSupport(MVCPropertyChangeSupport argPropertyChangeSupport, ISupportable argSupportable, final Object argSource){
 		supportable = argSupportable;
 		argPropertyChangeSupport.addPropertyChangeListener(new PropertyChangeListener() {
 			public void propertyChange(PropertyChangeEvent argEvt) {
-				if(argEvt.getSource() != argSource){
+				if(!recording || argEvt.getSource() != argSource){
 					return; // don't record if the source isn't correct
 				}
-				if(revertibleProperties.containsKey(argEvt.getPropertyName())){
-					PropertyWrapper wrapper = revertibleProperties.get(argEvt.getPropertyName());
-					wrapper.dirtyObject = argEvt.getNewValue();
+				if(argEvt instanceof MVCPropertiesChangedEvent){
+					MVCPropertiesChangedEvent evt = (MVCPropertiesChangedEvent) argEvt;
+					for(String name : evt.getPropertyNames()){
+						record(name, evt.getOldValue(name), evt.getNewValue(name));
+					}
 				}else{
-					PropertyWrapper wrapper = new PropertyWrapper();
-					wrapper.name = argEvt.getPropertyName();
-					wrapper.cleanObject = argEvt.getOldValue();
-					wrapper.dirtyObject = argEvt.getNewValue();
-					revertibleProperties.put(argEvt.getPropertyName(), wrapper);
+					record(argEvt.getPropertyName(), argEvt.getOldValue(), argEvt.getNewValue());
 				}
 			}
 		});
 	}
 	
+	/**
+	 * Records a change to a property.  Changes are recorded automatically from the
+	 * property change events, so this is only needed to record changes that
+	 * didn't fire an event.
+	 * @param argPropertyName
+	 * @param argOldValue
+	 * @param argNewValue
+	 */
+	public void record(String argPropertyName, Object argOldValue, Object argNewValue){
+		PropertyWrapper wrapper = revertibleProperties.get(argPropertyName);
+		if(wrapper == null){
+			wrapper = new PropertyWrapper();
+			wrapper.name = argPropertyName;
+			wrapper.cleanObject = argOldValue;
+			wrapper.dirtyObject = argNewValue;
+			if(wrapper.isDirty()){
+				revertibleProperties.put(argPropertyName, wrapper);
+			}
+		}else{
+			wrapper.dirtyObject = argNewValue;
+			if(!wrapper.isDirty()){
+				revertibleProperties.remove(argPropertyName);
+			}
+		}
+	}
+	
+	/**
+	 * Gets the properties that are dirty.
+	 * @return
+	 */
 	public Collection<PropertyWrapper> getRecordedProperties(){
 		return revertibleProperties.values();
 	}
 	
+	/**
+	 * @return if any property was changed from it's saved value
+	 */
+	public boolean isDirty(){
+		return !revertibleProperties.isEmpty();
+	}
+	
+	/**
+	 * Turns recording changes from the property change events on or off.  Turn it off
+	 * while loading a model, so loading doesn't make the model dirty.  Changes recorded before
+	 * recording was turned off are kept.
+	 * @param argRecording
+	 */
+	public void setRecording(boolean argRecording){
+		recording = argRecording;
+	}
+	
+	public boolean isRecording(){
+		return recording;
+	}
+	
 	/**
 	 * @see com.dmurph.mvc.IRevertible#saveChanges()
 	 */
 	public void saveChanges() {
-		for(String key : revertibleProperties.keySet()){
-			PropertyWrapper wrapper = revertibleProperties.get(key);
-			if(wrapper.isDirty()){
-				wrapper.cleanObject = wrapper.dirtyObject;
-			}
+		if(!revertibleProperties.isEmpty()){
+			revertibleProperties = new HashMap<String, PropertyWrapper>();
 		}
 	}
 	
@@ -89,13 +142,15 @@ public class RevertibleSupport implements IRevertible{
 	 * @see com.dmurph.mvc.IRevertible#revertChanges()
 	 */
 	public void revertChanges() {
-		for(String key : revertibleProperties.keySet()){
-			PropertyWrapper wrapper = revertibleProperties.get(key);
-			if(wrapper.isDirty()){
-				wrapper.dirtyObject = wrapper.cleanObject;
-				supportable.setProperty(wrapper.name, wrapper.cleanObject);
-			}
+		if(revertibleProperties.isEmpty()){
+			return;
 		}
+		ArrayList<PropertyWrapper> reverting = new ArrayList<PropertyWrapper>(revertibleProperties.values());
+		for(PropertyWrapper wrapper : reverting){
+			supportable.setProperty(wrapper.name, wrapper.cleanObject);
+		}
+		// forget the changes made by reverting
+		revertibleProperties = new HashMap<String, PropertyWrapper>();
 	}
 
 	/**
@@ -125,6 +180,24 @@ public class RevertibleSupport implements IRevertible{
 		Object cleanObject = null;
 		Object dirtyObject = null;
 		
+		public String getName(){
+			return name;
+		}
+		
+		/**
+		 * @return the saved value
+		 */
+		public Object getCleanObject(){
+			return cleanObject;
+		}
+		
+		/**
+		 * @return the current value
+		 */
+		public Object getDirtyObject(){
+			return dirtyObject;
+		}
+		
 		public boolean isDirty(){
 			if(cleanObject == dirtyObject){
 				return false;
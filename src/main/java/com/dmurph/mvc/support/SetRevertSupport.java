@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 1:52:08 PM
+ */
+package com.dmurph.mvc.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keeps track of the saved state of a set without copying the set on every save.  Only
+ * the elements added and removed since the last save are kept, so {@link #save()} is constant
+ * time and the memory used is proportional to the number of changes.<br/>
+ * <br/>
+ * The set should call the <code>record</code> methods after every change.
+ * @author Daniel Murphy
+ */
+public class SetRevertSupport<E> {
+	
+	private HashSet<E> added = new HashSet<E>();
+	private HashSet<E> removed = new HashSet<E>();
+	private boolean recording = true;
+	
+	/**
+	 * Records that an element was added to the set.
+	 * @param argElement
+	 */
+	public void recordAdd(E argElement){
+		if(!recording){
+			return;
+		}
+		if(!removed.remove(argElement)){
+			added.add(argElement);
+		}
+	}
+	
+	/**
+	 * Records that an element was removed from the set.
+	 * @param argElement
+	 */
+	public void recordRemove(E argElement){
+		if(!recording){
+			return;
+		}
+		if(!added.remove(argElement)){
+			removed.add(argElement);
+		}
+	}
+	
+	/**
+	 * Records that elements were removed from the set.
+	 * @param argElements
+	 */
+	public void recordRemoveAll(Collection<? extends E> argElements){
+		for(E e : argElements){
+			recordRemove(e);
+		}
+	}
+	
+	/**
+	 * @return if anything was recorded since the last save
+	 */
+	public boolean isChanged(){
+		return !added.isEmpty() || !removed.isEmpty();
+	}
+	
+	/**
+	 * Makes the current state of the set the saved state.
+	 */
+	public void save(){
+		if(isChanged()){
+			added = new HashSet<E>();
+			removed = new HashSet<E>();
+		}
+	}
+	
+	/**
+	 * Makes the given set the saved state.
+	 * @param argCurrent the current set
+	 * @param argSaved the saved set
+	 */
+	public void setSaved(Set<E> argCurrent, Set<E> argSaved){
+		save();
+		for(E e : argCurrent){
+			if(!argSaved.contains(e)){
+				added.add(e);
+			}
+		}
+		for(E e : argSaved){
+			if(!argCurrent.contains(e)){
+				removed.add(e);
+			}
+		}
+	}
+	
+	/**
+	 * Gets a copy of the saved set.
+	 * @param argCurrent the current set
+	 * @return
+	 */
+	public HashSet<E> getSaved(Set<E> argCurrent){
+		HashSet<E> ret = new HashSet<E>(argCurrent);
+		ret.removeAll(added);
+		ret.addAll(removed);
+		return ret;
+	}
+	
+	/**
+	 * Reverts the set to the saved state, by removing the added elements and
+	 * adding back the removed elements through the set methods, so the set fires
+	 * it's normal events.
+	 * @param argSet
+	 */
+	public void revert(Set<E> argSet){
+		ArrayList<E> toRemove = new ArrayList<E>(added);
+		ArrayList<E> toAdd = new ArrayList<E>(removed);
+		recording = false;
+		try{
+			for(E e : toRemove){
+				argSet.remove(e);
+			}
+			for(E e : toAdd){
+				argSet.add(e);
+			}
+		}finally{
+			recording = true;
+		}
+		save();
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 7:20:03 AM
+ */
+package com.dmurph.mvc.support;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * A listener added with {@link MVCPropertyChangeSupport#addWeakPropertyChangeListener(PropertyChangeListener)}.
+ * It only weakly references the real listener, so the listener (and the view that owns it) can be
+ * garbage collected while the model is still around.  Once the listener is collected this is queued,
+ * and the {@link MVCPropertyChangeSupport} removes it the next time it fires an event or a listener
+ * is added or removed.
+ * @author Daniel Murphy
+ */
+public class WeakPropertyChangeListener extends WeakReference<PropertyChangeListener> implements PropertyChangeListener {
+	
+	private final String propertyName;
+	
+	WeakPropertyChangeListener(PropertyChangeListener argListener, String argPropertyName, ReferenceQueue<PropertyChangeListener> argQueue){
+		super(argListener, argQueue);
+		propertyName = argPropertyName;
+	}
+	
+	/**
+	 * @return the listener, or null if it was garbage collected
+	 */
+	public PropertyChangeListener getListener(){
+		return get();
+	}
+	
+	/**
+	 * @return the property the listener was added for, or null if it was added for all properties
+	 */
+	public String getPropertyName(){
+		return propertyName;
+	}
+	
+	/**
+	 * @see java.beans.PropertyChangeListener#propertyChange(java.beans.PropertyChangeEvent)
+	 */
+	public void propertyChange(PropertyChangeEvent argEvt) {
+		PropertyChangeListener listener = get();
+		if(listener != null){
+			listener.propertyChange(argEvt);
+		}
+	}
+}
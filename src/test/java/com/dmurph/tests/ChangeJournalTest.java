@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 8:41:09 AM
+ */
+package com.dmurph.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.io.ChangeJournal;
+import com.dmurph.mvc.io.IJournalListener;
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCHashMap;
+import com.dmurph.mvc.model.MVCHashSet;
+
+/**
+ * @author Daniel Murphy
+ */
+public class ChangeJournalTest extends TestCase {
+	
+	public void testHashModel() throws Exception{
+		HashModel model = new HashModel();
+		model.setProperty("name", "start");
+		ChangeJournal journal = new ChangeJournal(model);
+		
+		model.setProperty("name", "changed");
+		model.setProperty("count", 3);
+		model.beginUpdate();
+		model.setProperty("count", 4);
+		model.setProperty("other", "other");
+		model.commitUpdate();
+		
+		HashModel replica = new HashModel();
+		journal.replay(replica, journal.getStartOffset());
+		assertEquals("changed", replica.getProperty("name"));
+		assertEquals(4, replica.getProperty("count"));
+		assertEquals("other", replica.getProperty("other"));
+	}
+	
+	public void testList() throws Exception{
+		MVCArrayList<String> list = new MVCArrayList<String>();
+		list.add("start");
+		ChangeJournal journal = new ChangeJournal(list);
+		
+		list.addAll(Arrays.asList("a", "b", "c", "d", "e"));
+		list.add(0, "first");
+		list.remove(2);
+		list.set(1, "START");
+		list.removeAll(Arrays.asList("b", "d"));
+		list.removeRange(0, 1);
+		
+		MVCArrayList<String> replica = new MVCArrayList<String>();
+		journal.replay(replica, journal.getStartOffset());
+		assertEquals(list, replica);
+		
+		list.clear();
+		journal.replay(replica, journal.getStartOffset());
+		assertTrue(replica.isEmpty());
+	}
+	
+	public void testSetAndMap() throws Exception{
+		MVCHashSet<String> set = new MVCHashSet<String>();
+		MVCHashMap<String, Integer> map = new MVCHashMap<String, Integer>();
+		ChangeJournal setJournal = new ChangeJournal(set);
+		ChangeJournal mapJournal = new ChangeJournal(map);
+		
+		set.addAll(Arrays.asList("a", "b", "c"));
+		set.remove("b");
+		set.add("d");
+		map.put("a", 1);
+		map.put("b", 2);
+		map.put("a", 3);
+		HashMap<String, Integer> more = new HashMap<String, Integer>();
+		more.put("c", 4);
+		more.put("d", 5);
+		map.putAll(more);
+		map.remove("b");
+		
+		MVCHashSet<String> setReplica = new MVCHashSet<String>();
+		MVCHashMap<String, Integer> mapReplica = new MVCHashMap<String, Integer>();
+		setJournal.replay(setReplica, setJournal.getStartOffset());
+		mapJournal.replay(mapReplica, mapJournal.getStartOffset());
+		assertEquals(set, setReplica);
+		assertEquals(map, mapReplica);
+	}
+	
+	public void testCompaction() throws Exception{
+		MVCArrayList<Integer> list = new MVCArrayList<Integer>();
+		ChangeJournal journal = new ChangeJournal(list);
+		MVCArrayList<Integer> replica = new MVCArrayList<Integer>();
+		long offset = journal.replay(replica, journal.getStartOffset());
+		
+		for(int i=0; i<100; i++){
+			list.add(i);
+		}
+		offset = journal.replay(replica, offset);
+		assertEquals(list, replica);
+		
+		for(int i=0; i<90; i++){
+			list.remove(0);
+		}
+		list.add(100);
+		long end = journal.getEndOffset();
+		long sizeBefore = end - journal.getStartOffset();
+		
+		journal.compact();
+		assertEquals(end, journal.getStartOffset());
+		assertTrue(journal.getEndOffset() - journal.getStartOffset() < sizeBefore);
+		
+		// an offset from before the compaction reads the snapshot
+		journal.replay(replica, offset);
+		assertEquals(list, replica);
+		
+		MVCArrayList<Integer> fresh = new MVCArrayList<Integer>();
+		journal.replay(fresh, journal.getStartOffset());
+		assertEquals(list, fresh);
+		
+		try{
+			journal.replay(fresh, journal.getEndOffset() + 1);
+			fail();
+		}catch(IllegalArgumentException e){}
+	}
+	
+	public void testSubscribe() throws Exception{
+		HashModel model = new HashModel();
+		model.setProperty("name", "start");
+		ChangeJournal journal = new ChangeJournal(model);
+		
+		final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+		final ArrayList<Long> offsets = new ArrayList<Long>();
+		IJournalListener listener = new IJournalListener() {
+			public void entriesAppended(ChangeJournal argJournal, byte[] argEntries, long argEndOffset) {
+				sent.write(argEntries, 0, argEntries.length);
+				offsets.add(argEndOffset);
+			}
+		};
+		// the backlog is sent right away
+		journal.subscribe(listener, journal.getStartOffset());
+		assertEquals(1, offsets.size());
+		
+		model.setProperty("name", "changed");
+		model.setProperty("count", 1);
+		assertEquals(3, offsets.size());
+		assertEquals(journal.getEndOffset(), (long) offsets.get(2));
+		
+		HashModel replica = new HashModel();
+		ChangeJournal.replay(new ByteArrayInputStream(sent.toByteArray()), replica);
+		assertEquals("changed", replica.getProperty("name"));
+		assertEquals(1, replica.getProperty("count"));
+		
+		// resuming from an offset only writes what's new
+		long offset = offsets.get(2);
+		model.setProperty("count", 2);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertEquals(journal.getEndOffset(), journal.writeTo(out, offset));
+		ChangeJournal.replay(new ByteArrayInputStream(out.toByteArray()), replica);
+		assertEquals(2, replica.getProperty("count"));
+		assertEquals("changed", replica.getProperty("name"));
+		
+		journal.unsubscribe(listener);
+		journal.close();
+		model.setProperty("count", 3);
+		assertEquals(4, offsets.size());
+	}
+}
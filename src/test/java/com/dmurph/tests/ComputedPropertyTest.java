@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 12:34:51 PM
+ */
+package com.dmurph.tests;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.model.ComputedProperty;
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.PropertyBinding;
+
+/**
+ * @author Daniel Murphy
+ */
+public class ComputedPropertyTest extends TestCase {
+	
+	private int computed = 0;
+	
+	public void testLazy(){
+		final HashModel order = new HashModel();
+		order.setProperty("quantity", 2);
+		order.setProperty("price", 5);
+		ComputedProperty<Integer> total = new ComputedProperty<Integer>() {
+			@Override
+			protected Integer compute() {
+				computed++;
+				return (Integer) get(order, "quantity") * (Integer) get(order, "price");
+			}
+		};
+		final int[] invalidated = {0};
+		total.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				invalidated[0]++;
+			}
+		});
+		
+		assertEquals(10, (int) total.getValue());
+		assertEquals(10, (int) total.getValue());
+		assertEquals(1, computed);
+		
+		// computed once, when read
+		order.setProperty("quantity", 3);
+		order.setProperty("price", 6);
+		order.setProperty("quantity", 4);
+		assertFalse(total.isValid());
+		assertEquals(1, invalidated[0]);
+		assertEquals(1, computed);
+		assertEquals(24, (int) total.getValue());
+		assertEquals(2, computed);
+		
+		// properties that weren't read don't invalidate it
+		order.setProperty("name", "order");
+		assertTrue(total.isValid());
+		
+		order.beginUpdate();
+		order.setProperty("quantity", 1);
+		order.setProperty("price", 1);
+		order.commitUpdate();
+		assertEquals(2, invalidated[0]);
+		assertEquals(1, (int) total.getValue());
+		assertEquals(3, computed);
+	}
+	
+	public void testDynamicDependencies(){
+		final HashModel form = new HashModel();
+		form.setProperty("useNickname", false);
+		form.setProperty("name", "Robert");
+		form.setProperty("nickname", "Bob");
+		ComputedProperty<Object> label = new ComputedProperty<Object>() {
+			@Override
+			protected Object compute() {
+				return Boolean.TRUE.equals(get(form, "useNickname")) ? get(form, "nickname") : get(form, "name");
+			}
+		};
+		assertEquals("Robert", label.getValue());
+		form.setProperty("nickname", "Bobby");
+		assertTrue(label.isValid());
+		
+		form.setProperty("useNickname", true);
+		assertEquals("Bobby", label.getValue());
+		form.setProperty("name", "Rob");
+		assertTrue(label.isValid());
+		
+		final MVCArrayList<String> items = new MVCArrayList<String>();
+		ComputedProperty<Integer> count = new ComputedProperty<Integer>() {
+			@Override
+			protected Integer compute() {
+				return depend(items).size();
+			}
+		};
+		assertEquals(0, (int) count.getValue());
+		items.add("a");
+		assertEquals(1, (int) count.getValue());
+	}
+	
+	public void testGlitchFree(){
+		final HashModel model = new HashModel();
+		model.setProperty("x", 1);
+		final ComputedProperty<Integer> plusOne = new ComputedProperty<Integer>() {
+			@Override
+			protected Integer compute() {
+				return (Integer) get(model, "x") + 1;
+			}
+		};
+		final ComputedProperty<Integer> doubled = new ComputedProperty<Integer>() {
+			@Override
+			protected Integer compute() {
+				return (Integer) get(model, "x") * 2;
+			}
+		};
+		ComputedProperty<Integer> sum = new ComputedProperty<Integer>() {
+			@Override
+			protected Integer compute() {
+				computed++;
+				return get(plusOne) + get(doubled);
+			}
+		};
+		HashModel view = new HashModel();
+		PropertyBinding.bind(sum, view, "total");
+		assertEquals(4, view.getProperty("total"));
+		
+		final ArrayList<Object> totals = new ArrayList<Object>();
+		view.addPropertyChangeListener("total", new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				totals.add(argEvt.getNewValue());
+			}
+		});
+		model.setProperty("x", 2);
+		model.setProperty("x", 5);
+		// never a total from an old and a new x
+		assertEquals(16, view.getProperty("total"));
+		assertEquals(2, totals.size());
+		assertEquals(7, totals.get(0));
+		assertEquals(16, totals.get(1));
+		assertEquals(3, computed);
+	}
+	
+	public void testBindings(){
+		HashModel one = new HashModel();
+		HashModel two = new HashModel();
+		one.setProperty("name", "one");
+		PropertyBinding binding = PropertyBinding.bind(one, "name", two, "title");
+		assertEquals("one", two.getProperty("title"));
+		one.setProperty("name", "changed");
+		assertEquals("changed", two.getProperty("title"));
+		two.setProperty("title", "other");
+		assertEquals("changed", one.getProperty("name"));
+		binding.unbind();
+		one.setProperty("name", "unbound");
+		assertEquals("other", two.getProperty("title"));
+		
+		binding = PropertyBinding.bindBidirectional(one, "name", two, "title");
+		assertEquals("unbound", two.getProperty("title"));
+		two.setProperty("title", "back");
+		assertEquals("back", one.getProperty("name"));
+		one.setProperty("name", "forth");
+		assertEquals("forth", two.getProperty("title"));
+		binding.unbind();
+	}
+	
+	public void testBoundLifetime() throws Exception{
+		HashModel order = new HashModel();
+		order.setProperty("quantity", 2);
+		order.setProperty("price", 5);
+		HashModel view = new HashModel();
+		// nothing references the binding or the computed property
+		PropertyBinding.bind(newTotal(order), view, "total");
+		
+		ComputedProperty<Integer> unbound = newTotal(order);
+		PropertyBinding binding = PropertyBinding.bind(unbound, view, "otherTotal");
+		binding.unbind();
+		WeakReference<ComputedProperty<Integer>> collected = new WeakReference<ComputedProperty<Integer>>(unbound);
+		binding = null;
+		unbound = null;
+		for(int i=0; i<10 && collected.get() != null; i++){
+			System.gc();
+			Thread.sleep(10);
+		}
+		// once unbound, it's only weakly referenced by its dependencies
+		assertNull(collected.get());
+		
+		order.setProperty("quantity", 3);
+		assertEquals(15, view.getProperty("total"));
+		assertEquals(10, view.getProperty("otherTotal"));
+	}
+	
+	private static ComputedProperty<Integer> newTotal(final HashModel argOrder){
+		return new ComputedProperty<Integer>() {
+			@Override
+			protected Integer compute() {
+				return (Integer) get(argOrder, "quantity") * (Integer) get(argOrder, "price");
+			}
+		};
+	}
+	
+	public void testCycle(){
+		final ComputedProperty<?>[] self = new ComputedProperty<?>[1];
+		self[0] = new ComputedProperty<Object>() {
+			@Override
+			protected Object compute() {
+				return get(self[0]);
+			}
+		};
+		try{
+			self[0].getValue();
+			fail();
+		}catch(IllegalStateException e){}
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 6:58:44 AM
+ */
+package com.dmurph.tests;
+
+import java.awt.EventQueue;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.support.DeferredPropertyChangeListener;
+
+/**
+ * @author Daniel Murphy
+ */
+public class DeferredPropertyChangeListenerTest extends TestCase{
+	
+	private final ArrayList<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+	private final ArrayList<Thread> threads = new ArrayList<Thread>();
+	private final PropertyChangeListener listener = new PropertyChangeListener() {
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			events.add(argEvt);
+			threads.add(Thread.currentThread());
+		}
+	};
+	private final ArrayList<Runnable> scheduled = new ArrayList<Runnable>();
+	private final Executor executor = new Executor() {
+		public void execute(Runnable argCommand) {
+			scheduled.add(argCommand);
+		}
+	};
+	
+	public void testCoalescing(){
+		HashModel model = new HashModel();
+		model.addPropertyChangeListener("name", new DeferredPropertyChangeListener(listener, executor, true));
+		
+		model.setProperty("name", "a");
+		model.setProperty("name", "b");
+		model.setProperty("name", "c");
+		assertTrue(events.isEmpty());
+		assertEquals(1, scheduled.size());
+		
+		scheduled.get(0).run();
+		assertEquals(1, events.size());
+		assertNull(events.get(0).getOldValue());
+		assertEquals("c", events.get(0).getNewValue());
+		
+		// changing back cancels out
+		model.setProperty("name", "d");
+		model.setProperty("name", "c");
+		assertEquals(2, scheduled.size());
+		scheduled.get(1).run();
+		assertEquals(1, events.size());
+	}
+	
+	public void testListEventsKeepOrder(){
+		MVCArrayList<String> list = new MVCArrayList<String>();
+		list.addPropertyChangeListener(new DeferredPropertyChangeListener(listener, executor, true));
+		list.add("a");
+		list.add("b");
+		list.remove(0);
+		assertEquals(1, scheduled.size());
+		scheduled.get(0).run();
+		
+		ArrayList<String> names = new ArrayList<String>();
+		for(PropertyChangeEvent e : events){
+			names.add(e.getPropertyName());
+		}
+		// the size events are coalesced into the first one, in its place, the list events are not
+		assertEquals(Arrays.asList(MVCArrayList.ADDED, MVCArrayList.SIZE, MVCArrayList.DIRTY,
+				MVCArrayList.ADDED, MVCArrayList.REMOVED), names);
+		assertEquals(0, events.get(1).getOldValue());
+		assertEquals(1, events.get(1).getNewValue());
+		
+		list.removePropertyChangeListener(listener);
+		list.add("c");
+		assertEquals(1, scheduled.size());
+	}
+	
+	public void testEventDispatchThread() throws Exception{
+		HashModel model = new HashModel();
+		model.addPropertyChangeListener("name", new DeferredPropertyChangeListener(listener));
+		model.setProperty("name", "a");
+		model.setProperty("name", "b");
+		EventQueue.invokeAndWait(new Runnable() {
+			public void run() {}
+		});
+		// the event queue could run between the changes, so they might not be coalesced
+		assertEquals("b", events.get(events.size() - 1).getNewValue());
+		for(Thread t : threads){
+			assertTrue(t.getName().startsWith("AWT-EventQueue"));
+		}
+	}
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 10:21:44 AM
+ */
+package com.dmurph.tests;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.io.ModelInputStream;
+import com.dmurph.mvc.io.ModelOutputStream;
+import com.dmurph.mvc.model.GenerateModel;
+import com.dmurph.mvc.model.GenerateModelProcessor;
+import com.dmurph.mvc.model.MVCArrayList;
+
+/**
+ * @author Daniel Murphy
+ */
+public class GeneratedModelTest extends TestCase {
+	
+	@GenerateModel
+	public interface IPerson {
+		public String getName();
+		public void setName(String argName);
+		public int getAge();
+		public double getHeight();
+		public boolean isActive();
+		public void setActive(boolean argActive);
+		public MVCArrayList<String> getNicknames();
+	}
+	
+	@GenerateModel
+	public interface IOrder {
+		public String getCustomer();
+		public int getCustomerId();
+	}
+	
+	public void testProperties(){
+		PersonModel person = new PersonModel();
+		final ArrayList<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+		person.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				events.add(argEvt);
+			}
+		});
+		
+		assertEquals("name", PersonModel.NAME);
+		assertEquals(0, PersonModel.ID_NAME);
+		assertEquals(3, PersonModel.ID_ACTIVE);
+		
+		person.setName("Bob");
+		person.setAge(30);
+		assertEquals("Bob", person.getName());
+		assertEquals(30, person.getAge());
+		assertEquals(3, events.size());
+		assertEquals(PersonModel.NAME, events.get(0).getPropertyName());
+		assertEquals(IModel.DIRTY, events.get(1).getPropertyName());
+		assertEquals(PersonModel.AGE, events.get(2).getPropertyName());
+		
+		// setting the same value does nothing
+		person.setName(new String("Bob"));
+		person.setAge(30);
+		person.setHeight(Double.NaN);
+		person.setHeight(Double.NaN);
+		assertEquals(4, events.size());
+		
+		assertEquals(30, person.getProperty("age"));
+		person.setProperty("age", 31);
+		assertEquals(31, person.getAge());
+		try{
+			person.getProperty("weight");
+			fail();
+		}catch(IllegalArgumentException e){}
+		try{
+			person.setProperty("age", null);
+			fail();
+		}catch(IllegalArgumentException e){}
+		assertEquals(31, person.getAge());
+		person.setProperty("name", null);
+		assertNull(person.getName());
+	}
+	
+	public void testRevert(){
+		PersonModel person = new PersonModel();
+		person.setName("Bob");
+		person.setAge(30);
+		person.saveChanges();
+		assertFalse(person.isDirty());
+		
+		person.setName("Robert");
+		person.setActive(true);
+		assertTrue(person.isDirty());
+		assertTrue(person.isDirty(PersonModel.NAME));
+		assertFalse(person.isDirty(PersonModel.AGE));
+		
+		// changed back, so not dirty anymore
+		person.setActive(false);
+		assertFalse(person.isDirty(PersonModel.ACTIVE));
+		
+		person.revertChanges();
+		assertEquals("Bob", person.getName());
+		assertFalse(person.isDirty());
+		
+		person.setRecording(false);
+		person.setAge(40);
+		person.setRecording(true);
+		assertFalse(person.isDirty());
+		person.revertChanges();
+		assertEquals(40, person.getAge());
+	}
+	
+	public void testDirtyProperties(){
+		PersonModel person = new PersonModel();
+		MVCArrayList<String> nicknames = new MVCArrayList<String>();
+		nicknames.add("Bobby");
+		person.setNicknames(nicknames);
+		person.saveChanges();
+		assertFalse(nicknames.isDirty());
+		assertFalse(person.isDirty());
+		
+		final ArrayList<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+		person.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				events.add(argEvt);
+			}
+		});
+		nicknames.add("Rob");
+		assertTrue(person.isDirty());
+		assertTrue(person.isDirty(PersonModel.NICKNAMES));
+		assertFalse(person.isDirty(PersonModel.NAME));
+		assertEquals(1, events.size());
+		assertEquals(IModel.DIRTY, events.get(0).getPropertyName());
+		
+		person.revertChanges();
+		assertEquals(Arrays.asList("Bobby"), nicknames);
+		assertFalse(person.isDirty());
+		
+		nicknames.add("Rob");
+		person.saveChanges();
+		assertFalse(nicknames.isDirty());
+		assertFalse(person.isDirty());
+		
+		// replaced properties aren't tracked anymore
+		person.setNicknames(new MVCArrayList<String>());
+		person.saveChanges();
+		nicknames.add("Robert");
+		assertFalse(person.isDirty());
+		
+		person.getNicknames().add("Robert");
+		PersonModel clone = (PersonModel) person.clone();
+		assertTrue(clone.isDirty());
+		clone.revertChanges();
+		assertTrue(clone.getNicknames().isEmpty());
+		assertFalse(clone.isDirty());
+		assertTrue(person.isDirty());
+	}
+	
+	public void testClone() throws Exception{
+		PersonModel person = new PersonModel();
+		person.setNicknames(new MVCArrayList<String>());
+		person.getNicknames().add("Bobby");
+		person.setName("Bob");
+		
+		PersonModel clone = (PersonModel) person.clone();
+		assertEquals("Bob", clone.getName());
+		assertEquals(person.getNicknames(), clone.getNicknames());
+		assertNotSame(person.getNicknames(), clone.getNicknames());
+		assertTrue(clone.isDirty());
+		clone.revertChanges();
+		assertNull(clone.getName());
+		assertEquals("Bob", person.getName());
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ModelOutputStream out = new ModelOutputStream(bytes);
+		out.writeObject(person);
+		out.close();
+		ModelInputStream in = new ModelInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		PersonModel read = (PersonModel) in.readObject();
+		assertEquals("Bob", read.getName());
+		assertEquals(person.getNicknames(), read.getNicknames());
+		assertTrue(read.isDirty(PersonModel.NAME));
+		read.revertChanges();
+		assertNull(read.getName());
+	}
+	
+	public void testConstants(){
+		OrderModel order = new OrderModel();
+		order.setCustomer("Bob");
+		order.setCustomerId(7);
+		assertEquals("customer", OrderModel.CUSTOMER);
+		assertEquals("customerId", OrderModel.CUSTOMER_ID);
+		assertEquals(0, OrderModel.ID_CUSTOMER);
+		assertEquals(1, OrderModel.ID_CUSTOMER_ID);
+		assertEquals(7, order.getProperty(OrderModel.CUSTOMER_ID));
+	}
+	
+	public void testConstantClash(){
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if(compiler == null){
+			// only a JRE
+			return;
+		}
+		JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///IClash.java"), JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean argIgnoreEncodingErrors) {
+				return "@com.dmurph.mvc.model.GenerateModel public interface IClash { String getName(); String getIdName(); }";
+			}
+		};
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+		Boolean compiled = compiler.getTask(null, null, diagnostics,
+				Arrays.asList("-proc:only", "-processor", GenerateModelProcessor.class.getName(),
+						"-classpath", System.getProperty("java.class.path")), null, Arrays.asList(source)).call();
+		assertFalse(compiled);
+		boolean clash = false;
+		for(Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()){
+			clash |= d.getKind() == Diagnostic.Kind.ERROR && d.getMessage(null).contains("ID_NAME");
+		}
+		assertTrue(clash);
+	}
+}
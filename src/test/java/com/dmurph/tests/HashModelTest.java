@@ -3,9 +3,16 @@
  */
 package com.dmurph.tests;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+
 import junit.framework.TestCase;
 
+import com.dmurph.mvc.IModel;
 import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.support.MVCPropertiesChangedEvent;
 
 /**
  * @author Daniel
@@ -85,4 +92,208 @@ public class HashModelTest extends TestCase{
 		hm.revertChanges();
 		assertEquals("persist", hm2.getProperty("what"));
 	}
+	
+	public void testUpdate(){
+		HashModel hm = new HashModel();
+		hm.setProperty("Test1", "hi");
+		hm.saveChanges();
+		
+		final ArrayList<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+		hm.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				events.add(argEvt);
+			}
+		});
+		
+		hm.beginUpdate();
+		try{
+			for(int i=0; i<100; i++){
+				hm.setProperty("Prop"+i, i);
+			}
+			hm.setProperty("Test1", "changed");
+			hm.setProperty("Test1", "hi");
+		}finally{
+			hm.commitUpdate();
+		}
+		
+		assertEquals(2, events.size());
+		MVCPropertiesChangedEvent evt = (MVCPropertiesChangedEvent) events.get(0);
+		assertEquals(HashModel.PROPERTIES_CHANGED, evt.getPropertyName());
+		assertEquals(100, evt.getPropertyNames().size());
+		assertEquals(false, evt.getPropertyNames().contains("Test1"));
+		assertEquals(5, evt.getNewValue("Prop5"));
+		assertEquals(IModel.DIRTY, events.get(1).getPropertyName());
+		assertEquals(true, hm.isDirty());
+		
+		hm.revertChanges();
+		assertEquals(null, hm.getProperty("Prop5"));
+		assertEquals("hi", hm.getProperty("Test1"));
+		
+		try{
+			hm.commitUpdate();
+			fail("Commit without an update should throw");
+		}catch(IllegalStateException e){}
+	}
+	
+	public void testNestedDirty(){
+		HashModel root = new HashModel();
+		MVCArrayList<HashModel> list = new MVCArrayList<HashModel>();
+		HashModel leaf = new HashModel();
+		list.add(leaf);
+		list.add(leaf);
+		root.setProperty("list", list);
+		root.setDirty(false);
+		assertEquals(false, root.isDirty());
+		
+		final int[] dirtyEvents = new int[1];
+		root.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				if(argEvt.getPropertyName().equals(IModel.DIRTY)){
+					dirtyEvents[0]++;
+				}
+			}
+		});
+		
+		leaf.setProperty("a", 1);
+		leaf.setProperty("b", 2);
+		assertEquals(true, list.isDirty());
+		assertEquals(true, root.isDirty());
+		assertEquals(1, dirtyEvents[0]);
+		
+		// still in the list once
+		list.remove(1);
+		list.setDirty(false);
+		assertEquals(false, leaf.isDirty());
+		assertEquals(false, root.isDirty());
+		assertEquals(2, dirtyEvents[0]);
+		
+		list.remove(0);
+		leaf.setProperty("c", 3);
+		assertEquals(true, root.isDirty());
+		root.setDirty(false);
+		assertEquals(false, root.isDirty());
+	}
+	
+	public void testDirtyHook(){
+		HashModel root = new HashModel(){
+			@Override
+			protected boolean isDirtyImpl(String argProperty, Object argObject) {
+				return !argProperty.equals("ignored") && super.isDirtyImpl(argProperty, argObject);
+			}
+		};
+		HashModel ignored = new HashModel();
+		HashModel watched = new HashModel();
+		root.setProperty("ignored", ignored);
+		root.setProperty("watched", watched);
+		root.setDirty(false);
+		
+		ignored.setProperty("a", 1);
+		assertEquals(false, root.isDirty());
+		watched.setProperty("a", 1);
+		assertEquals(true, root.isDirty());
+	}
+	
+	public void testCloneHook(){
+		HashModel model = new HashModel(){
+			@Override
+			protected Object cloneImpl(String argProperty, Object argObject) {
+				// parents are shared, not cloned
+				return argProperty.equals("parent") ? argObject : super.cloneImpl(argProperty, argObject);
+			}
+		};
+		HashModel parent = new HashModel();
+		HashModel child = new HashModel();
+		model.setProperty("parent", parent);
+		model.setProperty("child", child);
+		
+		HashModel clone = (HashModel) model.clone();
+		assertSame(parent, clone.getProperty("parent"));
+		assertNotSame(child, clone.getProperty("child"));
+	}
+	
+	public void testCloningGraph(){
+		HashModel root = new HashModel();
+		HashModel shared = new HashModel();
+		shared.setProperty("parent", root);
+		MVCArrayList<HashModel> list = new MVCArrayList<HashModel>();
+		list.add(shared);
+		list.add(shared);
+		root.setProperty("shared", shared);
+		root.setProperty("list", list);
+		root.setProperty("self", root);
+		
+		HashModel clone = (HashModel) root.clone();
+		assertNotSame(root, clone);
+		assertSame(clone, clone.getProperty("self"));
+		
+		HashModel sharedClone = (HashModel) clone.getProperty("shared");
+		assertNotSame(shared, sharedClone);
+		assertSame(clone, sharedClone.getProperty("parent"));
+		
+		@SuppressWarnings("unchecked")
+		MVCArrayList<HashModel> listClone = (MVCArrayList<HashModel>) clone.getProperty("list");
+		assertSame(sharedClone, listClone.get(0));
+		assertSame(sharedClone, listClone.get(1));
+	}
+	
+	public void testCloningSavedState(){
+		HashModel root = new HashModel();
+		HashModel child = new HashModel();
+		root.setProperty("child", child);
+		child.setProperty("name", "saved");
+		root.saveChanges();
+		child.setProperty("name", "changed");
+		
+		HashModel clone = (HashModel) root.clone();
+		HashModel childClone = (HashModel) clone.getProperty("child");
+		assertEquals(true, clone.isDirty());
+		clone.revertChanges();
+		assertEquals("saved", childClone.getProperty("name"));
+		assertEquals("changed", child.getProperty("name"));
+		assertEquals(false, clone.isDirty());
+	}
+	
+	public void testPropertyListeners(){
+		HashModel hm = new HashModel();
+		final ArrayList<PropertyChangeEvent> named = new ArrayList<PropertyChangeEvent>();
+		final ArrayList<PropertyChangeEvent> all = new ArrayList<PropertyChangeEvent>();
+		PropertyChangeListener namedListener = new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				named.add(argEvt);
+			}
+		};
+		hm.addPropertyChangeListener("name", namedListener);
+		hm.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				all.add(argEvt);
+			}
+		});
+		
+		hm.setProperty("name", "first");
+		hm.setProperty("other", "value");
+		assertEquals(1, named.size());
+		assertEquals("first", named.get(0).getNewValue());
+		assertTrue(all.size() > 2);
+		
+		hm.removePropertyChangeListener("name", namedListener);
+		hm.setProperty("name", "second");
+		assertEquals(1, named.size());
+	}
+	
+	public void testRecording(){
+		HashModel hm = new HashModel();
+		hm.setRecording(false);
+		hm.setProperty("name", "loaded");
+		hm.setProperty("other", "loaded");
+		hm.setRecording(true);
+		
+		hm.setProperty("name", "edited");
+		// changed back, so there's nothing to revert
+		hm.setProperty("other", "changed");
+		hm.setProperty("other", "loaded");
+		hm.revertChanges();
+		assertEquals("loaded", hm.getProperty("name"));
+		assertEquals("loaded", hm.getProperty("other"));
+		assertEquals(false, hm.isDirty());
+	}
 }
@@ -3,9 +3,26 @@
  */
 package com.dmurph.tests;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+
 import junit.framework.TestCase;
 
+import com.dmurph.mvc.IFilter;
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.model.HashModel;
 import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCIndexedArrayList;
+import com.dmurph.mvc.model.MVCSortedArrayList;
+import com.dmurph.mvc.support.MVCIndexedPropertiesChangedEvent;
+import com.dmurph.mvc.support.MVCPropertiesAddedEvent;
+import com.dmurph.mvc.support.MVCPropertiesRemovedEvent;
 
 /**
  * @author Daniel
@@ -72,6 +89,22 @@ public class MVCArrayListTest extends TestCase{
 		assertEquals(true, hm2.get(2).equals(hm.get(2)));
 	}
 	
+	public void testCloneHook(){
+		MVCArrayList<HashModel> list = new MVCArrayList<HashModel>(){
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected HashModel cloneImpl(HashModel argObject) {
+				// shared, not cloned
+				return argObject;
+			}
+		};
+		HashModel model = new HashModel();
+		list.add(model);
+		MVCArrayList<?> clone = (MVCArrayList<?>) list.clone();
+		assertSame(model, clone.get(0));
+	}
+	
 	public void testReverting(){
 		MVCArrayList<Object> hm = new MVCArrayList<Object>();
 		hm.saveChanges();
@@ -98,4 +131,329 @@ public class MVCArrayListTest extends TestCase{
 		assertEquals(true, hm2.get(0).equals("what"));
 		assertEquals(1, hm2.size());
 	}
+	
+	public void testRevertingManyChanges(){
+		MVCArrayList<Integer> list = new MVCArrayList<Integer>();
+		for(int i=0; i<100; i++){
+			list.add(i);
+		}
+		list.saveChanges();
+		ArrayList<Integer> expected = new ArrayList<Integer>(list);
+		
+		// few changes are undone one by one
+		list.remove(10);
+		list.add(5, -1);
+		list.set(50, -2);
+		list.addAll(20, Arrays.asList(-3, -4, -5));
+		list.remove(Integer.valueOf(70));
+		list.revertChanges();
+		assertEquals(expected, list);
+		assertEquals(false, list.isDirty());
+		
+		// more changes than elements
+		for(int i=0; i<300; i++){
+			list.set(i % 100, -i);
+			if(i % 3 == 0){
+				list.add(i % 50, i);
+				list.remove(0);
+			}
+		}
+		list.revertChanges();
+		assertEquals(expected, list);
+		
+		list.clear();
+		list.add(1);
+		list.revertChanges();
+		assertEquals(expected, list);
+		
+		list.remove(0);
+		list.saveChanges();
+		list.revertChanges();
+		assertEquals(99, list.size());
+		assertEquals(Integer.valueOf(1), list.get(0));
+	}
+	
+	public void testRevertingBulkChanges(){
+		ArrayList<MVCArrayList<Integer>> lists = new ArrayList<MVCArrayList<Integer>>();
+		lists.add(new MVCArrayList<Integer>());
+		lists.add(new MVCIndexedArrayList<Integer>());
+		for(MVCArrayList<Integer> list : lists){
+			for(int i=0; i<20; i++){
+				list.add(i);
+			}
+			list.saveChanges();
+			ArrayList<Integer> expected = new ArrayList<Integer>(list);
+			
+			// the log overflows part way through the transform
+			for(int i=0; i<20; i++){
+				list.set(0, -i);
+			}
+			list.transformAll(new ITransformer<Integer, Integer>() {
+				public Integer transform(Integer argObject) {
+					return argObject + 1000;
+				}
+			});
+			list.revertChanges();
+			assertEquals(expected, list);
+			
+			// bulk removals are undone like other changes
+			list.subList(2, 5).clear();
+			list.removeAll(Arrays.asList(7, 8, 12, 15));
+			list.retainAll(Arrays.asList(0, 1, 6, 9, 10, 19));
+			list.set(0, -1);
+			assertEquals(Arrays.asList(-1, 1, 6, 9, 10, 19), list);
+			list.revertChanges();
+			assertEquals(expected, list);
+		}
+	}
+	
+	public void testBulkOperations(){
+		MVCArrayList<Integer> list = new MVCArrayList<Integer>();
+		for(int i=0; i<20; i++){
+			list.add(i);
+		}
+		list.saveChanges();
+		ArrayList<Integer> expected = new ArrayList<Integer>(list);
+		
+		final ArrayList<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+		list.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				events.add(argEvt);
+			}
+		});
+		
+		list.removeAllMatching(new IFilter<Integer>() {
+			public boolean accept(Integer argObject) {
+				return argObject % 2 == 0;
+			}
+		});
+		assertEquals(10, list.size());
+		// one remove event, the size and dirty
+		assertEquals(3, events.size());
+		MVCPropertiesRemovedEvent evt = (MVCPropertiesRemovedEvent) events.get(0);
+		assertEquals(MVCArrayList.REMOVED_ALL, evt.getPropertyName());
+		assertEquals(false, evt.isContiguous());
+		assertEquals(18, evt.getIndexes()[9]);
+		
+		events.clear();
+		list.removeAll(Arrays.asList(1, 3));
+		list.retainAll(Arrays.asList(5, 7, 9, 11, 13));
+		list.subList(1, 3).clear();
+		assertEquals(Arrays.asList(5, 11, 13), list);
+		assertEquals(6, events.size());
+		evt = (MVCPropertiesRemovedEvent) events.get(4);
+		assertEquals(1, evt.getStartIndex());
+		assertEquals(2, evt.getEndIndex());
+		
+		events.clear();
+		list.transformAll(new ITransformer<Integer, Integer>() {
+			public Integer transform(Integer argObject) {
+				return argObject == 11 ? argObject : argObject * 10;
+			}
+		});
+		assertEquals(Arrays.asList(50, 11, 130), list);
+		MVCIndexedPropertiesChangedEvent changed = (MVCIndexedPropertiesChangedEvent) events.get(0);
+		assertEquals(2, changed.getCount());
+		assertEquals(2, changed.getIndex(1));
+		
+		list.revertChanges();
+		assertEquals(expected, list);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public void testSortedList(){
+		MVCSortedArrayList<Integer> list = new MVCSortedArrayList<Integer>();
+		list.add(5);
+		list.add(1);
+		list.add(3);
+		list.addAll(Arrays.asList(9, 7));
+		list.addAll(Arrays.asList(2, 8));
+		assertEquals(Arrays.asList(1, 2, 3, 5, 7, 8, 9), list);
+		assertEquals(3, list.indexOf(5));
+		assertEquals(-1, list.indexOf(4));
+		assertEquals(false, list.contains("not an integer"));
+		
+		list.set(3, 6);
+		try{
+			list.set(0, 100);
+			fail();
+		}catch(IllegalArgumentException e){}
+		try{
+			list.add(0, 100);
+			fail();
+		}catch(IllegalArgumentException e){}
+		
+		// reverting puts elements back where they were
+		list.saveChanges();
+		list.remove(Integer.valueOf(6));
+		list.add(4);
+		list.set(0, 0);
+		list.revertChanges();
+		assertEquals(Arrays.asList(1, 2, 3, 6, 7, 8, 9), list);
+		
+		// clones are sorted the same way
+		MVCSortedArrayList<Integer> reversed = new MVCSortedArrayList<Integer>(Collections.<Integer>reverseOrder());
+		reversed.addAll(list);
+		MVCSortedArrayList<Integer> clone = (MVCSortedArrayList<Integer>) reversed.clone();
+		assertSame(reversed.getComparator(), clone.getComparator());
+		clone.add(4);
+		assertEquals(Arrays.asList(9, 8, 7, 6, 4, 3, 2, 1), clone);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public void testIndexedList(){
+		MVCIndexedArrayList<HashModel> list = new MVCIndexedArrayList<HashModel>();
+		MVCIndexedArrayList.HashIndex<HashModel, Object> byName = list.addHashIndex("name", new ITransformer<HashModel, Object>() {
+			public Object transform(HashModel argObject) {
+				return argObject.getProperty("name");
+			}
+		});
+		MVCIndexedArrayList.SortedIndex<HashModel, Integer> byAge = list.addSortedIndex("age", new ITransformer<HashModel, Integer>() {
+			public Integer transform(HashModel argObject) {
+				return (Integer) argObject.getProperty("age");
+			}
+		});
+		
+		HashModel[] people = new HashModel[5];
+		for(int i=0; i<people.length; i++){
+			people[i] = new HashModel();
+			people[i].setProperty("name", "person"+(i % 3));
+			people[i].setProperty("age", 20 + i);
+		}
+		list.add(people[0]);
+		list.addAll(Arrays.asList(people).subList(1, 5));
+		assertEquals(Arrays.asList(people[0], people[3]), byName.get("person0"));
+		assertEquals(Arrays.asList(people[1], people[2], people[3]), byAge.getRange(21, 24));
+		
+		list.remove(people[3]);
+		list.set(0, people[3]);
+		assertEquals(Arrays.asList(people[3]), byName.get("person0"));
+		list.removeAll(Arrays.asList(people[1], people[2]));
+		assertEquals(Integer.valueOf(23), byAge.getFirstKey());
+		assertEquals(false, byName.containsKey("person2"));
+		
+		people[4].setProperty("name", "renamed");
+		list.reindex(people[4]);
+		assertSame(people[4], byName.getFirst("renamed"));
+		assertEquals(2, byName.getKeyCount());
+		
+		// the indexes are up to date before the events of an update are fired
+		list.beginUpdate();
+		list.add(people[1]);
+		assertSame(people[1], byName.getFirst("person1"));
+		list.removeRange(0, 1);
+		assertEquals(false, byName.containsKey("person0"));
+		list.commitUpdate();
+		
+		// clones have the same indexes
+		MVCIndexedArrayList<HashModel> clone = (MVCIndexedArrayList<HashModel>) list.clone();
+		MVCIndexedArrayList.HashIndex<HashModel, Object> cloneByName =
+			(MVCIndexedArrayList.HashIndex<HashModel, Object>) clone.getIndex("name");
+		assertEquals(2, cloneByName.getKeyCount());
+		assertNotSame(people[1], cloneByName.getFirst("person1"));
+		assertEquals(21, cloneByName.getFirst("person1").getProperty("age"));
+		assertEquals(Integer.valueOf(21), ((MVCIndexedArrayList.SortedIndex<?, ?>) clone.getIndex("age")).getFirstKey());
+	}
+	
+	public void testUpdate(){
+		MVCArrayList<Integer> list = new MVCArrayList<Integer>();
+		list.add(0);
+		list.setDirty(false);
+		final ArrayList<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+		list.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				events.add(argEvt);
+			}
+		});
+		
+		list.beginUpdate();
+		for(int i=1; i<=100; i++){
+			list.add(i);
+		}
+		list.remove(50);
+		list.set(10, -10);
+		list.beginUpdate();
+		list.set(0, -1);
+		list.commitUpdate();
+		assertTrue(events.isEmpty());
+		assertTrue(list.isUpdating());
+		list.commitUpdate();
+		assertFalse(list.isUpdating());
+		
+		// the adds, remove and set are merged into one range
+		assertEquals(4, events.size());
+		assertEquals(MVCArrayList.ADDED_ALL, events.get(0).getPropertyName());
+		assertEquals(99, ((MVCPropertiesAddedEvent) events.get(0)).getEndIndex() - ((MVCPropertiesAddedEvent) events.get(0)).getStartIndex() + 1);
+		assertTrue(((Collection<?>) events.get(0).getNewValue()).contains(-10));
+		assertEquals(MVCArrayList.CHANGED, events.get(1).getPropertyName());
+		assertEquals(-1, events.get(1).getNewValue());
+		assertEquals(MVCArrayList.SIZE, events.get(2).getPropertyName());
+		assertEquals(100, events.get(2).getNewValue());
+		assertEquals(IModel.DIRTY, events.get(3).getPropertyName());
+		
+		try{
+			list.commitUpdate();
+			fail();
+		}catch(IllegalStateException e){}
+		
+		// an update committed by an executor
+		events.clear();
+		final ArrayList<Runnable> scheduled = new ArrayList<Runnable>();
+		Executor executor = new Executor() {
+			public void execute(Runnable argCommand) {
+				scheduled.add(argCommand);
+			}
+		};
+		list.beginUpdate(executor);
+		list.clear();
+		list.beginUpdate(executor);
+		list.add(1);
+		assertEquals(1, scheduled.size());
+		assertTrue(events.isEmpty());
+		scheduled.get(0).run();
+		assertFalse(list.isUpdating());
+		assertEquals(MVCArrayList.REMOVED_ALL, events.get(0).getPropertyName());
+		assertEquals(0, ((MVCPropertiesRemovedEvent) events.get(0)).getStartIndex());
+		assertEquals(99, ((MVCPropertiesRemovedEvent) events.get(0)).getEndIndex());
+		assertEquals(MVCArrayList.ADDED, events.get(1).getPropertyName());
+		assertEquals(MVCArrayList.SIZE, events.get(2).getPropertyName());
+	}
+	
+	public void testChildBookkeeping(){
+		MVCArrayList<HashModel> list = new MVCArrayList<HashModel>();
+		ArrayList<HashModel> children = new ArrayList<HashModel>();
+		for(int i=0; i<20000; i++){
+			HashModel child = new HashModel();
+			child.setProperty("index", i);
+			child.setDirty(false);
+			children.add(child);
+		}
+		list.addAll(children);
+		// the same child twice
+		list.add(children.get(0));
+		list.setDirty(false);
+		
+		children.get(19999).setProperty("index", -1);
+		assertTrue(list.isDirty());
+		list.setDirty(false);
+		assertFalse(children.get(19999).isDirty());
+		
+		list.removeAll(children.subList(10000, 20000));
+		assertEquals(10001, list.size());
+		list.setDirty(false);
+		children.get(15000).setProperty("index", -1);
+		assertFalse(list.isDirty());
+		
+		// still listening to the remaining occurrence
+		list.remove(0);
+		list.setDirty(false);
+		children.get(0).setProperty("index", -1);
+		assertTrue(list.isDirty());
+		
+		list.clear();
+		list.setDirty(false);
+		children.get(1).setProperty("index", -1);
+		assertFalse(list.isDirty());
+		assertTrue(children.get(1).isDirty());
+	}
 }
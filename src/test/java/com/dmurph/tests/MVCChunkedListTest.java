@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 2:31:17 AM
+ */
+package com.dmurph.tests;
+
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.IFilter;
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCChunkedList;
+import com.dmurph.mvc.support.MVCIndexedPropertiesChangedEvent;
+import com.dmurph.mvc.support.MVCPropertiesAddedEvent;
+import com.dmurph.mvc.support.MVCPropertiesRemovedEvent;
+import com.dmurph.mvc.support.MVCPropertyAddedEvent;
+import com.dmurph.mvc.support.MVCPropertyRemovedEvent;
+
+/**
+ * @author Daniel Murphy
+ */
+public class MVCChunkedListTest extends TestCase {
+	
+	/**
+	 * Makes random changes to a chunked list and an {@link ArrayList}, and
+	 * checks they stay the same, saving and reverting along the way.
+	 */
+	public void testRandomChanges(){
+		final Random random = new Random(3);
+		MVCChunkedList<Integer> list = new MVCChunkedList<Integer>();
+		ArrayList<Integer> expected = new ArrayList<Integer>();
+		List<Object> mirror = mirror(list);
+		ArrayList<Integer> saved = new ArrayList<Integer>();
+		
+		for(int i=0; i<8000; i++){
+			int size = expected.size();
+			int op = random.nextInt(size == 0 ? 3 : 12);
+			switch(op){
+				case 0:
+				case 1:{
+					int index = random.nextInt(size + 1);
+					int value = random.nextInt(1000);
+					list.add(index, value);
+					expected.add(index, value);
+					break;
+				}
+				case 2:{
+					int index = random.nextInt(size + 1);
+					List<Integer> values = new ArrayList<Integer>();
+					int count = random.nextInt(10) == 0 ? 600 : random.nextInt(20);
+					for(int j=0; j<count; j++){
+						values.add(random.nextInt(1000));
+					}
+					list.addAll(index, values);
+					expected.addAll(index, values);
+					break;
+				}
+				case 3:
+				case 4:{
+					int index = random.nextInt(size);
+					assertEquals(expected.remove(index), list.remove(index));
+					break;
+				}
+				case 5:{
+					int index = random.nextInt(size);
+					int value = random.nextInt(1000);
+					assertEquals(expected.set(index, value), list.set(index, value));
+					break;
+				}
+				case 6:{
+					int from = random.nextInt(size);
+					int to = Math.min(size, from + random.nextInt(random.nextBoolean() ? 10 : 1000));
+					list.subList(from, to).clear();
+					expected.subList(from, to).clear();
+					break;
+				}
+				case 7:{
+					final int mod = 5 + random.nextInt(20);
+					IFilter<Integer> filter = new IFilter<Integer>() {
+						public boolean accept(Integer argObject) {
+							return argObject % mod == 0;
+						}
+					};
+					list.removeAllMatching(filter);
+					for(Iterator<Integer> it = expected.iterator(); it.hasNext();){
+						if(filter.accept(it.next())){
+							it.remove();
+						}
+					}
+					break;
+				}
+				case 8:{
+					final int mod = 5 + random.nextInt(20);
+					ITransformer<Integer, Integer> transformer = new ITransformer<Integer, Integer>() {
+						public Integer transform(Integer argObject) {
+							return argObject % mod == 0 ? argObject + 1 : argObject;
+						}
+					};
+					list.transformAll(transformer);
+					for(int j=0; j<expected.size(); j++){
+						expected.set(j, transformer.transform(expected.get(j)));
+					}
+					break;
+				}
+				case 9:
+					if(random.nextInt(20) == 0){
+						list.saveChanges();
+						saved = new ArrayList<Integer>(expected);
+					}
+					break;
+				case 10:
+					if(random.nextInt(30) == 0){
+						list.revertChanges();
+						expected = new ArrayList<Integer>(saved);
+					}
+					break;
+				case 11:{
+					int index = random.nextInt(size);
+					assertEquals(expected.get(index), list.get(index));
+					assertEquals(expected.indexOf(index), list.indexOf(index));
+					break;
+				}
+			}
+			assertEquals(expected.size(), list.size());
+			if(i % 100 == 0){
+				assertEquals(expected, list);
+				assertEquals(expected, mirror);
+				assertEquals(saved, list.getSaved());
+			}
+		}
+		assertEquals(expected, list);
+		assertEquals(expected, mirror);
+	}
+	
+	public void testLargeList(){
+		ArrayList<Integer> elements = new ArrayList<Integer>();
+		for(int i=0; i<1000000; i++){
+			elements.add(i);
+		}
+		MVCChunkedList<Integer> list = new MVCChunkedList<Integer>(elements);
+		assertFalse(list.isDirty());
+		for(int i=0; i<10000; i++){
+			list.add(i * 7, -i);
+			list.remove(500000);
+		}
+		assertEquals(1000000, list.size());
+		assertEquals(Integer.valueOf(0), list.get(0));
+		assertTrue(list.isChanged());
+		
+		list.revertChanges();
+		assertEquals(elements, list);
+		assertFalse(list.isChanged());
+	}
+	
+	public void testCloning(){
+		HashModel model = new HashModel();
+		model.setProperty("name", "first");
+		MVCChunkedList<Object> list = new MVCChunkedList<Object>(Arrays.asList((Object) "a", model, model));
+		list.remove(0);
+		
+		@SuppressWarnings("unchecked")
+		MVCChunkedList<Object> clone = (MVCChunkedList<Object>) list.clone();
+		assertEquals(2, clone.size());
+		assertNotSame(model, clone.get(0));
+		assertSame(clone.get(0), clone.get(1));
+		assertTrue(clone.isChanged());
+		clone.revertChanges();
+		assertEquals("a", clone.get(0));
+		assertEquals(3, clone.size());
+	}
+	
+	// makes a list that only changes from the events of the list
+	private List<Object> mirror(List<?> argList){
+		final ArrayList<Object> mirror = new ArrayList<Object>(argList);
+		((MVCChunkedList<?>) argList).addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				String name = argEvt.getPropertyName();
+				if(MVCArrayList.ADDED.equals(name)){
+					MVCPropertyAddedEvent evt = (MVCPropertyAddedEvent) argEvt;
+					mirror.add(evt.getIndex(), evt.getNewValue());
+				}else if(MVCArrayList.ADDED_ALL.equals(name)){
+					MVCPropertiesAddedEvent evt = (MVCPropertiesAddedEvent) argEvt;
+					mirror.addAll(evt.getStartIndex(), (Collection<?>) evt.getNewValue());
+				}else if(MVCArrayList.REMOVED.equals(name)){
+					MVCPropertyRemovedEvent evt = (MVCPropertyRemovedEvent) argEvt;
+					assertEquals(evt.getOldValue(), mirror.remove(evt.getIndex()));
+				}else if(MVCArrayList.REMOVED_ALL.equals(name)){
+					MVCPropertiesRemovedEvent evt = (MVCPropertiesRemovedEvent) argEvt;
+					int[] indexes = evt.getIndexes();
+					List<?> removed = new ArrayList<Object>((Collection<?>) evt.getOldValue());
+					assertEquals(indexes[indexes.length - 1], evt.getEndIndex());
+					for(int i=indexes.length-1; i>=0; i--){
+						assertEquals(removed.get(i), mirror.remove(indexes[i]));
+					}
+				}else if(MVCArrayList.CHANGED.equals(name)){
+					IndexedPropertyChangeEvent evt = (IndexedPropertyChangeEvent) argEvt;
+					assertEquals(evt.getOldValue(), mirror.set(evt.getIndex(), evt.getNewValue()));
+				}else if(MVCArrayList.CHANGED_ALL.equals(name)){
+					MVCIndexedPropertiesChangedEvent evt = (MVCIndexedPropertiesChangedEvent) argEvt;
+					for(int i=0; i<evt.getCount(); i++){
+						assertEquals(evt.getOldValue(i), mirror.set(evt.getIndex(i), evt.getNewValue(i)));
+					}
+				}
+			}
+		});
+		return mirror;
+	}
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 1:12:08 AM
+ */
+package com.dmurph.tests;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCCopyOnWriteList;
+import com.dmurph.mvc.model.MVCSortedListView;
+import com.dmurph.mvc.support.MVCPropertyAddedEvent;
+
+/**
+ * @author Daniel Murphy
+ */
+public class MVCCopyOnWriteListTest extends TestCase {
+	
+	public void testSnapshots(){
+		MVCCopyOnWriteList<Integer> list = new MVCCopyOnWriteList<Integer>(Arrays.asList(1, 2, 3));
+		Iterator<Integer> it = list.iterator();
+		list.add(4);
+		list.remove(Integer.valueOf(1));
+		ArrayList<Integer> seen = new ArrayList<Integer>();
+		while(it.hasNext()){
+			seen.add(it.next());
+		}
+		assertEquals(Arrays.asList(1, 2, 3), seen);
+		assertEquals(Arrays.asList(2, 3, 4), list);
+		assertFalse(list.addIfAbsent(4));
+		assertTrue(list.addIfAbsent(5));
+	}
+	
+	public void testDirtyAndReverting(){
+		MVCCopyOnWriteList<Object> list = new MVCCopyOnWriteList<Object>();
+		HashModel model = new HashModel();
+		model.setProperty("name", "first");
+		list.add("a");
+		list.add(model);
+		list.saveChanges();
+		assertFalse(list.isDirty());
+		
+		model.setProperty("name", "second");
+		assertTrue(list.isDirty());
+		list.add(0, "b");
+		list.subList(1, 2).clear();
+		list.set(0, "c");
+		list.addAll(Arrays.asList("d", "e", "f"));
+		list.revertChanges();
+		assertEquals(Arrays.asList("a", model), list);
+		assertEquals("first", model.getProperty("name"));
+		assertFalse(list.isDirty());
+		
+		list.remove("a");
+		@SuppressWarnings("unchecked")
+		MVCCopyOnWriteList<Object> clone = (MVCCopyOnWriteList<Object>) list.clone();
+		assertEquals(1, clone.size());
+		assertNotSame(model, clone.get(0));
+		assertEquals("first", ((HashModel) clone.get(0)).getProperty("name"));
+		clone.revertChanges();
+		assertEquals(2, clone.size());
+	}
+	
+	public void testRevertingBulkChanges(){
+		MVCCopyOnWriteList<Integer> list = new MVCCopyOnWriteList<Integer>();
+		for(int i=0; i<20; i++){
+			list.add(i);
+		}
+		list.saveChanges();
+		ArrayList<Integer> expected = new ArrayList<Integer>(list);
+		
+		// the log overflows part way through the transform
+		for(int i=0; i<20; i++){
+			list.set(0, -i);
+		}
+		list.transformAll(new ITransformer<Integer, Integer>() {
+			public Integer transform(Integer argObject) {
+				return argObject + 1000;
+			}
+		});
+		list.revertChanges();
+		assertEquals(expected, list);
+		
+		list.subList(2, 5).clear();
+		list.removeAll(Arrays.asList(7, 8, 12, 15));
+		list.set(0, -1);
+		list.revertChanges();
+		assertEquals(expected, list);
+	}
+	
+	/**
+	 * Several threads add to the list while another reads it.  The events have to
+	 * come in the order the elements were added, and a sorted view has to keep up.
+	 */
+	public void testConcurrentChanges() throws InterruptedException{
+		final MVCCopyOnWriteList<Integer> list = new MVCCopyOnWriteList<Integer>();
+		final List<Object> mirror = Collections.synchronizedList(new ArrayList<Object>());
+		list.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				if(MVCArrayList.ADDED.equals(argEvt.getPropertyName())){
+					MVCPropertyAddedEvent evt = (MVCPropertyAddedEvent) argEvt;
+					mirror.add(evt.getIndex(), evt.getNewValue());
+				}
+			}
+		});
+		MVCSortedListView<Integer> sorted = list.sorted(null);
+		
+		final int threads = 4;
+		final int adds = 2000;
+		final CountDownLatch done = new CountDownLatch(threads);
+		final AtomicBoolean failed = new AtomicBoolean(false);
+		for(int t=0; t<threads; t++){
+			final int start = t * adds;
+			new Thread(){
+				public void run() {
+					for(int i=0; i<adds; i++){
+						if(i % 2 == 0){
+							list.add(start + i);
+						}else{
+							list.add(0, start + i);
+						}
+					}
+					done.countDown();
+				}
+			}.start();
+		}
+		Thread reader = new Thread(){
+			public void run() {
+				// iterating while the list changes never throws
+				try{
+					while(done.getCount() > 0){
+						int sum = 0;
+						for(Integer e : list){
+							sum += e;
+						}
+						if(sum < 0){
+							failed.set(true);
+						}
+					}
+				}catch(RuntimeException e){
+					failed.set(true);
+				}
+			}
+		};
+		reader.start();
+		done.await();
+		reader.join();
+		
+		assertFalse(failed.get());
+		assertEquals(threads * adds, list.size());
+		assertEquals(list, mirror);
+		ArrayList<Integer> expected = new ArrayList<Integer>(list);
+		Collections.sort(expected);
+		assertEquals(expected, sorted);
+	}
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 5:02:26 AM
+ */
+package com.dmurph.tests;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.io.ModelInputStream;
+import com.dmurph.mvc.io.ModelOutputStream;
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.MVCHashMap;
+import com.dmurph.mvc.support.MVCMapChangedEvent;
+
+/**
+ * @author Daniel Murphy
+ */
+public class MVCHashMapTest extends TestCase{
+	
+	private final ArrayList<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+	
+	private void listen(IModel argModel){
+		argModel.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				events.add(argEvt);
+			}
+		});
+	}
+	
+	public void testEvents(){
+		MVCHashMap<String, Integer> map = new MVCHashMap<String, Integer>();
+		listen(map);
+		
+		assertNull(map.put("a", 1));
+		assertEquals(3, events.size());
+		assertEquals(MVCHashMap.PUT, events.get(0).getPropertyName());
+		MVCMapChangedEvent put = (MVCMapChangedEvent) events.get(0);
+		assertFalse(put.wasPresent("a"));
+		assertTrue(put.isPresent("a"));
+		assertEquals(1, put.getNewValue("a"));
+		assertEquals(MVCHashMap.SIZE, events.get(1).getPropertyName());
+		assertEquals(IModel.DIRTY, events.get(2).getPropertyName());
+		
+		events.clear();
+		assertEquals(1, (int) map.put("a", 2));
+		assertEquals(1, events.size());
+		assertEquals(1, ((MVCMapChangedEvent) events.get(0)).getOldValue("a"));
+		
+		events.clear();
+		HashMap<String, Integer> all = new HashMap<String, Integer>();
+		all.put("a", 3);
+		all.put("b", 4);
+		all.put(null, 5);
+		map.putAll(all);
+		assertEquals(2, events.size());
+		MVCMapChangedEvent putAll = (MVCMapChangedEvent) events.get(0);
+		assertEquals(MVCHashMap.PUT_ALL, putAll.getPropertyName());
+		assertEquals(3, putAll.getKeys().size());
+		assertTrue(putAll.wasPresent("a"));
+		assertFalse(putAll.wasPresent(null));
+		assertEquals(3, events.get(1).getNewValue());
+		assertEquals(5, (int) map.get(null));
+		
+		events.clear();
+		assertEquals(5, (int) map.remove(null));
+		assertNull(map.remove("missing"));
+		assertEquals(MVCHashMap.REMOVED, events.get(0).getPropertyName());
+		assertFalse(((MVCMapChangedEvent) events.get(0)).isPresent(null));
+		
+		events.clear();
+		assertTrue(map.keySet().removeAll(Arrays.asList("a", "b", "c")));
+		assertEquals(2, events.size());
+		assertEquals(MVCHashMap.REMOVED_ALL, events.get(0).getPropertyName());
+		assertTrue(map.isEmpty());
+		
+		map.revertChanges();
+		assertEquals(0, map.size());
+		assertFalse(map.isDirty());
+	}
+	
+	public void testRandomOperations(){
+		Random random = new Random(42);
+		MVCHashMap<Integer, Integer> map = new MVCHashMap<Integer, Integer>();
+		HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+		HashMap<Integer, Integer> saved = new HashMap<Integer, Integer>();
+		for(int i=0; i<20000; i++){
+			// small key range so the table has long probe runs and wraps around
+			Integer key = random.nextInt(300) * 1024;
+			switch(random.nextInt(8)){
+				case 0:
+				case 1:
+				case 2:
+					assertEquals(expected.put(key, i), map.put(key, i));
+					break;
+				case 3:
+					assertEquals(expected.remove(key), map.remove(key));
+					break;
+				case 4:{
+					HashMap<Integer, Integer> all = new HashMap<Integer, Integer>();
+					for(int j=0; j<random.nextInt(20); j++){
+						all.put(random.nextInt(300) * 1024, -j);
+					}
+					expected.putAll(all);
+					map.putAll(all);
+					break;
+				}
+				case 5:{
+					// remove some while iterating
+					int before = map.size();
+					Iterator<Integer> it = map.keySet().iterator();
+					int seen = 0;
+					while(it.hasNext()){
+						Integer k = it.next();
+						seen++;
+						assertTrue(expected.containsKey(k));
+						if(random.nextInt(10) == 0){
+							it.remove();
+							expected.remove(k);
+						}
+					}
+					assertEquals(before, seen);
+					break;
+				}
+				case 6:
+					if(random.nextInt(10) == 0){
+						map.saveChanges();
+						saved = new HashMap<Integer, Integer>(expected);
+					}
+					break;
+				case 7:
+					if(random.nextInt(20) == 0){
+						map.revertChanges();
+						expected = new HashMap<Integer, Integer>(saved);
+					}
+					break;
+			}
+			assertEquals(expected.size(), map.size());
+			assertEquals(expected.get(key), map.get(key));
+		}
+		assertEquals(expected, map);
+		assertEquals(expected.hashCode(), map.hashCode());
+		map.revertChanges();
+		assertEquals(saved, map);
+	}
+	
+	public void testIteratorVisitsEachEntryOnce(){
+		MVCHashMap<Integer, Integer> map = new MVCHashMap<Integer, Integer>();
+		for(int i=0; i<1000; i++){
+			map.put(i * 64, i);
+		}
+		HashMap<Integer, Integer> seen = new HashMap<Integer, Integer>();
+		Iterator<Map.Entry<Integer, Integer>> it = map.entrySet().iterator();
+		while(it.hasNext()){
+			Map.Entry<Integer, Integer> e = it.next();
+			assertNull(seen.put(e.getKey(), e.getValue()));
+			it.remove();
+		}
+		assertEquals(1000, seen.size());
+		assertTrue(map.isEmpty());
+	}
+	
+	public void testRemovingOwnKeys(){
+		MVCHashMap<Integer, Integer> map = new MVCHashMap<Integer, Integer>();
+		for(int i=0; i<100; i++){
+			map.put(i, i);
+		}
+		map.saveChanges();
+		listen(map);
+		
+		assertTrue(map.keySet().removeAll(map.keySet()));
+		assertTrue(map.isEmpty());
+		assertEquals(3, events.size());
+		assertEquals(100, ((MVCMapChangedEvent) events.get(0)).getKeys().size());
+		assertFalse(map.keySet().removeAll(map.keySet()));
+		
+		map.revertChanges();
+		assertEquals(100, map.size());
+	}
+	
+	@SuppressWarnings("unchecked")
+	public void testCloningAndStreaming() throws Exception{
+		MVCHashMap<String, HashModel> map = new MVCHashMap<String, HashModel>();
+		HashModel child = new HashModel();
+		child.setProperty("name", "child");
+		map.put("child", child);
+		map.saveChanges();
+		map.put("other", new HashModel());
+		
+		MVCHashMap<String, HashModel> clone = (MVCHashMap<String, HashModel>) map.clone();
+		assertEquals(2, clone.size());
+		assertNotSame(child, clone.get("child"));
+		assertEquals("child", clone.get("child").getProperty("name"));
+		assertTrue(clone.isDirty());
+		clone.revertChanges();
+		assertEquals(1, clone.size());
+		assertEquals(2, map.size());
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ModelOutputStream out = new ModelOutputStream(bytes);
+		out.writeObject(map);
+		out.close();
+		MVCHashMap<String, HashModel> read = (MVCHashMap<String, HashModel>) new ModelInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertEquals(2, read.size());
+		assertTrue(read.isDirty());
+		
+		read.setDirty(false);
+		read.get("child").setProperty("name", "changed");
+		assertTrue(read.isDirty());
+		read.revertChanges();
+		assertEquals(1, read.size());
+		assertEquals("child", read.get("child").getProperty("name"));
+	}
+}
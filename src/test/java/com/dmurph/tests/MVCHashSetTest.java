@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 3:41:52 AM
+ */
+package com.dmurph.tests;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCHashSet;
+import com.dmurph.mvc.support.MVCPropertyRemovedEvent;
+
+/**
+ * @author Daniel Murphy
+ */
+public class MVCHashSetTest extends TestCase{
+	
+	private final ArrayList<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+	
+	private MVCHashSet<Integer> createSet(int argSize){
+		MVCHashSet<Integer> set = new MVCHashSet<Integer>();
+		for(int i=0; i<argSize; i++){
+			set.add(i);
+		}
+		set.saveChanges();
+		set.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				events.add(argEvt);
+			}
+		});
+		return set;
+	}
+	
+	public void testBulkOperations(){
+		MVCHashSet<Integer> set = createSet(10);
+		
+		assertFalse(set.add(5));
+		assertTrue(events.isEmpty());
+		
+		assertTrue(set.addAll(Arrays.asList(8, 9, 10, 11)));
+		assertEquals(3, events.size());
+		assertEquals(MVCHashSet.ADDED_ALL, events.get(0).getPropertyName());
+		assertEquals(2, ((Collection<?>) events.get(0).getNewValue()).size());
+		assertEquals(MVCHashSet.SIZE, events.get(1).getPropertyName());
+		assertEquals(12, events.get(1).getNewValue());
+		assertEquals(IModel.DIRTY, events.get(2).getPropertyName());
+		
+		events.clear();
+		assertTrue(set.remove(0));
+		assertEquals(MVCHashSet.REMOVED, events.get(0).getPropertyName());
+		assertTrue(events.get(0) instanceof MVCPropertyRemovedEvent);
+		assertEquals(MVCHashSet.SIZE, events.get(1).getPropertyName());
+		
+		events.clear();
+		assertTrue(set.removeAll(Arrays.asList(1, 2, 3, 100)));
+		assertEquals(2, events.size());
+		assertEquals(MVCHashSet.REMOVED_ALL, events.get(0).getPropertyName());
+		assertEquals(3, ((Collection<?>) events.get(0).getOldValue()).size());
+		assertEquals(8, events.get(1).getNewValue());
+		assertFalse(set.removeAll(Arrays.asList(1, 2)));
+		
+		events.clear();
+		assertTrue(set.retainAll(Arrays.asList(4, 5, 6)));
+		assertEquals(2, events.size());
+		assertEquals(MVCHashSet.REMOVED_ALL, events.get(0).getPropertyName());
+		assertEquals(5, ((Collection<?>) events.get(0).getOldValue()).size());
+		assertEquals(3, set.size());
+		
+		events.clear();
+		Iterator<Integer> it = set.iterator();
+		it.next();
+		it.remove();
+		assertEquals(2, set.size());
+		assertEquals(MVCHashSet.REMOVED, events.get(0).getPropertyName());
+		
+		set.revertChanges();
+		assertEquals(10, set.size());
+		for(int i=0; i<10; i++){
+			assertTrue(set.contains(i));
+		}
+	}
+	
+	public void testLargeSet(){
+		MVCHashSet<Integer> set = createSet(0);
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		for(int i=0; i<200000; i++){
+			ids.add(i);
+		}
+		set.addAll(ids);
+		set.retainAll(ids.subList(0, 100000));
+		set.removeAll(ids.subList(50000, 200000));
+		assertEquals(50000, set.size());
+		// added, size, dirty, then removed and size twice
+		assertEquals(7, events.size());
+		
+		set.revertChanges();
+		assertTrue(set.isEmpty());
+	}
+	
+	public void testRemovingEqualElement(){
+		MVCHashSet<MVCArrayList<String>> set = new MVCHashSet<MVCArrayList<String>>();
+		MVCArrayList<String> child = new MVCArrayList<String>();
+		child.add("a");
+		set.add(child);
+		set.saveChanges();
+		set.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				events.add(argEvt);
+			}
+		});
+		
+		MVCArrayList<String> equal = new MVCArrayList<String>();
+		equal.add("a");
+		assertTrue(set.remove(equal));
+		assertSame(child, events.get(0).getOldValue());
+		
+		// the removed element isn't listened to anymore
+		set.saveChanges();
+		child.add("b");
+		assertFalse(set.isDirty());
+		child.revertChanges();
+		
+		set.add(child);
+		set.saveChanges();
+		assertTrue(set.removeAll(Arrays.asList(equal)));
+		set.revertChanges();
+		assertSame(child, set.iterator().next());
+		child.add("b");
+		assertTrue(set.isDirty());
+	}
+	
+	public void testRemovingSelf(){
+		MVCHashSet<Integer> set = createSet(10);
+		assertTrue(set.removeAll(set));
+		assertTrue(set.isEmpty());
+		assertEquals(MVCHashSet.REMOVED_ALL, events.get(0).getPropertyName());
+		assertFalse(set.removeAll(set));
+		
+		set.revertChanges();
+		assertEquals(10, set.size());
+	}
+	
+	@SuppressWarnings("unchecked")
+	public void testCloning(){
+		MVCHashSet<HashModel> set = new MVCHashSet<HashModel>();
+		HashModel child = new HashModel();
+		child.setProperty("name", "child");
+		set.add(child);
+		set.setDirty(false);
+		
+		MVCHashSet<HashModel> clone = (MVCHashSet<HashModel>) set.clone();
+		assertEquals(1, clone.size());
+		HashModel clonedChild = clone.iterator().next();
+		assertNotSame(child, clonedChild);
+		assertEquals("child", clonedChild.getProperty("name"));
+		assertFalse(clone.isDirty());
+		
+		clonedChild.setProperty("name", "changed");
+		assertTrue(clone.isDirty());
+		assertFalse(set.isDirty());
+	}
+}
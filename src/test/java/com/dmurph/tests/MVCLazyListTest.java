@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 3:30:02 AM
+ */
+package com.dmurph.tests;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.model.ListPageProvider;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCLazyList;
+import com.dmurph.mvc.support.MVCIndexedPropertiesChangedEvent;
+
+/**
+ * @author Daniel Murphy
+ */
+public class MVCLazyListTest extends TestCase {
+	
+	private static List<Integer> numbers(int argCount){
+		ArrayList<Integer> ret = new ArrayList<Integer>();
+		for(int i=0; i<argCount; i++){
+			ret.add(i);
+		}
+		return ret;
+	}
+	
+	public void testLoadingOnGet(){
+		ListPageProvider<Integer> provider = new ListPageProvider<Integer>(numbers(1050));
+		MVCLazyList<Integer> list = new MVCLazyList<Integer>(provider, 100, 3, null);
+		assertEquals(1050, list.size());
+		assertEquals(0, provider.getPageCount());
+		
+		assertEquals(Integer.valueOf(5), list.get(5));
+		assertEquals(Integer.valueOf(99), list.get(99));
+		assertEquals(Integer.valueOf(1049), list.get(1049));
+		assertEquals(2, provider.getPageCount());
+		
+		// the least recently used page is dropped
+		list.get(200);
+		list.get(5);
+		list.get(300);
+		assertTrue(list.isLoaded(5));
+		assertFalse(list.isLoaded(1049));
+		list.get(1049);
+		assertEquals(5, provider.getPageCount());
+		
+		try{
+			new MVCLazyList<Integer>(provider, 0, 3, null);
+			fail();
+		}catch(IllegalArgumentException e){}
+	}
+	
+	public void testLoadingInBackground(){
+		List<Integer> data = numbers(250);
+		ListPageProvider<Integer> provider = new ListPageProvider<Integer>(data);
+		final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+		MVCLazyList<Integer> list = new MVCLazyList<Integer>(provider, 100, 10, new Executor() {
+			public void execute(Runnable argCommand) {
+				tasks.add(argCommand);
+			}
+		});
+		list.setPlaceholder(-1);
+		final ArrayList<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+		list.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				events.add(argEvt);
+			}
+		});
+		
+		assertEquals(Integer.valueOf(-1), list.get(120));
+		assertEquals(Integer.valueOf(-1), list.get(130));
+		list.prefetch(0, 250);
+		assertEquals(3, tasks.size());
+		
+		tasks.remove(0).run();
+		assertEquals(Integer.valueOf(120), list.get(120));
+		MVCIndexedPropertiesChangedEvent evt = (MVCIndexedPropertiesChangedEvent) events.get(0);
+		assertEquals(MVCArrayList.CHANGED_ALL, evt.getPropertyName());
+		assertEquals(100, evt.getCount());
+		assertEquals(100, evt.getIndex(0));
+		assertEquals(-1, evt.getOldValue(0));
+		assertEquals(100, evt.getNewValue(0));
+		
+		// pages requested before a refresh are ignored
+		data.add(250);
+		list.refresh();
+		events.clear();
+		for(Runnable r : tasks){
+			r.run();
+		}
+		tasks.clear();
+		assertTrue(events.isEmpty());
+		assertEquals(251, list.size());
+		assertEquals(Integer.valueOf(-1), list.get(250));
+		tasks.remove(0).run();
+		assertEquals(Integer.valueOf(250), list.get(250));
+		assertEquals(51, ((MVCIndexedPropertiesChangedEvent) events.get(0)).getCount());
+	}
+}
@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 11:55:31 PM
+ */
+package com.dmurph.tests;
+
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.IFilter;
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCFilteredListView;
+import com.dmurph.mvc.model.MVCMappedListView;
+import com.dmurph.mvc.model.MVCSortedListView;
+import com.dmurph.mvc.support.MVCIndexedPropertiesChangedEvent;
+import com.dmurph.mvc.support.MVCPropertiesAddedEvent;
+import com.dmurph.mvc.support.MVCPropertiesRemovedEvent;
+import com.dmurph.mvc.support.MVCPropertyAddedEvent;
+import com.dmurph.mvc.support.MVCPropertyRemovedEvent;
+
+/**
+ * @author Daniel Murphy
+ */
+public class MVCListViewTest extends TestCase {
+	
+	private static final IFilter<Integer> EVEN = new IFilter<Integer>() {
+		public boolean accept(Integer argObject) {
+			return argObject % 2 == 0;
+		}
+	};
+	
+	private static final Comparator<Integer> DESCENDING = new Comparator<Integer>() {
+		public int compare(Integer argO1, Integer argO2) {
+			return argO2.compareTo(argO1);
+		}
+	};
+	
+	private static final ITransformer<Integer, String> TO_STRING = new ITransformer<Integer, String>() {
+		public String transform(Integer argObject) {
+			return "#"+argObject;
+		}
+	};
+	
+	public void testFiltered(){
+		MVCArrayList<Integer> list = new MVCArrayList<Integer>();
+		list.addAll(Arrays.asList(1, 2, 3, 4, 5, 6));
+		MVCFilteredListView<Integer> view = list.filtered(EVEN);
+		assertEquals(Arrays.asList(2, 4, 6), view);
+		
+		list.add(0, 8);
+		list.remove(Integer.valueOf(4));
+		list.set(0, 9);
+		list.set(0, 10);
+		assertEquals(Arrays.asList(10, 2, 6), view);
+		assertEquals(5, view.getSourceIndex(2));
+		
+		try{
+			view.add(12);
+			fail();
+		}catch(UnsupportedOperationException e){}
+		
+		view.dispose();
+		list.add(12);
+		assertEquals(Arrays.asList(10, 2, 6), view);
+	}
+	
+	public void testSortedAndMapped(){
+		MVCArrayList<Integer> list = new MVCArrayList<Integer>();
+		list.addAll(Arrays.asList(3, 1, 2));
+		MVCSortedListView<Integer> sorted = list.sorted(null);
+		MVCMappedListView<Integer, String> mapped = sorted.mapped(TO_STRING);
+		assertEquals(Arrays.asList(1, 2, 3), sorted);
+		assertEquals(Arrays.asList("#1", "#2", "#3"), mapped);
+		
+		list.add(0);
+		list.set(1, 5);
+		assertEquals(Arrays.asList(0, 2, 3, 5), sorted);
+		assertEquals(Arrays.asList("#0", "#2", "#3", "#5"), mapped);
+		assertEquals(2, sorted.indexOf(3));
+		
+		sorted.setComparator(DESCENDING);
+		assertEquals(Arrays.asList("#5", "#3", "#2", "#0"), mapped);
+	}
+	
+	/**
+	 * Makes random changes to a list, checking that the views are the same as if they
+	 * were built from scratch, and that their events describe each change exactly.
+	 */
+	public void testRandomChanges(){
+		final Random random = new Random(7);
+		MVCArrayList<Integer> list = new MVCArrayList<Integer>();
+		MVCFilteredListView<Integer> filtered = list.filtered(EVEN);
+		MVCSortedListView<Integer> sorted = list.sorted(DESCENDING);
+		MVCMappedListView<Integer, String> mapped = list.mapped(TO_STRING);
+		MVCSortedListView<Integer> filteredSorted = filtered.sorted(null);
+		
+		List<Object> filteredMirror = mirror(filtered);
+		List<Object> sortedMirror = mirror(sorted);
+		List<Object> mappedMirror = mirror(mapped);
+		List<Object> filteredSortedMirror = mirror(filteredSorted);
+		
+		for(int i=0; i<2000; i++){
+			// sometimes make several changes in an update, so they're fired from a change set
+			boolean update = random.nextInt(4) == 0;
+			if(update){
+				list.beginUpdate();
+			}
+			int changes = update ? 1 + random.nextInt(8) : 1;
+			for(int j=0; j<changes; j++){
+				randomChange(list, random);
+			}
+			if(update){
+				list.commitUpdate();
+			}
+			
+			ArrayList<Integer> expected = new ArrayList<Integer>();
+			for(Integer e : list){
+				if(EVEN.accept(e)){
+					expected.add(e);
+				}
+			}
+			assertEquals(expected, filtered);
+			assertEquals(expected, filteredMirror);
+			
+			Collections.sort(expected);
+			assertEquals(expected, filteredSorted);
+			assertEquals(expected, filteredSortedMirror);
+			
+			expected = new ArrayList<Integer>(list);
+			Collections.sort(expected, DESCENDING);
+			assertEquals(expected, sorted);
+			assertEquals(expected, sortedMirror);
+			
+			ArrayList<String> expectedMapped = new ArrayList<String>();
+			for(Integer e : list){
+				expectedMapped.add(TO_STRING.transform(e));
+			}
+			assertEquals(expectedMapped, mapped);
+			assertEquals(expectedMapped, mappedMirror);
+		}
+	}
+	
+	private void randomChange(MVCArrayList<Integer> argList, final Random argRandom){
+		int size = argList.size();
+		switch(argRandom.nextInt(size == 0 ? 2 : 9)){
+			case 0:
+				argList.add(argRandom.nextInt(50));
+				break;
+			case 1:
+				argList.addAll(argRandom.nextInt(size + 1), Arrays.asList(argRandom.nextInt(50), argRandom.nextInt(50), argRandom.nextInt(50)));
+				break;
+			case 2:
+			case 3:
+				argList.remove(argRandom.nextInt(size));
+				break;
+			case 4:
+				argList.set(argRandom.nextInt(size), argRandom.nextInt(50));
+				break;
+			case 5:
+				final int mod = 2 + argRandom.nextInt(5);
+				argList.removeAllMatching(new IFilter<Integer>() {
+					public boolean accept(Integer argObject) {
+						return argObject % mod == 0;
+					}
+				});
+				break;
+			case 6:
+				argList.transformAll(new ITransformer<Integer, Integer>() {
+					public Integer transform(Integer argObject) {
+						return argRandom.nextBoolean() ? argObject : argRandom.nextInt(50);
+					}
+				});
+				break;
+			case 7:
+				int from = argRandom.nextInt(size);
+				argList.subList(from, Math.min(size, from + 3)).clear();
+				break;
+			case 8:
+				if(argRandom.nextInt(10) == 0){
+					argList.clear();
+				}
+				break;
+		}
+	}
+	
+	// makes a list that only changes from the events of the view
+	private List<Object> mirror(List<?> argView){
+		final ArrayList<Object> mirror = new ArrayList<Object>(argView);
+		((IModel) argView).addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				String name = argEvt.getPropertyName();
+				if(MVCArrayList.ADDED.equals(name)){
+					MVCPropertyAddedEvent evt = (MVCPropertyAddedEvent) argEvt;
+					mirror.add(evt.getIndex(), evt.getNewValue());
+				}else if(MVCArrayList.ADDED_ALL.equals(name)){
+					MVCPropertiesAddedEvent evt = (MVCPropertiesAddedEvent) argEvt;
+					Collection<?> added = (Collection<?>) evt.getNewValue();
+					assertEquals(evt.getEndIndex() - evt.getStartIndex() + 1, added.size());
+					mirror.addAll(evt.getStartIndex(), added);
+				}else if(MVCArrayList.REMOVED.equals(name)){
+					MVCPropertyRemovedEvent evt = (MVCPropertyRemovedEvent) argEvt;
+					assertEquals(evt.getOldValue(), mirror.remove(evt.getIndex()));
+				}else if(MVCArrayList.REMOVED_ALL.equals(name)){
+					MVCPropertiesRemovedEvent evt = (MVCPropertiesRemovedEvent) argEvt;
+					int[] indexes = evt.getIndexes();
+					List<?> removed = new ArrayList<Object>((Collection<?>) evt.getOldValue());
+					for(int i=indexes.length-1; i>=0; i--){
+						assertEquals(removed.get(i), mirror.remove(indexes[i]));
+					}
+				}else if(MVCArrayList.CHANGED.equals(name)){
+					IndexedPropertyChangeEvent evt = (IndexedPropertyChangeEvent) argEvt;
+					assertEquals(evt.getOldValue(), mirror.set(evt.getIndex(), evt.getNewValue()));
+				}else if(MVCArrayList.CHANGED_ALL.equals(name)){
+					MVCIndexedPropertiesChangedEvent evt = (MVCIndexedPropertiesChangedEvent) argEvt;
+					for(int i=0; i<evt.getCount(); i++){
+						assertEquals(evt.getOldValue(i), mirror.set(evt.getIndex(i), evt.getNewValue(i)));
+					}
+				}else if(MVCArrayList.SIZE.equals(name)){
+					assertEquals(argEvt.getNewValue(), mirror.size());
+				}
+			}
+		});
+		return mirror;
+	}
+}
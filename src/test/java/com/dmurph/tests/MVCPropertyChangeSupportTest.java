@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 20, 2026, 5:48:10 AM
+ */
+package com.dmurph.tests;
+
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeListenerProxy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.support.ListenerDiagnostics;
+import com.dmurph.mvc.support.MVCPropertyChangeSupport;
+
+/**
+ * @author Daniel Murphy
+ */
+public class MVCPropertyChangeSupportTest extends TestCase{
+	
+	private static class RecordingListener implements PropertyChangeListener, Serializable {
+		private static final long serialVersionUID = 1L;
+		final ArrayList<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+		
+		public void propertyChange(PropertyChangeEvent argEvt) {
+			events.add(argEvt);
+		}
+	}
+	
+	public void testListeners(){
+		Object source = new Object();
+		MVCPropertyChangeSupport support = new MVCPropertyChangeSupport(source);
+		assertFalse(support.hasListeners("name"));
+		
+		RecordingListener all = new RecordingListener();
+		RecordingListener named = new RecordingListener();
+		support.addPropertyChangeListener(all);
+		support.addPropertyChangeListener("name", named);
+		assertEquals(2, support.getPropertyChangeListeners().length);
+		assertEquals(1, support.getPropertyChangeListeners("name").length);
+		
+		support.firePropertyChange("name", "a", "b");
+		support.firePropertyChange("other", 1, 2);
+		support.firePropertyChange("name", "same", "same");
+		support.firePropertyChange("name", null, null);
+		support.fireIndexedPropertyChange("name", 3, "c", "d");
+		assertEquals(4, all.events.size());
+		assertEquals(3, named.events.size());
+		assertSame(source, named.events.get(0).getSource());
+		assertEquals(2, all.events.get(1).getNewValue());
+		assertEquals(3, ((IndexedPropertyChangeEvent) named.events.get(2)).getIndex());
+		
+		support.removePropertyChangeListener(all);
+		support.removePropertyChangeListener(new PropertyChangeListenerProxy("name", named));
+		assertFalse(support.hasListeners("name"));
+		support.firePropertyChange("name", "b", "c");
+		assertEquals(4, all.events.size());
+		assertEquals(3, named.events.size());
+	}
+	
+	public void testChangingListenersWhileFiring(){
+		final MVCPropertyChangeSupport support = new MVCPropertyChangeSupport(this);
+		final RecordingListener added = new RecordingListener();
+		final ArrayList<String> fired = new ArrayList<String>();
+		support.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				fired.add("first");
+				support.removePropertyChangeListener(this);
+				support.addPropertyChangeListener(added);
+			}
+		});
+		support.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {
+				fired.add("second");
+			}
+		});
+		support.firePropertyChange("name", 0, 1);
+		assertEquals(2, fired.size());
+		assertEquals("second", fired.get(1));
+		assertTrue(added.events.isEmpty());
+		
+		support.firePropertyChange("name", 1, 2);
+		assertEquals(3, fired.size());
+		assertEquals(1, added.events.size());
+	}
+	
+	public void testSerialization() throws Exception{
+		MVCPropertyChangeSupport support = new MVCPropertyChangeSupport("source");
+		support.addPropertyChangeListener(new RecordingListener());
+		support.addPropertyChangeListener("name", new RecordingListener());
+		// not serializable, so it's dropped
+		support.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent argEvt) {}
+		});
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(support);
+		out.close();
+		MVCPropertyChangeSupport read = (MVCPropertyChangeSupport) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertEquals(2, read.getPropertyChangeListeners().length);
+		assertEquals(1, read.getPropertyChangeListeners("name").length);
+		read.firePropertyChange("name", 1, 2);
+		assertEquals(1, ((RecordingListener) read.getPropertyChangeListeners("name")[0]).events.size());
+	}
+	
+	public void testWeakListeners() throws Exception{
+		ListenerDiagnostics.setEnabled(true);
+		try{
+			MVCArrayList<String> list = new MVCArrayList<String>();
+			RecordingListener weak = new RecordingListener();
+			RecordingListener strong = new RecordingListener();
+			list.addWeakPropertyChangeListener(weak);
+			list.addWeakPropertyChangeListener(MVCArrayList.SIZE, weak);
+			list.addPropertyChangeListener(strong);
+			
+			list.add("a");
+			assertEquals(strong.events.size() + 1, weak.events.size());
+			assertEquals(Integer.valueOf(3), ListenerDiagnostics.getListenerCounts().get(list));
+			
+			WeakReference<RecordingListener> ref = new WeakReference<RecordingListener>(weak);
+			weak = null;
+			for(int i=0; i<50 && ref.get() != null; i++){
+				System.gc();
+				Thread.sleep(10);
+			}
+			assertNull(ref.get());
+			list.add("b");
+			assertEquals(Integer.valueOf(1), ListenerDiagnostics.getListenerCounts().get(list));
+			
+			RecordingListener removed = new RecordingListener();
+			list.addWeakPropertyChangeListener(removed);
+			list.removePropertyChangeListener(removed);
+			list.add("c");
+			assertTrue(removed.events.isEmpty());
+			assertEquals(1, ListenerDiagnostics.getTotalListenerCount() - countOthers(list));
+		}finally{
+			ListenerDiagnostics.setEnabled(false);
+		}
+	}
+	
+	public void testStaleListenersArePurged() throws Exception{
+		MVCPropertyChangeSupport support = new MVCPropertyChangeSupport(this);
+		RecordingListener listener = new RecordingListener();
+		support.addWeakPropertyChangeListener(listener);
+		support.addWeakPropertyChangeListener("name", listener);
+		assertEquals(2, support.getPropertyChangeListeners().length);
+		
+		WeakReference<RecordingListener> ref = new WeakReference<RecordingListener>(listener);
+		listener = null;
+		for(int i=0; i<50 && ref.get() != null; i++){
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(ref.get());
+		// the collected listeners are queued by the garbage collector's thread, so give it time
+		for(int i=0; i<50 && support.getPropertyChangeListeners().length > 0; i++){
+			support.firePropertyChange("name", i, i + 1);
+			Thread.sleep(10);
+		}
+		assertEquals(0, support.getPropertyChangeListeners().length);
+		assertFalse(support.hasListeners("name"));
+	}
+	
+	// the listeners of tracked models other than the given one
+	private int countOthers(Object argModel){
+		int total = 0;
+		for(Map.Entry<Object, Integer> e : ListenerDiagnostics.getListenerCounts().entrySet()){
+			if(e.getKey() != argModel){
+				total += e.getValue();
+			}
+		}
+		return total;
+	}
+}
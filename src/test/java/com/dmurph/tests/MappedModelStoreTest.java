@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 8:52:16 PM
+ */
+package com.dmurph.tests;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.io.MappedModelStore;
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCHashSet;
+
+/**
+ * @author Daniel Murphy
+ */
+public class MappedModelStoreTest extends TestCase {
+	
+	private File file;
+	
+	@Override
+	protected void setUp() throws Exception {
+		file = File.createTempFile("models", ".log");
+		file.delete();
+	}
+	
+	@Override
+	protected void tearDown() throws Exception {
+		file.delete();
+	}
+	
+	@SuppressWarnings("unchecked")
+	public void testRecovery() throws Exception{
+		HashModel root = new HashModel();
+		MVCArrayList<Object> list = new MVCArrayList<Object>();
+		root.setProperty("name", "root");
+		root.setProperty("list", list);
+		
+		MappedModelStore store = new MappedModelStore(file);
+		store.setRoot(root);
+		int snapshotSize = store.getLogSize();
+		
+		// changes after the snapshot are appended
+		root.setProperty("name", "changed");
+		list.addAll(Arrays.asList("a", "b", "c"));
+		list.remove(1);
+		list.set(0, "A");
+		HashModel child = new HashModel();
+		list.add(child);
+		child.setProperty("parent", root);
+		MVCHashSet<String> set = new MVCHashSet<String>();
+		root.setProperty("set", set);
+		set.addAll(Arrays.asList("x", "y"));
+		set.remove("x");
+		assertTrue(store.getLogSize() > snapshotSize);
+		store.close();
+		
+		store = new MappedModelStore(file);
+		HashModel read = (HashModel) store.getRoot();
+		assertEquals("changed", read.getProperty("name"));
+		MVCArrayList<Object> readList = (MVCArrayList<Object>) read.getProperty("list");
+		assertEquals(Arrays.asList("A", "c"), readList.subList(0, 2));
+		assertSame(read, ((HashModel) readList.get(2)).getProperty("parent"));
+		assertEquals(1, ((MVCHashSet<String>) read.getProperty("set")).size());
+		
+		// the recovered graph is recorded too
+		readList.clear();
+		store.close();
+		store = new MappedModelStore(file);
+		readList = (MVCArrayList<Object>) ((HashModel) store.getRoot()).getProperty("list");
+		assertEquals(0, readList.size());
+		store.close();
+	}
+	
+	public void testSavedChanges() throws Exception{
+		HashModel root = new HashModel();
+		root.setProperty("p", 0);
+		root.saveChanges();
+		MappedModelStore store = new MappedModelStore(file);
+		store.setRoot(root);
+		root.setProperty("p", 1);
+		root.saveChanges();
+		root.setProperty("p", 2);
+		store.close();
+		
+		store = new MappedModelStore(file);
+		HashModel read = (HashModel) store.getRoot();
+		assertTrue(read.isDirty());
+		read.revertChanges();
+		assertEquals(1, read.getProperty("p"));
+		assertFalse(read.isDirty());
+		store.close();
+		
+		// the revert is recorded as well
+		store = new MappedModelStore(file);
+		read = (HashModel) store.getRoot();
+		assertEquals(1, read.getProperty("p"));
+		assertFalse(read.isDirty());
+		store.close();
+	}
+	
+	public void testReplacingWithEqualModel() throws Exception{
+		HashModel root = new HashModel();
+		MVCArrayList<Integer> list = new MVCArrayList<Integer>();
+		list.add(1);
+		root.setProperty("list", list);
+		MappedModelStore store = new MappedModelStore(file);
+		store.setRoot(root);
+		
+		// an equal list is still a different list to record
+		MVCArrayList<Integer> replacement = new MVCArrayList<Integer>();
+		replacement.add(1);
+		root.setProperty("list", replacement);
+		replacement.add(2);
+		store.close();
+		
+		store = new MappedModelStore(file);
+		assertEquals(Arrays.asList(1, 2), ((HashModel) store.getRoot()).getProperty("list"));
+		store.close();
+	}
+	
+	public void testCompaction() throws Exception{
+		HashModel root = new HashModel();
+		MappedModelStore store = new MappedModelStore(file);
+		store.setRoot(root);
+		for(int i=0; i<100000; i++){
+			root.setProperty("count", i);
+		}
+		// the changes would be much bigger than this without compaction
+		assertTrue(store.getLogSize() < 200 * 1024);
+		store.close();
+		
+		store = new MappedModelStore(file);
+		assertEquals(99999, ((HashModel) store.getRoot()).getProperty("count"));
+		store.close();
+	}
+	
+	public void testRemovedModels() throws Exception{
+		HashModel root = new HashModel();
+		MappedModelStore store = new MappedModelStore(file);
+		// so the log isn't compacted because of it's size
+		store.setCompactionThreshold(100000);
+		store.setRoot(root);
+		HashModel first = new HashModel();
+		root.setProperty("child", first);
+		WeakReference<HashModel> removed = new WeakReference<HashModel>(first);
+		first = null;
+		for(int i=0; i<10000; i++){
+			HashModel child = new HashModel();
+			child.setProperty("index", i);
+			root.setProperty("child", child);
+		}
+		// the store forgets the replaced children when the log is compacted
+		for(int i=0; i<10 && removed.get() != null; i++){
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(removed.get());
+		store.close();
+		
+		store = new MappedModelStore(file);
+		assertEquals(9999, ((HashModel) ((HashModel) store.getRoot()).getProperty("child")).getProperty("index"));
+		store.close();
+	}
+}
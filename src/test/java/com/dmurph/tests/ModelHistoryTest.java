@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 4:01:27 PM
+ */
+package com.dmurph.tests;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCHashSet;
+import com.dmurph.mvc.model.ModelHistory;
+
+/**
+ * @author Daniel Murphy
+ */
+public class ModelHistoryTest extends TestCase {
+	
+	public void testUndoRedo(){
+		HashModel hm = new HashModel();
+		MVCArrayList<String> list = new MVCArrayList<String>();
+		hm.setProperty("list", list);
+		
+		ModelHistory history = new ModelHistory();
+		history.setMergeTime(0);
+		history.addModel(hm, true);
+		
+		hm.setProperty("name", "first");
+		list.add("a");
+		list.addAll(Arrays.asList("b", "c", "d"));
+		list.remove("b");
+		list.set(0, "A");
+		list.clear();
+		
+		// embedded models added later are recorded too
+		MVCHashSet<String> set = new MVCHashSet<String>();
+		hm.setProperty("set", set);
+		set.add("x");
+		set.addAll(Arrays.asList("x", "y"));
+		
+		set.remove("x");
+		assertEquals(true, history.undo());
+		assertEquals(true, set.contains("x"));
+		assertEquals(true, history.undo());
+		assertEquals(1, set.size());
+		assertEquals(true, history.undo());
+		assertEquals(0, set.size());
+		assertEquals(true, history.undo());
+		assertEquals(null, hm.getProperty("set"));
+		
+		assertEquals(true, history.undo());
+		assertEquals(Arrays.asList("A", "c", "d"), list);
+		assertEquals(true, history.undo());
+		assertEquals(Arrays.asList("a", "c", "d"), list);
+		assertEquals(true, history.undo());
+		assertEquals(Arrays.asList("a", "b", "c", "d"), list);
+		assertEquals(true, history.undo());
+		assertEquals(true, history.undo());
+		assertEquals(0, list.size());
+		assertEquals(true, history.undo());
+		assertEquals(null, hm.getProperty("name"));
+		assertEquals(false, history.undo());
+		
+		assertEquals(true, history.redo());
+		assertEquals("first", hm.getProperty("name"));
+		while(history.redo()){}
+		assertEquals(0, list.size());
+		assertEquals(set, hm.getProperty("set"));
+		assertEquals(1, set.size());
+		assertEquals(true, set.contains("y"));
+	}
+	
+	public void testMergingAndCompound(){
+		HashModel hm = new HashModel();
+		ModelHistory history = new ModelHistory();
+		history.setMergeTime(10000);
+		history.addModel(hm, false);
+		
+		hm.setProperty("text", "h");
+		hm.setProperty("text", "he");
+		hm.setProperty("text", "hel");
+		history.undo();
+		assertEquals(null, hm.getProperty("text"));
+		assertEquals(false, history.canUndo());
+		
+		history.beginCompoundEdit();
+		hm.setProperty("a", 1);
+		hm.setProperty("b", 2);
+		history.endCompoundEdit();
+		history.undo();
+		assertEquals(null, hm.getProperty("a"));
+		assertEquals(null, hm.getProperty("b"));
+	}
+	
+	public void testMaxSize(){
+		MVCArrayList<Integer> list = new MVCArrayList<Integer>();
+		ModelHistory history = new ModelHistory();
+		history.setMaxSize(10);
+		history.addModel(list, false);
+		for(int i=0; i<20; i++){
+			list.add(i);
+		}
+		int undos = 0;
+		while(history.undo()){
+			undos++;
+		}
+		assertEquals(10, undos);
+		assertEquals(10, list.size());
+	}
+	
+	public void testBulkListEdits(){
+		MVCArrayList<Integer> list = new MVCArrayList<Integer>();
+		list.addAll(Arrays.asList(1, 2, 3, 4, 5, 6));
+		ModelHistory history = new ModelHistory();
+		history.setMergeTime(0);
+		history.addModel(list, true);
+		
+		list.removeAll(Arrays.asList(2, 5));
+		list.transformAll(new ITransformer<Integer, Integer>() {
+			public Integer transform(Integer argObject) {
+				return argObject * 2;
+			}
+		});
+		list.removeRange(0, 2);
+		assertEquals(Arrays.asList(8, 12), list);
+		
+		assertEquals(true, history.undo());
+		assertEquals(Arrays.asList(2, 6, 8, 12), list);
+		assertEquals(true, history.undo());
+		assertEquals(Arrays.asList(1, 3, 4, 6), list);
+		assertEquals(true, history.undo());
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), list);
+		
+		assertEquals(true, history.redo());
+		assertEquals(Arrays.asList(1, 3, 4, 6), list);
+		assertEquals(true, history.redo());
+		assertEquals(true, history.redo());
+		assertEquals(Arrays.asList(8, 12), list);
+	}
+	
+	public void testConcurrentUndo() throws InterruptedException{
+		final HashModel hm = new HashModel();
+		final ModelHistory history = new ModelHistory();
+		history.setMergeTime(0);
+		history.addModel(hm, false);
+		hm.setProperty("count", 0);
+		
+		// undo locks the model after the history, and recording locks the history after the model
+		Thread editor = new Thread(new Runnable() {
+			public void run() {
+				for(int i=0; i<2000; i++){
+					hm.setProperty("count", i);
+				}
+			}
+		});
+		Thread undoer = new Thread(new Runnable() {
+			public void run() {
+				for(int i=0; i<2000; i++){
+					history.undo();
+				}
+			}
+		});
+		editor.start();
+		undoer.start();
+		editor.join(10000);
+		undoer.join(10000);
+		assertEquals(false, editor.isAlive());
+		assertEquals(false, undoer.isAlive());
+	}
+}
@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2010 Daniel Murphy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * Created at Oct 19, 2026, 7:15:02 PM
+ */
+package com.dmurph.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import com.dmurph.mvc.IModel;
+import com.dmurph.mvc.ITransformer;
+import com.dmurph.mvc.MVCEvent;
+import com.dmurph.mvc.ObjectEvent;
+import com.dmurph.mvc.io.ModelInputStream;
+import com.dmurph.mvc.io.ModelOutputStream;
+import com.dmurph.mvc.model.HashModel;
+import com.dmurph.mvc.model.HashModel.PropertyType;
+import com.dmurph.mvc.model.MVCArrayList;
+import com.dmurph.mvc.model.MVCHashSet;
+import com.dmurph.mvc.model.MVCIndexedArrayList;
+import com.dmurph.mvc.model.MVCSortedArrayList;
+
+/**
+ * @author Daniel Murphy
+ */
+public class ModelStreamTest extends TestCase {
+	
+	public void testGraph() throws Exception{
+		HashModel root = new HashModel();
+		HashModel child = new HashModel();
+		MVCArrayList<Object> list = new MVCArrayList<Object>();
+		MVCHashSet<String> set = new MVCHashSet<String>();
+		root.setProperty("name", "root");
+		root.setProperty("count", -12);
+		root.setProperty("big", Long.MAX_VALUE);
+		root.setProperty("ratio", 0.25);
+		root.setProperty("type", PropertyType.FINAL);
+		root.setProperty("list", list);
+		root.setProperty("set", set);
+		child.setProperty("parent", root);
+		list.add(child);
+		list.add(child);
+		list.add("root");
+		set.add("a");
+		set.add("b");
+		
+		HashModel read = (HashModel) roundTrip(root);
+		assertEquals("root", read.getProperty("name"));
+		assertEquals(-12, read.getProperty("count"));
+		assertEquals(Long.MAX_VALUE, read.getProperty("big"));
+		assertEquals(0.25, read.getProperty("ratio"));
+		assertEquals(PropertyType.FINAL, read.getProperty("type"));
+		assertEquals(true, read.isDirty());
+		
+		MVCArrayList<?> readList = (MVCArrayList<?>) read.getProperty("list");
+		assertEquals(3, readList.size());
+		assertSame(readList.get(0), readList.get(1));
+		assertSame(read, ((HashModel) readList.get(0)).getProperty("parent"));
+		assertEquals("root", readList.get(2));
+		assertEquals(set, read.getProperty("set"));
+	}
+	
+	public void testSavedState() throws Exception{
+		HashModel model = new HashModel();
+		MVCArrayList<String> list = new MVCArrayList<String>();
+		model.setProperty("name", "first");
+		model.setProperty("list", list);
+		list.addAll(Arrays.asList("a", "b"));
+		model.saveChanges();
+		model.setProperty("name", "second");
+		list.add("c");
+		
+		HashModel read = (HashModel) roundTrip(model);
+		MVCArrayList<?> readList = (MVCArrayList<?>) read.getProperty("list");
+		assertEquals(true, read.isDirty());
+		assertEquals(true, readList.isDirty());
+		assertEquals(Arrays.asList("a", "b", "c"), readList);
+		
+		read.revertChanges();
+		assertEquals("first", read.getProperty("name"));
+		assertEquals(Arrays.asList("a", "b"), readList);
+		assertEquals(false, read.isDirty());
+	}
+	
+	public void testStreaming() throws Exception{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ModelOutputStream out = new ModelOutputStream(bytes);
+		HashModel model = new HashModel();
+		model.setProperty("name", "model");
+		out.writeObject(model);
+		out.writeObject(model);
+		out.writeObject(new ObjectEvent<Object>("event", model));
+		out.reset();
+		out.writeObject(model);
+		out.writeObject(new MVCEvent("event"));
+		out.close();
+		
+		ModelInputStream in = new ModelInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		HashModel first = (HashModel) in.readObject();
+		assertSame(first, in.readObject());
+		assertSame(first, ((ObjectEvent<?>) in.readObject()).getValue());
+		HashModel afterReset = (HashModel) in.readObject();
+		assertNotSame(first, afterReset);
+		assertEquals("model", afterReset.getProperty("name"));
+		assertEquals("event", ((MVCEvent) in.readObject()).key);
+		assertEquals(-1, in.read());
+	}
+	
+	public void testCompact() throws Exception{
+		MVCArrayList<HashModel> list = new MVCArrayList<HashModel>();
+		for(int i=0; i<100; i++){
+			HashModel model = new HashModel();
+			model.setProperty("id", i);
+			model.setProperty("name", "model");
+			list.add(model);
+		}
+		list.saveChanges();
+		
+		ByteArrayOutputStream written = new ByteArrayOutputStream();
+		ModelOutputStream out = new ModelOutputStream(written);
+		out.writeObject(list);
+		out.close();
+		// property names and values are only written once
+		assertTrue(written.size() < 100 * 20);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public void testListConfiguration() throws Exception{
+		MVCSortedArrayList<Integer> sorted = new MVCSortedArrayList<Integer>(Collections.<Integer>reverseOrder());
+		sorted.addAll(Arrays.asList(1, 3, 2));
+		MVCSortedArrayList<Integer> readSorted = (MVCSortedArrayList<Integer>) roundTrip(sorted);
+		assertEquals(Arrays.asList(3, 2, 1), readSorted);
+		readSorted.add(4);
+		readSorted.add(0);
+		assertEquals(Arrays.asList(4, 3, 2, 1, 0), readSorted);
+		
+		MVCIndexedArrayList<HashModel> indexed = new MVCIndexedArrayList<HashModel>();
+		indexed.addHashIndex("name", new NameExtractor());
+		for(int i=0; i<3; i++){
+			HashModel model = new HashModel();
+			model.setProperty("name", "model"+i);
+			indexed.add(model);
+		}
+		MVCIndexedArrayList<HashModel> readIndexed = (MVCIndexedArrayList<HashModel>) roundTrip(indexed);
+		MVCIndexedArrayList.HashIndex<HashModel, Object> byName =
+			(MVCIndexedArrayList.HashIndex<HashModel, Object>) readIndexed.getIndex("name");
+		assertEquals(3, byName.getKeyCount());
+		assertSame(readIndexed.get(1), byName.getFirst("model1"));
+		HashModel added = new HashModel();
+		added.setProperty("name", "added");
+		readIndexed.add(added);
+		assertSame(added, byName.getFirst("added"));
+	}
+	
+	public void testCorruptLength() throws Exception{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ModelOutputStream out = new ModelOutputStream(bytes);
+		out.writeObject(new byte[0]);
+		out.close();
+		byte[] written = bytes.toByteArray();
+		// replace the zero length of the array with a huge one
+		byte[] corrupt = new byte[written.length + 4];
+		System.arraycopy(written, 0, corrupt, 0, written.length - 1);
+		corrupt[written.length - 1] = (byte) 0xFF;
+		corrupt[written.length] = (byte) 0xFF;
+		corrupt[written.length + 1] = (byte) 0xFF;
+		corrupt[written.length + 2] = (byte) 0xFF;
+		corrupt[written.length + 3] = 0x07;
+		
+		ModelInputStream in = new ModelInputStream(new ByteArrayInputStream(corrupt));
+		try{
+			in.readObject();
+			fail();
+		}catch(EOFException e){}
+	}
+	
+	private static IModel roundTrip(IModel argModel) throws IOException, ClassNotFoundException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ModelOutputStream out = new ModelOutputStream(bytes);
+		out.writeObject(argModel);
+		out.close();
+		ModelInputStream in = new ModelInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		IModel model = (IModel) in.readObject();
+		in.close();
+		return model;
+	}
+	
+	private static class NameExtractor implements ITransformer<HashModel, Object>, Serializable{
+		private static final long serialVersionUID = 1L;
+		
+		public Object transform(HashModel argObject) {
+			return argObject.getProperty("name");
+		}
+	}
+}